@@ -0,0 +1,132 @@
+package benchmark;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ *  Baseline
+ *
+ * The reference results of the scenarios, kept as a properties file of scenario.metric=value checked in with the
+ * sources, along with a description of the machine they were recorded on (machine.*). A result regresses when it is
+ * worse than its reference by more than the tolerance, a fraction of the reference.
+ *
+ * Only the bytes allocated per step are compared by default: they depend on the engine, not on the machine. Throughput
+ * is only compared given a calibration run of the machine the results come from, its reference being scaled by how
+ * much faster that machine is than the one the baseline was recorded on. The peak heap depends on when the GC runs,
+ * it is recorded but never compared.
+ */
+public class Baseline {
+
+    /**  metrics recorded */
+    private static final String[] METRICS = {
+            ScenarioResult.STEPS_PER_SECOND, ScenarioResult.BYTES_PER_STEP, ScenarioResult.PEAK_HEAP_BYTES };
+
+    /**  keys of the machine the baseline was recorded on */
+    public static final String MACHINE_CPUS = "machine.cpus";
+    public static final String MACHINE_OS = "machine.os";
+    public static final String MACHINE_JVM = "machine.jvm";
+    public static final String MACHINE_CALIBRATION = "machine.calibration";
+
+    /**  allocations smaller than this many bytes per step are never a regression, a few bytes are only noise */
+    public static final double MIN_BYTES_PER_STEP_SLACK = 16;
+
+    private final Properties values = new Properties();
+
+    /** @return the baseline read from @param file, empty if the file does not exist */
+    public static Baseline load(File file) throws IOException {
+        Baseline baseline = new Baseline();
+        if (file.exists()) {
+            try (InputStream in = new FileInputStream(file)) {
+                baseline.values.load(in);
+            }
+        }
+        return baseline;
+    }
+
+    public void save(File file) throws IOException {
+        // sorted so that the file diffs well
+        List<String> keys = new ArrayList<>(values.stringPropertyNames());
+        Collections.sort(keys);
+        try (PrintWriter out = new PrintWriter(new FileWriter(file))) {
+            out.println("# reference results of the benchmark scenarios, regenerate with ./gradlew benchmark -Pbenchmark.record");
+            out.println("# machine.* describes the machine they were recorded on, whose calibration scales the throughput");
+            for (String key : keys)
+                out.println(key + "=" + values.getProperty(key));
+        }
+    }
+
+    /**
+     *  records the current machine as the one the baseline was recorded on
+     * @param calibration result of ScenarioBenchmark.calibrate() on this machine
+     */
+    public void recordMachine(double calibration) {
+        values.setProperty(MACHINE_CPUS, Integer.toString(Runtime.getRuntime().availableProcessors()));
+        values.setProperty(MACHINE_OS, System.getProperty("os.name") + " " + System.getProperty("os.version") + " "
+                + System.getProperty("os.arch"));
+        values.setProperty(MACHINE_JVM, System.getProperty("java.vm.name") + " " + System.getProperty("java.version"));
+        values.setProperty(MACHINE_CALIBRATION, String.format(Locale.ROOT, "%.1f", calibration));
+    }
+
+    /** @return the calibration of the machine the baseline was recorded on, NaN if there is none */
+    public double getCalibration() {
+        String value = values.getProperty(MACHINE_CALIBRATION);
+        return (value == null) ? Double.NaN : Double.parseDouble(value);
+    }
+
+    /** @return the machine the baseline was recorded on, as recorded */
+    public String getMachine() {
+        return String.format("%s cpus, %s, %s", values.getProperty(MACHINE_CPUS, "?"),
+                values.getProperty(MACHINE_OS, "?"), values.getProperty(MACHINE_JVM, "?"));
+    }
+
+    /**  replaces the reference values of the scenario of @param result */
+    public void record(ScenarioResult result) {
+        for (String metric : METRICS) {
+            double value = result.get(metric);
+            if (value >= 0)
+                values.setProperty(key(result.getScenario(), metric), String.format(Locale.ROOT, "%.1f", value));
+        }
+    }
+
+    /** @return the reference value of @param metric for @param scenario, NaN if there is none */
+    public double get(String scenario, String metric) {
+        String value = values.getProperty(key(scenario, metric));
+        return (value == null) ? Double.NaN : Double.parseDouble(value);
+    }
+
+    /**
+     * @param tolerance fraction of the reference values a result may be worse by
+     * @param calibration result of ScenarioBenchmark.calibrate() on the machine @param result comes from, NaN not to
+     * compare the throughput
+     * @return a description of every metric of @param result that regressed, empty if none did. Metrics without a
+     * reference value or that could not be measured are not compared, nor is the throughput when the baseline has no
+     * calibration.
+     */
+    public List<String> regressions(ScenarioResult result, double tolerance, double calibration) {
+        List<String> regressions = new ArrayList<>();
+
+        final double bytes = result.getBytesPerStep();
+        final double bytesReference = get(result.getScenario(), ScenarioResult.BYTES_PER_STEP);
+        final double slack = Math.max(bytesReference * tolerance, MIN_BYTES_PER_STEP_SLACK);
+        if (false == Double.isNaN(bytesReference) && bytes >= 0 && bytes > bytesReference + slack)
+            regressions.add(regression(result.getScenario(), ScenarioResult.BYTES_PER_STEP, bytes, bytesReference));
+
+        // the reference throughput as it would be on the machine of the result
+        final double speed = calibration / getCalibration();
+        final double throughputReference = get(result.getScenario(), ScenarioResult.STEPS_PER_SECOND) * speed;
+        final double throughput = result.getStepsPerSecond();
+        if (false == Double.isNaN(throughputReference) && throughput < throughputReference * (1 - tolerance))
+            regressions.add(regression(result.getScenario(), ScenarioResult.STEPS_PER_SECOND, throughput,
+                    throughputReference));
+        return regressions;
+    }
+
+    private static String regression(String scenario, String metric, double value, double reference) {
+        return String.format(Locale.ROOT, "%s %s: %.1f against %.1f in the baseline (%+.1f%%)", scenario, metric, value,
+                reference, 100 * (value - reference) / reference);
+    }
+
+    private static String key(String scenario, String metric) {
+        return scenario + "." + metric;
+    }
+}
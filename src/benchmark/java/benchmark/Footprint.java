@@ -0,0 +1,98 @@
+package benchmark;
+
+import core.LifeAgent;
+import core.Surface;
+
+import java.util.*;
+
+/**
+ *  Footprint
+ *
+ * Retained heap of the parts of a world, as measured by FootprintReport, and the size of the largest world that fits
+ * in a given heap. Agent costs include the IdPool entry of the agent, which stays in the pool after the agent died.
+ */
+public final class Footprint {
+
+    /**  bytes per LifeCell of a world without agents, surface layer disabled */
+    private final double bytesPerCell;
+
+    /**  bytes per LifeCell of a world without agents, surface layer enabled */
+    private final double bytesPerLayerCell;
+
+    /**  bytes per agent of each type, in the order in which they were measured */
+    private final Map<Class<? extends LifeAgent>, Double> bytesPerAgent;
+
+    /**  bytes per id kept by the IdPool */
+    private final double bytesPerId;
+
+    /**  heap in use before any world was created */
+    private final long baseHeap;
+
+    public Footprint(double bytesPerCell, double bytesPerLayerCell, Map<Class<? extends LifeAgent>, Double> bytesPerAgent,
+                     double bytesPerId, long baseHeap) {
+        this.bytesPerCell = bytesPerCell;
+        this.bytesPerLayerCell = bytesPerLayerCell;
+        this.bytesPerAgent = Collections.unmodifiableMap(new LinkedHashMap<>(bytesPerAgent));
+        this.bytesPerId = bytesPerId;
+        this.baseHeap = baseHeap;
+    }
+
+    public double getBytesPerCell() {
+        return bytesPerCell;
+    }
+
+    public double getBytesPerLayerCell() {
+        return bytesPerLayerCell;
+    }
+
+    public Map<Class<? extends LifeAgent>, Double> getBytesPerAgent() {
+        return bytesPerAgent;
+    }
+
+    /** @return bytes per agent of @param type, including its IdPool entry */
+    public double getBytesPerAgent(Class<? extends LifeAgent> type) {
+        Double bytes = bytesPerAgent.get(type);
+        if (bytes == null)
+            throw new IllegalArgumentException("Footprint of " + type.getSimpleName() + " was not measured");
+        return bytes;
+    }
+
+    public double getBytesPerId() {
+        return bytesPerId;
+    }
+
+    public long getBaseHeap() {
+        return baseHeap;
+    }
+
+    /**
+     * @param density number of agents of each type per cell, a type missing from the map has none
+     * @param surfaceLayer when true surfaces cost nothing per agent, their energy being held by the layer
+     * @return bytes retained per cell of a world with the given density of agents
+     */
+    public double bytesPerWorldCell(Map<Class<? extends LifeAgent>, Double> density, boolean surfaceLayer) {
+        double bytes = surfaceLayer ? bytesPerLayerCell : bytesPerCell;
+        for (Map.Entry<Class<? extends LifeAgent>, Double> e : density.entrySet()) {
+            if (surfaceLayer && Surface.class.isAssignableFrom(e.getKey()))
+                continue;
+            bytes += e.getValue() * getBytesPerAgent(e.getKey());
+        }
+        return bytes;
+    }
+
+    /**
+     * @param heapBytes maximum heap, typically the -Xmx of the run
+     * @param usable fraction of the heap that the world may retain, the rest being left to the garbage produced while
+     *               stepping and to the ids of the agents born
+     * @return the side of the largest square world of the given density that fits, 0 if none does
+     */
+    public int maxSquareSide(long heapBytes, double usable, Map<Class<? extends LifeAgent>, Double> density,
+                             boolean surfaceLayer) {
+        if (false == (usable > 0 && usable <= 1))
+            throw new IllegalArgumentException("Footprint usable fraction must be in (0, 1]: " + usable);
+        final double available = heapBytes * usable - baseHeap;
+        if (available <= 0)
+            return 0;
+        return (int) Math.floor(Math.sqrt(available / bytesPerWorldCell(density, surfaceLayer)));
+    }
+}
@@ -0,0 +1,211 @@
+package benchmark;
+
+import core.*;
+import core.exceptions.LifeException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ *  FootprintReport
+ *
+ * Builds worlds of increasing size and population and measures the heap they retain after a full GC, to report the
+ * bytes per LifeCell, per Wolf, Deer and Grass and per IdPool entry, and the largest square world that fits in a
+ * given heap. Each cost is the slope of the retained heap against the number of cells, agents or ids, so that what
+ * does not grow with the world does not count. Run with ./gradlew footprint, which sets the system properties below.
+ *
+ *  footprint.xmx      heap to size the worlds for, e.g. 8g or 512m, default the max heap of this JVM
+ *  footprint.density  agents of each type per cell of the sized worlds, default that of the default options
+ *  footprint.usable   fraction of the heap the world may retain, default 0.6
+ *  footprint.output   file the report is also written to, none by default
+ */
+public class FootprintReport {
+
+    public static final double DEFAULT_USABLE = 0.6;
+
+    /**  sides of the square worlds without agents measured for the cost of a cell */
+    private static final int[] CELL_SIDES = { 250, 500, 750, 1000 };
+
+    /**  side of the world in which agents are measured, large enough for the most surfaces measured */
+    private static final int AGENT_SIDE = 300;
+
+    private static final int[] AGENT_COUNTS = { 0, 20_000, 40_000, 60_000, 80_000 };
+
+    private static final int[] ID_COUNTS = { 0, 50_000, 100_000, 150_000, 200_000 };
+
+    /**  keeps what is being measured reachable over the GC that follows its creation */
+    private static Object retained;
+
+    public static void main(String[] args) throws IOException, LifeException {
+        final long xmx = parseBytes(System.getProperty("footprint.xmx", ""), Runtime.getRuntime().maxMemory());
+        final double usable = Double.parseDouble(System.getProperty("footprint.usable", "" + DEFAULT_USABLE));
+        final String output = System.getProperty("footprint.output", "");
+
+        LifeOptions defaults = LifeOptions.createDefaultLifeOptions();
+        final double defaultDensity = (double) defaults.getOptionsForAgent(Wolf.class).getInitialCount()
+                / (defaults.getGridRows() * defaults.getGridCols());
+        final double density = Double.parseDouble(System.getProperty("footprint.density", "" + defaultDensity));
+
+        // Life logs every agent created
+        Logger.getLogger(Life.class.getName()).setLevel(Level.WARNING);
+        Utils.setSeed(Scenarios.SEED);
+
+        Footprint footprint = measure();
+        String report = report(footprint, xmx, usable, density);
+        System.out.print(report);
+        if (false == output.trim().isEmpty()) {
+            try (PrintWriter out = new PrintWriter(new File(output.trim()), "UTF-8")) {
+                out.print(report);
+            }
+            System.out.println("report written to " + output.trim());
+        }
+    }
+
+    /** @return the footprint measured in this JVM */
+    public static Footprint measure() throws LifeException {
+        final long baseHeap = retainedHeap();
+
+        final double perCell = slope(CELL_SIDES, side -> side * side, side -> emptyWorld(side, false));
+        final double perLayerCell = slope(CELL_SIDES, side -> side * side, side -> emptyWorld(side, true));
+
+        Map<Class<? extends LifeAgent>, Double> perAgent = new LinkedHashMap<>();
+        for (Class<? extends LifeAgent> type : LifeOptions.createDefaultLifeOptions().getSupportedAgents())
+            perAgent.put(type, slope(AGENT_COUNTS, count -> count, count -> populatedWorld(type, count)));
+
+        final double perId = slope(ID_COUNTS, count -> count, count -> {
+            for (int i = 0; i < count; i++)
+                IdPool.getInstance().newId();
+            return null; // the ids are retained by the pool itself
+        });
+        return new Footprint(perCell, perLayerCell, perAgent, perId, baseHeap);
+    }
+
+    /** @return the report of @param footprint for worlds of @param density in a heap of @param xmx bytes */
+    public static String report(Footprint footprint, long xmx, double usable, double density) throws LifeException {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Retained heap per part of a world, java %s, %s max heap%n%n",
+                System.getProperty("java.version"), formatBytes(Runtime.getRuntime().maxMemory())));
+        sb.append(String.format("  %-28s %10.1f B%n", "LifeCell", footprint.getBytesPerCell()));
+        sb.append(String.format("  %-28s %10.1f B%n", "LifeCell, surface layer", footprint.getBytesPerLayerCell()));
+        for (Map.Entry<Class<? extends LifeAgent>, Double> e : footprint.getBytesPerAgent().entrySet())
+            sb.append(String.format("  %-28s %10.1f B   including its IdPool entry%n", e.getKey().getSimpleName(),
+                    e.getValue()));
+        sb.append(String.format("  %-28s %10.1f B   never freed, one per agent ever created%n", "IdPool entry",
+                footprint.getBytesPerId()));
+
+        Map<Class<? extends LifeAgent>, Double> densities = new LinkedHashMap<>();
+        for (Class<? extends LifeAgent> type : footprint.getBytesPerAgent().keySet())
+            densities.put(type, density);
+        sb.append(String.format("%nLargest square world in a %s heap, %.0f%% of it retained by the world, %.2f agents "
+                + "of each type per cell%n%n", formatBytes(xmx), usable * 100, density));
+        for (boolean layer : new boolean[] { false, true }) {
+            int side = footprint.maxSquareSide(xmx, usable, densities, layer);
+            long cells = (long) side * side;
+            sb.append(String.format("  %-28s %6d x %-6d %12d cells %12d agents%n",
+                    layer ? "surfaces in the layer" : "surfaces as agents", side, side, cells,
+                    Math.round(cells * density * densities.size())));
+        }
+        return sb.toString();
+    }
+
+    /** @return a world of @param side x side cells with no agent */
+    private static Life emptyWorld(int side, boolean surfaceLayer) throws LifeException {
+        LifeOptions options = LifeOptions.createDefaultLifeOptions();
+        options.setGridRows(side);
+        options.setGridCols(side);
+        options.setSurfaceLayerEnabled(surfaceLayer);
+        for (Class<? extends LifeAgent> type : options.getSupportedAgents())
+            options.getOptionsForAgent(type).setInitialCount(0);
+        return new Life(options);
+    }
+
+    /** @return a world of AGENT_SIDE x AGENT_SIDE cells with @param count agents of @param type and no other agent */
+    private static Life populatedWorld(Class<? extends LifeAgent> type, int count) throws LifeException {
+        LifeOptions options = LifeOptions.createDefaultLifeOptions();
+        options.setGridRows(AGENT_SIDE);
+        options.setGridCols(AGENT_SIDE);
+        for (Class<? extends LifeAgent> t : options.getSupportedAgents())
+            options.getOptionsForAgent(t).setInitialCount(t.equals(type) ? count : 0);
+        return new Life(options);
+    }
+
+    private interface Size {
+        long of(int point);
+    }
+
+    private interface Build {
+        Object at(int point) throws LifeException;
+    }
+
+    /**
+     *  builds what @param build creates at each of @param points and measures the heap it retains
+     * @return the least squares slope of the retained heap against the size of each point, in bytes per unit
+     */
+    private static double slope(int[] points, Size size, Build build) throws LifeException {
+        final int n = points.length;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            final long before = retainedHeap();
+            retained = build.at(points[i]);
+            final long after = retainedHeap();
+            retained = null;
+            x[i] = size.of(points[i]);
+            y[i] = after - before;
+        }
+
+        double meanX = 0, meanY = 0;
+        for (int i = 0; i < n; i++) {
+            meanX += x[i] / n;
+            meanY += y[i] / n;
+        }
+        double cov = 0, var = 0;
+        for (int i = 0; i < n; i++) {
+            cov += (x[i] - meanX) * (y[i] - meanY);
+            var += (x[i] - meanX) * (x[i] - meanX);
+        }
+        return cov / var;
+    }
+
+    /** @return the heap in use after full GCs, once it no longer shrinks */
+    private static long retainedHeap() {
+        final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            long now = memory.getHeapMemoryUsage().getUsed();
+            if (now >= used)
+                return used;
+            used = now;
+        }
+        return used;
+    }
+
+    /** @return the number of bytes in @param s, e.g. 8g, 512m, 64k or 1048576, @param otherwise if s is empty */
+    static long parseBytes(String s, long otherwise) {
+        s = s.trim().toLowerCase();
+        if (s.isEmpty())
+            return otherwise;
+        // each unit is 2^10 times the one before it
+        final int shift = "kmg".indexOf(s.charAt(s.length() - 1)) + 1;
+        final long unit = 1L << (10 * shift);
+        if (shift > 0)
+            s = s.substring(0, s.length() - 1);
+        try {
+            return Long.parseLong(s) * unit;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid heap size: " + s, e);
+        }
+    }
+
+    private static String formatBytes(long bytes) {
+        return (bytes >= 1L << 30) ? String.format("%.1f GB", bytes / (double) (1L << 30))
+                : String.format("%.0f MB", bytes / (double) (1L << 20));
+    }
+}
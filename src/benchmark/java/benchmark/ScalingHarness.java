@@ -0,0 +1,258 @@
+package benchmark;
+
+import core.*;
+import core.exceptions.LifeException;
+
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ *  ScalingHarness
+ *
+ * Sweeps grid sizes, densities of agents and thread counts for each SteppingMode and prints, per mode and world:
+ *
+ *  strong scaling  the same workload on more threads, ideally done as many times faster
+ *  weak scaling    a workload as many times larger as there are threads, ideally done in the same time
+ *  world size      the throughput on one thread as the world grows, ideally the same
+ *
+ * Efficiency is the fraction of the ideal reached, and the first point where it falls below scaling.efficiency is
+ * flagged as the point where scaling breaks down. Run with ./gradlew scaling, which sets the system properties below.
+ *
+ *  scaling.modes       comma separated SteppingModes, default all
+ *  scaling.threads     comma separated thread counts, default the powers of 2 up to the number of processors
+ *  scaling.sides       comma separated sides of the square worlds, default 100,200,400
+ *  scaling.densities   comma separated agents of each type per cell, default 0.2
+ *  scaling.steps       steps of the workload on one thread, default 500000
+ *  scaling.repeats     runs of each point, the fastest being kept, default 3
+ *  scaling.efficiency  efficiency below which scaling is flagged as broken down, default 0.7
+ *  scaling.prune       skip the densities whose worlds a MeanFieldModel predicts to die out, default true
+ *
+ * A world dying out is created again, every mode stopping its clock meanwhile: the steps of a density whose worlds
+ * die out are measured on worlds just created, with few agents.
+ */
+public class ScalingHarness {
+
+    public static final double DEFAULT_EFFICIENCY = 0.7;
+
+    /**  steps of the workload run by each mode before measuring it, so that the JIT compiled the step loop */
+    private static final long WARMUP_STEPS = 1_000_000;
+
+    /**  throughput of a mode on a workload and a number of threads */
+    public static final class Point {
+
+        private final int threads;
+
+        private final Workload workload;
+
+        private final long nanos;
+
+        public Point(int threads, Workload workload, long nanos) {
+            this.threads = threads;
+            this.workload = workload;
+            this.nanos = nanos;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public Workload getWorkload() {
+            return workload;
+        }
+
+        public double getStepsPerSecond() {
+            return workload.getSteps() * 1e9 / Math.max(1, nanos);
+        }
+    }
+
+    public static void main(String[] args) throws LifeException, InterruptedException {
+        final List<SteppingMode> modes = new ArrayList<>();
+        for (String name : list(System.getProperty("scaling.modes", ""))) {
+            SteppingMode mode = SteppingModes.named(name);
+            if (mode == null)
+                throw new IllegalArgumentException("Unknown stepping mode: " + name);
+            modes.add(mode);
+        }
+        if (modes.isEmpty())
+            modes.addAll(SteppingModes.all());
+
+        final List<Integer> threads = new ArrayList<>();
+        for (String t : list(System.getProperty("scaling.threads", "")))
+            threads.add(Integer.parseInt(t));
+        if (threads.isEmpty()) {
+            for (int t = 1; t <= Runtime.getRuntime().availableProcessors(); t *= 2)
+                threads.add(t);
+        }
+        final List<Integer> sides = new ArrayList<>();
+        for (String s : list(System.getProperty("scaling.sides", "100,200,400")))
+            sides.add(Integer.parseInt(s));
+        final List<Double> densities = new ArrayList<>();
+        for (String d : list(System.getProperty("scaling.densities", "0.2")))
+            densities.add(Double.parseDouble(d));
+        final long steps = Long.parseLong(System.getProperty("scaling.steps", "500000"));
+        final int repeats = Integer.parseInt(System.getProperty("scaling.repeats", "3"));
+        final double threshold = Double.parseDouble(System.getProperty("scaling.efficiency", "" + DEFAULT_EFFICIENCY));
+        if (Boolean.parseBoolean(System.getProperty("scaling.prune", "true")))
+            densities.removeIf(density -> diesOut(new Workload(sides.get(0), sides.get(0), density, steps)));
+
+        // keeps any action logged at FINE from being measured with the steps
+        Logger.getLogger(Life.class.getName()).setLevel(Level.WARNING);
+        System.out.println(String.format("%d processors, java %s", Runtime.getRuntime().availableProcessors(),
+                System.getProperty("java.version")));
+
+        for (SteppingMode mode : modes) {
+            List<Integer> modeThreads = new ArrayList<>();
+            for (int t : threads) {
+                if (t >= 1 && t <= mode.getMaxThreads())
+                    modeThreads.add(t);
+            }
+            for (double density : densities) {
+                mode.run(new Workload(sides.get(0), sides.get(0), density, WARMUP_STEPS), 1);
+
+                List<Point> sizes = new ArrayList<>();
+                for (int side : sides) {
+                    Workload workload = new Workload(side, side, density, steps);
+                    System.out.println();
+                    System.out.println(mode.getName() + " " + workload);
+                    List<Point> strong = new ArrayList<>();
+                    List<Point> weak = new ArrayList<>();
+                    for (int t : modeThreads) {
+                        strong.add(measure(mode, workload, t, repeats));
+                        weak.add(measure(mode, workload.scaled(t), t, repeats));
+                    }
+                    if (false == strong.isEmpty() && strong.get(0).getThreads() == 1)
+                        sizes.add(strong.get(0));
+                    printStrong(strong, threshold);
+                    printWeak(weak, threshold);
+                }
+                System.out.println();
+                System.out.println(String.format("%s, %.2f agents of each type per cell", mode.getName(), density));
+                printSizes(sizes, threshold);
+            }
+        }
+    }
+
+    /**
+     * @return true if a MeanFieldModel predicts every agent of @param workload to die before its steps are done, a
+     * step being about one agent acting, printing the prediction
+     */
+    public static boolean diesOut(Workload workload) {
+        try {
+            LifeOptions options = workload.createOptions();
+            double generations = (double) workload.getSteps()
+                    / ((long) workload.getCountPerType() * options.getSupportedAgents().size());
+            MeanFieldPrediction prediction = new MeanFieldModel(options).predict(generations);
+            if (false == prediction.isDead())
+                return false;
+            double extinction = 0;
+            for (Class<? extends LifeAgent> type : prediction.getTypes())
+                extinction = Math.max(extinction, prediction.extinctionTime(type));
+            System.out.println(String.format("skipping %s: predicted to die out after %.0f generations", workload,
+                    extinction));
+            return true;
+        }
+        catch (LifeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return the best throughput of @param mode running @param workload on @param threads threads over @param repeats
+     * runs, each from the same seed
+     */
+    public static Point measure(SteppingMode mode, Workload workload, int threads, int repeats)
+            throws LifeException, InterruptedException {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < Math.max(1, repeats); i++) {
+            Utils.setSeed(Scenarios.SEED);
+            best = Math.min(best, mode.run(workload, threads));
+        }
+        return new Point(threads, workload, best);
+    }
+
+    /**
+     * @return the efficiency of each point relative to the first one, 1 being ideal: the throughput growing as the
+     * threads. It is the same for strong and weak scaling, a weak workload having as many more steps as threads.
+     */
+    public static double[] efficiencies(List<Point> points) {
+        double[] efficiencies = new double[points.size()];
+        if (points.isEmpty())
+            return efficiencies;
+        final Point first = points.get(0);
+        for (int i = 0; i < points.size(); i++) {
+            Point p = points.get(i);
+            double speedup = p.getStepsPerSecond() / first.getStepsPerSecond();
+            efficiencies[i] = speedup / ((double) p.getThreads() / first.getThreads());
+        }
+        return efficiencies;
+    }
+
+    private static void printStrong(List<Point> points, double threshold) {
+        if (points.isEmpty())
+            return;
+        double[] e = efficiencies(points);
+        System.out.println("  strong scaling   threads     steps/s   speedup  efficiency");
+        for (int i = 0; i < points.size(); i++) {
+            Point p = points.get(i);
+            System.out.println(String.format("                   %7d %11.0f %8.2fx %10.0f%%", p.getThreads(),
+                    p.getStepsPerSecond(), p.getStepsPerSecond() / points.get(0).getStepsPerSecond(), e[i] * 100));
+        }
+        printBreakdown(points, e, threshold);
+    }
+
+    private static void printWeak(List<Point> points, double threshold) {
+        if (points.size() < 2)
+            return;
+        double[] e = efficiencies(points);
+        System.out.println("  weak scaling     threads  world                    steps/s  efficiency");
+        for (int i = 0; i < points.size(); i++) {
+            Point p = points.get(i);
+            System.out.println(String.format("                   %7d  %-20s %11.0f %10.0f%%", p.getThreads(),
+                    p.getWorkload(), p.getStepsPerSecond(), e[i] * 100));
+        }
+        printBreakdown(points, e, threshold);
+    }
+
+    private static void printSizes(List<Point> points, double threshold) {
+        if (points.size() < 2)
+            return;
+        System.out.println("  world size       world                    steps/s  relative");
+        double[] relative = new double[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            Point p = points.get(i);
+            relative[i] = p.getStepsPerSecond() / points.get(0).getStepsPerSecond();
+            System.out.println(String.format("                   %-20s %11.0f %8.0f%%", p.getWorkload(),
+                    p.getStepsPerSecond(), relative[i] * 100));
+        }
+        for (int i = 0; i < points.size(); i++) {
+            if (relative[i] < threshold) {
+                System.out.println(String.format("  ! throughput falls below %.0f%% from %s", threshold * 100,
+                        points.get(i).getWorkload()));
+                return;
+            }
+        }
+        System.out.println("  throughput holds up to " + points.get(points.size() - 1).getWorkload());
+    }
+
+    /**  prints the first point whose efficiency is below @param threshold, if any */
+    private static void printBreakdown(List<Point> points, double[] efficiencies, double threshold) {
+        for (int i = 0; i < points.size(); i++) {
+            if (efficiencies[i] < threshold) {
+                System.out.println(String.format("  ! scaling breaks down at %d threads, efficiency %.0f%% < %.0f%%",
+                        points.get(i).getThreads(), efficiencies[i] * 100, threshold * 100));
+                return;
+            }
+        }
+        System.out.println("  scales up to " + points.get(points.size() - 1).getThreads() + " threads");
+    }
+
+    private static List<String> list(String commaSeparated) {
+        List<String> values = new ArrayList<>();
+        for (String s : commaSeparated.split(",")) {
+            if (false == s.trim().isEmpty())
+                values.add(s.trim());
+        }
+        return values;
+    }
+}
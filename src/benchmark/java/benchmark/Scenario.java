@@ -0,0 +1,66 @@
+package benchmark;
+
+import core.LifeOptions;
+import core.exceptions.LifeException;
+
+/**
+ *  Scenario
+ *
+ * A world to benchmark: the LifeOptions it is created from, the seed of the random generator and the number of steps
+ * to run. The options are created anew for every run since Life keeps a reference to them.
+ */
+public final class Scenario {
+
+    /**  creates the options of a scenario */
+    @FunctionalInterface
+    public interface OptionsFactory {
+        LifeOptions create() throws LifeException;
+    }
+
+    private final String name;
+
+    private final long seed;
+
+    /**  number of steps measured */
+    private final int steps;
+
+    /**  number of steps run beforehand, not measured, so that the JIT compiled the step loop */
+    private final int warmupSteps;
+
+    private final OptionsFactory options;
+
+    public Scenario(String name, long seed, int steps, int warmupSteps, OptionsFactory options) {
+        if (steps < 1 || warmupSteps < 0)
+            throw new IllegalArgumentException("Scenario " + name + " needs steps > 0 and warmupSteps >= 0");
+        this.name = name;
+        this.seed = seed;
+        this.steps = steps;
+        this.warmupSteps = warmupSteps;
+        this.options = options;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getSteps() {
+        return steps;
+    }
+
+    public int getWarmupSteps() {
+        return warmupSteps;
+    }
+
+    public LifeOptions createOptions() throws LifeException {
+        return options.create();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
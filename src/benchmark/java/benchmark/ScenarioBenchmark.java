@@ -0,0 +1,170 @@
+package benchmark;
+
+import core.Life;
+import core.Utils;
+import core.exceptions.LifeException;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ *  ScenarioBenchmark
+ *
+ * Runs the Scenarios headless, each from its fixed seed, and measures its throughput, the bytes allocated per step and
+ * the peak heap. The results are compared with the Baseline and the run fails, with exit status 1, if any of them
+ * regressed beyond the tolerance. Run with ./gradlew benchmark, which sets the system properties below.
+ *
+ *  benchmark.baseline    baseline file, default src/benchmark/resources/baseline.properties
+ *  benchmark.tolerance   fraction by which a result may be worse than the baseline, default 0.20
+ *  benchmark.record      when true the baseline is rewritten with the results instead of being compared
+ *  benchmark.scenarios   comma separated names of the scenarios to run, default all
+ *  benchmark.throughput  when true the throughput is compared too, scaled by a calibration run (see calibrate())
+ */
+public class ScenarioBenchmark {
+
+    public static final String DEFAULT_BASELINE = "src/benchmark/resources/baseline.properties";
+
+    public static final double DEFAULT_TOLERANCE = 0.20;
+
+    /**  ints sorted by each calibration run, and runs made, the fastest one counting */
+    private static final int CALIBRATION_SIZE = 1 << 20;
+    private static final int CALIBRATION_RUNS = 10;
+
+    public static void main(String[] args) throws IOException, LifeException {
+        final File baselineFile = new File(System.getProperty("benchmark.baseline", DEFAULT_BASELINE));
+        final double tolerance = Double.parseDouble(System.getProperty("benchmark.tolerance", "" + DEFAULT_TOLERANCE));
+        final boolean record = Boolean.parseBoolean(System.getProperty("benchmark.record", "false"));
+        final boolean throughput = Boolean.parseBoolean(System.getProperty("benchmark.throughput", "false"));
+
+        // keeps any action logged at FINE from being measured with the steps
+        Logger.getLogger(Life.class.getName()).setLevel(Level.WARNING);
+
+        List<Scenario> scenarios = selectScenarios(System.getProperty("benchmark.scenarios", ""));
+        Baseline baseline = Baseline.load(baselineFile);
+        List<String> regressions = new ArrayList<>();
+
+        final double calibration = (record || throughput) ? calibrate() : Double.NaN;
+        if (record)
+            baseline.recordMachine(calibration);
+        else if (throughput) {
+            System.out.println(String.format(Locale.ROOT, "calibration %.1f against %.1f on the baseline machine (%s)",
+                    calibration, baseline.getCalibration(), baseline.getMachine()));
+        }
+
+        for (Scenario scenario : scenarios) {
+            ScenarioResult result = run(scenario);
+            System.out.println(result);
+            if (record)
+                baseline.record(result);
+            else
+                regressions.addAll(baseline.regressions(result, tolerance, calibration));
+        }
+
+        if (record) {
+            baseline.save(baselineFile);
+            System.out.println("baseline written to " + baselineFile);
+            return;
+        }
+        if (false == regressions.isEmpty()) {
+            System.out.println(String.format("%d regression(s) beyond a tolerance of %.0f%%:", regressions.size(),
+                    tolerance * 100));
+            regressions.forEach(r -> System.out.println("  " + r));
+            System.exit(1);
+        }
+        System.out.println("no regression beyond a tolerance of " + Math.round(tolerance * 100) + "%");
+    }
+
+    /**
+     * @return the ints sorted per second by the fastest of CALIBRATION_RUNS sorts of CALIBRATION_SIZE random ints, a
+     * measure of the speed of the machine independent of the engine
+     */
+    public static double calibrate() {
+        final int[] values = new int[CALIBRATION_SIZE];
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < CALIBRATION_RUNS; run++) {
+            Random rand = new Random(run);
+            for (int i = 0; i < values.length; i++)
+                values[i] = rand.nextInt();
+            final long start = System.nanoTime();
+            Arrays.sort(values);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return values.length * 1e9 / best;
+    }
+
+    private static List<Scenario> selectScenarios(String names) {
+        if (names.trim().isEmpty())
+            return Scenarios.all();
+        List<Scenario> selected = new ArrayList<>();
+        for (String name : names.split(",")) {
+            Scenario s = Scenarios.named(name.trim());
+            if (s == null)
+                throw new IllegalArgumentException("Unknown scenario: " + name);
+            selected.add(s);
+        }
+        return selected;
+    }
+
+    /**
+     *  runs the warm-up steps then the measured steps of @param scenario, both from the scenario's seed
+     * @return what was measured over the measured steps
+     */
+    public static ScenarioResult run(Scenario scenario) throws LifeException {
+        Utils.setSeed(scenario.getSeed());
+        runSteps(scenario, scenario.getWarmupSteps());
+
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            pool.resetPeakUsage();
+
+        Utils.setSeed(scenario.getSeed());
+        final long allocatedBefore = allocatedBytes();
+        final long start = System.nanoTime();
+        final int worlds = runSteps(scenario, scenario.getSteps());
+        final long nanos = System.nanoTime() - start;
+        final long allocatedAfter = allocatedBytes();
+
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null)
+                peakHeap += pool.getPeakUsage().getUsed();
+        }
+        final long allocated = (allocatedBefore < 0 || allocatedAfter < 0) ? -1 : allocatedAfter - allocatedBefore;
+        return new ScenarioResult(scenario.getName(), scenario.getSteps(), worlds, nanos, allocated, peakHeap);
+    }
+
+    /**
+     *  steps worlds of @param scenario on the current thread, creating a new world each time the previous one died out
+     * @return the number of worlds created
+     */
+    private static int runSteps(Scenario scenario, int steps) throws LifeException {
+        int worlds = 0;
+        Life life = null;
+        for (int done = 0; done < steps; done++) {
+            if (life == null || life.getAgents().isEmpty()) {
+                life = new Life(scenario.createOptions());
+                worlds++;
+            }
+            life.step();
+        }
+        return worlds;
+    }
+
+    /** @return the bytes allocated so far by the current thread, -1 if the JVM cannot tell */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean t = (com.sun.management.ThreadMXBean) threads;
+            if (t.isThreadAllocatedMemorySupported() && t.isThreadAllocatedMemoryEnabled())
+                return t.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,88 @@
+package benchmark;
+
+/**
+ *  ScenarioResult
+ *
+ * What was measured over the steps of one Scenario.
+ */
+public final class ScenarioResult {
+
+    /**  names of the metrics, as used in the baseline file */
+    public static final String STEPS_PER_SECOND = "stepsPerSecond";
+    public static final String BYTES_PER_STEP = "bytesPerStep";
+    public static final String PEAK_HEAP_BYTES = "peakHeapBytes";
+
+    private final String scenario;
+
+    private final long steps;
+
+    /**  number of worlds created, a world is created again each time it dies out */
+    private final int worlds;
+
+    private final long nanos;
+
+    /**  bytes allocated by the stepping thread, negative if the JVM cannot measure it */
+    private final long allocatedBytes;
+
+    private final long peakHeapBytes;
+
+    public ScenarioResult(String scenario, long steps, int worlds, long nanos, long allocatedBytes, long peakHeapBytes) {
+        this.scenario = scenario;
+        this.steps = steps;
+        this.worlds = worlds;
+        this.nanos = nanos;
+        this.allocatedBytes = allocatedBytes;
+        this.peakHeapBytes = peakHeapBytes;
+    }
+
+    public String getScenario() {
+        return scenario;
+    }
+
+    public long getSteps() {
+        return steps;
+    }
+
+    public int getWorlds() {
+        return worlds;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public double getStepsPerSecond() {
+        return steps * 1e9 / Math.max(1, nanos);
+    }
+
+    /** @return bytes allocated per step, negative if unknown */
+    public double getBytesPerStep() {
+        return (allocatedBytes < 0) ? -1 : (double) allocatedBytes / steps;
+    }
+
+    /** @return megabytes allocated per second, negative if unknown */
+    public double getAllocationRate() {
+        return (allocatedBytes < 0) ? -1 : allocatedBytes / 1e6 / (nanos / 1e9);
+    }
+
+    public long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    /** @return the value of the metric called @param metric, see the metric names */
+    public double get(String metric) {
+        switch (metric) {
+            case STEPS_PER_SECOND: return getStepsPerSecond();
+            case BYTES_PER_STEP: return getBytesPerStep();
+            case PEAK_HEAP_BYTES: return getPeakHeapBytes();
+            default: throw new IllegalArgumentException("Unknown metric: " + metric);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-28s %10d steps %5d worlds %14.0f steps/s %10.1f B/step %9.1f MB/s %8.1f MB peak heap",
+                scenario, steps, worlds, getStepsPerSecond(), getBytesPerStep(), getAllocationRate(),
+                peakHeapBytes / 1e6);
+    }
+}
@@ -0,0 +1,73 @@
+package benchmark;
+
+import core.*;
+
+import java.util.*;
+
+/**
+ *  Scenarios class contains only static methods
+ *
+ * The fixed catalogue of benchmarked worlds. Changing a scenario invalidates its baseline, add a new one instead.
+ */
+public final class Scenarios {
+
+    /**  the seed of every scenario, worlds are only comparable from run to run with the same seed */
+    public static final long SEED = 20170330L;
+
+    /**  private constructor to prevent instantiation of this class */
+    private Scenarios() {}
+
+    /** @return the catalogue, in the order in which the scenarios are run */
+    public static List<Scenario> all() {
+        List<Scenario> list = new ArrayList<>();
+
+        // the default Life of the GUI, which lives through the whole run from this seed
+        // (near-extinction below is the scenario whose worlds die out and are created again)
+        list.add(new Scenario("default-5x5", SEED, 2_000_000, 500_000, LifeOptions::createDefaultLifeOptions));
+
+        // every cell holds grass, modelled by the surface layer as the GUI does for large grids
+        list.add(new Scenario("grass-saturated-1000x1000", SEED, 1_000_000, 200_000, () -> {
+            LifeOptions options = LifeOptions.createDefaultLifeOptions(1000, 1000, 200, 2000, 1000 * 1000);
+            options.setSurfaceLayerEnabled(true);
+            options.getOptionsForAgent(Grass.class).setInitialEnergy(20);
+            return options;
+        }));
+
+        // more wolves than deer, deer are eaten as soon as they are born
+        list.add(new Scenario("predator-heavy", SEED, 1_000_000, 200_000, () -> {
+            LifeOptions options = LifeOptions.createDefaultLifeOptions(100, 100, 3000, 1000, 5000);
+            options.getOptionsForAgent(Wolf.class).setInitialEnergy(20);
+            return options;
+        }));
+
+        // deer and grass reproduce fast with few predators, the population keeps growing
+        list.add(new Scenario("population-explosion", SEED, 1_000_000, 200_000, () -> {
+            LifeOptions options = LifeOptions.createDefaultLifeOptions(200, 200, 10, 200, 20000);
+            options.getOptionsForAgent(Deer.class).setReproductionRate(0.4);
+            options.getOptionsForAgent(Grass.class).setReproductionRate(0.5);
+            options.getOptionsForAgent(Wolf.class).setReproductionRate(0.01);
+            return options;
+        }));
+
+        // agents age fast and hardly reproduce, most of them die within the first generations
+        list.add(new Scenario("near-extinction", SEED, 500_000, 100_000, () -> {
+            LifeOptions options = LifeOptions.createDefaultLifeOptions(100, 100, 30, 60, 100);
+            for (Class<? extends LifeAgent> type : options.getSupportedAgents()) {
+                options.getOptionsForAgent(type).setAgeBy(2);
+                options.getOptionsForAgent(type).setReproductionRate(0.05);
+            }
+            return options;
+        }));
+
+        return Collections.unmodifiableList(list);
+    }
+
+    /** @return the scenario called @param name, null if there is none */
+    public static Scenario named(String name) {
+        for (Scenario s : all()) {
+            if (s.getName().equals(name))
+                return s;
+        }
+        return null;
+    }
+}
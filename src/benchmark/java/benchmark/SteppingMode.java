@@ -0,0 +1,25 @@
+package benchmark;
+
+import core.exceptions.LifeException;
+
+/**
+ *  SteppingMode
+ *
+ * A way of running a Workload on a number of worker threads, measured by the ScalingHarness. See SteppingModes for the
+ * modes available.
+ */
+public interface SteppingMode {
+
+    /** @return the name given on the command line */
+    String getName();
+
+    /** @return the largest number of threads the mode can make use of */
+    int getMaxThreads();
+
+    /**
+     *  creates the worlds of @param workload then steps them on @param threads threads, all the steps of the workload
+     * being done once it returns
+     * @return the nanoseconds spent stepping, world creation excluded
+     */
+    long run(Workload workload, int threads) throws LifeException, InterruptedException;
+}
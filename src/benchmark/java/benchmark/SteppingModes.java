@@ -0,0 +1,210 @@
+package benchmark;
+
+import core.AsyncStepper;
+import core.Life;
+import core.RegionPartition;
+import core.exceptions.LifeException;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ *  SteppingModes class contains only static methods
+ *
+ * The SteppingModes known to the ScalingHarness:
+ *
+ *  SEQUENTIAL  one world stepped by Life.step() on the calling thread, the engine as the GUI runs it
+ *  REPLICATED  the world split in as many independent worlds as threads, one per thread. Agents never cross the
+ *              borders, so this is the upper bound of any decomposition of a world among threads.
+ *  ASYNC       one world stepped by an AsyncStepper, every thread making random agents act under striped cell locks
+ *  PARTITIONED ASYNC with each thread making the agents of its own block of the grid act, the blocks never changing
+ *  BALANCED    PARTITIONED with the blocks rebalanced every epoch after the agents, its cost included
+ */
+public final class SteppingModes {
+
+    public static final SteppingMode SEQUENTIAL = new Sequential();
+
+    public static final SteppingMode REPLICATED = new Replicated();
+
+    public static final SteppingMode ASYNC = new Async();
+
+    public static final SteppingMode PARTITIONED = new Partitioned(false);
+
+    public static final SteppingMode BALANCED = new Partitioned(true);
+
+    /**  private constructor to prevent instantiation of this class */
+    private SteppingModes() {}
+
+    /** @return every mode, in the order in which they are measured */
+    public static List<SteppingMode> all() {
+        return Collections.unmodifiableList(Arrays.asList(SEQUENTIAL, REPLICATED, ASYNC, PARTITIONED,
+                BALANCED));
+    }
+
+    /** @return the mode called @param name, ignoring case, null if there is none */
+    public static SteppingMode named(String name) {
+        for (SteppingMode mode : all()) {
+            if (mode.getName().equalsIgnoreCase(name))
+                return mode;
+        }
+        return null;
+    }
+
+    /**
+     *  steps @param life, created from @param workload, for @param steps steps, creating it again whenever it dies out
+     * @return the nanoseconds spent stepping, the clock being stopped while a world is created again as in ASYNC
+     */
+    private static long step(Life life, Workload workload, long steps) throws LifeException {
+        long nanos = 0;
+        long start = System.nanoTime();
+        for (long done = 0; done < steps; done++) {
+            if (life.getAgents().isEmpty()) {
+                nanos += System.nanoTime() - start;
+                life = new Life(workload.createOptions());
+                start = System.nanoTime();
+            }
+            life.step();
+        }
+        return nanos + System.nanoTime() - start;
+    }
+
+    private static final class Sequential implements SteppingMode {
+
+        @Override
+        public String getName() {
+            return "SEQUENTIAL";
+        }
+
+        @Override
+        public int getMaxThreads() {
+            return 1;
+        }
+
+        @Override
+        public long run(Workload workload, int threads) throws LifeException {
+            Life life = new Life(workload.createOptions());
+            return step(life, workload, workload.getSteps());
+        }
+    }
+
+    private static final class Replicated implements SteppingMode {
+
+        @Override
+        public String getName() {
+            return "REPLICATED";
+        }
+
+        @Override
+        public int getMaxThreads() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public long run(Workload workload, int threads) throws LifeException, InterruptedException {
+            final List<Workload> parts = new ArrayList<>();
+            final List<Life> worlds = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                parts.add(workload.part(i, threads));
+                worlds.add(new Life(parts.get(i).createOptions()));
+            }
+
+            final ExecutorService executor = Executors.newFixedThreadPool(threads);
+            final CountDownLatch ready = new CountDownLatch(threads);
+            final CountDownLatch go = new CountDownLatch(1);
+            try {
+                List<Future<Long>> futures = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    final Workload part = parts.get(i);
+                    final Life life = worlds.get(i);
+                    futures.add(executor.submit(() -> {
+                        ready.countDown();
+                        go.await();
+                        return step(life, part, part.getSteps());
+                    }));
+                }
+                ready.await();
+                go.countDown();
+                // the worlds start together, the slowest one stepping for as long as the mode
+                long nanos = 0;
+                for (Future<Long> f : futures)
+                    nanos = Math.max(nanos, join(f));
+                return nanos;
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        private static long join(Future<Long> f) throws LifeException, InterruptedException {
+            try {
+                return f.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof LifeException)
+                    throw (LifeException) e.getCause();
+                throw new IllegalStateException("Replicated world failed", e.getCause());
+            }
+        }
+    }
+
+    private static final class Async implements SteppingMode {
+
+        @Override
+        public String getName() {
+            return "ASYNC";
+        }
+
+        @Override
+        public int getMaxThreads() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public long run(Workload workload, int threads) throws LifeException, InterruptedException {
+            Life life = new Life(workload.createOptions());
+            long nanos = 0;
+            for (long done = 0; done < workload.getSteps(); ) {
+                if (life.getAgents().isEmpty())
+                    life = new Life(workload.createOptions());
+                AsyncStepper stepper = new AsyncStepper(life, threads);
+                final long start = System.nanoTime();
+                done += stepper.run(workload.getSteps() - done);
+                nanos += System.nanoTime() - start;
+            }
+            return nanos;
+        }
+    }
+
+    private static final class Partitioned implements SteppingMode {
+
+        private final boolean dynamic;
+
+        private Partitioned(boolean dynamic) {
+            this.dynamic = dynamic;
+        }
+
+        @Override
+        public String getName() {
+            return dynamic ? "BALANCED" : "PARTITIONED";
+        }
+
+        @Override
+        public int getMaxThreads() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public long run(Workload workload, int threads) throws LifeException, InterruptedException {
+            Life life = new Life(workload.createOptions());
+            long nanos = 0;
+            for (long done = 0; done < workload.getSteps(); ) {
+                if (life.getAgents().isEmpty())
+                    life = new Life(workload.createOptions());
+                RegionPartition partition = RegionPartition.of(workload.getRows(), workload.getCols(), threads, dynamic);
+                AsyncStepper stepper = new AsyncStepper(life, partition, AsyncStepper.DEFAULT_EPOCH);
+                final long start = System.nanoTime();
+                done += stepper.run(workload.getSteps() - done);
+                nanos += System.nanoTime() - start;
+            }
+            return nanos;
+        }
+    }
+}
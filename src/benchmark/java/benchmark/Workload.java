@@ -0,0 +1,84 @@
+package benchmark;
+
+import core.LifeOptions;
+import core.exceptions.LifeException;
+
+/**
+ *  Workload
+ *
+ * A world of rows x cols cells holding density agents of each supported type per cell, stepped a number of times.
+ * Workloads are scaled up for weak scaling and split among workers by the SteppingModes.
+ */
+public final class Workload {
+
+    private final int rows;
+
+    private final int cols;
+
+    /**  agents of each type per cell */
+    private final double density;
+
+    private final long steps;
+
+    public Workload(int rows, int cols, double density, long steps) {
+        if (rows < 1 || cols < 1)
+            throw new IllegalArgumentException("Workload grid dimensions must be positive: " + rows + "x" + cols);
+        if (false == (density > 0 && density <= 1))
+            throw new IllegalArgumentException("Workload density must be in (0, 1]: " + density);
+        if (steps < 1)
+            throw new IllegalArgumentException("Workload needs at least one step: " + steps);
+        this.rows = rows;
+        this.cols = cols;
+        this.density = density;
+        this.steps = steps;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public double getDensity() {
+        return density;
+    }
+
+    public long getSteps() {
+        return steps;
+    }
+
+    /** @return the number of agents of each type initially */
+    public int getCountPerType() {
+        return (int) Math.max(1, Math.round(rows * cols * density));
+    }
+
+    /** @return the same workload @param factor times larger: as many more columns, agents and steps */
+    public Workload scaled(int factor) {
+        return new Workload(rows, cols * factor, density, steps * factor);
+    }
+
+    /**
+     * @return part @param part of @param parts equal parts of this workload, each with its share of the columns and of
+     * the steps, the first ones taking the remainders
+     */
+    public Workload part(int part, int parts) {
+        if (parts < 1 || part < 0 || part >= parts || parts > cols)
+            throw new IllegalArgumentException("Workload of " + cols + " columns cannot be split in part " + part
+                    + " of " + parts);
+        int partCols = cols / parts + ((part < cols % parts) ? 1 : 0);
+        long partSteps = steps / parts + ((part < steps % parts) ? 1 : 0);
+        return new Workload(rows, partCols, density, Math.max(1, partSteps));
+    }
+
+    /** @return new default options for this workload, Life keeping a reference to the options it is given */
+    public LifeOptions createOptions() throws LifeException {
+        return LifeOptions.createDefaultLifeOptions(rows, cols, getCountPerType());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%dx%d, %.2f/cell", rows, cols, density);
+    }
+}
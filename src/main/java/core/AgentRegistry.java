@@ -0,0 +1,199 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/**
+ *  AgentRegistry
+ *
+ * Thread-safe registry of the agents of a Life while an AsyncStepper steps it, in place of the agents list. The agents
+ * are spread over stripes, each guarded by its own lock, so that threads adding, removing and choosing agents rarely
+ * wait for each other. Like the agents list, an agent is removed in constant time by moving the last agent of its
+ * stripe into its slot, its slot being kept in LifeAgent.lifeIndex as (index in the stripe) * stripes + stripe.
+ *
+ * Agents are added to the stripes round robin, or to the stripe given by a placement such as the region of the grid
+ * they are in (see RegionPartition), in which case relocate() moves an agent that left its region to its new stripe.
+ */
+public class AgentRegistry {
+
+    private static final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final List<LifeAgent> agents = new ArrayList<>();
+
+        /**  agents.size(), readable without the lock */
+        private volatile int size;
+    }
+
+    private final Stripe[] stripes;
+
+    /**  stripe the next agent is added to, round robin */
+    private final AtomicInteger nextStripe = new AtomicInteger();
+
+    /**  stripe of each agent added, null to add them round robin */
+    private final ToIntFunction<LifeAgent> placement;
+
+    /**  creates a registry of @param stripes stripes, at least 1, agents being added to them round robin */
+    public AgentRegistry(int stripes) {
+        this(stripes, null);
+    }
+
+    /**
+     *  creates a registry of @param stripes stripes, at least 1, each agent being added to the stripe given by
+     * @param placement, round robin if null
+     */
+    public AgentRegistry(int stripes, ToIntFunction<LifeAgent> placement) {
+        if (stripes < 1)
+            throw new IllegalArgumentException("A registry needs at least one stripe: " + stripes + " given.");
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++)
+            this.stripes[i] = new Stripe();
+        this.placement = placement;
+    }
+
+    /**  registers @param a, which must not be registered yet */
+    public void add(LifeAgent a) {
+        final int s = (placement != null)
+                ? placement.applyAsInt(a)
+                : Math.floorMod(nextStripe.getAndIncrement(), stripes.length);
+        add(a, s);
+    }
+
+    private void add(LifeAgent a, int s) {
+        final Stripe stripe = stripes[s];
+        stripe.lock.lock();
+        try {
+            a.lifeIndex = stripe.agents.size() * stripes.length + s;
+            stripe.agents.add(a);
+            stripe.size = stripe.agents.size();
+        }
+        finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     *  unregisters @param a
+     * @return false if it was not registered
+     */
+    public boolean remove(LifeAgent a) {
+        final int slot = a.lifeIndex;
+        if (slot < 0)
+            return false;
+        // an agent never changes stripe while registered, only its index within the stripe
+        final Stripe stripe = stripes[slot % stripes.length];
+        stripe.lock.lock();
+        try {
+            final int i = a.lifeIndex / stripes.length;
+            final List<LifeAgent> agents = stripe.agents;
+            if (a.lifeIndex < 0 || i >= agents.size() || agents.get(i) != a)
+                return false;
+            LifeAgent last = agents.remove(agents.size() - 1);
+            if (last != a) {
+                agents.set(i, last);
+                last.lifeIndex = a.lifeIndex;
+            }
+            a.lifeIndex = -1;
+            stripe.size = agents.size();
+            return true;
+        }
+        finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     *  moves @param a to the stripe its placement now gives, after it moved. The agent must not be removed meanwhile.
+     * @return true if it changed stripe
+     */
+    public boolean relocate(LifeAgent a) {
+        if (placement == null || a.lifeIndex < 0)
+            return false;
+        final int s = placement.applyAsInt(a);
+        if (s == a.lifeIndex % stripes.length || false == remove(a))
+            return false;
+        add(a, s);
+        return true;
+    }
+
+    /**
+     * @return an agent chosen uniformly at random with @param rand, dead or alive, null if the registry is empty or
+     * changed while choosing, in which case the caller should choose again
+     */
+    public LifeAgent randomAgent(Random rand) {
+        return randomAgent(rand, 0, stripes.length);
+    }
+
+    /**
+     * @return an agent of the stripes @param from inclusive to @param to exclusive, chosen uniformly at random with
+     * @param rand, null if they are empty or changed while choosing
+     */
+    public LifeAgent randomAgent(Random rand, int from, int to) {
+        final int total = size(from, to);
+        if (total < 1)
+            return null;
+        int r = Utils.randomPositiveInteger(rand, total);
+        for (int s = from; s < to; s++) {
+            final Stripe stripe = stripes[s];
+            final int size = stripe.size;
+            if (r >= size) {
+                r -= size;
+                continue;
+            }
+            stripe.lock.lock();
+            try {
+                return (r < stripe.agents.size()) ? stripe.agents.get(r) : null;
+            }
+            finally {
+                stripe.lock.unlock();
+            }
+        }
+        return null;
+    }
+
+    /** @return the number of agents registered, exact when no other thread changes the registry */
+    public int size() {
+        return size(0, stripes.length);
+    }
+
+    /** @return the number of agents in the stripes @param from inclusive to @param to exclusive */
+    public int size(int from, int to) {
+        int size = 0;
+        for (int s = from; s < to; s++)
+            size += stripes[s].size;
+        return size;
+    }
+
+    /** @return the number of stripes */
+    public int getStripes() {
+        return stripes.length;
+    }
+
+    /** @return the number of agents in the stripe @param s */
+    public int getStripeSize(int s) {
+        return stripes[s].size;
+    }
+
+    /**  moves every agent to @param agents, their lifeIndex becoming their index in that list, and empties the registry */
+    void drainTo(List<Agent> agents) {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                for (LifeAgent a : stripe.agents) {
+                    a.lifeIndex = agents.size();
+                    agents.add(a);
+                }
+                stripe.agents.clear();
+                stripe.size = 0;
+            }
+            finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *  AgentTypes class contains only static methods
+ *
+ * Gives every LifeAgent class a small integer id, in order of first use, and a bit in a 64 bit type mask. Ids are
+ * used to index per-type counters (see LifeCell), masks allow testing for several types with a single AND.
+ *
+ * There is no limit on the number of types: ids from OVERFLOW_BIT_INDEX onwards all share the last bit of the mask,
+ * which only makes mask tests conservative for those types.
+ */
+public final class AgentTypes {
+
+    /**  index of the mask bit shared by all the types with an id greater or equal to it */
+    public static final int OVERFLOW_BIT_INDEX = Long.SIZE - 1;
+
+    /**  next id to hand out */
+    private static final AtomicInteger nextId = new AtomicInteger();
+
+    /**  id of each class, computed once per class */
+    private static final ClassValue<Integer> ids = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return nextId.getAndIncrement();
+        }
+    };
+
+    /**  private constructor to prevent instantiation of this class */
+    private AgentTypes() {}
+
+    /** @return the id of the LifeAgent class @param type, assigning a new one on first use */
+    public static int idOf(Class<? extends LifeAgent> type) {
+        return ids.get(type);
+    }
+
+    /** @return the mask bit of the type with id @param id */
+    public static long bitOf(int id) {
+        return 1L << Math.min(id, OVERFLOW_BIT_INDEX);
+    }
+
+    /** @return the mask bit of the LifeAgent class @param type */
+    public static long bitOf(Class<? extends LifeAgent> type) {
+        return bitOf(idOf(type));
+    }
+
+    /** @return the mask with the bits of all the classes in @param types */
+    public static long maskOf(Iterable<Class<? extends LifeAgent>> types) {
+        long mask = 0;
+        for (Class<? extends LifeAgent> type : types)
+            mask |= bitOf(type);
+        return mask;
+    }
+
+    /** @return the number of ids handed out so far */
+    public static int count() {
+        return nextId.get();
+    }
+}
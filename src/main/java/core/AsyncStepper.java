@@ -0,0 +1,435 @@
+package core;
+
+import core.actions.Action;
+import core.exceptions.LifeException;
+import core.interfaces.Consumable;
+import core.jfr.LifeEvents;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ *  AsyncStepper
+ *
+ * Steps a Life on several threads at once, keeping the random asynchronous updates of Life.step(): each thread
+ * repeatedly chooses an agent at random and makes it act. An agent only touches the cell it is in and the adjacent
+ * cell it moves or spreads to, so a thread locks those two cells before acting and re-checks that the agent is still
+ * alive and where it was chosen; otherwise it chooses again. Threads acting on disjoint cells never wait for each
+ * other, and any run is equivalent to the same steps made one after the other on a single thread.
+ *
+ * Cells are locked through a fixed number of striped locks, always taken in increasing order of stripe, which cannot
+ * deadlock. While running, the agents live in an AgentRegistry which threads add to and remove from concurrently, and
+ * the agents that died are removed by whichever thread polls them from the Life's DeathQueue.
+ *
+ * Given a RegionPartition, each thread only chooses agents in the regions it owns, so that threads rarely lock the same
+ * cells. The run is then cut in epochs, at the start of which each thread is given a share of the steps proportional
+ * to its agents, keeping every agent as likely to act as the others. A dynamic partition is rebalanced at the start of
+ * each epoch, otherwise the thread owning a cluster of agents works while the others wait for it. The cost of the
+ * rebalancing is kept in the metrics of the stepper and in life.Rebalance flight recorder events.
+ *
+ * The Life must not be stepped or read by other threads during run(): its agents list is empty until run() returns.
+ * Only the UNIFORM scheduling is supported, without surface layer nor lazy surface ageing, whose state is shared by
+ * the whole grid. Runs are not reproducible from a seed, the order in which threads act depending on the machine.
+ */
+public class AsyncStepper {
+
+    /**  steps a thread claims at once from the steps left to run */
+    public static final int BATCH = 64;
+
+    /**  cell lock stripes per thread, enough for two threads to rarely need the same stripe */
+    public static final int STRIPES_PER_THREAD = 256;
+
+    /**  steps between two rebalancings of a partition, unless given */
+    public static final long DEFAULT_EPOCH = 50_000;
+
+    private final Life life;
+
+    private final Grid<LifeCell> grid;
+
+    private final int threads;
+
+    private final ReentrantLock[] cellLocks;
+
+    /**  shift of the multiplicative hash from a cell index to its stripe */
+    private final int stripeShift;
+
+    /**  regions owned by each thread, null if they all choose among all agents */
+    private final RegionPartition partition;
+
+    /**  steps between two rebalancings of the partition */
+    private final long epoch;
+
+    /**  choices that found their agent dead or moved by another thread, over all runs */
+    private final AtomicLong retries = new AtomicLong();
+
+    private long rebalances;
+
+    private long rebalanceNanos;
+
+    private long migratedRegions;
+
+    private long relocations;
+
+    private double imbalance = 1;
+
+    /**
+     *  prepares to step @param life on @param threads threads
+     * @throws IllegalArgumentException if threads is not positive or the options of life are not supported
+     */
+    public AsyncStepper(Life life, int threads) {
+        this(life, threads, null, DEFAULT_EPOCH);
+    }
+
+    /**
+     *  prepares to step @param life on one thread per worker of @param partition, rebalanced every @param epoch steps
+     * if it is dynamic
+     * @throws IllegalArgumentException if the partition is not of the grid of life, epoch is not positive or the options
+     * of life are not supported
+     */
+    public AsyncStepper(Life life, RegionPartition partition, long epoch) {
+        this(life, partition.getWorkers(), partition, epoch);
+        if (partition.getRows() != life.getGridRows() || partition.getCols() != life.getGridCols())
+            throw new IllegalArgumentException("The partition of a " + partition.getRows() + "x" + partition.getCols()
+                    + " grid cannot split a " + life.getGridRows() + "x" + life.getGridCols() + " one");
+        if (epoch < 1)
+            throw new IllegalArgumentException("An epoch must have at least one step: " + epoch + " given.");
+    }
+
+    private AsyncStepper(Life life, int threads, RegionPartition partition, long epoch) {
+        if (threads < 1)
+            throw new IllegalArgumentException("At least one thread is needed: " + threads + " given.");
+        LifeOptions options = life.getOptions();
+        if (options.getScheduling() != Scheduling.UNIFORM)
+            throw new IllegalArgumentException("Asynchronous stepping needs the UNIFORM scheduling, not "
+                    + options.getScheduling());
+        if (options.isSurfaceLayerEnabled() || options.isLazySurfaceAging())
+            throw new IllegalArgumentException("Asynchronous stepping supports neither the surface layer nor lazy "
+                    + "surface ageing");
+        this.life = life;
+        this.grid = life.getGrid();
+        this.threads = threads;
+        this.partition = partition;
+        this.epoch = epoch;
+
+        // a power of 2, at least 2, for the hash
+        final int cells = grid.getRows() * grid.getCols();
+        int stripes = Integer.highestOneBit(Math.max(1, Math.min(cells, threads * STRIPES_PER_THREAD) - 1)) << 1;
+        cellLocks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++)
+            cellLocks[i] = new ReentrantLock();
+        stripeShift = Integer.SIZE - Integer.numberOfTrailingZeros(stripes);
+    }
+
+    /**
+     *  makes @param steps agents act, spread over the threads, or fewer if Life runs out of agents
+     * @return the number of steps made
+     * @throws LifeException the first exception thrown by an agent acting, after all threads stopped
+     */
+    public long run(long steps) throws LifeException, InterruptedException {
+        if (steps < 0)
+            throw new IllegalArgumentException("The number of steps cannot be negative: " + steps + " given.");
+        final AgentRegistry registry = (partition == null)
+                ? new AgentRegistry(4 * threads)
+                : new AgentRegistry(partition.getRegions(), a -> partition.regionOf(a.getPos()));
+        final Random seeds = life.getRand();
+        final List<Worker> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++)
+            workers.add(new Worker(registry, new Utils.LifeRandom(seeds.nextLong())));
+
+        life.beginConcurrentStepping(registry);
+        long done = 0;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            if (partition == null) {
+                final AtomicLong left = new AtomicLong(steps);
+                for (Worker worker : workers)
+                    worker.assign(0, registry.getStripes(), left);
+                runWorkers(executor, workers);
+            }
+            else
+                runEpochs(executor, workers, registry, steps);
+        }
+        finally {
+            executor.shutdownNow();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+            double elapsed = 0;
+            int deaths = 0;
+            for (Worker worker : workers) {
+                done += worker.steps;
+                elapsed += worker.generations;
+                deaths += worker.deaths;
+                relocations += worker.relocations;
+            }
+            life.endConcurrentStepping(done, elapsed, deaths);
+        }
+        return done;
+    }
+
+    /**
+     *  runs @param workers on @param executor until they made their steps
+     * @throws LifeException the first exception thrown by an agent acting, after all workers stopped
+     */
+    private void runWorkers(ExecutorService executor, List<Worker> workers) throws LifeException, InterruptedException {
+        final List<Future<Worker>> futures = new ArrayList<>();
+        for (Worker worker : workers)
+            futures.add(executor.submit(worker::run));
+        LifeException failure = null;
+        for (Future<Worker> f : futures) {
+            try {
+                f.get();
+            }
+            catch (ExecutionException e) {
+                for (Worker worker : workers)
+                    worker.left.set(0);
+                if (failure == null && e.getCause() instanceof LifeException)
+                    failure = (LifeException) e.getCause();
+                else if (failure == null)
+                    throw new IllegalStateException("Asynchronous stepping failed", e.getCause());
+            }
+        }
+        if (failure != null)
+            throw failure;
+    }
+
+    /**
+     *  makes @param steps agents of @param registry act, epoch by epoch, each of @param workers being given the regions
+     * of the partition it owns and a share of the steps of the epoch proportional to their agents
+     */
+    private void runEpochs(ExecutorService executor, List<Worker> workers, AgentRegistry registry, long steps)
+            throws LifeException, InterruptedException {
+        final int[] counts = new int[partition.getRegions()];
+        for (long left = steps; left > 0 && registry.size() > 0; ) {
+            rebalance(registry, counts);
+            final long epochSteps = Math.min(left, epoch);
+            long total = 0;
+            for (int c : counts)
+                total += c;
+
+            long before = 0, agents = 0;
+            for (int w = 0; w < threads; w++) {
+                final Worker worker = workers.get(w);
+                long share = 0;
+                for (int r = partition.from(w); r < partition.to(w); r++)
+                    share += counts[r];
+                // rounded so that the shares add up to the steps of the epoch
+                final long quota = (long) ((double) epochSteps * (agents + share) / total)
+                        - (long) ((double) epochSteps * agents / total);
+                agents += share;
+                before += worker.steps;
+                worker.assign(partition.from(w), partition.to(w), new AtomicLong(quota));
+            }
+            runWorkers(executor, workers);
+
+            long made = -before;
+            for (Worker worker : workers)
+                made += worker.steps;
+            if (made == 0)
+                return; // the agents left are out of reach of the threads given steps, e.g. all dead
+            left -= made;
+        }
+    }
+
+    /**  counts the agents of @param registry in each region into @param counts and rebalances the partition with them */
+    private void rebalance(AgentRegistry registry, int[] counts) {
+        final long start = System.nanoTime();
+        for (int r = 0; r < counts.length; r++)
+            counts[r] = registry.getStripeSize(r);
+        if (false == partition.isDynamic()) {
+            imbalance = partition.imbalance(counts);
+            return;
+        }
+        final double before = partition.imbalance(counts);
+        final int migrated = partition.rebalance(counts);
+        imbalance = partition.imbalance(counts);
+        final long duration = System.nanoTime() - start;
+
+        rebalances++;
+        rebalanceNanos += duration;
+        migratedRegions += migrated;
+        LifeEvents.rebalance(counts.length, migrated, before, imbalance, duration);
+    }
+
+    /** @return the number of threads stepping */
+    public int getThreads() {
+        return threads;
+    }
+
+    /** @return the number of cell lock stripes */
+    public int getStripes() {
+        return cellLocks.length;
+    }
+
+    /** @return the number of times an agent had to be chosen again because it died or moved, over all runs */
+    public long getRetries() {
+        return retries.get();
+    }
+
+    /** @return the partition of the grid among the threads, null if there is none */
+    public RegionPartition getPartition() {
+        return partition;
+    }
+
+    /** @return the number of times the partition was rebalanced, over all runs */
+    public long getRebalances() {
+        return rebalances;
+    }
+
+    /** @return the time spent counting agents and rebalancing the partition in ns, over all runs */
+    public long getRebalanceNanos() {
+        return rebalanceNanos;
+    }
+
+    /** @return the number of regions that changed thread when rebalancing, over all runs */
+    public long getMigratedRegions() {
+        return migratedRegions;
+    }
+
+    /** @return the number of times an agent moved to a region of the partition other than its own, over all runs */
+    public long getRelocations() {
+        return relocations;
+    }
+
+    /**
+     * @return the agents of the most loaded thread over the mean agents per thread at the start of the last epoch, 1
+     * without partition
+     */
+    public double getImbalance() {
+        return imbalance;
+    }
+
+    private int stripeOf(Point2D p) {
+        final int cell = p.getY() * grid.getCols() + p.getX();
+        return (cell * 0x9E3779B9) >>> stripeShift;
+    }
+
+    /**  locks the stripes @param a and @param b in increasing order, once if they are the same */
+    private void lock(int a, int b) {
+        cellLocks[Math.min(a, b)].lock();
+        if (a != b)
+            cellLocks[Math.max(a, b)].lock();
+    }
+
+    private void unlock(int a, int b) {
+        if (a != b)
+            cellLocks[Math.max(a, b)].unlock();
+        cellLocks[Math.min(a, b)].unlock();
+    }
+
+    /**  one stepping thread, with its own generator and scratch lists */
+    private final class Worker {
+
+        private final AgentRegistry registry;
+
+        private final Random rand;
+
+        /**  steps left to make, possibly shared with other workers */
+        private AtomicLong left;
+
+        /**  stripes of the registry the agents are chosen from */
+        private int from;
+        private int to;
+
+        private final DeathQueue deathQueue = life.getDeathQueue();
+
+        private final List<Consumable> candidates = new ArrayList<>();
+
+        private final List<Action> actions = new ArrayList<>(4);
+
+        private long steps;
+
+        /**  generations elapsed in the steps of this thread, each advancing them by 1 / (number of agents) */
+        private double generations;
+
+        private int deaths;
+
+        private long relocations;
+
+        private Worker(AgentRegistry registry, Random rand) {
+            this.registry = registry;
+            this.rand = rand;
+        }
+
+        /**  chooses agents in the stripes @param from inclusive to @param to exclusive, for the steps @param left */
+        private void assign(int from, int to, AtomicLong left) {
+            this.from = from;
+            this.to = to;
+            this.left = left;
+        }
+
+        private Worker run() throws LifeException {
+            long claimed;
+            while ((claimed = Math.min(BATCH, left.getAndAdd(-BATCH))) > 0) {
+                while (claimed > 0) {
+                    if (registry.size(from, to) < 1) {
+                        left.set(0);
+                        return this;
+                    }
+                    if (tryStep())
+                        claimed--;
+                }
+            }
+            return this;
+        }
+
+        /** @return true if the agent chosen acted, false if it has to be chosen again */
+        private boolean tryStep() throws LifeException {
+            final LifeAgent chosen = registry.randomAgent(rand, from, to);
+            if (chosen == null)
+                return false;
+            boolean acted = false;
+            final Point2D src = chosen.getPos();
+            if (chosen.isAlive() && grid.pointInBounds(src)) {
+                final Point2D next = grid.randomAdjacentPoint(src, rand);
+                final int a = stripeOf(src), b = stripeOf(next);
+                lock(a, b);
+                try {
+                    // the agent may have died or moved before the cells were locked
+                    if (chosen.isAlive() && src.equals(chosen.getPos())) {
+                        actions.clear();
+                        life.act(chosen, next, rand, candidates, actions, null, 0);
+                        acted = true;
+                        // the agent may have moved to another region, while no other thread can remove it
+                        if (chosen.isAlive() && registry.relocate(chosen))
+                            relocations++;
+                    }
+                }
+                finally {
+                    unlock(a, b);
+                }
+            }
+            if (acted) {
+                steps++;
+                generations += 1.0 / Math.max(1, registry.size());
+            }
+            else
+                retries.incrementAndGet();
+            reap();
+            return acted;
+        }
+
+        /**  removes the agents that died, on any thread, from their cell and from the registry */
+        private void reap() {
+            LifeAgent dead;
+            while ((dead = deathQueue.poll()) != null) {
+                if (dead.lifeIndex < 0)
+                    continue;
+                // a dead agent never moves again
+                final int s = stripeOf(dead.getPos());
+                lock(s, s);
+                try {
+                    if (life.removeAgent(dead))
+                        deaths++;
+                    else // not in its cell, still never to be chosen again
+                        registry.remove(dead);
+                }
+                finally {
+                    unlock(s, s);
+                }
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package core;
 
 import java.lang.reflect.Array;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class implements the Set interface backed by a Map which inserts ConsumeRules according to the Consumer in arrays.
@@ -23,6 +24,16 @@ public class ConsumeRules implements Set<ConsumeRule> {
      */
     private List<ConsumeRule> cachedList = new ArrayList<>();
 
+    /**
+     *  type mask (see AgentTypes) of the consumables of each consumer, cleared on every modification. Concurrent, as
+     *  agents acting on several threads at once (see AsyncStepper) fill it as they first ask for their consumables.
+     */
+    private Map<Class<?extends LifeAgent>, Long> consumableMasks = new ConcurrentHashMap<>();
+
+    /**  read-only list of the consumables of each consumer, cleared on every modification, concurrent as above */
+    private Map<Class<?extends LifeAgent>, List<Class<?extends LifeAgent>>> consumableClasses =
+            new ConcurrentHashMap<>();
+
     @Override
     public int size() {
         return getCachedList().size();
@@ -79,6 +90,8 @@ public class ConsumeRules implements Set<ConsumeRule> {
             return false;
         boolean b = set.remove(o);
         cacheIsValid = false;
+        consumableMasks.clear();
+        consumableClasses.clear();
         return b;
     }
 
@@ -144,9 +157,19 @@ public class ConsumeRules implements Set<ConsumeRule> {
 
         map.clear();
         cacheIsValid = false;
+        consumableMasks.clear();
+        consumableClasses.clear();
     }
 
+    /**
+     * @return read-only list of the classes that @param agentClass consumes. The list is built once and kept until the
+     * rules are modified, so that it can be asked for on every step.
+     */
     public List<Class<?extends LifeAgent>> consumableClassesForAgent(Class<? extends LifeAgent> agentClass) {
+        List<Class<?extends LifeAgent>> cached = consumableClasses.get(agentClass);
+        if (null != cached)
+            return cached;
+
         ArrayList<Class<?extends LifeAgent>> ret = new ArrayList<>();
         Set<ConsumeRule> set = map.get(agentClass);
 
@@ -156,7 +179,19 @@ public class ConsumeRules implements Set<ConsumeRule> {
                 ret.add(it.next().getConsumable());
             }
         }
-        return ret;
+        cached = Collections.unmodifiableList(ret);
+        consumableClasses.put(agentClass, cached);
+        return cached;
+    }
+
+    /** @return the type mask (see AgentTypes) of all the classes that @param agentClass consumes */
+    public long consumableMaskForAgent(Class<? extends LifeAgent> agentClass) {
+        Long mask = consumableMasks.get(agentClass);
+        if (null == mask) {
+            mask = AgentTypes.maskOf(consumableClassesForAgent(agentClass));
+            consumableMasks.put(agentClass, mask);
+        }
+        return mask;
     }
 
     /**
@@ -194,6 +229,8 @@ public class ConsumeRules implements Set<ConsumeRule> {
 
         boolean b = set.add(cr);
         cacheIsValid = false;
+        consumableMasks.clear();
+        consumableClasses.clear();
         return b;
     }
 
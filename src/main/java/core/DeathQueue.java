@@ -0,0 +1,35 @@
+package core;
+
+import java.util.ArrayDeque;
+
+/**
+ *  DeathQueue
+ *
+ * LifeAgents that belong to a Life enqueue themselves here when they die, so that Life only has to clean up the
+ * agents that actually died instead of scanning cells for them. Thread-safe: agents stepped by an AsyncStepper die
+ * on several threads at once.
+ */
+public class DeathQueue {
+
+    /**  agents that died and have not been removed from Life yet, in order of death */
+    private final ArrayDeque<LifeAgent> queue = new ArrayDeque<>();
+
+    /**  adds the dead agent @param a to the queue */
+    public synchronized void enqueue(LifeAgent a) {
+        queue.add(a);
+    }
+
+    /** @return the agent that died first and removes it from the queue, null if the queue is empty */
+    public synchronized LifeAgent poll() {
+        return queue.poll();
+    }
+
+    /** @return the number of agents waiting to be removed */
+    public synchronized int size() {
+        return queue.size();
+    }
+
+    public synchronized boolean isEmpty() {
+        return queue.isEmpty();
+    }
+}
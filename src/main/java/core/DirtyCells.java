@@ -0,0 +1,166 @@
+package core;
+
+import core.actions.*;
+import core.interfaces.Consumable;
+import core.interfaces.Positionable;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+/**
+ *  DirtyCells
+ *
+ * Set of the grid cells that changed since they were last drained: the cells Life has to capture again in its next
+ * WorldSnapshot, or the cells the GUI has to repaint. Marking a cell several times between two drains only drains it
+ * once. Cells are identified by their index y * cols + x, the same row-major order as Grid.
+ *
+ * The set is safe to use from several threads without locking: the simulation marks cells as it steps while another
+ * thread drains them, e.g. the FX thread once per frame. It is bounded by construction, one bit per cell, so however
+ * fast the simulation runs the work left for a drain never exceeds one pass over the grid.
+ */
+public class DirtyCells {
+
+    private final int rows;
+
+    private final int cols;
+
+    /**  bit i % 64 of word i / 64 set when the cell at index i is dirty */
+    private final AtomicLongArray words;
+
+    /**
+     * @param rows number of rows in the grid
+     * @param cols number of columns in the grid
+     */
+    public DirtyCells(int rows, int cols) {
+        if (rows < 1 || cols < 1)
+            throw new IllegalArgumentException("DirtyCells dimensions must be positive: " + rows + "x" + cols);
+        this.rows = rows;
+        this.cols = cols;
+        this.words = new AtomicLongArray((rows * cols + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    /**  marks the cell at (x, y), positions outside of the grid are ignored */
+    public void mark(int x, int y) {
+        if (x < 0 || x >= cols || y < 0 || y >= rows)
+            return;
+        set(y * cols + x);
+    }
+
+    /**  marks the cell at index @param i, y * cols + x */
+    public void markIndex(int i) {
+        if (i >= 0 && i < rows * cols)
+            set(i);
+    }
+
+    private void set(int i) {
+        final int w = i >>> 6;
+        final long bit = 1L << i;
+        // most marks hit a cell that is already dirty, reading first avoids a write on the shared word
+        if ((words.get(w) & bit) == 0)
+            words.accumulateAndGet(w, bit, (a, b) -> a | b);
+    }
+
+    public void mark(Point2D p) {
+        if (p != null)
+            mark(p.getX(), p.getY());
+    }
+
+    /**  marks every cell affected by @param action. This depends on what the action is exactly. */
+    public void mark(Action action) {
+        if (action instanceof Move) {
+            Move move = (Move) action;
+            mark(move.getFrom());
+            mark(move.getTo());
+            return;
+        }
+
+        // the agent's own cell is affected by every other kind of action
+        if (action.getAgent() != null)
+            mark(action.getAgent().getPos());
+
+        if (action instanceof Consume) {
+            Iterator<Consumable> it = ((Consume) action).getConsumables();
+            while (it.hasNext()) {
+                Consumable c = it.next();
+                if (c instanceof Positionable)
+                    mark(((Positionable) c).getPos());
+            }
+        }
+        else if (action instanceof Reproduce) {
+            Iterator<LifeAgent> it = ((Reproduce) action).getBabies();
+            while (it.hasNext())
+                mark(it.next().getPos());
+        }
+    }
+
+    public void markAll() {
+        final int n = rows * cols;
+        for (int w = 0; w < words.length(); w++) {
+            int bitsInWord = Math.min(Long.SIZE, n - w * Long.SIZE);
+            words.set(w, (bitsInWord == Long.SIZE) ? -1L : (1L << bitsInWord) - 1);
+        }
+    }
+
+    /**  marks the cells from column @param x0 to @param x1 and row @param y0 to @param y1, ends excluded */
+    public void markRect(int x0, int y0, int x1, int y1) {
+        x0 = Math.max(0, x0);
+        y0 = Math.max(0, y0);
+        x1 = Math.min(cols, x1);
+        y1 = Math.min(rows, y1);
+        for (int y = y0; y < y1; y++) {
+            for (int x = x0; x < x1; x++)
+                set(y * cols + x);
+        }
+    }
+
+    /** @return true if the cell at (x, y) is dirty */
+    public boolean isDirty(int x, int y) {
+        final int i = y * cols + x;
+        return (words.get(i >>> 6) & (1L << i)) != 0;
+    }
+
+    /** @return the number of dirty cells */
+    public int size() {
+        int n = 0;
+        for (int w = 0; w < words.length(); w++)
+            n += Long.bitCount(words.get(w));
+        return n;
+    }
+
+    public boolean isEmpty() {
+        for (int w = 0; w < words.length(); w++) {
+            if (words.get(w) != 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * passes the index of every dirty cell to @param consumer, in increasing order, and marks them clean. Cells marked
+     * while the drain runs are either passed now or kept for the next drain, never lost.
+     * @return the number of cells passed
+     */
+    public int drain(IntConsumer consumer) {
+        int n = 0;
+        for (int w = 0; w < words.length(); w++) {
+            if (words.get(w) == 0)
+                continue;
+            long bits = words.getAndSet(w, 0);
+            while (bits != 0) {
+                consumer.accept(w * Long.SIZE + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+                n++;
+            }
+        }
+        return n;
+    }
+}
@@ -0,0 +1,136 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ *  EventQueue
+ *
+ * Indexed binary min-heap of the LifeAgents of a Life keyed by the time of their next event, used by the NEXT_REACTION
+ * scheduling. Every agent knows its slot in the heap, so that scheduling, rescheduling and removing an agent are all
+ * O(log n) and finding the next event O(1). An agent is in at most one EventQueue.
+ */
+public class EventQueue {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**  agents in heap order, the first one having the earliest event */
+    private LifeAgent[] agents = new LifeAgent[INITIAL_CAPACITY];
+
+    /**  time of the next event of the agent in the same slot of agents */
+    private double[] times = new double[INITIAL_CAPACITY];
+
+    private int size;
+
+    /**
+     *  schedules the next event of @param a at @param time, replacing the event it had if it was already in the queue
+     * @throws IllegalArgumentException if time is NaN
+     */
+    public void schedule(LifeAgent a, double time) {
+        if (Double.isNaN(time))
+            throw new IllegalArgumentException("EventQueue cannot schedule " + a + " at NaN");
+        int i = a.eventIndex;
+        if (i < 0) {
+            if (size == agents.length) {
+                agents = Arrays.copyOf(agents, size * 2);
+                times = Arrays.copyOf(times, size * 2);
+            }
+            i = size++;
+            place(a, time, i);
+            siftUp(i);
+            return;
+        }
+        final double previous = times[i];
+        times[i] = time;
+        if (time < previous)
+            siftUp(i);
+        else
+            siftDown(i);
+    }
+
+    /**
+     *  removes @param a and its event from the queue
+     * @return false if it was not in the queue
+     */
+    public boolean remove(LifeAgent a) {
+        final int i = a.eventIndex;
+        if (i < 0 || i >= size || agents[i] != a)
+            return false;
+        a.eventIndex = -1;
+        final int last = --size;
+        if (i != last) {
+            place(agents[last], times[last], i);
+            agents[last] = null;
+            if (i > 0 && times[i] < times[(i - 1) / 2])
+                siftUp(i);
+            else
+                siftDown(i);
+        }
+        else
+            agents[last] = null;
+        return true;
+    }
+
+    /** @return the agent with the earliest event, null if the queue is empty */
+    public LifeAgent peek() {
+        return (size == 0) ? null : agents[0];
+    }
+
+    /** @return the time of the earliest event, positive infinity if the queue is empty */
+    public double peekTime() {
+        return (size == 0) ? Double.POSITIVE_INFINITY : times[0];
+    }
+
+    /** @return the time of the next event of @param a, NaN if it is not in the queue */
+    public double timeOf(LifeAgent a) {
+        return contains(a) ? times[a.eventIndex] : Double.NaN;
+    }
+
+    public boolean contains(LifeAgent a) {
+        final int i = a.eventIndex;
+        return i >= 0 && i < size && agents[i] == a;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void place(LifeAgent a, double time, int i) {
+        agents[i] = a;
+        times[i] = time;
+        a.eventIndex = i;
+    }
+
+    private void siftUp(int i) {
+        final LifeAgent a = agents[i];
+        final double time = times[i];
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (times[parent] <= time)
+                break;
+            place(agents[parent], times[parent], i);
+            i = parent;
+        }
+        place(a, time, i);
+    }
+
+    private void siftDown(int i) {
+        final LifeAgent a = agents[i];
+        final double time = times[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && times[child + 1] < times[child])
+                child++;
+            if (times[child] >= time)
+                break;
+            place(agents[child], times[child], i);
+            i = child;
+        }
+        place(a, time, i);
+    }
+}
@@ -6,7 +6,7 @@ import core.exceptions.SurfaceAlreadyPresent;
 
 import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
-import java.util.Iterator;
+import java.util.Random;
 
 
 public class Grid<T extends Cell> {
@@ -65,6 +65,14 @@ public class Grid<T extends Cell> {
         return grid[y][x];
     }
 
+    /**
+     * @return the cell at (x, y) without bounds checking, meant for loops over the whole grid
+     */
+    @SuppressWarnings("unchecked")
+    T cellAt(int x, int y) {
+        return (T) grid[y][x];
+    }
+
     /**
      *
      *  creates a new cell from @param Class<T>.
@@ -99,6 +107,11 @@ public class Grid<T extends Cell> {
      * @throws InvalidPositionException if the given point is out of bounds
      */
     public Point2D randomAdjacentPoint(Point2D p) throws InvalidPositionException {
+        return randomAdjacentPoint(p, Utils.getRand());
+    }
+
+    /**  same as randomAdjacentPoint(Point2D), drawing from @param rand */
+    public Point2D randomAdjacentPoint(Point2D p, Random rand) throws InvalidPositionException {
 
         get(p); // called to ensure the point is in bounds
 
@@ -116,9 +129,9 @@ public class Grid<T extends Cell> {
             isX = false;
         // many rows and columns, pick randomly along which access we should move
         else
-            isX = Utils.getRand().nextBoolean();
+            isX = rand.nextBoolean();
 
-        boolean positive = Utils.getRand().nextBoolean();
+        boolean positive = rand.nextBoolean();
         int nextX = p.getX(), nextY = p.getY();
 
         // x
@@ -144,11 +157,7 @@ public class Grid<T extends Cell> {
         Cell srcCell = get(agent.getPos());
 
         // remove from src cell
-        Iterator<Agent> it = srcCell.getAgents();
-
-        while(it.hasNext())
-            if (agent == it.next())
-                it.remove();
+        srcCell.removeAgent(agent);
 
         // add to dst cell and changes the position of the agent to that of the cell
         return dstCell.addAgent(agent);
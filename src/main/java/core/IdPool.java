@@ -3,20 +3,28 @@
  */
 package core;
 
-import java.math.BigInteger;
-import java.security.SecureRandom;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ *  IdPool
+ *
+ * Hands out unique random ids. Thread-safe: worlds stepped on different threads draw their ids from the same pool,
+ * each thread from its own generator.
+ */
 public class IdPool {
 
     /**  reference to singleton IdPool, kept private of course */
     private final static  IdPool pool = new IdPool();
 
-    /**  used to generate the random id strings */
-    private final static SecureRandom random = new SecureRandom();
+    /**
+     *  used to generate the random id strings. Kept apart from the simulation's generators (Utils.getRand()): ids must
+     * never collide across worlds, whereas two worlds created from the same seed must draw the same numbers. One per
+     * thread so that threads creating agents do not contend on a single seed.
+     */
+    private final static ThreadLocal<Utils.LifeRandom> random = ThreadLocal.withInitial(Utils.LifeRandom::new);
 
     /**  map used to store the generated ids to avoid creating duplicates */
-    HashMap<String, Boolean> ids = new HashMap<String, Boolean>();
+    ConcurrentHashMap<String, Boolean> ids = new ConcurrentHashMap<String, Boolean>();
 
     /**  private constructor */
     private IdPool() { }
@@ -32,11 +40,11 @@ public class IdPool {
      * */
     public String newId() {
         String generated = null;
+        // putIfAbsent so that two threads can never be handed the same id
         do {
-            generated = Utils.randomString();
-        } while (idExists(generated));
+            generated = random.get().randomString();
+        } while (ids.putIfAbsent(generated, true) != null);
 
-        ids.put(generated, true);
         return generated;
     }
 
@@ -0,0 +1,129 @@
+package core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ *  LatencyHistogram
+ *
+ * Histogram of non-negative durations, typically in nanoseconds, with log-linear buckets: values under SUB_BUCKETS
+ * have a bucket each, larger values are split in powers of 2 each divided in SUB_BUCKETS linear buckets. Percentiles
+ * are therefore reported with a relative error under 1 / SUB_BUCKETS, over the whole range of long values, in a fixed
+ * number of buckets allocated once.
+ *
+ * Recording is lock-free and allocation-free, several threads can record into the same histogram. Reads made while
+ * values are recorded may miss the most recent ones.
+ */
+public class LatencyHistogram {
+
+    /**  log2 of the number of linear buckets per power of 2 */
+    private static final int SUB_BUCKET_BITS = 4;
+
+    /**  number of linear buckets per power of 2 */
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**  number of buckets needed for any non-negative long */
+    public static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong sum = new AtomicLong();
+
+    private final AtomicLong max = new AtomicLong();
+
+    /**  records @param value, negative values are recorded as 0 */
+    public void record(long value) {
+        if (value < 0)
+            value = 0;
+        counts.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long m = max.get();
+        while (value > m && false == max.compareAndSet(m, value))
+            m = max.get();
+    }
+
+    /** @return the index of the bucket holding @param value, value must not be negative */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /** @return the smallest value held by bucket @param bucket */
+    static long lowestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+        int magnitude = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        return (SUB_BUCKETS + sub) << (magnitude - SUB_BUCKET_BITS);
+    }
+
+    /** @return the largest value held by bucket @param bucket */
+    static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+        int magnitude = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        return lowestValueOf(bucket) + (1L << (magnitude - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /** @return the number of values recorded */
+    public long getCount() {
+        return count.get();
+    }
+
+    /** @return the sum of the values recorded */
+    public long getSum() {
+        return sum.get();
+    }
+
+    /** @return the largest value recorded, 0 if none */
+    public long getMax() {
+        return max.get();
+    }
+
+    /** @return the mean of the values recorded, 0 if none */
+    public double getMean() {
+        long n = count.get();
+        return (n == 0) ? 0 : (double) sum.get() / n;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return a value such that @param percentile % of the values recorded are lower or equal, up to the precision of
+     * the buckets. 0 if nothing was recorded.
+     * @throws IllegalArgumentException if percentile is not between 0 and 100
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (false == (percentile >= 0 && percentile <= 100))
+            throw new IllegalArgumentException("percentile must be between 0 and 100: " + percentile + " given.");
+
+        long total = 0;
+        for (int b = 0; b < BUCKETS; b++)
+            total += counts.get(b);
+        if (total == 0)
+            return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts.get(b);
+            if (seen >= rank)
+                return Math.min(highestValueOf(b), getMax());
+        }
+        return getMax();
+    }
+
+    /**  forgets every value recorded. Values recorded concurrently may be partly kept. */
+    public void reset() {
+        for (int b = 0; b < BUCKETS; b++)
+            counts.set(b, 0);
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+}
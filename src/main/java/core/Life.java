@@ -3,8 +3,11 @@ package core;
 import core.actions.*;
 import core.exceptions.*;
 import core.interfaces.Consumable;
+import core.jfr.LifeEvents;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -28,6 +31,13 @@ public class Life implements LifeGetter {
     /**  the number of times step has been called and returned a non-empty list of Actions */
     private int stepCount;
 
+    /**
+     *  generator of the random choices of this world, seeded from the shared one (Utils.getRand()) when the world is
+     * created: worlds created after Utils.setSeed() on one thread are the same, worlds stepped on different threads
+     * never draw from the same generator
+     */
+    private final Random rand;
+
     /**  the grid containing all cells on which the agents will be placed */
     private final Grid<LifeCell> grid;
 
@@ -37,6 +47,68 @@ public class Life implements LifeGetter {
     /**  */
     private final LifeOptions options;
 
+    /**  one SurfaceLayer per Surface type, empty unless the surface layer is enabled in LifeOptions */
+    private final List<SurfaceLayer> surfaceLayers;
+
+    /**  number of steps left before the surface layers are aged and spread again */
+    private int stepsToSurfaceGeneration;
+
+    /**  under NEXT_REACTION, number of whole units of time for which the surface layers were aged and spread */
+    private long surfaceGenerations;
+
+    /**  next event of every scheduled agent, null unless the scheduling is NEXT_REACTION */
+    private final EventQueue eventQueue;
+
+    /**  number of generations elapsed, a generation lasting as many steps as there are agents in Life */
+    private double generations;
+
+    /**  agents that died and still have to be removed from the grid and from the agents list */
+    private final DeathQueue deathQueue = new DeathQueue();
+
+    /**  number of steps since the dead agents were last removed */
+    private int stepsSinceReap;
+
+    /**  lazy ageing model per Surface type, empty unless lazy surface ageing is enabled in LifeOptions */
+    private final Map<Class<?extends LifeAgent>, SurfaceAging> surfaceAgings = new HashMap<>();
+
+    /**  the last WorldSnapshot published, read by any thread */
+    private final AtomicReference<WorldSnapshot> snapshot = new AtomicReference<>();
+
+    /**  the snapshot published before the last one, whose arrays the next capture reuses */
+    private WorldSnapshot spareSnapshot;
+
+    /**  cells that may have changed since the last snapshot was captured */
+    private final DirtyCells changedCells;
+
+    /**  number of steps between two snapshots, 0 to only publish them on demand */
+    private volatile int snapshotInterval;
+
+    /**  called with every snapshot published, on the thread that published it */
+    private volatile Consumer<WorldSnapshot> snapshotListener;
+
+    /**  steps since the last snapshot was published */
+    private int stepsSinceSnapshot;
+
+    /**  times the phases of step(), null unless StepProfiler.ENABLED */
+    private final StepProfiler profiler = StepProfiler.ENABLED ? new StepProfiler() : null;
+
+    /**  generation Life is in, its number of agents when it started and the number of agents reaped since */
+    private long generation;
+    private int generationAgents;
+    private int generationDeaths;
+
+    /**  share of the agents of a generation that must die within it for a mass death event to be emitted */
+    public static final double MASS_DEATH_FRACTION = 0.25;
+
+    /**  the agents that can be consumed in the cell a creature moved to, only used within step() */
+    private final List<Consumable> consumeCandidates = new ArrayList<>();
+
+    /**  maximum energy gained by a LifeAgent in a single consume */
+    static final int CONSUME_GAIN_CAP = 10;
+
+    /**  registry of the agents while an AsyncStepper steps this Life, null otherwise: agents is then left empty */
+    private AgentRegistry registry;
+
     // ===========================================================================================
     // METHODS
     // ===========================================================================================
@@ -66,6 +138,7 @@ public class Life implements LifeGetter {
             options = new LifeOptions();
 
         this.options = options;
+        this.rand = new Utils.LifeRandom(Utils.getRand().nextLong());
 
         // TODO(sami); why doesn't options check this
         final int surfaceCount = surfaceCount(options);
@@ -78,10 +151,21 @@ public class Life implements LifeGetter {
 
         // [4] create grid
         grid = GridLifeCellFactory.createGridCell(getGridRows(), getGridCols()); // create a square Grid
+        changedCells = new DirtyCells(getGridRows(), getGridCols());
+        snapshotInterval = options.getSnapshotInterval();
+
+        // [5] create the surface layers (when enabled) and share them with the cells
+        surfaceLayers = createSurfaceLayers();
+        eventQueue = (options.getScheduling() == Scheduling.NEXT_REACTION) ? new EventQueue() : null;
 
-        // [5] create agents and distribute
+        // [6] create agents and distribute
         agents = new ArrayList<>();
         createAndDistributeAgents();
+        stepsToSurfaceGeneration = Math.max(1, agents.size());
+        generationAgents = agents.size();
+
+        // [7] readers always find a snapshot
+        publishSnapshot();
     }
 
     public boolean addAgent(LifeAgent a) throws SurfaceAlreadyPresent {
@@ -100,7 +184,11 @@ public class Life implements LifeGetter {
             return false;
         try {
             LifeCell lc = (LifeCell) grid.get(c.getPos());
-            return (lc.addAgent(c) && agents.add(c));
+            if (false == (lc.addAgent(c) && registerAgent(c)))
+                return false;
+            changedCells.mark(c.getPos());
+            scheduleNextEvent(c);
+            return true;
         }
         catch (InvalidPositionException e) {
             return false; // this shouldn't happen because we already checked
@@ -112,11 +200,115 @@ public class Life implements LifeGetter {
             return false;
         try {
             LifeCell lc = (LifeCell) grid.get(s.getPos());
-            return lc.addAgent(s) && agents.add(s);
+            if (false == (lc.addAgent(s) && registerAgent(s)))
+                return false;
+            changedCells.mark(s.getPos());
+            if (options.isLazySurfaceAging())
+                s.setAging(surfaceAgingFor(s.getClass()));
+            scheduleNextEvent(s);
+            return true;
         }
         catch (InvalidPositionException e) {
             return false; // this shouldn't happen because we already checked
         }
+        catch (AgentAlreadyDeadException e) {
+            return false;
+        }
+    }
+
+    /**
+     * appends @param a to the agents list, remembering its index for removeAgent(), and hooks it to the death queue
+     * @return true
+     */
+    private boolean registerAgent(LifeAgent a) {
+        a.setDeathQueue(deathQueue);
+        if (registry != null) {
+            registry.add(a);
+            return true;
+        }
+        a.lifeIndex = agents.size();
+        return agents.add(a);
+    }
+
+    /**
+     * removes @param a from the agents list in constant time by moving the last agent into its slot. The order of the
+     * agents list is not preserved, which does not matter since agents are chosen at random.
+     * @return false if the agent was not in the list
+     */
+    private boolean unregisterAgent(LifeAgent a) {
+        if (registry != null) {
+            a.setDeathQueue(null);
+            return registry.remove(a);
+        }
+        int i = a.lifeIndex;
+        if (i < 0 || i >= agents.size() || agents.get(i) != a)
+            return agents.remove(a); // should not happen, but keep the list consistent if it does
+
+        Agent last = agents.remove(agents.size() - 1);
+        if (last != a) {
+            agents.set(i, last);
+            ((LifeAgent) last).lifeIndex = i;
+        }
+        a.lifeIndex = -1;
+        a.setDeathQueue(null);
+        if (eventQueue != null)
+            eventQueue.remove(a);
+        return true;
+    }
+
+    /**
+     * @return the rate, in events per unit of time, at which @param a acts under the NEXT_REACTION scheduling. A
+     * creature moves, consumes, may reproduce and ages on each of its events, at rate 1 so that it acts once per
+     * generation as it does under UNIFORM. A lazily aged surface needs no event to age, it only acts to reproduce, at
+     * its reproduction rate, and to wither (see Surface.witheringTime()). Other surfaces age on each event, at rate 1.
+     */
+    public double eventRate(LifeAgent a) {
+        if (a instanceof Surface && ((Surface) a).getAging() != null) {
+            LifeAgentOptions opts = options.getOptionsForAgent(a.getClass());
+            return (null == opts) ? LifeAgentOptions.DEFAULT_R : opts.getReproductionRate();
+        }
+        return 1.0;
+    }
+
+    /**
+     *  schedules the next event of @param a after the current time, or unschedules it if it has none left. Does nothing
+     * unless the scheduling is NEXT_REACTION.
+     */
+    private void scheduleNextEvent(LifeAgent a) {
+        if (eventQueue == null)
+            return;
+        final double rate = eventRate(a);
+        double time = (rate > 0) ? generations + Utils.randomExponential(rand, rate) : Double.POSITIVE_INFINITY;
+        if (a instanceof Surface)
+            time = Math.min(time, ((Surface) a).witheringTime());
+        if (time == Double.POSITIVE_INFINITY)
+            eventQueue.remove(a);
+        else
+            eventQueue.schedule(a, time);
+    }
+
+    /** @return the agent whose event is next, the dead agents being reaped first, null if no event is scheduled */
+    private LifeAgent nextEventAgent() {
+        LifeAgent next = eventQueue.peek();
+        if (next != null && false == next.isAlive()) {
+            // only possible when dead agents are reaped in batches
+            reapDeadAgents();
+            next = eventQueue.peek();
+        }
+        return next;
+    }
+
+    /** @return the lazy ageing model shared by all surfaces of type @param type, created on first use */
+    private SurfaceAging surfaceAgingFor(Class<? extends LifeAgent> type) {
+        SurfaceAging aging = surfaceAgings.get(type);
+        if (null == aging) {
+            LifeAgentOptions opts = options.getOptionsForAgent(type);
+            if (null == opts)
+                opts = new LifeAgentOptions(type);
+            aging = new SurfaceAging(opts, this::getGenerations);
+            surfaceAgings.put(type, aging);
+        }
+        return aging;
     }
 
     /**
@@ -142,7 +334,8 @@ public class Life implements LifeGetter {
             return false;
         try {
             LifeCell cell = (LifeCell) grid.get(a.getPos());
-            return cell.removeAgent(a) && agents.remove(a);
+            changedCells.mark(a.getPos());
+            return cell.removeAgent(a) && unregisterAgent(a);
         }
         catch (InvalidPositionException e) { return false; } // this shouldn't happen because we already checked
     }
@@ -161,26 +354,94 @@ public class Life implements LifeGetter {
     }
 
     /**
-     * choose an agent at random to act
+     * choose an agent at random to act, or under NEXT_REACTION the agent with the earliest event
      * @throws InvalidPositionException
      * @throws AgentAlreadyDeadException
      * @return the stepCount index or -1 if there was nothing to do
      */
     public List<Action> step() throws InvalidPositionException, SurfaceAlreadyPresent, AgentAlreadyDeadException {
 
-        List<Action> actions = new ArrayList<>();
+        // start of the current phase, only read when profiling
+        long t = StepProfiler.ENABLED ? System.nanoTime() : 0;
+
+        // a step has at most 4 actions: move, consume, reproduce and age
+        List<Action> actions = new ArrayList<>(4);
 
-        // guard - nothing to do
+        // guard - nothing to do but ageing and spreading the surface layers, a generation per step
         if (agents.size() < 1) {
             LOGGER.log(Level.FINE, "step() nothing to do");
+            if (false == surfaceLayers.isEmpty()) {
+                generations += 1.0;
+                advanceSurfaceLayers();
+                stepCount++;
+                if ((long) generations != generation)
+                    endGeneration();
+            }
             return actions;
         }
 
-        // choose an agent at random
-        int randI = Utils.randomPositiveInteger(agents.size());
-        LifeAgent chosen = (LifeAgent) agents.get(randI);
-        if (!chosen.isAlive())
-            LOGGER.log(Level.SEVERE, "We chose a dead agent!");
+        LifeAgent chosen;
+        if (eventQueue != null) {
+            // the earliest event, time advancing to it
+            chosen = nextEventAgent();
+            if (null == chosen)
+                return actions;
+            generations = Math.max(generations, eventQueue.peekTime());
+        }
+        else {
+            // choose an agent at random
+            int randI = Utils.randomPositiveInteger(rand, agents.size());
+            chosen = (LifeAgent) agents.get(randI);
+            if (!chosen.isAlive()) {
+                // only possible when dead agents are reaped in batches: reap them all now and choose again
+                reapDeadAgents();
+                if (agents.size() < 1)
+                    return actions;
+                chosen = (LifeAgent) agents.get(Utils.randomPositiveInteger(rand, agents.size()));
+            }
+        }
+        if (StepProfiler.ENABLED) t = profiler.record(StepPhase.SELECTION, t);
+
+        t = act(chosen, findAdjacentPointInGrid(chosen.getPos()), rand, consumeCandidates, actions, profiler, t);
+
+        if (eventQueue != null && chosen.isAlive())
+            scheduleNextEvent(chosen);
+
+        // removes the agents that died from the agents list and from their cells, every reapInterval steps
+        if (++stepsSinceReap >= options.getReapInterval()) {
+            reapDeadAgents();
+            if (StepProfiler.ENABLED) profiler.record(StepPhase.CLEANUP, t);
+        }
+
+        advanceSurfaceLayers();
+
+        if (null == eventQueue)
+            generations += 1.0 / Math.max(1, agents.size());
+        stepCount++;
+        if ((long) generations != generation)
+            endGeneration();
+
+        final int interval = snapshotInterval;
+        if (interval > 0 && ++stepsSinceSnapshot >= interval)
+            publishSnapshot();
+        return actions;
+    }
+
+    /**
+     *  makes @param chosen act: a creature moves to @param nextPoint, consumes there, may reproduce and ages, a surface
+     * may spread to @param nextPoint and ages. Only the cells at the position of chosen and at nextPoint are touched,
+     * which is what lets AsyncStepper run several act() at once under the locks of those cells.
+     * @param rand generator of the random choices
+     * @param candidates scratch list for the agents that can be consumed, owned by the caller
+     * @param actions list the actions are added to
+     * @param profiler records the phases from @param t when profiling, null not to record them
+     * @return the end of the last phase recorded, t if none was
+     */
+    long act(LifeAgent chosen, Point2D nextPoint, Random rand, List<Consumable> candidates, List<Action> actions,
+             StepProfiler profiler, long t) throws InvalidPositionException, SurfaceAlreadyPresent,
+            AgentAlreadyDeadException {
+        changedCells.mark(chosen.getPos());
+        changedCells.mark(nextPoint);
 
         // Wolves and Deers
         if ((chosen instanceof Wolf) || (chosen instanceof Deer)) {
@@ -188,33 +449,57 @@ public class Life implements LifeGetter {
             // Move
             // -------
             Point2D srcPoint = new Point2D(chosen.getPos()); // make a new copy of the src point
-            Point2D nextPoint = findAdjacentPointInGrid(chosen.getPos());
             Cell nextCell = grid.get(nextPoint);
             Action move = new Move(chosen, srcPoint, nextPoint);
             actions.add(move);
             processMoveAction((Move) move);
+            if (StepProfiler.ENABLED && profiler != null) t = profiler.record(StepPhase.MOVE, t);
 
             // -------
             // Consume
             // -------
 
-            List<Consumable> consumableAgents = new ArrayList<>();
+            List<Consumable> consumableAgents = candidates;
+            consumableAgents.clear();
             List<Class<?extends LifeAgent>> classes = options.filterConsumablesForAgent(chosen);
-            Iterator<LifeAgent> it = nextCell.getAgents();
-            while(it.hasNext()) {
-                LifeAgent la = it.next();
-                if (classes.contains(la.getClass()))
-                    consumableAgents.add(la);
+
+            // the cell's type mask tells whether it is worth looking at its agents at all
+            if (((LifeCell) nextCell).containsAny(options.consumableMaskForAgent(chosen))) {
+                Iterator<LifeAgent> it = nextCell.getAgents();
+                while(it.hasNext()) {
+                    LifeAgent la = it.next();
+                    if (classes.contains(la.getClass()) && la.isAlive())
+                        consumableAgents.add(la);
+                }
+            }
+
+            // surfaces held by the layers compete with the consumable agents of the cell
+            int layerCandidates = 0;
+            for (SurfaceLayer layer : surfaceLayers) {
+                if (classes.contains(layer.getSurfaceType()) && layer.contains(nextPoint.getX(), nextPoint.getY()))
+                    layerCandidates++;
             }
 
+            if (StepProfiler.ENABLED && profiler != null) t = profiler.record(StepPhase.CONSUME_FILTER, t);
+
             // choose one at random to consume
-            if (consumableAgents.size() > 0) {
-                int index = Utils.randomPositiveInteger(consumableAgents.size());
-                Consumable agentToConsume = consumableAgents.get(index);
-                Action consume = new Consume(chosen, agentToConsume);
-                actions.add(consume);
-                processConsume((Consume) consume);
+            int count = consumableAgents.size() + layerCandidates;
+            if (count > 0) {
+                int index = Utils.randomPositiveInteger(rand, count);
+                if (index < consumableAgents.size()) {
+                    Consumable agentToConsume = consumableAgents.get(index);
+                    Action consume = new Consume(chosen, agentToConsume);
+                    actions.add(consume);
+                    processConsume((Consume) consume);
+                }
+                else {
+                    SurfaceLayer layer = findConsumableLayer(classes, nextPoint, index - consumableAgents.size());
+                    Action energyGain = new EnergyChange(chosen, consumeFromLayer(layer, nextPoint));
+                    actions.add(energyGain);
+                    processAgeAction((EnergyChange) energyGain);
+                }
             }
+            if (StepProfiler.ENABLED && profiler != null) t = profiler.record(StepPhase.CONSUME, t);
 
             // ---------
             // Reproduce
@@ -223,13 +508,14 @@ public class Life implements LifeGetter {
             double rWolf = options.getOptionsForAgent(Wolf.class).getReproductionRate();
             double rDeer = options.getOptionsForAgent(Deer.class).getReproductionRate();
             double rAgent = (chosen instanceof Wolf)? rWolf : rDeer;
-            boolean willReproduce = Utils.getRand().nextDouble() < rAgent;
+            boolean willReproduce = rand.nextDouble() < rAgent;
             if (willReproduce) {
                 LifeAgent baby = chosen.reproduce();
                 Action reproduce = new Reproduce(chosen, baby);
                 actions.add(reproduce);
                 processReproduce((Reproduce) reproduce);
             }
+            if (StepProfiler.ENABLED && profiler != null) t = profiler.record(StepPhase.REPRODUCE, t);
 
             // ------------
             // EnergyChange
@@ -241,30 +527,23 @@ public class Life implements LifeGetter {
             Action age = new EnergyChange(chosen, -ageBy);
             actions.add(age);
             processAgeAction((EnergyChange) age);
-
-            // find the cell's dead agents
-            // double cast to change List<LifeAgent> to List<Agent>
-            List<LifeAgent> deadAgents = ((LifeCell)nextCell).findDeadAgents();
-
-            // removes dead agents from the local agents list and from the cells' respective agents lists
-            if (false == removeAgents(deadAgents)) {
-                LOGGER.log(Level.SEVERE, "Failed to remove some agents!");
-            }
+            if (StepProfiler.ENABLED && profiler != null) t = profiler.record(StepPhase.AGE, t);
             // TODO(sami); consider sending events for all new dead agents,
         }
 
         else if (chosen instanceof Surface) {
             // NOTE: explicitly handling Grass ONLY at the moment
 
-            Point2D nextPoint = findAdjacentPointInGrid(chosen.getPos());
-            LifeCell currCell = (LifeCell) grid.get(chosen.getPos());
-
             // ---------
             // Reproduce
             // ---------
 
             double rGrass = options.getOptionsForAgent(Grass.class).getReproductionRate();
-            boolean willReproduce = Utils.getRand().nextDouble() < rGrass;
+            boolean willReproduce;
+            if (eventQueue != null && ((Surface) chosen).getAging() != null)
+                willReproduce = chosen.getEnergy() > 0; // the event is either a reproduction or the withering
+            else
+                willReproduce = rand.nextDouble() < rGrass;
 
             if (willReproduce && !((LifeCell)grid.get(nextPoint)).containsSurface()) {
                 LifeAgent babyGrass = chosen.reproduce();
@@ -273,23 +552,268 @@ public class Life implements LifeGetter {
                 actions.add(reproduce);
                 processReproduce((Reproduce) reproduce);
             }
+            if (StepProfiler.ENABLED && profiler != null) t = profiler.record(StepPhase.REPRODUCE, t);
 
             // ---
             // Age
             // ---
-            int ageGrass = options.getOptionsForAgent(Grass.class).getAgeBy();
-            Action energyGain = new EnergyChange(chosen, -ageGrass);
-            actions.add(energyGain);
-            processAgeAction((EnergyChange) energyGain);
-
-            List<LifeAgent> deadAgents = currCell.findDeadAgents();
-            if (false == removeAgents(deadAgents)) {
-                LOGGER.log(Level.SEVERE, "Failed to remove some agents!");
+            if (options.isLazySurfaceAging()) {
+                // the energy already reflects the time elapsed, only a withered surface needs to be written (and die)
+                if (chosen.getEnergy() <= 0)
+                    chosen.changeEnergyBy(0);
+            }
+            else {
+                int ageGrass = options.getOptionsForAgent(Grass.class).getAgeBy();
+                Action energyGain = new EnergyChange(chosen, -ageGrass);
+                actions.add(energyGain);
+                processAgeAction((EnergyChange) energyGain);
             }
+            if (StepProfiler.ENABLED && profiler != null) t = profiler.record(StepPhase.AGE, t);
         }
+        return t;
+    }
 
-        stepCount++;
-        return actions;
+    /**
+     *  hands the agents over to @param registry, from which they are added and removed until endConcurrentStepping().
+     * The dead agents are reaped first.
+     */
+    void beginConcurrentStepping(AgentRegistry registry) {
+        reapDeadAgents();
+        for (Agent a : agents)
+            registry.add((LifeAgent) a);
+        agents.clear();
+        this.registry = registry;
+    }
+
+    /**
+     *  takes the agents back from the registry once the threads stepping concurrently are done, and accounts for
+     * @param steps steps, @param elapsed generations and @param deaths agents reaped made by them
+     */
+    void endConcurrentStepping(long steps, double elapsed, int deaths) {
+        registry.drainTo(agents);
+        registry = null;
+        generationDeaths += deaths;
+        reapDeadAgents();
+        stepCount += (int) steps;
+        generations += elapsed;
+        if ((long) generations != generation)
+            endGeneration();
+        publishSnapshot();
+    }
+
+    /**
+     * captures the grid in a new WorldSnapshot and publishes it, readers calling getSnapshot() get it from then on.
+     * Must be called by the thread stepping Life, e.g. between two steps.
+     * @return the snapshot published
+     */
+    public WorldSnapshot publishSnapshot() {
+        final long start = System.nanoTime();
+        // surfaces aged lazily change as time goes by, each at its own pace, wherever they are
+        if (options.isLazySurfaceAging())
+            changedCells.markAll();
+        final WorldSnapshot previous = snapshot.get();
+        WorldSnapshot s = WorldSnapshot.capture(grid, options.getSupportedAgents(), stepCount, generations, previous,
+                spareSnapshot, changedCells);
+        spareSnapshot = previous;
+        snapshot.set(s);
+        stepsSinceSnapshot = 0;
+        LifeEvents.snapshotWritten(s.getVersion(), stepCount, agents.size(), System.nanoTime() - start);
+        final Consumer<WorldSnapshot> listener = snapshotListener;
+        if (listener != null)
+            listener.accept(s);
+        return s;
+    }
+
+    /** @return the number of steps between two snapshots published by step(), 0 if they are only published on demand */
+    public int getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    /**
+     *  changes the number of steps between two snapshots published by step(), initially that of the options. Can be
+     * called from any thread, the next step picks it up.
+     * @param snapshotInterval 0 to only publish snapshots on demand
+     * @throws IllegalArgumentException if snapshotInterval is negative
+     */
+    public void setSnapshotInterval(int snapshotInterval) {
+        if (snapshotInterval < 0)
+            throw new IllegalArgumentException("snapshotInterval cannot be negative: " + snapshotInterval + " given.");
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /** @param listener called with every snapshot published, on the thread stepping Life. Null to remove it. */
+    public void setSnapshotListener(Consumer<WorldSnapshot> listener) {
+        this.snapshotListener = listener;
+    }
+
+    /**  reports the generation that just ended to the flight recorder, as a mass death if many agents died in it */
+    private void endGeneration() {
+        final int agentsNow = agents.size();
+        LifeEvents.generation((long) generations, stepCount, agentsNow, generationDeaths);
+        if (generationDeaths > 0 && generationDeaths >= MASS_DEATH_FRACTION * generationAgents)
+            LifeEvents.massDeath(generation, generationAgents, agentsNow, generationDeaths);
+        generation = (long) generations;
+        generationAgents = agentsNow;
+        generationDeaths = 0;
+    }
+
+    /** @return the profiler timing the phases of step(), null unless StepProfiler.ENABLED */
+    public StepProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * @return the last snapshot published. Safe to call from any thread, the snapshot does not change until the second
+     * snapshot after it is published (see pinSnapshot()).
+     */
+    @Override
+    public WorldSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * @return the last snapshot published, pinned so that it does not change however many snapshots are published
+     * meanwhile. The caller must unpin() it once done. Safe to call from any thread.
+     */
+    @Override
+    public WorldSnapshot pinSnapshot() {
+        while (true) {
+            final WorldSnapshot s = snapshot.get();
+            if (s.pin())
+                return s;
+        }
+    }
+
+    /**
+     * removes every agent that died since the last call from the agents list and from its cell. Only the agents that
+     * died are visited.
+     * @return the number of agents removed
+     */
+    public int reapDeadAgents() {
+        int removed = 0;
+        LifeAgent dead;
+        while ((dead = deathQueue.poll()) != null) {
+            if (dead.lifeIndex < 0)
+                continue; // already removed with removeAgent()
+            if (removeAgent(dead))
+                removed++;
+            else
+                LOGGER.log(Level.SEVERE, "Failed to remove dead agent {0}", dead);
+        }
+        stepsSinceReap = 0;
+        generationDeaths += removed;
+        return removed;
+    }
+
+    /** @return the queue the agents of this Life add themselves to when they die */
+    DeathQueue getDeathQueue() {
+        return deathQueue;
+    }
+
+    /** @return the generator of the random choices of this world, only to be used by the thread stepping it */
+    Random getRand() {
+        return rand;
+    }
+
+    LifeOptions getOptions() {
+        return options;
+    }
+
+    /** @return the number of agents that died and have not been removed yet */
+    public int getDeadAgentsCount() {
+        return deathQueue.size();
+    }
+
+    /**
+     * @return one SurfaceLayer per supported Surface type when the surface layer is enabled in the options, an empty
+     * list otherwise. The layers are handed to every cell of the grid.
+     */
+    private List<SurfaceLayer> createSurfaceLayers() {
+        if (false == options.isSurfaceLayerEnabled())
+            return Collections.emptyList();
+
+        List<SurfaceLayer> layers = new ArrayList<>();
+        for (Class<?extends LifeAgent> type : options.getSupportedAgents()) {
+            if (Surface.class.isAssignableFrom(type))
+                layers.add(new SurfaceLayer(type.asSubclass(Surface.class), getGridRows(), getGridCols()));
+        }
+        List<SurfaceLayer> shared = Collections.unmodifiableList(layers);
+        for (int y = 0; y < getGridRows(); y++) {
+            for (int x = 0; x < getGridCols(); x++) {
+                try { ((LifeCell) grid.get(x, y)).setSurfaceLayers(shared); }
+                catch (InvalidPositionException e) { throw new LifeImplementationException(e.getMessage()); }
+            }
+        }
+        return shared;
+    }
+
+    /** @return the layer for surfaces of type @param type, or null if that type is not modelled by a layer */
+    public SurfaceLayer getSurfaceLayer(Class<? extends LifeAgent> type) {
+        for (SurfaceLayer layer : surfaceLayers) {
+            if (layer.getSurfaceType() == type)
+                return layer;
+        }
+        return null;
+    }
+
+    /** @return read-only list of the surface layers, empty unless the surface layer is enabled */
+    public List<SurfaceLayer> getSurfaceLayers() {
+        return surfaceLayers;
+    }
+
+    /**
+     * @return the @param n th layer (counting from 0) whose surface type is in @param classes and which holds a surface
+     * at @param p
+     */
+    private SurfaceLayer findConsumableLayer(List<Class<?extends LifeAgent>> classes, Point2D p, int n) {
+        for (SurfaceLayer layer : surfaceLayers) {
+            if (classes.contains(layer.getSurfaceType()) && layer.contains(p.getX(), p.getY()) && n-- == 0)
+                return layer;
+        }
+        throw new LifeImplementationException("No consumable surface layer at " + p);
+    }
+
+    /**
+     * consumes the surface held by @param layer at @param p using the same rules as processConsume() for Surface agents
+     * @return the energy gained by the consuming agent
+     */
+    private int consumeFromLayer(SurfaceLayer layer, Point2D p) {
+        int layerEnergy = layer.getEnergy(p.getX(), p.getY());
+        int energyGain = (layerEnergy < CONSUME_GAIN_CAP)? layerEnergy : CONSUME_GAIN_CAP;
+        int energyLost = options.getOptionsForAgent(layer.getSurfaceType()).getEnergyLost();
+        layer.consume(p.getX(), p.getY(), energyLost);
+        return energyGain;
+    }
+
+    /**
+     * ages and spreads all surface layers once per generation. A generation lasts as many steps as there are agents
+     * in Life, so that every agent is chosen once per generation on average, just like Surface agents would be. Under
+     * NEXT_REACTION the layers advance once per whole unit of simulated time instead.
+     */
+    private void advanceSurfaceLayers() {
+        if (surfaceLayers.isEmpty())
+            return;
+        if (eventQueue != null) {
+            while (surfaceGenerations < (long) generations) {
+                advanceSurfaceLayersOnce();
+                surfaceGenerations++;
+            }
+            return;
+        }
+        if (--stepsToSurfaceGeneration > 0)
+            return;
+        advanceSurfaceLayersOnce();
+        stepsToSurfaceGeneration = Math.max(1, agents.size());
+    }
+
+    private void advanceSurfaceLayersOnce() {
+        // the layers age and spread over the whole grid
+        changedCells.markAll();
+        for (SurfaceLayer layer : surfaceLayers) {
+            LifeAgentOptions opts = options.getOptionsForAgent(layer.getSurfaceType());
+            layer.age(opts.getAgeBy());
+            layer.spread(opts.getReproductionRate(), opts.getInitialEnergy(), rand);
+        }
     }
 
     /**
@@ -314,18 +838,25 @@ public class Life implements LifeGetter {
             int I0 = lifeAgentOptions.getInitialCount(); // number of instances
             int E0 = lifeAgentOptions.getInitialEnergy(); // initial energy
 
+            // surfaces modelled by a layer only need their energy to be set on I0 distinct cells
+            SurfaceLayer layer = getSurfaceLayer(surfaceClass);
+            if (layer != null) {
+                nCreated += seedSurfaceLayer(layer, I0, E0);
+                continue;
+            }
+
             // for each type of agent
             try {
                 // create however many agents of this type are needed
                 for (int i = 0; i < I0; i++) {
                     // find a random point in the grid to place this agent instance
-                    Point2D p = Utils.randomPoint(options.getGridCols(), options.getGridRows());
+                    Point2D p = Utils.randomPoint(rand, options.getGridCols(), options.getGridRows());
                     Surface surface = (Surface) surfaceClass.getConstructor(Point2D.class, Integer.class).newInstance(p, E0);
 
                     // keeps trying to find a position for the Grass
                     // CAREFUL: if no check is done with surfacelessCells < I0 before getting to here, this will iterate forever..
                     do {
-                        p = Utils.randomPoint(options.getGridCols(), options.getGridRows());
+                        p = Utils.randomPoint(rand, options.getGridCols(), options.getGridRows());
                         surface.setPos(p);
                         try { addSurface(surface); break; }
                         catch(SurfaceAlreadyPresent e) {}
@@ -353,7 +884,7 @@ public class Life implements LifeGetter {
                 // create however many agents of this type are needed
                 for (int i = 0; i < I0; i++) {
                     // find a random point in the grid to place this agent instance
-                    Point2D p = Utils.randomPoint(options.getGridCols(), options.getGridRows());
+                    Point2D p = Utils.randomPoint(rand, options.getGridCols(), options.getGridRows());
                     Creature creature = (Creature) agentType.getConstructor(Point2D.class, Integer.class).newInstance(p, E0);
                     addCreature(creature);
                     nCreated++;
@@ -367,19 +898,47 @@ public class Life implements LifeGetter {
         return nCreated;
     }
 
+    /**
+     * places @param count surfaces with energy @param energy on random cells that do not have a surface yet
+     * @return the number of surfaces placed
+     */
+    private int seedSurfaceLayer(SurfaceLayer layer, int count, int energy) {
+        if (energy <= 0)
+            return 0;
+        for (int i = 0; i < count; i++) {
+            // CAREFUL: as for Surface agents, this relies on the surfaceCount check made in the constructor
+            int x, y;
+            do {
+                x = rand.nextInt(getGridCols());
+                y = rand.nextInt(getGridRows());
+            } while (containsSurface(x, y));
+            layer.seed(x, y, energy);
+        }
+        return count;
+    }
+
+    /** @return true if any of the surface layers holds a surface at (x, y) */
+    private boolean containsSurface(int x, int y) {
+        for (SurfaceLayer layer : surfaceLayers) {
+            if (layer.contains(x, y))
+                return true;
+        }
+        return false;
+    }
+
     private void processAgeAction(EnergyChange action) throws AgentAlreadyDeadException {
-        LOGGER.log(Level.INFO, action.toString());
+        LOGGER.log(Level.FINE, "{0}", action);
         action.getAgent().changeEnergyBy(action.getEnergyDelta());
     }
 
     private void processMoveAction(Move action) throws InvalidPositionException, SurfaceAlreadyPresent {
-        LOGGER.log(Level.INFO, action.toString());
+        LOGGER.log(Level.FINE, "{0}", action);
         Cell nextCell = grid.get(action.getTo());
         grid.moveAgentToCell(action.getAgent(), nextCell);
     }
 
     private void processReproduce(Reproduce action) throws InvalidPositionException, SurfaceAlreadyPresent {
-        LOGGER.log(Level.INFO, action.toString());
+        LOGGER.log(Level.FINE, "{0}", action);
         Iterator<LifeAgent> babies = action.getBabies();
         while(babies.hasNext()) {
             LifeAgent baby = babies.next();
@@ -388,7 +947,7 @@ public class Life implements LifeGetter {
     }
 
     private void processConsume(Consume action) throws AgentAlreadyDeadException {
-        LOGGER.log(Level.INFO, action.toString());
+        LOGGER.log(Level.FINE, "{0}", action);
         if (false == action.getConsumables().hasNext()) {
             // nothing to consume
             // TODO(sami): put some DEBUG info here
@@ -396,7 +955,6 @@ public class Life implements LifeGetter {
         }
 
         final int choiceOfImplementation = 3;
-        final int GAIN_CAP = 10;
 
         Consumable consumable = action.getConsumables().next();
         LifeAgent consumingAgent = action.getAgent();
@@ -415,7 +973,7 @@ public class Life implements LifeGetter {
             case 3:
                 // Implementation 3:
                 // the consuming agents gains energy of its consumable with a cap on the energy gained
-                energyGain = (consumableEnergy < GAIN_CAP)? consumableEnergy : GAIN_CAP;
+                energyGain = (consumableEnergy < CONSUME_GAIN_CAP)? consumableEnergy : CONSUME_GAIN_CAP;
                 break;
             case 1:
             default:
@@ -438,11 +996,15 @@ public class Life implements LifeGetter {
         try { consumingAgent.consumeBy(consumable, energyLoss); }
         catch (ConsumableOutOfEnergy exc) { exc.printStackTrace(); }
 
+        // a surface that lost energy withers sooner
+        if (consumable instanceof Surface && ((Surface) consumable).isAlive())
+            scheduleNextEvent((Surface) consumable);
+
         consumingAgent.changeEnergyBy(energyGain);
     }
 
     private Point2D findAdjacentPointInGrid(Point2D p) throws InvalidPositionException {
-        return grid.randomAdjacentPoint(p);
+        return grid.randomAdjacentPoint(p, rand);
     }
 
     /** @return the number of surface instances in LifeOptions */
@@ -468,6 +1030,14 @@ public class Life implements LifeGetter {
         return stepCount;
     }
 
+    /**
+     * @return the number of generations elapsed. Each step advances it by 1 / (number of agents), so every agent is
+     * chosen about once per generation. Under NEXT_REACTION it is the simulated time of the last event processed.
+     */
+    public double getGenerations() {
+        return generations;
+    }
+
     /** @return the maximum number of iterations that this simulation should run - this is not enforced in this class
     }     * but the member variable is set when parsing the options */
     @Override
@@ -492,11 +1062,25 @@ public class Life implements LifeGetter {
     @Override
     public int getGridCols() { return options.getGridCols(); }
 
-    public static void main(String []args) throws LifeException {
+    /**
+     *  runs a default Life as fast as possible until all agents died. The run can be followed, paused and throttled
+     * from JMX through its LifeMonitor.
+     */
+    public static void main(String []args) throws LifeException, InterruptedException {
         Life life = new Life();
 
-        while(life.agents.size() > 0){
+        RateGovernor governor = new RateGovernor(() -> {
             life.step();
-        }
+            return life.agents.size() > 0;
+        }, RateGovernor.MAX_RATE);
+        LifeMonitor monitor = new LifeMonitor(life, LifeMonitor.governorControl(governor));
+        monitor.register();
+        governor.start();
+
+        // the governor also stops when paused from JMX, only an empty Life ends the run
+        while (life.agents.size() > 0)
+            Thread.sleep(100);
+        governor.stop();
+        monitor.unregister();
     }
 }
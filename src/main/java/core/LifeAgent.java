@@ -70,6 +70,21 @@ public abstract class LifeAgent extends Agent implements Reproduces, Consumable,
      */
     private boolean died = false;
 
+    /**  queue of the Life this agent belongs to, the agent adds itself to it when it dies. null outside a Life */
+    private DeathQueue deathQueue;
+
+    /**  index of this agent in the agents list of its Life, -1 when outside a Life - maintained by Life only */
+    int lifeIndex = -1;
+
+    /**  slot of this agent in the EventQueue of its Life, -1 when not scheduled - maintained by EventQueue only */
+    int eventIndex = -1;
+
+    /**  the cell holding this agent, null when in no cell - maintained by LifeCell only */
+    LifeCell cell;
+
+    /**  id of this agent's class (see AgentTypes) */
+    private final int typeId = AgentTypes.idOf(getClass());
+
     /**  default constructor */
     public LifeAgent() throws AgentAlreadyDeadException {
         this(null, LifeAgentOptions.DEFAULT_E0);
@@ -106,9 +121,30 @@ public abstract class LifeAgent extends Agent implements Reproduces, Consumable,
         agentStats.incNbCreated();
     }
 
-    /** @return the energy of the LifeAgent */
+    /** @return the energy of the LifeAgent, including any change pending since it was last written */
     @Override
-    public final Integer getEnergy() { return energy; }
+    public final Integer getEnergy() {
+        long pending = pendingEnergyChange();
+        if (pending == 0 || !isAlive())
+            return energy;
+        return (int) Math.max(0L, Math.min(Integer.MAX_VALUE, energy + pending));
+    }
+
+    /** @return the energy the LifeAgent was created with, which its offspring are created with too */
+    public final Integer getInitialEnergy() {
+        return MY_INITIAL_ENERGY;
+    }
+
+    /**
+     * hook for LifeAgents whose energy changes without being written to (see Surface and SurfaceAging).
+     * @return the energy change accumulated since the energy was last written, 0 by default
+     */
+    protected long pendingEnergyChange() {
+        return 0;
+    }
+
+    /**  hook called each time the energy is written, after which pendingEnergyChange() must no longer count the change */
+    protected void energyMaterialized() {}
 
     /**
      * @param e the amount to decrease the energy by
@@ -127,6 +163,7 @@ public abstract class LifeAgent extends Agent implements Reproduces, Consumable,
             throw new AgentAlreadyDeadException("Can't setEnergy on a dead LifeAgent");
         }
         this.energy = energy;
+        energyMaterialized();
         if (this.energy <= 0)
             die();
     }
@@ -141,6 +178,20 @@ public abstract class LifeAgent extends Agent implements Reproduces, Consumable,
         energy = 0;
         LOGGER.log(Level.FINE, toString() + "died. ");
         getAgentStats().incNbDied();
+        if (cell != null)
+            cell.agentDied(this);
+        if (deathQueue != null)
+            deathQueue.enqueue(this);
+    }
+
+    /** @return the id of this agent's class (see AgentTypes) */
+    public final int getTypeId() {
+        return typeId;
+    }
+
+    /**  sets the queue this agent adds itself to when it dies, null to stop reporting the death */
+    void setDeathQueue(DeathQueue deathQueue) {
+        this.deathQueue = deathQueue;
     }
 
     /**
@@ -1,9 +1,17 @@
 package core;
 
 import java.util.Observable;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
+ *  LifeAgentStats
  *
+ * Counters of the agents of one type. Readers that need to follow the counters should read them at their own pace
+ * rather than observe them: observers are notified on every single change, which costs a call per agent created or
+ * dead. Without observers nothing is notified.
+ *
+ * The counters are striped (LongAdder): agents of the same type created or dying on several threads at once do not
+ * contend on a single lock or memory word. A read sums the stripes, it is exact once the threads are done.
  */
 public class LifeAgentStats extends Observable {
 
@@ -15,58 +23,57 @@ public class LifeAgentStats extends Observable {
     private final Class<?extends LifeAgent> agentType;
 
     /** total number of agents of agentType that have been created - counter increments in LifeAgent constructors */
-    private long nbCreated = 0;
+    private final LongAdder nbCreated = new LongAdder();
 
     /** total number of agents of agentType that have died - counter increments in die() method */
-    private long nbDied = 0;
+    private final LongAdder nbDied = new LongAdder();
 
     /** total number of agents of agentType that have reproduced - counter increments in reproduce() method */
-    private long nbReproduced = 0;
+    private final LongAdder nbReproduced = new LongAdder();
 
     public LifeAgentStats(Class<?extends LifeAgent> c) {
         this.agentType = c;
     }
 
     public void incNbDied() {
-        synchronized (this) {
-            nbDied++;
-            myNotify(NOTIFY_DIED);
-        }
+        nbDied.increment();
+        myNotify(NOTIFY_DIED);
     }
 
     public void incNbCreated() {
-        synchronized (this) {
-            nbCreated++;
-            myNotify(NOTIFY_CREATED);
-        }
+        nbCreated.increment();
+        myNotify(NOTIFY_CREATED);
     }
     public void incNbReproduced() {
-        synchronized (this) {
-            nbReproduced++;
-            myNotify(NOTIFY_REPRODUCED);
-        }
+        nbReproduced.increment();
+        myNotify(NOTIFY_REPRODUCED);
     }
 
     public Class<? extends LifeAgent> getAgentType() {
         return agentType;
     }
 
-    public synchronized long getNbCreated() {
-        return nbCreated;
+    public long getNbCreated() {
+        return nbCreated.sum();
     }
 
-    public synchronized long getNbDied() {
-        return nbDied;
+    public long getNbDied() {
+        return nbDied.sum();
     }
 
-    public synchronized long getNbReproduced() {
-        return nbReproduced;
+    public long getNbReproduced() {
+        return nbReproduced.sum();
     }
 
-    /** to avoid repeating "setChanged(); notifyObservers()" */
+    /** to avoid repeating "setChanged(); notifyObservers()" - skipped when nobody observes */
     private void myNotify(String str) {
-        setChanged();
-        notifyObservers(str);
+        if (countObservers() == 0)
+            return;
+        // a notification from another thread could otherwise clear the change before it is notified
+        synchronized (this) {
+            setChanged();
+            notifyObservers(str);
+        }
     }
 
     /**
@@ -74,9 +81,9 @@ public class LifeAgentStats extends Observable {
      * method implemented but kept private for the moment awaiting decision on whether to make it public or not
      */
     private void clearStats() {
-        nbCreated = 0;
-        nbReproduced = 0;
-        nbDied = 0;
+        nbCreated.reset();
+        nbReproduced.reset();
+        nbDied.reset();
     }
 
 }
@@ -1,13 +1,19 @@
 package core;
 
 import core.exceptions.SurfaceAlreadyPresent;
+
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 /**
+ *  LifeCell
  *
+ * Cell holding LifeAgents. Besides the agents themselves, the cell keeps the number of living agents per type
+ * (indexed by AgentTypes id) and a mask of the types present, both updated as agents are added, removed or die.
  */
 public class LifeCell extends Cell<LifeAgent> {
 
@@ -16,8 +22,20 @@ public class LifeCell extends Cell<LifeAgent> {
      */
     private static final Logger LOGGER = Logger.getLogger(Life.class.getName());
 
+    /**  shared by all cells that have no agents yet, replaced on the first add */
+    private static final int[] NO_COUNTS = new int[0];
+
     private Surface surface;
 
+    /**  number of living agents in the cell per type id, grown on demand */
+    private int[] typeCounts = NO_COUNTS;
+
+    /**  bit i set when typeCounts holds a living agent whose type bit is i (see AgentTypes.bitOf) */
+    private long typeMask;
+
+    /**  surface layers shared by all the cells of the grid, empty unless Life runs with the surface layer enabled */
+    private List<SurfaceLayer> surfaceLayers = Collections.emptyList();
+
     public LifeCell(Integer x, Integer y) {
         super(x, y);
     }
@@ -32,7 +50,8 @@ public class LifeCell extends Cell<LifeAgent> {
     public List<LifeAgent> removeDeadAgents() {
 
         List<LifeAgent> toRemove = findDeadAgents();
-        agents.removeAll(toRemove);
+        for (LifeAgent a : toRemove)
+            removeAgent(a);
         return toRemove;
     }
 
@@ -54,7 +73,98 @@ public class LifeCell extends Cell<LifeAgent> {
         // because Cell will always want to set the position of the agent it adds. And when moveTo()'s implementation fails
         // to do so (wrong implementation) we still know that Agent.addAgent() will do the job.
         c.moveTo(getPos());
-        return super.addAgent(c);
+        return addAgent((LifeAgent) c);
+    }
+
+    /**
+     * add @param a to the agents list and count it if it is alive. This is the method all other adds end up in,
+     * including the ones made through a raw Cell reference (e.g. Grid.moveAgentToCell).
+     * @return true if the agent was added
+     */
+    @Override
+    public boolean addAgent(LifeAgent a) {
+        if (false == super.addAgent(a))
+            return false;
+        if (a instanceof Surface && this.surface == null)
+            this.surface = (Surface) a;
+        a.cell = this;
+        if (a.isAlive())
+            increment(a.getTypeId());
+        return true;
+    }
+
+    /**
+     * remove @param a from the agents list and uncount it if it is alive
+     * @return true if the agent was in this cell
+     */
+    @Override
+    public boolean removeAgent(LifeAgent a) {
+        if (false == super.removeAgent(a))
+            return false;
+        if (a == this.surface)
+            this.surface = null;
+        if (a.cell == this)
+            a.cell = null;
+        if (a.isAlive())
+            decrement(a.getTypeId());
+        return true;
+    }
+
+    /**  called by LifeAgent.die() for agents of this cell, the agent stays in the cell but is no longer counted */
+    void agentDied(LifeAgent a) {
+        decrement(a.getTypeId());
+    }
+
+    /** @return the number of living agents of type @param type in the cell */
+    public int countOf(Class<? extends LifeAgent> type) {
+        return countOf(AgentTypes.idOf(type));
+    }
+
+    /** @return the number of living agents whose type has id @param typeId in the cell */
+    public int countOf(int typeId) {
+        return (typeId < typeCounts.length) ? typeCounts[typeId] : 0;
+    }
+
+    /** @return mask of the types of the living agents in the cell (see AgentTypes) */
+    public long getTypeMask() {
+        return typeMask;
+    }
+
+    /** @return true if the cell may hold a living agent of any of the types in @param mask */
+    public boolean containsAny(long mask) {
+        return (typeMask & mask) != 0;
+    }
+
+    /** @return the Surface agent of this cell, null if there is none */
+    public Surface getSurface() {
+        return surface;
+    }
+
+    private void increment(int typeId) {
+        if (typeId >= typeCounts.length)
+            typeCounts = Arrays.copyOf(typeCounts, Math.max(typeId + 1, AgentTypes.count()));
+        typeCounts[typeId]++;
+        typeMask |= AgentTypes.bitOf(typeId);
+    }
+
+    private void decrement(int typeId) {
+        if (typeId >= typeCounts.length || typeCounts[typeId] == 0) {
+            LOGGER.log(Level.SEVERE, "LifeCell type count would become negative");
+            return;
+        }
+        if (--typeCounts[typeId] == 0 && false == bitStillUsed(typeId))
+            typeMask &= ~AgentTypes.bitOf(typeId);
+    }
+
+    /** @return true if another type sharing the mask bit of @param typeId still has living agents in the cell */
+    private boolean bitStillUsed(int typeId) {
+        if (typeId < AgentTypes.OVERFLOW_BIT_INDEX)
+            return false;
+        for (int i = AgentTypes.OVERFLOW_BIT_INDEX; i < typeCounts.length; i++) {
+            if (typeCounts[i] > 0)
+                return true;
+        }
+        return false;
     }
 
     /**
@@ -71,26 +181,38 @@ public class LifeCell extends Cell<LifeAgent> {
         else {
             this.surface = s;
             this.surface.setPos(getPos());
-            return super.addAgent(this.surface);
+            return addAgent((LifeAgent) this.surface);
         }
     }
 
     public boolean removeAgent(Creature c) {
-        boolean check = super.removeAgent(c);
-        if (check)
-            this.surface = null;
-        return check;
+        return removeAgent((LifeAgent) c);
     }
 
-    private boolean removeAgent(Surface s) {
-        boolean check = super.removeAgent(s);
-        if (check)
-            this.surface = null;
-        return check;
-    }
 
+    /** @return true if the cell holds a Surface agent or if any of the surface layers has a surface on this cell */
+    public boolean containsSurface() {
+        if (surface != null)
+            return true;
+        for (int i = 0; i < surfaceLayers.size(); i++) {
+            if (surfaceLayers.get(i).contains(getPos().getX(), getPos().getY()))
+                return true;
+        }
+        return false;
+    }
 
+    /** @return the energy held by the surface layers on this cell, 0 if there is none */
+    public int getSurfaceLayerEnergy() {
+        int total = 0;
+        for (int i = 0; i < surfaceLayers.size(); i++) {
+            total += surfaceLayers.get(i).getEnergy(getPos().getX(), getPos().getY());
+        }
+        return total;
+    }
 
-    public boolean containsSurface() { return surface != null; }
+    /**  sets the surface layers this cell reads from, the list is shared and not copied */
+    public void setSurfaceLayers(List<SurfaceLayer> surfaceLayers) {
+        this.surfaceLayers = (surfaceLayers == null) ? Collections.<SurfaceLayer>emptyList() : surfaceLayers;
+    }
 
 }
@@ -18,4 +18,10 @@ public interface LifeGetter {
     int getGridRows();
 
     int getGridCols();
+
+    /** @return the last WorldSnapshot published, safe to read from any thread */
+    WorldSnapshot getSnapshot();
+
+    /** @return the last WorldSnapshot published, pinned until the caller unpins it */
+    WorldSnapshot pinSnapshot();
 }
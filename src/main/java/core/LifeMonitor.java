@@ -0,0 +1,241 @@
+package core;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ *  LifeMonitor
+ *
+ * LifeMonitorMXBean of one Life. Attributes are read from JMX threads while Life steps on its own thread, they are
+ * therefore read without locking and may lag behind by a step. The operations go through a Control, which is whatever
+ * drives the stepping: the RateGovernor of a headless run (see governorControl()) or the GUI's RootController.
+ */
+public class LifeMonitor implements LifeMonitorMXBean {
+
+    /**
+     *  logger
+     */
+    private static final Logger LOGGER = Logger.getLogger(Life.class.getName());
+
+    /**  domain and type of the ObjectNames under which monitors are registered */
+    public static final String OBJECT_NAME_PREFIX = "core:type=LifeMonitor,name=";
+
+    /**  the operations of the monitor, implemented by what drives the steps of Life */
+    public interface Control {
+        /** @return false if it was already paused */
+        boolean pause();
+
+        /** @return false if it was not paused */
+        boolean resume();
+
+        boolean isPaused();
+
+        double getRate();
+
+        /** @throws IllegalArgumentException if @param rate is not positive */
+        void setRate(double rate);
+    }
+
+    /**  used to give each monitor a distinct name */
+    private static final AtomicInteger instances = new AtomicInteger();
+
+    private final Life life;
+
+    private final Control control;
+
+    private final LongSupplier clock;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    /**  time and step count of the previous read of getStepsPerSecond() */
+    private long lastRateTime;
+    private int lastRateSteps;
+    private double stepsPerSecond;
+
+    private ObjectName objectName;
+
+    public LifeMonitor(Life life, Control control) {
+        this(life, control, System::nanoTime);
+    }
+
+    /**
+     * @param life monitored
+     * @param control pausing, resuming and setting the rate of life
+     * @param clock returning the current time in nanoseconds
+     */
+    public LifeMonitor(Life life, Control control, LongSupplier clock) {
+        this.life = life;
+        this.control = control;
+        this.clock = clock;
+        this.lastRateTime = clock.getAsLong();
+        this.lastRateSteps = life.getStepCount();
+    }
+
+    /** @return a Control pausing, resuming and setting the rate of @param governor */
+    public static Control governorControl(RateGovernor governor) {
+        return new Control() {
+            @Override
+            public boolean pause() {
+                return governor.stop();
+            }
+
+            @Override
+            public boolean resume() {
+                return governor.start();
+            }
+
+            @Override
+            public boolean isPaused() {
+                return false == governor.isRunning();
+            }
+
+            @Override
+            public double getRate() {
+                return governor.getRate();
+            }
+
+            @Override
+            public void setRate(double rate) {
+                governor.setRate(rate);
+            }
+        };
+    }
+
+    /**
+     *  registers the monitor on the platform MBeanServer under a name of its own
+     * @return the name it was registered under, null if registration failed
+     */
+    public synchronized ObjectName register() {
+        if (objectName != null)
+            return objectName;
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME_PREFIX + "life-" + instances.incrementAndGet());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            objectName = name;
+            LOGGER.log(Level.FINE, "registered {0}", name);
+        }
+        catch (JMException e) {
+            LOGGER.log(Level.WARNING, "LifeMonitor could not be registered", e);
+        }
+        return objectName;
+    }
+
+    /**  removes the monitor from the platform MBeanServer, if it was registered */
+    public synchronized void unregister() {
+        if (objectName == null)
+            return;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(objectName))
+                server.unregisterMBean(objectName);
+        }
+        catch (JMException e) {
+            LOGGER.log(Level.WARNING, "LifeMonitor could not be unregistered", e);
+        }
+        objectName = null;
+    }
+
+    /** @return the name the monitor is registered under, null if it is not */
+    public synchronized ObjectName getObjectName() {
+        return objectName;
+    }
+
+    @Override
+    public int getStepCount() {
+        return life.getStepCount();
+    }
+
+    @Override
+    public double getGenerations() {
+        return life.getGenerations();
+    }
+
+    @Override
+    public synchronized double getStepsPerSecond() {
+        final long now = clock.getAsLong();
+        final int steps = life.getStepCount();
+        if (now > lastRateTime) {
+            stepsPerSecond = (steps - lastRateSteps) * 1e9 / (now - lastRateTime);
+            lastRateTime = now;
+            lastRateSteps = steps;
+        }
+        return stepsPerSecond;
+    }
+
+    @Override
+    public double getRate() {
+        return control.getRate();
+    }
+
+    @Override
+    public int getAgentCount() {
+        return life.getAgents().size();
+    }
+
+    @Override
+    public Map<String, Long> getPopulation() {
+        Map<String, Long> population = new TreeMap<>();
+        for (LifeAgentStats s : LifeAgent.getStatsCopy().values())
+            population.put(s.getAgentType().getSimpleName(), s.getNbCreated() - s.getNbDied());
+        return population;
+    }
+
+    @Override
+    public Map<String, Long> getPhaseLatencyP50() {
+        return phaseLatencies(50);
+    }
+
+    @Override
+    public Map<String, Long> getPhaseLatencyP99() {
+        return phaseLatencies(99);
+    }
+
+    /** @return the @param percentile of each StepPhase, empty when steps are not profiled */
+    private Map<String, Long> phaseLatencies(double percentile) {
+        Map<String, Long> latencies = new LinkedHashMap<>();
+        StepProfiler profiler = life.getProfiler();
+        if (profiler != null) {
+            for (StepPhase phase : StepPhase.values())
+                latencies.put(phase.name(), profiler.getHistogram(phase).getValueAtPercentile(percentile));
+        }
+        return latencies;
+    }
+
+    @Override
+    public long getHeapUsed() {
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    @Override
+    public double getHeapUsedPerAgent() {
+        return (double) getHeapUsed() / Math.max(1, getAgentCount());
+    }
+
+    @Override
+    public boolean isPaused() {
+        return control.isPaused();
+    }
+
+    @Override
+    public void pause() {
+        control.pause();
+    }
+
+    @Override
+    public void resume() {
+        control.resume();
+    }
+
+    @Override
+    public void setRate(double rate) {
+        control.setRate(rate);
+    }
+}
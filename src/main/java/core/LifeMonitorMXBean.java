@@ -0,0 +1,59 @@
+package core;
+
+import java.util.Map;
+
+/**
+ *  LifeMonitorMXBean
+ *
+ * Management interface of a running Life, registered on the platform MBeanServer by LifeMonitor so that any local
+ * JMX client (jconsole, jcmd, VisualVM) can follow and throttle a simulation, with or without the GUI.
+ *
+ * Maps are keyed by agent type or StepPhase name. Latencies are in nanoseconds and stay empty unless the JVM runs with
+ * -Dlife.profileSteps=true (see StepProfiler).
+ */
+public interface LifeMonitorMXBean {
+
+    /** @return the number of steps done by Life */
+    int getStepCount();
+
+    /** @return the number of generations elapsed */
+    double getGenerations();
+
+    /** @return steps per second measured since the previous read of this attribute */
+    double getStepsPerSecond();
+
+    /** @return the target rate in steps per second, Infinity when running as fast as possible */
+    double getRate();
+
+    /** @return the number of agents in Life */
+    int getAgentCount();
+
+    /** @return the number of agents alive per type, created minus dead (see LifeAgentStats) */
+    Map<String, Long> getPopulation();
+
+    /** @return the median time of each phase of a step in ns */
+    Map<String, Long> getPhaseLatencyP50();
+
+    /** @return the 99th percentile of the time of each phase of a step in ns */
+    Map<String, Long> getPhaseLatencyP99();
+
+    /** @return the heap used by the JVM in bytes */
+    long getHeapUsed();
+
+    /** @return the heap used by the JVM divided by the number of agents, in bytes */
+    double getHeapUsedPerAgent();
+
+    boolean isPaused();
+
+    /**  stops stepping, like LifeStarter.pause() */
+    void pause();
+
+    /**  steps again after pause(), like LifeStarter.unpause() */
+    void resume();
+
+    /**
+     *  changes the target rate in steps per second, must be positive, Infinity to run as fast as possible. With
+     * getRate() it makes Rate a writable attribute.
+     */
+    void setRate(double rate);
+}
@@ -30,6 +30,21 @@ public class LifeOptions {
     /**  default energy gained by wolf and deer when they consume other agents */
     public static final int DEFAULT_GRID_N = 5;
 
+    /**  by default surfaces are modelled as LifeAgents, the surface layer must be explicitly enabled */
+    public static final boolean DEFAULT_SURFACE_LAYER_ENABLED = false;
+
+    /**  by default surfaces are aged each time they are chosen by Life.step() */
+    public static final boolean DEFAULT_LAZY_SURFACE_AGING = false;
+
+    /**  by default dead agents are removed at the end of the step in which they died */
+    public static final int DEFAULT_REAP_INTERVAL = 1;
+
+    /**  by default snapshots are only published on demand (Life.publishSnapshot()) */
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 0;
+
+    /**  by default Life.step() chooses an agent uniformly at random */
+    public static final Scheduling DEFAULT_SCHEDULING = Scheduling.UNIFORM;
+
     // =================================================================================================================
     // FIELDS
     // =================================================================================================================
@@ -42,7 +57,8 @@ public class LifeOptions {
 //    private final Map<Class<?extends LifeAgent>, List<ConsumeRule>> consumeRules = new HashMap<>();
     private final ConsumeRules consumeRules = new ConsumeRules();
 
-    private Map<Class<?extends LifeAgent>, LifeAgentOptions> lifeAgentParams = new HashMap<>();
+    /**  insertion ordered, so that agents are always created in the same order and seeded runs can be reproduced */
+    private Map<Class<?extends LifeAgent>, LifeAgentOptions> lifeAgentParams = new LinkedHashMap<>();
 
     private int maximumIterations = DEFAULT_MAX_ITERATIONS;
 
@@ -50,6 +66,21 @@ public class LifeOptions {
 
     private int gridCols = DEFAULT_GRID_N;
 
+    /**  when true, Surface types are represented by a SurfaceLayer each instead of one LifeAgent per cell */
+    private boolean surfaceLayerEnabled = DEFAULT_SURFACE_LAYER_ENABLED;
+
+    /**  when true, Surface agents are aged lazily (see SurfaceAging) instead of when they are chosen */
+    private boolean lazySurfaceAging = DEFAULT_LAZY_SURFACE_AGING;
+
+    /**  number of steps between two removals of the dead agents from Life, 1 removes them in the step they died */
+    private int reapInterval = DEFAULT_REAP_INTERVAL;
+
+    /**  number of steps between two WorldSnapshots published by Life, 0 to only publish them on demand */
+    private int snapshotInterval = DEFAULT_SNAPSHOT_INTERVAL;
+
+    /**  how Life.step() chooses the agent that acts */
+    private Scheduling scheduling = DEFAULT_SCHEDULING;
+
     // =================================================================================================================
     // METHODS
     // =================================================================================================================
@@ -65,6 +96,29 @@ public class LifeOptions {
         return options;
     }
 
+    /**
+     * @return default options (see createDefaultLifeOptions()) on a grid of @param rows rows and @param cols columns,
+     * with @param count agents of each type initially
+     */
+    public static LifeOptions createDefaultLifeOptions(int rows, int cols, int count) throws LifeException {
+        return createDefaultLifeOptions(rows, cols, count, count, count);
+    }
+
+    /**
+     * @return default options (see createDefaultLifeOptions()) on a grid of @param rows rows and @param cols columns,
+     * with @param wolves wolves, @param deer deer and @param grass grass initially
+     */
+    public static LifeOptions createDefaultLifeOptions(int rows, int cols, int wolves, int deer, int grass)
+            throws LifeException {
+        LifeOptions options = createDefaultLifeOptions();
+        options.setGridRows(rows);
+        options.setGridCols(cols);
+        options.getOptionsForAgent(Wolf.class).setInitialCount(wolves);
+        options.getOptionsForAgent(Deer.class).setInitialCount(deer);
+        options.getOptionsForAgent(Grass.class).setInitialCount(grass);
+        return options;
+    }
+
     public LifeOptions() {
         this((Class<? extends LifeAgent>[]) null);
     }
@@ -93,6 +147,25 @@ public class LifeOptions {
         init(opts);
     }
 
+    /**
+     *  copy constructor, the agent options and consume rules are copied so that changing the copy leaves @param opts
+     *  as it is
+     */
+    public LifeOptions(LifeOptions opts) {
+        for (LifeAgentOptions agentOptions : opts.lifeAgentParams.values())
+            lifeAgentParams.put(agentOptions.getAgentType(), new LifeAgentOptions(agentOptions));
+        for (ConsumeRule cr : opts.consumeRules)
+            consumeRules.add(new ConsumeRule(cr));
+        maximumIterations = opts.maximumIterations;
+        gridRows = opts.gridRows;
+        gridCols = opts.gridCols;
+        surfaceLayerEnabled = opts.surfaceLayerEnabled;
+        lazySurfaceAging = opts.lazySurfaceAging;
+        reapInterval = opts.reapInterval;
+        snapshotInterval = opts.snapshotInterval;
+        scheduling = opts.scheduling;
+    }
+
     /**
      * called by constructors for initialisation (more flexible than calling another constructor with 'this')
      * because init can be called anywhere in the constructor (beginning, end) as opposed to calling this(..) which must
@@ -198,6 +271,11 @@ public class LifeOptions {
         return consumeRules.consumableClassesForAgent(agent.getClass());
     }
 
+    /** @return the type mask (see AgentTypes) of the LifeAgent classes that @param agent consumes */
+    public long consumableMaskForAgent(LifeAgent agent) {
+        return consumeRules.consumableMaskForAgent(agent.getClass());
+    }
+
     public boolean containsConsumeRule(ConsumeRule cr) {
         exceptionIfInvalidConsumeRule(cr);
 
@@ -226,4 +304,63 @@ public class LifeOptions {
     public void setGridRows(int gridRows) {
         this.gridRows = gridRows;
     }
+
+    public boolean isSurfaceLayerEnabled() {
+        return surfaceLayerEnabled;
+    }
+
+    public void setSurfaceLayerEnabled(boolean surfaceLayerEnabled) {
+        this.surfaceLayerEnabled = surfaceLayerEnabled;
+    }
+
+    public boolean isLazySurfaceAging() {
+        return lazySurfaceAging;
+    }
+
+    public void setLazySurfaceAging(boolean lazySurfaceAging) {
+        this.lazySurfaceAging = lazySurfaceAging;
+    }
+
+    public int getReapInterval() {
+        return reapInterval;
+    }
+
+    /**
+     * @param reapInterval number of steps between two removals of the dead agents, must be at least 1
+     * @throws IllegalArgumentException if reapInterval is less than 1
+     */
+    public void setReapInterval(int reapInterval) {
+        if (reapInterval < 1)
+            throw new IllegalArgumentException("reapInterval must be at least 1: " + reapInterval + " given.");
+        this.reapInterval = reapInterval;
+    }
+
+    public int getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    /**
+     * @param snapshotInterval number of steps between two snapshots published by Life, 0 to only publish on demand
+     * @throws IllegalArgumentException if snapshotInterval is negative
+     */
+    public void setSnapshotInterval(int snapshotInterval) {
+        if (snapshotInterval < 0)
+            throw new IllegalArgumentException("snapshotInterval cannot be negative: " + snapshotInterval + " given.");
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    public Scheduling getScheduling() {
+        return scheduling;
+    }
+
+    /**
+     * @param scheduling how Life.step() chooses the agent that acts. NEXT_REACTION only spares the steps of inactive
+     *                   surfaces when combined with lazy surface ageing, otherwise surfaces must act to age.
+     * @throws IllegalArgumentException if scheduling is null
+     */
+    public void setScheduling(Scheduling scheduling) {
+        if (null == scheduling)
+            throw new IllegalArgumentException("scheduling cannot be null");
+        this.scheduling = scheduling;
+    }
 }
@@ -0,0 +1,257 @@
+package core;
+
+import java.util.*;
+
+/**
+ *  MeanFieldModel
+ *
+ * Fast preview of a world: the differential equations followed by the number of agents of each type and their total
+ * energy when the grid is well mixed, derived from the LifeAgentOptions and the ConsumeRules of a LifeOptions and
+ * integrated with a 4th order Runge-Kutta method. The rates are those of TauLeapEngine, a unit of time being a
+ * generation in which every creature acts once on average. With d the density (agents per cell) of a type, N its
+ * number of agents, E their total energy and m = E / N their mean energy:
+ *
+ *  - a creature acts at rate 1 and consumes if its cell holds any of its prey, which happens with probability
+ *    1 - exp(-C), C being the total density of its prey. The prey eaten is of type y with probability d_y / C
+ *  - a consumed creature dies and gives the consumer min(m_y, CAP) energy. A surface bite takes min(energyLost, m_y)
+ *    energy, kills the surface when it takes all of it and gives the same energy as a creature
+ *  - creatures are born at rate r N with their initial energy
+ *  - every agent loses ageBy energy per unit of time and, if ageBy is positive, dies at rate ageBy / m, keeping its
+ *    mean lifetime and the mean energy of the others
+ *  - a surface spreads at rate r to an adjacent cell, which succeeds if that cell has no surface
+ *
+ * A population falling below EXTINCTION_THRESHOLD agents is extinct, and so is a population left without energy.
+ * Space is ignored: predators are not held back by having eaten the prey around them, and a small population going
+ * extinct by chance is not predicted, so the preview is optimistic where Life is patchy.
+ */
+public class MeanFieldModel {
+
+    /**  a population with fewer agents than this is extinct */
+    public static final double EXTINCTION_THRESHOLD = 0.5;
+
+    /**  default longest integration step, in units of time */
+    public static final double DEFAULT_MAX_STEP = 0.1;
+
+    /**  default time between two points of the predicted curves */
+    public static final double DEFAULT_INTERVAL = 1.0;
+
+    /**  the supported agent types, indexing every per type array */
+    private final List<Class<? extends LifeAgent>> types;
+
+    private final int cells;
+
+    private final double maxStep;
+
+    private final boolean[] surface;
+    private final double[] reproductionRate;
+    private final int[] ageBy;
+    private final int[] initialEnergy;
+    private final int[] energyLost;
+    private final int[] initialCount;
+
+    /**  indices of the types each type consumes */
+    private final int[][] prey;
+
+    /**  scratch state and slopes of a Runge-Kutta step: counts at [0, n), energies at [n, 2n) */
+    private final double[] k1, k2, k3, k4, probe;
+
+    /**  largest rate at which a population changes relative to its size, from the last derivatives() call */
+    private double stiffness;
+
+    public MeanFieldModel(LifeOptions options) {
+        this(options, DEFAULT_MAX_STEP);
+    }
+
+    /**
+     *  derives the equations of the world described by @param options
+     * @param maxStep longest integration step, positive. Steps are shortened where populations change fast.
+     */
+    public MeanFieldModel(LifeOptions options, double maxStep) {
+        if (false == (maxStep > 0))
+            throw new IllegalArgumentException("maxStep must be positive: " + maxStep + " given.");
+        if (options.getGridRows() < 1 || options.getGridCols() < 1)
+            throw new IllegalArgumentException("Grid dimensions must be positive: " + options.getGridRows() + "x"
+                    + options.getGridCols());
+        this.cells = options.getGridRows() * options.getGridCols();
+        this.maxStep = maxStep;
+
+        types = Collections.unmodifiableList(new ArrayList<>(options.getSupportedAgents()));
+        final int n = types.size();
+        surface = new boolean[n];
+        reproductionRate = new double[n];
+        ageBy = new int[n];
+        initialEnergy = new int[n];
+        energyLost = new int[n];
+        initialCount = new int[n];
+        prey = new int[n][];
+        for (int t = 0; t < n; t++) {
+            LifeAgentOptions opts = options.getOptionsForAgent(types.get(t));
+            surface[t] = Surface.class.isAssignableFrom(types.get(t));
+            reproductionRate[t] = opts.getReproductionRate();
+            ageBy[t] = opts.getAgeBy();
+            initialEnergy[t] = opts.getInitialEnergy();
+            energyLost[t] = opts.getEnergyLost();
+            // at most one surface per cell, as Life places them
+            initialCount[t] = surface[t] ? Math.min(opts.getInitialCount(), cells) : opts.getInitialCount();
+
+            List<Class<? extends LifeAgent>> consumables = options.getConsumeRules().consumableClassesForAgent(types.get(t));
+            prey[t] = consumables.stream().mapToInt(types::indexOf).filter(i -> i >= 0).toArray();
+        }
+        k1 = new double[2 * n];
+        k2 = new double[2 * n];
+        k3 = new double[2 * n];
+        k4 = new double[2 * n];
+        probe = new double[2 * n];
+    }
+
+    /** @return the curves predicted until @param until, a point every DEFAULT_INTERVAL */
+    public MeanFieldPrediction predict(double until) {
+        return predict(until, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * @return the curves predicted from the initial counts of the options until @param until, a point every
+     * @param interval and one at until
+     */
+    public MeanFieldPrediction predict(double until, double interval) {
+        if (false == (until >= 0) || Double.isInfinite(until))
+            throw new IllegalArgumentException("until must be finite and non-negative: " + until + " given.");
+        if (false == (interval > 0))
+            throw new IllegalArgumentException("interval must be positive: " + interval + " given.");
+        final int n = types.size();
+        final int points = (int) Math.ceil(until / interval - 1e-9) + 1;
+        final double[] times = new double[points];
+        final double[][] counts = new double[n][points];
+        final double[][] energies = new double[n][points];
+
+        double[] y = new double[2 * n];
+        for (int t = 0; t < n; t++) {
+            y[t] = initialCount[t];
+            y[n + t] = (double) initialCount[t] * initialEnergy[t];
+        }
+        extinguish(y);
+
+        double time = 0;
+        for (int p = 0; p < points; p++) {
+            final double target = Math.min(until, p * interval);
+            while (time < target) {
+                derivatives(y, k1);
+                double h = Math.min(target - time, stiffness > 0 ? Math.min(maxStep, 1 / stiffness) : maxStep);
+                rungeKuttaStep(y, h);
+                time = (target - time <= h) ? target : time + h;
+            }
+            times[p] = target;
+            for (int t = 0; t < n; t++) {
+                counts[t][p] = y[t];
+                energies[t][p] = y[n + t];
+            }
+        }
+        return new MeanFieldPrediction(types, times, counts, energies);
+    }
+
+    /**  advances the state @param y by @param h, k1 holding its derivatives */
+    private void rungeKuttaStep(double[] y, double h) {
+        final int size = y.length;
+        for (int i = 0; i < size; i++)
+            probe[i] = Math.max(0, y[i] + h / 2 * k1[i]);
+        derivatives(probe, k2);
+        for (int i = 0; i < size; i++)
+            probe[i] = Math.max(0, y[i] + h / 2 * k2[i]);
+        derivatives(probe, k3);
+        for (int i = 0; i < size; i++)
+            probe[i] = Math.max(0, y[i] + h * k3[i]);
+        derivatives(probe, k4);
+        for (int i = 0; i < size; i++)
+            y[i] = Math.max(0, y[i] + h / 6 * (k1[i] + 2 * k2[i] + 2 * k3[i] + k4[i]));
+        extinguish(y);
+    }
+
+    /**  empties the populations of @param y below the extinction threshold or left without energy */
+    private void extinguish(double[] y) {
+        final int n = types.size();
+        for (int t = 0; t < n; t++) {
+            if (y[t] < EXTINCTION_THRESHOLD || y[n + t] <= 0) {
+                y[t] = 0;
+                y[n + t] = 0;
+            }
+        }
+    }
+
+    /**  writes in @param dy the derivatives of the state @param y, and sets stiffness */
+    void derivatives(double[] y, double[] dy) {
+        final int n = types.size();
+        Arrays.fill(dy, 0);
+        stiffness = 0;
+
+        double covered = 0;
+        for (int t = 0; t < n; t++) {
+            if (surface[t])
+                covered += y[t] / cells;
+        }
+        covered = Math.min(1, covered);
+
+        for (int t = 0; t < n; t++) {
+            final double count = y[t];
+            if (count <= 0)
+                continue;
+            final double mean = y[n + t] / count;
+
+            if (surface[t]) {
+                final double spread = reproductionRate[t] * count * (1 - covered);
+                dy[t] += spread;
+                dy[n + t] += spread * initialEnergy[t];
+            }
+            else {
+                final double births = reproductionRate[t] * count;
+                dy[t] += births;
+                dy[n + t] += births * initialEnergy[t];
+                consume(t, y, dy);
+            }
+            dy[n + t] -= ageBy[t] * count;
+            if (ageBy[t] > 0 && mean > 0)
+                dy[t] -= count * ageBy[t] / mean;
+        }
+
+        for (int t = 0; t < n; t++) {
+            if (y[t] > 0)
+                stiffness = Math.max(stiffness, Math.abs(dy[t]) / y[t]);
+        }
+    }
+
+    /**  adds to @param dy the consumption of their prey by the creatures of type @param t in the state @param y */
+    private void consume(int t, double[] y, double[] dy) {
+        final int n = types.size();
+        double candidates = 0;
+        for (int p : prey[t])
+            candidates += y[p] / cells;
+        if (candidates <= 0)
+            return;
+        // acts that find something to consume, split over the prey types by density
+        final double acts = y[t] * (1 - Math.exp(-candidates)) / candidates;
+        for (int p : prey[t]) {
+            if (y[p] <= 0)
+                continue;
+            final double eaten = acts * y[p] / cells;
+            final double mean = y[n + p] / y[p];
+            dy[n + t] += eaten * Math.min(mean, Life.CONSUME_GAIN_CAP);
+            if (surface[p]) {
+                final double bite = (energyLost[p] > 0) ? Math.min(energyLost[p], mean) : 0;
+                dy[n + p] -= eaten * bite;
+                dy[p] -= (mean > 0) ? eaten * bite / mean : 0;
+            }
+            else {
+                dy[p] -= eaten;
+                dy[n + p] -= eaten * mean;
+            }
+        }
+    }
+
+    /** @return read-only list of the agent types, in the order of the options */
+    public List<Class<? extends LifeAgent>> getTypes() {
+        return types;
+    }
+
+    public double getMaxStep() {
+        return maxStep;
+    }
+}
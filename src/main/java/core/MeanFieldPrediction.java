@@ -0,0 +1,105 @@
+package core;
+
+import java.util.*;
+
+/**
+ *  MeanFieldPrediction
+ *
+ * Population curves predicted by a MeanFieldModel: the number of agents of each type and their total energy at a
+ * sequence of times, starting at 0.
+ */
+public class MeanFieldPrediction {
+
+    private final List<Class<? extends LifeAgent>> types;
+
+    private final double[] times;
+
+    /**  per type then per point */
+    private final double[][] counts;
+    private final double[][] energies;
+
+    MeanFieldPrediction(List<Class<? extends LifeAgent>> types, double[] times, double[][] counts, double[][] energies) {
+        this.types = types;
+        this.times = times;
+        this.counts = counts;
+        this.energies = energies;
+    }
+
+    private int typeIndex(Class<? extends LifeAgent> type) {
+        int t = types.indexOf(type);
+        if (t < 0)
+            throw new IllegalArgumentException(type.getSimpleName() + " is not part of this prediction");
+        return t;
+    }
+
+    /** @return read-only list of the agent types, in the order of the options */
+    public List<Class<? extends LifeAgent>> getTypes() {
+        return types;
+    }
+
+    /** @return the number of points of each curve */
+    public int size() {
+        return times.length;
+    }
+
+    /** @return the time of point @param i */
+    public double getTime(int i) {
+        return times[i];
+    }
+
+    /** @return the last time predicted */
+    public double getHorizon() {
+        return times[times.length - 1];
+    }
+
+    /** @return the predicted number of agents of type @param type at point @param i */
+    public double getCount(Class<? extends LifeAgent> type, int i) {
+        return counts[typeIndex(type)][i];
+    }
+
+    /** @return the predicted total energy of the agents of type @param type at point @param i */
+    public double getEnergy(Class<? extends LifeAgent> type, int i) {
+        return energies[typeIndex(type)][i];
+    }
+
+    /** @return a copy of the predicted number of agents of type @param type at every point */
+    public double[] getCurve(Class<? extends LifeAgent> type) {
+        return counts[typeIndex(type)].clone();
+    }
+
+    /** @return the predicted number of agents of type @param type at the horizon */
+    public double finalCount(Class<? extends LifeAgent> type) {
+        return counts[typeIndex(type)][times.length - 1];
+    }
+
+    /** @return the first time at which no agent of type @param type is left, NaN if some are left at the horizon */
+    public double extinctionTime(Class<? extends LifeAgent> type) {
+        final double[] curve = counts[typeIndex(type)];
+        if (curve[curve.length - 1] > 0)
+            return Double.NaN;
+        int i = curve.length - 1;
+        while (i > 0 && curve[i - 1] == 0)
+            i--;
+        return times[i];
+    }
+
+    /** @return true if no agent of type @param type is left at the horizon */
+    public boolean isExtinct(Class<? extends LifeAgent> type) {
+        return finalCount(type) == 0;
+    }
+
+    /** @return the types of which some agents are left at the horizon */
+    public List<Class<? extends LifeAgent>> getSurvivors() {
+        List<Class<? extends LifeAgent>> survivors = new ArrayList<>();
+        for (Class<? extends LifeAgent> type : types) {
+            if (false == isExtinct(type))
+                survivors.add(type);
+        }
+        return survivors;
+    }
+
+    /** @return true if no agent of any type is left at the horizon */
+    public boolean isDead() {
+        return getSurvivors().isEmpty();
+    }
+}
@@ -0,0 +1,266 @@
+package core;
+
+import core.exceptions.LifeException;
+import core.jfr.LifeEvents;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ *  RateGovernor
+ *
+ * Runs a Stepper at a target rate in steps per second. Instead of scheduling one step per timer period (which cannot
+ * go beyond a few hundred steps per second), the governor ticks at a fixed period and runs, on each tick, the batch of
+ * steps that became due since the previous one. The number of steps due is computed from the time actually elapsed,
+ * so late ticks make up for the steps they missed and the rate does not drift.
+ *
+ * A batch never runs for more than a fraction of the tick period, the steps it could not run are carried over, up to
+ * MAX_CATCH_UP_TICKS ticks worth of steps. Beyond that the governor gives up on the backlog rather than stalling.
+ * With the rate set to MAX_RATE, every tick runs as many steps as fit in its time budget.
+ */
+public class RateGovernor {
+
+    /**
+     *  logger
+     */
+    private static final Logger LOGGER = Logger.getLogger(Life.class.getName());
+
+    /**  the work done on each step */
+    @FunctionalInterface
+    public interface Stepper {
+        /** @return false when no more steps should be run, e.g. the maximum number of iterations was reached */
+        boolean step() throws LifeException;
+    }
+
+    /**  rate meaning "as fast as possible" */
+    public static final double MAX_RATE = Double.POSITIVE_INFINITY;
+
+    /**  default period between two ticks in nanoseconds - 10 milliseconds */
+    public static final long DEFAULT_TICK_PERIOD = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /**  fraction of the tick period a single batch may use */
+    public static final double TICK_BUDGET = 0.8;
+
+    /**  number of ticks worth of steps that may be carried over when the governor falls behind */
+    public static final int MAX_CATCH_UP_TICKS = 10;
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final Stepper stepper;
+
+    /**  current time in nanoseconds */
+    private final LongSupplier clock;
+
+    /**  period between two ticks in nanoseconds */
+    private final long tickPeriod;
+
+    /**  target rate in steps per second */
+    private volatile double rate;
+
+    /**  set when the rate changed since the last tick, the next tick then starts from a clean slate */
+    private volatile boolean rateChanged = true;
+
+    /**  called after every batch that ran at least one step */
+    private volatile Runnable batchListener;
+
+    /**  called once the stepper asked for no more steps */
+    private volatile Runnable finishListener;
+
+    /**  steps due but not run yet, may be fractional. Only accessed by the ticking thread. */
+    private double credit;
+
+    /**  time of the previous tick. Only accessed by the ticking thread. */
+    private long lastTick;
+
+    /**  total number of steps run */
+    private volatile long stepsDone;
+
+    private volatile ScheduledExecutorService executor;
+
+    /**  thread the ticks run on, so that stop() doesn't wait for itself */
+    private volatile Thread tickThread;
+
+    /**
+     * @param stepper the work done on each step
+     * @param rate target number of steps per second, MAX_RATE to run as fast as possible
+     */
+    public RateGovernor(Stepper stepper, double rate) {
+        this(stepper, rate, DEFAULT_TICK_PERIOD, System::nanoTime);
+    }
+
+    /**
+     * @param stepper the work done on each step
+     * @param rate target number of steps per second, MAX_RATE to run as fast as possible
+     * @param tickPeriod period between two ticks in nanoseconds
+     * @param clock returning the current time in nanoseconds
+     */
+    public RateGovernor(Stepper stepper, double rate, long tickPeriod, LongSupplier clock) {
+        if (tickPeriod <= 0)
+            throw new IllegalArgumentException("RateGovernor tick period must be positive: " + tickPeriod);
+        this.stepper = stepper;
+        this.tickPeriod = tickPeriod;
+        this.clock = clock;
+        setRate(rate);
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     *  changes the target rate, takes effect on the next tick without rescheduling anything
+     * @param rate must be positive, MAX_RATE to run as fast as possible
+     */
+    public void setRate(double rate) {
+        if (Double.isNaN(rate) || rate <= 0)
+            throw new IllegalArgumentException("RateGovernor rate must be positive: " + rate);
+        this.rate = rate;
+        this.rateChanged = true;
+    }
+
+    /** @param listener called on the ticking thread after every batch that ran at least one step */
+    public void setBatchListener(Runnable listener) {
+        this.batchListener = listener;
+    }
+
+    /**
+     * @param listener called on the ticking thread, after the last batch, once the stepper asked for no more steps or a
+     * step or the batch listener threw a RuntimeException, the governor stopping then. Not called when stop() is called.
+     */
+    public void setFinishListener(Runnable listener) {
+        this.finishListener = listener;
+    }
+
+    /** @return the total number of steps run */
+    public long getStepsDone() {
+        return stepsDone;
+    }
+
+    public synchronized boolean isRunning() {
+        return executor != null && false == executor.isShutdown();
+    }
+
+    /**
+     *  starts ticking on a dedicated daemon thread
+     * @return false if the governor was already running
+     */
+    public synchronized boolean start() {
+        if (isRunning())
+            return false;
+        rateChanged = true;
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "life-rate-governor");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleAtFixedRate(() -> {
+            tickThread = Thread.currentThread();
+            tick();
+        }, 0, tickPeriod, TimeUnit.NANOSECONDS);
+        return true;
+    }
+
+    /**
+     *  stops ticking. Unless called from a step, returns once the batch in progress (if any) is over, so that no step
+     * runs after stop() returns.
+     * @return false if the governor was not running
+     */
+    public synchronized boolean stop() {
+        if (false == isRunning())
+            return false;
+        executor.shutdown();
+        if (Thread.currentThread() != tickThread) {
+            try {
+                executor.awaitTermination(1, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return true;
+    }
+
+    /**
+     *  runs the batch of steps due since the previous tick. Called by the executor, exposed so that the governor can
+     * be driven by hand.
+     * @return the number of steps run
+     */
+    public int tick() {
+        final long now = clock.getAsLong();
+        final double r = rate;
+
+        if (rateChanged) {
+            rateChanged = false;
+            credit = 0;
+            lastTick = now;
+        }
+
+        if (r == MAX_RATE) {
+            credit = Double.MAX_VALUE;
+        }
+        else {
+            // steps due for the time actually elapsed since the previous tick, late ticks are made up for
+            double maxCredit = Math.max(1.0, r * tickPeriod * MAX_CATCH_UP_TICKS / NANOS_PER_SECOND);
+            credit = Math.min(credit + r * (now - lastTick) / NANOS_PER_SECOND, maxCredit);
+        }
+        lastTick = now;
+
+        final long deadline = now + (long) (tickPeriod * TICK_BUDGET);
+        int done = 0;
+        boolean more = true;
+        try {
+            while (credit >= 1.0 && more) {
+                more = stepper.step();
+                credit -= 1.0;
+                done++;
+                if (clock.getAsLong() - deadline >= 0)
+                    break;
+            }
+        }
+        catch (LifeException e) {
+            LOGGER.log(Level.SEVERE, "step failed, the rest of the batch is dropped", e);
+            credit = 0;
+        }
+        catch (RuntimeException e) {
+            // escaping, it would silently cancel every further tick of the executor
+            LOGGER.log(Level.SEVERE, "step failed unexpectedly, stepping stops", e);
+            more = false;
+        }
+        if (r == MAX_RATE)
+            credit = 0;
+
+        stepsDone += done;
+        if (done > 0)
+            LifeEvents.stepBatch(done, r, clock.getAsLong() - now);
+        Runnable listener = batchListener;
+        if (done > 0 && listener != null) {
+            try {
+                listener.run();
+            }
+            catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "batch listener failed, stepping stops", e);
+                more = false;
+            }
+        }
+        if (false == more) {
+            // no waiting here, stop() may be in progress on another thread
+            ScheduledExecutorService e = executor;
+            if (e != null)
+                e.shutdown();
+            Runnable finished = finishListener;
+            if (finished != null) {
+                try {
+                    finished.run();
+                }
+                catch (RuntimeException ex) {
+                    LOGGER.log(Level.SEVERE, "finish listener failed", ex);
+                }
+            }
+        }
+        return done;
+    }
+}
@@ -0,0 +1,205 @@
+package core;
+
+/**
+ *  RegionPartition
+ *
+ * Splits a grid among workers for an AsyncStepper. The grid is cut into square regions of side cells, which are
+ * numbered along a Hilbert curve, and each worker owns a contiguous range of that numbering. Neighbouring numbers being
+ * neighbouring regions, a range is a compact block of the grid whatever its length, so that workers mostly act in
+ * cells no other worker locks.
+ *
+ * Agents cluster (deer on grass, wolves on deer), so ranges of equal length give some workers most of the agents. A
+ * dynamic partition is rebalanced from the number of agents in each region: the bounds of the ranges move along the
+ * curve until each worker owns about as many agents as the others, the regions crossing a bound migrating to the
+ * neighbouring worker. A static partition keeps its initial ranges of equal length.
+ */
+public class RegionPartition {
+
+    /**  regions per worker of the partitions created by of(), enough to split a cluster of agents finely */
+    public static final int REGIONS_PER_WORKER = 16;
+
+    private final int rows;
+
+    private final int cols;
+
+    private final int side;
+
+    /**  regions across and down the grid */
+    private final int regionCols;
+    private final int regionRows;
+
+    /**  number along the curve of the region at (x, y) in regions, at y * regionCols + x */
+    private final int[] curve;
+
+    /**  worker w owns the regions numbered bounds[w] inclusive to bounds[w + 1] exclusive */
+    private final int[] bounds;
+
+    private final boolean dynamic;
+
+    /**
+     *  splits a grid of @param rows rows and @param cols columns in regions of @param side cells of side among
+     * @param workers workers, rebalanced if @param dynamic
+     * @throws IllegalArgumentException if any size is not positive
+     */
+    public RegionPartition(int rows, int cols, int side, int workers, boolean dynamic) {
+        if (rows < 1 || cols < 1 || side < 1 || workers < 1)
+            throw new IllegalArgumentException("Rows, columns, side and workers must be positive: " + rows + ", " + cols
+                    + ", " + side + " and " + workers + " given.");
+        this.rows = rows;
+        this.cols = cols;
+        this.side = side;
+        this.dynamic = dynamic;
+        regionCols = (cols + side - 1) / side;
+        regionRows = (rows + side - 1) / side;
+
+        // walk a Hilbert curve over the smallest power of 2 square covering the regions, skipping those outside
+        curve = new int[regionRows * regionCols];
+        final int n = Integer.highestOneBit(Math.max(1, Math.max(regionRows, regionCols) - 1)) << 1;
+        final int[] xy = new int[2];
+        int next = 0;
+        for (int d = 0; next < curve.length; d++) {
+            hilbertPoint(n, d, xy);
+            if (xy[0] < regionCols && xy[1] < regionRows)
+                curve[xy[1] * regionCols + xy[0]] = next++;
+        }
+
+        bounds = new int[workers + 1];
+        for (int w = 0; w <= workers; w++)
+            bounds[w] = (int) ((long) curve.length * w / workers);
+    }
+
+    /**
+     * @return a partition of a grid of @param rows rows and @param cols columns among @param workers workers, with
+     * about REGIONS_PER_WORKER regions each, rebalanced if @param dynamic
+     */
+    public static RegionPartition of(int rows, int cols, int workers, boolean dynamic) {
+        final double cellsPerRegion = (double) rows * cols / ((double) workers * REGIONS_PER_WORKER);
+        final int side = Math.max(1, (int) Math.sqrt(cellsPerRegion));
+        return new RegionPartition(rows, cols, side, workers, dynamic);
+    }
+
+    /**  sets @param xy to the point at @param d along the Hilbert curve filling a square of side @param n, a power of 2 */
+    static void hilbertPoint(int n, int d, int[] xy) {
+        int x = 0, y = 0;
+        for (int s = 1; s < n; s <<= 1) {
+            final int rx = 1 & (d >>> 1);
+            final int ry = 1 & (d ^ rx);
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = s - 1 - x;
+                    y = s - 1 - y;
+                }
+                final int t = x;
+                x = y;
+                y = t;
+            }
+            x += s * rx;
+            y += s * ry;
+            d >>>= 2;
+        }
+        xy[0] = x;
+        xy[1] = y;
+    }
+
+    /** @return the number along the curve of the region of the point @param p, which must be in the grid */
+    public int regionOf(Point2D p) {
+        return curve[(p.getY() / side) * regionCols + p.getX() / side];
+    }
+
+    /** @return the number of regions */
+    public int getRegions() {
+        return curve.length;
+    }
+
+    public int getWorkers() {
+        return bounds.length - 1;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    /** @return the side of the regions in cells */
+    public int getSide() {
+        return side;
+    }
+
+    public boolean isDynamic() {
+        return dynamic;
+    }
+
+    /** @return the first region owned by @param worker */
+    public int from(int worker) {
+        return bounds[worker];
+    }
+
+    /** @return the region after the last one owned by @param worker */
+    public int to(int worker) {
+        return bounds[worker + 1];
+    }
+
+    /** @return the worker owning @param region */
+    public int ownerOf(int region) {
+        int w = 0;
+        while (region >= bounds[w + 1])
+            w++;
+        return w;
+    }
+
+    /**
+     *  moves the bounds of the ranges so that each worker owns about as many agents, given the agents in each region
+     * by @param counts. Does nothing if the partition is static or there is no agent.
+     * @return the number of regions that changed owner
+     */
+    public int rebalance(int[] counts) {
+        if (counts.length != curve.length)
+            throw new IllegalArgumentException("Expected the agents of " + curve.length + " regions, not "
+                    + counts.length);
+        long total = 0;
+        for (int c : counts)
+            total += c;
+        if (false == dynamic || total == 0)
+            return 0;
+
+        final int[] old = bounds.clone();
+        final int workers = getWorkers();
+        long before = 0;
+        int r = 0;
+        for (int w = 1; w < workers; w++) {
+            // the bound closest to the share of the first w workers
+            final double target = (double) total * w / workers;
+            while (r < counts.length && before + counts[r] <= target)
+                before += counts[r++];
+            if (r < counts.length && target - before > before + counts[r] - target)
+                before += counts[r++];
+            bounds[w] = r;
+        }
+
+        // regions owned by the same worker before and after
+        int kept = 0;
+        for (int w = 0; w < workers; w++)
+            kept += Math.max(0, Math.min(old[w + 1], bounds[w + 1]) - Math.max(old[w], bounds[w]));
+        return curve.length - kept;
+    }
+
+    /**
+     * @return the agents of the most loaded worker over the mean agents per worker, given the agents in each region by
+     * @param counts, 1 when perfectly balanced and 0 when there is no agent
+     */
+    public double imbalance(int[] counts) {
+        final int workers = getWorkers();
+        long total = 0, max = 0;
+        for (int w = 0; w < workers; w++) {
+            long load = 0;
+            for (int r = bounds[w]; r < bounds[w + 1]; r++)
+                load += counts[r];
+            total += load;
+            max = Math.max(max, load);
+        }
+        return (total == 0) ? 0 : (double) max * workers / total;
+    }
+}
@@ -0,0 +1,19 @@
+package core;
+
+/**
+ *  Scheduling
+ *
+ * How Life.step() chooses the agent that acts, see LifeOptions.setScheduling().
+ */
+public enum Scheduling {
+
+    /**  an agent chosen uniformly at random on every step, time advancing by 1 / (number of agents) */
+    UNIFORM,
+
+    /**
+     *  the agent with the earliest next event, taken from an EventQueue. Each agent's events follow a Poisson process
+     * whose rate is derived from its LifeAgentOptions (see Life.eventRate()) and time advances to the event processed,
+     * in simulated units comparable with the generations of UNIFORM.
+     */
+    NEXT_REACTION
+}
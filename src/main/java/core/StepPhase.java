@@ -0,0 +1,30 @@
+package core;
+
+/**
+ *  StepPhase
+ *
+ * The phases of Life.step() timed by the StepProfiler, in the order in which they run.
+ */
+public enum StepPhase {
+
+    /**  choosing the agent that acts, including the guard for an empty Life */
+    SELECTION,
+
+    /**  moving a creature to an adjacent cell */
+    MOVE,
+
+    /**  gathering the agents and surface layers the creature can consume in its new cell */
+    CONSUME_FILTER,
+
+    /**  choosing one of the candidates and consuming it */
+    CONSUME,
+
+    /**  reproducing, whether or not a baby is born */
+    REPRODUCE,
+
+    /**  ageing the agent that acted */
+    AGE,
+
+    /**  removing the dead agents from Life */
+    CLEANUP
+}
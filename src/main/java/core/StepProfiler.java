@@ -0,0 +1,72 @@
+package core;
+
+/**
+ *  StepProfiler
+ *
+ * Times each StepPhase of Life.step() into a LatencyHistogram per phase, in nanoseconds. The histogram counts double
+ * as the number of times each phase ran.
+ *
+ * Profiling is off unless the JVM is started with -Dlife.profileSteps=true. ENABLED is a static final so that the JIT
+ * removes the timing code from Life.step() entirely when it is off. When it is on, timing a phase costs a call to
+ * System.nanoTime() and allocates nothing.
+ */
+public class StepProfiler {
+
+    /**  system property turning the profiling of Life.step() on */
+    public static final String PROPERTY = "life.profileSteps";
+
+    /**  true when Life instances profile their steps, read once when the class is loaded */
+    public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    private static final StepPhase[] PHASES = StepPhase.values();
+
+    /**  histograms indexed by phase ordinal */
+    private final LatencyHistogram[] histograms = new LatencyHistogram[PHASES.length];
+
+    public StepProfiler() {
+        for (int i = 0; i < histograms.length; i++)
+            histograms[i] = new LatencyHistogram();
+    }
+
+    /**
+     *  records the time elapsed in @param phase since @param start
+     * @param start value of System.nanoTime() when the phase started
+     * @return the current System.nanoTime(), i.e. the start of the next phase
+     */
+    public long record(StepPhase phase, long start) {
+        final long now = System.nanoTime();
+        histograms[phase.ordinal()].record(now - start);
+        return now;
+    }
+
+    public LatencyHistogram getHistogram(StepPhase phase) {
+        return histograms[phase.ordinal()];
+    }
+
+    /** @return the number of times @param phase was timed */
+    public long getCount(StepPhase phase) {
+        return histograms[phase.ordinal()].getCount();
+    }
+
+    public void reset() {
+        for (LatencyHistogram h : histograms)
+            h.reset();
+    }
+
+    /** @return one line per phase with its count, mean, 50th, 90th, 99th percentiles and maximum in ns */
+    public String report() {
+        StringBuilder sb = new StringBuilder(String.format("%-15s %12s %10s %10s %10s %10s %12s%n",
+                "phase", "count", "mean", "p50", "p90", "p99", "max"));
+        for (StepPhase phase : PHASES) {
+            LatencyHistogram h = getHistogram(phase);
+            sb.append(String.format("%-15s %12d %10.0f %10d %10d %10d %12d%n", phase, h.getCount(), h.getMean(),
+                    h.getValueAtPercentile(50), h.getValueAtPercentile(90), h.getValueAtPercentile(99), h.getMax()));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return report();
+    }
+}
@@ -2,8 +2,20 @@ package core;
 
 import core.exceptions.AgentAlreadyDeadException;
 
+/**
+ *  Surface
+ *
+ * Surfaces cover the cell they are on, a cell can hold at most one. With lazy ageing (see SurfaceAging) a surface
+ * is not aged by Life.step(): its energy is derived from the time elapsed since it was last written to.
+ */
 public abstract class Surface extends LifeAgent {
 
+    /**  lazy ageing model, null when the surface is aged by Life.step() */
+    private SurfaceAging aging;
+
+    /**  time, in ageing periods, at which the energy was last written */
+    private double materializedAt;
+
     public Surface() throws AgentAlreadyDeadException {
     }
 
@@ -18,4 +30,46 @@ public abstract class Surface extends LifeAgent {
     public Surface(Point2D p, Integer energy) throws AgentAlreadyDeadException {
         super(p, energy);
     }
+
+    /**
+     * switches the surface to lazy ageing, or back to ageing by Life.step() when @param aging is null. Any change
+     * accumulated with the previous model is written first.
+     */
+    public void setAging(SurfaceAging aging) throws AgentAlreadyDeadException {
+        if (this.aging != null && isAlive())
+            setEnergy(getEnergy());
+        this.aging = aging;
+        if (aging != null)
+            materializedAt = aging.now();
+    }
+
+    /** @return the lazy ageing model of this surface, null if it is aged by Life.step() */
+    public SurfaceAging getAging() {
+        return aging;
+    }
+
+    /**
+     * @return the time, in ageing periods, at which the energy of this lazily aged surface reaches 0 if nothing else
+     * changes it, positive infinity if it is aged by Life.step() or never withers
+     */
+    public double witheringTime() {
+        if (aging == null || false == isAlive())
+            return Double.POSITIVE_INFINITY;
+        final int ageBy = aging.getAgeBy();
+        if (ageBy <= 0)
+            return Double.POSITIVE_INFINITY;
+        // the energy is written at the start of each whole period, the first one leaving 0 or less is the last
+        return aging.materialize(materializedAt) + Math.ceil(getEnergy() / (double) ageBy);
+    }
+
+    @Override
+    protected long pendingEnergyChange() {
+        return (aging == null) ? 0 : aging.energyChangeSince(materializedAt);
+    }
+
+    @Override
+    protected void energyMaterialized() {
+        if (aging != null)
+            materializedAt = aging.materialize(materializedAt);
+    }
 }
@@ -0,0 +1,61 @@
+package core;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ *  SurfaceAging
+ *
+ * Lazy ageing model shared by all the Surface instances of one type in a Life. Instead of having their energy changed
+ * each time they are chosen by Life.step(), surfaces record the time at which their energy was last materialized and
+ * derive their current energy from ageBy and the number of whole periods elapsed since then.
+ *
+ * Time is read from a clock that advances by 1 per ageing period (Life uses the number of generations elapsed).
+ */
+public class SurfaceAging {
+
+    /**  options of the surface type - ageBy is read on every call so that changes made while Life runs are honoured */
+    private final LifeAgentOptions options;
+
+    /**  current time, in ageing periods */
+    private final DoubleSupplier clock;
+
+    /**
+     * @param options of the surface type, only ageBy is used
+     * @param clock returning the current time in ageing periods, must never go backwards
+     */
+    public SurfaceAging(LifeAgentOptions options, DoubleSupplier clock) {
+        this.options = options;
+        this.clock = clock;
+    }
+
+    /** @return the energy lost per ageing period, negative for surfaces that regrow */
+    public int getAgeBy() {
+        return options.getAgeBy();
+    }
+
+    /** @return the current time in ageing periods */
+    public double now() {
+        return clock.getAsDouble();
+    }
+
+    /** @return the number of whole ageing periods elapsed since @param since */
+    public long elapsedPeriods(double since) {
+        return Math.max(0L, (long) Math.floor(now() - since));
+    }
+
+    /**
+     * @return the energy change accumulated since @param since. ageBy is negative for surfaces that regrow so the
+     * change is then positive.
+     */
+    public long energyChangeSince(double since) {
+        return -(long) options.getAgeBy() * elapsedPeriods(since);
+    }
+
+    /**
+     * @return the new materialization time once the energy accumulated since @param since has been written. Only the
+     * whole periods are consumed, the fraction of the current period carries over.
+     */
+    public double materialize(double since) {
+        return since + elapsedPeriods(since);
+    }
+}
@@ -0,0 +1,67 @@
+package core;
+
+/**
+ *  SurfaceKernels class contains only the static bulk kernels used by SurfaceLayer
+ *
+ * The loops are written to be picked up by HotSpot's auto-vectorizer (superword): they work over primitive arrays with
+ * simple counted loops, no branches in the body and no method calls other than the Math.min/Math.max intrinsics.
+ * Any change to them should keep it that way, otherwise they silently fall back to one cell per iteration.
+ *
+ * Energies stored in the arrays are never negative, which lets (-v) >>> 31 stand for "v > 0" without a branch.
+ */
+public final class SurfaceKernels {
+
+    /**  largest cap accepted by ageAndMark, any v - ageBy computed with energies and ageBy in [-cap, cap] fits in an int */
+    public static final int MAX_CAP = Integer.MAX_VALUE / 2;
+
+    /**  private constructor to prevent instantiation of this class */
+    private SurfaceKernels() {}
+
+    /**
+     * ages every present cell of @param energy by @param ageBy (regrowth when negative), caps the result to
+     * [0, @param cap] and records in @param spreadable whether the cell still holds a surface afterwards.
+     * Empty cells stay empty. Energies are expected to be in [0, cap], caps above MAX_CAP are lowered to MAX_CAP.
+     * @return number of cells that hold a surface after ageing
+     */
+    public static int ageAndMark(int[] energy, byte[] spreadable, int ageBy, int cap) {
+        // clamping ageBy to [-limit, limit] keeps v - ageBy from overflowing for any v in [0, limit]
+        final int limit = Math.min(cap, MAX_CAP);
+        final int delta = Math.max(Math.min(ageBy, limit), -limit);
+        final int n = Math.min(energy.length, spreadable.length);
+        int alive = 0;
+        for (int i = 0; i < n; i++) {
+            int v = energy[i];
+            int present = -((-v) >>> 31);                       // all ones if v > 0, zero otherwise
+            int aged = Math.max(Math.min(v - delta, limit), 0) & present;
+            int isAlive = (-aged) >>> 31;
+            energy[i] = aged;
+            spreadable[i] = (byte) isAlive;
+            alive += isAlive;
+        }
+        return alive;
+    }
+
+    /**
+     * records in @param spreadable whether each cell of @param energy holds a surface
+     * @return number of cells that hold a surface
+     */
+    public static int mark(int[] energy, byte[] spreadable) {
+        final int n = Math.min(energy.length, spreadable.length);
+        int alive = 0;
+        for (int i = 0; i < n; i++) {
+            int isAlive = (-energy[i]) >>> 31;
+            spreadable[i] = (byte) isAlive;
+            alive += isAlive;
+        }
+        return alive;
+    }
+
+    /** @return the sum of all energies in @param energy */
+    public static long sum(int[] energy) {
+        long total = 0;
+        for (int i = 0; i < energy.length; i++) {
+            total += energy[i];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,198 @@
+package core;
+
+import java.util.Random;
+
+/**
+ *  SurfaceLayer
+ *
+ * Dense representation of one Surface type over the whole grid. Instead of one Surface LifeAgent per cell, the layer
+ * keeps a single energy value per cell, a value of 0 meaning that the cell holds no surface of this type.
+ *
+ * Regrowth (age) and spreading (spread) are applied to every cell at once through SurfaceKernels, consumption is
+ * applied to a single cell. The cell at (x, y) is stored at index y * cols + x, the same row-major order as Grid.
+ */
+public class SurfaceLayer {
+
+    /**  default upper bound on the energy of a single cell, prevents overflows when surfaces keep on regrowing */
+    public static final int DEFAULT_ENERGY_CAP = 1 << 20;
+
+    /**  the Surface subclass this layer stands for */
+    private final Class<? extends Surface> surfaceType;
+
+    private final int rows;
+
+    private final int cols;
+
+    /**  energy per cell, 0 if the cell holds no surface */
+    private final int[] energy;
+
+    /**  1 for the cells that may spread during the next spread() pass, 0 otherwise */
+    private final byte[] spreadable;
+
+    /**  false when a cell changed since spreadable was last computed */
+    private boolean spreadableIsValid = true;
+
+    /**  number of cells holding a surface */
+    private int count;
+
+    /**  maximum energy a single cell can reach by regrowing */
+    private int energyCap = DEFAULT_ENERGY_CAP;
+
+    /**
+     * @param surfaceType the Surface subclass this layer stands for
+     * @param rows number of rows in the grid
+     * @param cols number of columns in the grid
+     */
+    public SurfaceLayer(Class<? extends Surface> surfaceType, int rows, int cols) {
+        if (rows < 1 || cols < 1)
+            throw new IllegalArgumentException("SurfaceLayer dimensions must be positive: " + rows + "x" + cols);
+        this.surfaceType = surfaceType;
+        this.rows = rows;
+        this.cols = cols;
+        this.energy = new int[rows * cols];
+        this.spreadable = new byte[rows * cols];
+    }
+
+    public Class<? extends Surface> getSurfaceType() {
+        return surfaceType;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getEnergyCap() {
+        return energyCap;
+    }
+
+    /** @param energyCap must be in [0, SurfaceKernels.MAX_CAP] */
+    public void setEnergyCap(int energyCap) {
+        Utils.exceptionIfNegative(energyCap);
+        if (energyCap > SurfaceKernels.MAX_CAP)
+            throw new IllegalArgumentException("SurfaceLayer energy cap cannot exceed " + SurfaceKernels.MAX_CAP);
+        this.energyCap = energyCap;
+    }
+
+    /** @return the index of the cell at (x, y) in the energy array */
+    public int index(int x, int y) {
+        return y * cols + x;
+    }
+
+    /** @return the energy of the surface at (x, y), 0 if there is none */
+    public int getEnergy(int x, int y) {
+        return energy[index(x, y)];
+    }
+
+    /** @return true if the cell at (x, y) holds a surface */
+    public boolean contains(int x, int y) {
+        return energy[index(x, y)] > 0;
+    }
+
+    /** @return the number of cells holding a surface */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * places a surface with energy @param e on the cell at (x, y)
+     * @return false if the cell already holds a surface or if the energy given is not positive
+     */
+    public boolean seed(int x, int y, int e) {
+        int i = index(x, y);
+        if (e <= 0 || energy[i] > 0)
+            return false;
+        energy[i] = Math.min(e, energyCap);
+        count++;
+        spreadableIsValid = false;
+        return true;
+    }
+
+    /**
+     * decreases the energy of the surface at (x, y) by at most @param e. The cell is emptied when its energy reaches 0.
+     * @return the energy that was actually removed from the cell
+     */
+    public int consume(int x, int y, int e) {
+        int i = index(x, y);
+        int removed = Math.min(Math.max(e, 0), energy[i]);
+        if (removed > 0) {
+            energy[i] -= removed;
+            if (energy[i] == 0) {
+                count--;
+                spreadableIsValid = false;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * ages every surface in the layer by @param ageBy, the same way Life ages a single Surface: a negative value makes
+     * surfaces regrow (up to the energy cap), a positive one makes them wither and disappear when they reach 0.
+     */
+    public void age(int ageBy) {
+        count = SurfaceKernels.ageAndMark(energy, spreadable, ageBy, energyCap);
+        spreadableIsValid = true;
+    }
+
+    /** @return the sum of the energies of all surfaces in the layer */
+    public long totalEnergy() {
+        return SurfaceKernels.sum(energy);
+    }
+
+    /**
+     * every surface present at the start of the pass reproduces with probability @param rate onto a random adjacent
+     * cell (same rules as Grid.randomAdjacentPoint). The baby surface gets energy @param e0 and is only placed if the
+     * adjacent cell holds no surface of this type. Surfaces created during the pass do not spread until the next one.
+     * @return the number of new surfaces
+     */
+    public int spread(double rate, int e0, Random rand) {
+        if (rate <= 0 || e0 <= 0 || count == 0)
+            return 0;
+
+        // the cells populated at the start of the pass, usually already marked by the last age()
+        if (false == spreadableIsValid)
+            SurfaceKernels.mark(energy, spreadable);
+
+        int created = 0;
+        for (int i = 0; i < spreadable.length; i++) {
+            if (spreadable[i] == 0 || rand.nextDouble() >= rate)
+                continue;
+            int dst = randomAdjacentIndex(i, rand);
+            if (energy[dst] == 0) {
+                energy[dst] = Math.min(e0, energyCap);
+                created++;
+            }
+        }
+        count += created;
+        spreadableIsValid = (created == 0);
+        return created;
+    }
+
+    /**
+     * @return the index of a cell adjacent to the cell at index @param i. When the step would go out of the grid, the
+     * opposite direction is taken instead (mirrors Grid.randomAdjacentPoint).
+     */
+    private int randomAdjacentIndex(int i, Random rand) {
+        if (1 == rows && 1 == cols)
+            return i;
+
+        int x = i % cols;
+        int y = i / cols;
+
+        boolean isX = (1 == rows) || (1 != cols && rand.nextBoolean());
+        int d = rand.nextBoolean() ? 1 : -1;
+
+        if (isX) {
+            x += d;
+            if (x < 0 || x >= cols) x -= 2 * d;
+        }
+        else {
+            y += d;
+            if (y < 0 || y >= rows) y -= 2 * d;
+        }
+        return index(x, y);
+    }
+}
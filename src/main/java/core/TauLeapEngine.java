@@ -0,0 +1,501 @@
+package core;
+
+import core.exceptions.TooManySurfacesException;
+
+import java.util.*;
+
+/**
+ *  TauLeapEngine
+ *
+ * Approximate engine for worlds far too large to be stepped one agent at a time, meant for exploratory runs. It keeps
+ * no LifeAgent, only the number of agents of each type in each cell and their total energy. Each leap advances every
+ * cell by the same slice of time tau, the events of the slice being drawn as Poisson and binomial counts at the rates
+ * of Life under the NEXT_REACTION scheduling, where a unit of time is a generation:
+ *
+ *  - a creature acts at rate 1: it moves to an adjacent cell and consumes one of the agents its ConsumeRules let it
+ *    consume, drawn among those of the cell it is in
+ *  - a creature reproduces at its reproduction rate, the baby having the initial energy of its type
+ *  - a creature loses ageBy energy per unit of time and dies at a rate keeping its mean lifetime that of Life (its
+ *    energy / ageBy). Lifetimes are exponential though: the age structure of a cohort is lost.
+ *  - a surface loses ageBy energy per unit of time, withers at 0 and spreads to a random adjacent cell without surface
+ *    at its reproduction rate
+ *
+ * tau is chosen before each leap so that the expected change of every count in every cell stays within a fraction
+ * epsilon of that count, or of 1 for small counts (the leap condition of Cao, Gillespie and Petzold), and is bounded
+ * by maxTau. Binomial draws keep every count non-negative whatever tau.
+ */
+public class TauLeapEngine {
+
+    /**  default bound on the relative change of a count within a leap */
+    public static final double DEFAULT_EPSILON = 0.03;
+
+    /**  default longest leap, in units of time */
+    public static final double DEFAULT_MAX_TAU = 1.0;
+
+    private final int rows;
+
+    private final int cols;
+
+    private final double epsilon;
+
+    private final double maxTau;
+
+    /**  the supported agent types, indexing every per type array */
+    private final List<Class<? extends LifeAgent>> types;
+
+    private final boolean[] surface;
+    private final double[] reproductionRate;
+    private final int[] ageBy;
+    private final int[] initialEnergy;
+    private final int[] energyLost;
+
+    /**  indices of the types each type consumes */
+    private final int[][] prey;
+
+    /**  number of agents and their total energy, per type then per cell (y * cols + x) */
+    private final int[][] counts;
+    private final double[][] energy;
+
+    /**  agents that moved into each cell during the current leap, added once every cell was processed */
+    private final int[][] movedCounts;
+    private final double[][] movedEnergy;
+
+    /**  1 + the type of the surface spreading to each cell during the current leap, 0 if none */
+    private final int[] spreading;
+
+    /**  cells a creature can move to from the cell being processed */
+    private final int[] destinations = new int[4];
+
+    private double time;
+
+    private long leaps;
+
+    private double lastTau;
+
+    public TauLeapEngine(LifeOptions options) {
+        this(options, DEFAULT_EPSILON, DEFAULT_MAX_TAU);
+    }
+
+    /**
+     *  creates the world described by @param options, agents being placed at random as Life does
+     * @param epsilon bound on the relative change of a count within a leap, in (0, 1]
+     * @param maxTau longest leap, positive
+     * @throws TooManySurfacesException if more surfaces are requested than there are cells
+     */
+    public TauLeapEngine(LifeOptions options, double epsilon, double maxTau) {
+        if (false == (epsilon > 0 && epsilon <= 1))
+            throw new IllegalArgumentException("epsilon must be in (0, 1]: " + epsilon + " given.");
+        if (false == (maxTau > 0))
+            throw new IllegalArgumentException("maxTau must be positive: " + maxTau + " given.");
+        if (options.getGridRows() < 1 || options.getGridCols() < 1)
+            throw new IllegalArgumentException("Grid dimensions must be positive: " + options.getGridRows() + "x"
+                    + options.getGridCols());
+        this.rows = options.getGridRows();
+        this.cols = options.getGridCols();
+        this.epsilon = epsilon;
+        this.maxTau = maxTau;
+
+        types = Collections.unmodifiableList(new ArrayList<>(options.getSupportedAgents()));
+        final int n = types.size();
+        final int cells = rows * cols;
+        surface = new boolean[n];
+        reproductionRate = new double[n];
+        ageBy = new int[n];
+        initialEnergy = new int[n];
+        energyLost = new int[n];
+        prey = new int[n][];
+        for (int t = 0; t < n; t++) {
+            LifeAgentOptions opts = options.getOptionsForAgent(types.get(t));
+            surface[t] = Surface.class.isAssignableFrom(types.get(t));
+            reproductionRate[t] = opts.getReproductionRate();
+            ageBy[t] = opts.getAgeBy();
+            initialEnergy[t] = opts.getInitialEnergy();
+            energyLost[t] = opts.getEnergyLost();
+
+            List<Class<? extends LifeAgent>> consumables = options.getConsumeRules().consumableClassesForAgent(types.get(t));
+            prey[t] = consumables.stream().mapToInt(types::indexOf).filter(i -> i >= 0).toArray();
+        }
+        counts = new int[n][cells];
+        energy = new double[n][cells];
+        movedCounts = new int[n][cells];
+        movedEnergy = new double[n][cells];
+        spreading = new int[cells];
+
+        int surfaces = 0;
+        for (int t = 0; t < n; t++) {
+            if (surface[t])
+                surfaces += options.getOptionsForAgent(types.get(t)).getInitialCount();
+        }
+        if (surfaces > cells)
+            throw new TooManySurfacesException(String.format("%d surface instances requested with only %d cells present",
+                    surfaces, cells));
+        for (int t = 0; t < n; t++)
+            distribute(t, options.getOptionsForAgent(types.get(t)).getInitialCount());
+    }
+
+    /**  places @param count agents of type @param t on cells chosen uniformly, surfaces on distinct free cells */
+    private void distribute(int t, int count) {
+        final int cells = rows * cols;
+        final Random rand = Utils.getRand();
+        if (surface[t]) {
+            // selection sampling: each free cell is taken with probability (surfaces left) / (free cells left)
+            int free = 0;
+            for (int i = 0; i < cells; i++)
+                free += hasSurface(i) ? 0 : 1;
+            int needed = count;
+            for (int i = 0; i < cells && needed > 0; i++) {
+                if (hasSurface(i))
+                    continue;
+                if (rand.nextDouble() * free < needed) {
+                    counts[t][i] = 1;
+                    energy[t][i] = initialEnergy[t];
+                    needed--;
+                }
+                free--;
+            }
+            return;
+        }
+        // multinomial over the cells as a sequence of binomials
+        long remaining = count;
+        for (int i = 0; i < cells && remaining > 0; i++) {
+            int k = (int) Utils.randomBinomial(remaining, 1.0 / (cells - i));
+            counts[t][i] += k;
+            energy[t][i] += (double) k * initialEnergy[t];
+            remaining -= k;
+        }
+    }
+
+    /**
+     *  advances the world by one leap of the length chosen by the leap condition
+     * @return the length of the leap
+     */
+    public double leap() {
+        return leap(maxTau);
+    }
+
+    /**
+     *  leaps until the time reaches @param until, the last leap being shortened to end on it
+     * @return the number of leaps
+     */
+    public long advanceTo(double until) {
+        long n = 0;
+        while (time < until) {
+            leap(until - time);
+            n++;
+        }
+        return n;
+    }
+
+    private double leap(double longest) {
+        final double tau = Math.min(longest, selectTau());
+        final int cells = rows * cols;
+        final int n = types.size();
+
+        for (int i = 0; i < cells; i++) {
+            for (int t = 0; t < n; t++) {
+                if (false == surface[t] && counts[t][i] > 0 && prey[t].length > 0)
+                    consume(t, i, tau);
+            }
+            for (int t = 0; t < n; t++) {
+                if (surface[t])
+                    ageAndSpreadSurface(t, i, tau);
+                else
+                    reproduceAndAgeCreatures(t, i, tau);
+            }
+            for (int t = 0; t < n; t++) {
+                if (false == surface[t] && counts[t][i] > 0)
+                    move(t, i, tau);
+            }
+        }
+
+        for (int t = 0; t < n; t++) {
+            for (int i = 0; i < cells; i++) {
+                if (movedCounts[t][i] > 0) {
+                    counts[t][i] += movedCounts[t][i];
+                    energy[t][i] += movedEnergy[t][i];
+                    movedCounts[t][i] = 0;
+                    movedEnergy[t][i] = 0;
+                }
+            }
+        }
+        for (int i = 0; i < cells; i++) {
+            if (spreading[i] > 0) {
+                int t = spreading[i] - 1;
+                counts[t][i] = 1;
+                energy[t][i] = initialEnergy[t];
+                spreading[i] = 0;
+            }
+        }
+
+        time += tau;
+        leaps++;
+        lastTau = tau;
+        return tau;
+    }
+
+    /**
+     * @return the longest tau such that, for every creature type and cell, the expected change of the count and its
+     * standard deviation stay within max(epsilon * count, 1), at most maxTau
+     */
+    private double selectTau() {
+        double tau = maxTau;
+        final int cells = rows * cols;
+        for (int i = 0; i < cells; i++) {
+            for (int t = 0; t < types.size(); t++) {
+                final int n = counts[t][i];
+                if (surface[t] || n == 0)
+                    continue;
+                final double mean = energy[t][i] / n;
+                final double births = n * reproductionRate[t];
+                final double deaths = (ageBy[t] > 0 && mean > 0) ? n * ageBy[t] / mean : 0;
+                final double eaten = consumptionRate(t, i);
+                final double drift = births - deaths - eaten;
+                // moving out happens at rate n, moving in at about the same rate from the neighbours
+                final double variance = births + deaths + eaten + n;
+                final double bound = Math.max(epsilon * n, 1);
+                if (drift != 0)
+                    tau = Math.min(tau, bound / Math.abs(drift));
+                tau = Math.min(tau, bound * bound / variance);
+            }
+        }
+        return tau;
+    }
+
+    /** @return the rate at which the agents of type @param y in cell @param i are consumed */
+    private double consumptionRate(int y, int i) {
+        final long c = counts[y][i];
+        if (c == 0)
+            return 0;
+        double rate = 0;
+        for (int t = 0; t < types.size(); t++) {
+            if (surface[t] || counts[t][i] == 0)
+                continue;
+            for (int p : prey[t]) {
+                if (p == y) {
+                    rate += counts[t][i] * (double) c / candidatesIn(t, i);
+                    break;
+                }
+            }
+        }
+        return rate;
+    }
+
+    /** @return the number of agents that creatures of type @param t can consume in cell @param i */
+    private long candidatesIn(int t, int i) {
+        long c = 0;
+        for (int y : prey[t])
+            c += counts[y][i];
+        return c;
+    }
+
+    /**  creatures of type @param t in cell @param i consume the agents of the cell for @param tau */
+    private void consume(int t, int i, double tau) {
+        long candidates = candidatesIn(t, i);
+        if (candidates == 0)
+            return;
+        long acts = Utils.randomPoisson(counts[t][i] * tau);
+        for (int y : prey[t]) {
+            if (acts == 0 || candidates == 0)
+                return;
+            final long c = counts[y][i];
+            if (c == 0)
+                continue;
+            final long eaten = Utils.randomBinomial(acts, Math.min(1.0, (double) c / candidates));
+            acts -= eaten;
+            candidates -= c;
+            if (eaten == 0)
+                continue;
+
+            if (surface[y]) {
+                // every bite takes energyLost from the surface and gives the creature its energy, capped
+                double left = energy[y][i];
+                double gained = 0;
+                if (energyLost[y] <= 0)
+                    gained = eaten * Math.min(left, Life.CONSUME_GAIN_CAP);
+                else {
+                    for (long bite = 0; bite < eaten && left > 0; bite++) {
+                        gained += Math.min(left, Life.CONSUME_GAIN_CAP);
+                        left -= Math.min(left, energyLost[y]);
+                    }
+                }
+                energy[t][i] += gained;
+                if (left <= 0) {
+                    counts[y][i] = 0;
+                    energy[y][i] = 0;
+                }
+                else
+                    energy[y][i] = left;
+            }
+            else {
+                // a consumed creature loses all its energy
+                final long kills = Math.min(eaten, counts[y][i]);
+                final double mean = energy[y][i] / counts[y][i];
+                energy[t][i] += kills * Math.min(mean, Life.CONSUME_GAIN_CAP);
+                counts[y][i] -= (int) kills;
+                energy[y][i] = (counts[y][i] == 0) ? 0 : energy[y][i] - kills * mean;
+            }
+        }
+    }
+
+    /**  births, ageing and deaths of the creatures of type @param t in cell @param i for @param tau */
+    private void reproduceAndAgeCreatures(int t, int i, double tau) {
+        long n = counts[t][i];
+        if (n == 0)
+            return;
+        double e = energy[t][i];
+        final long births = Utils.randomPoisson(n * reproductionRate[t] * tau);
+        n += births;
+        e += births * (double) initialEnergy[t];
+
+        e -= ageBy[t] * n * tau;
+        if (e <= 0)
+            n = 0;
+        else if (ageBy[t] > 0)
+            n -= Utils.randomBinomial(n, 1 - Math.exp(-tau * ageBy[t] * n / e));
+        counts[t][i] = (int) Math.min(Integer.MAX_VALUE, n);
+        energy[t][i] = (n == 0) ? 0 : e;
+    }
+
+    /**  ageing, withering and spreading of the surface of type @param t in cell @param i, if any, for @param tau */
+    private void ageAndSpreadSurface(int t, int i, double tau) {
+        if (counts[t][i] == 0)
+            return;
+        final double e = energy[t][i] - ageBy[t] * tau;
+        if (e <= 0) {
+            counts[t][i] = 0;
+            energy[t][i] = 0;
+            return;
+        }
+        energy[t][i] = e;
+        final Random rand = Utils.getRand();
+        for (long attempts = Utils.randomPoisson(reproductionRate[t] * tau); attempts > 0; attempts--) {
+            int j = randomNeighbour(i, rand);
+            if (j != i && false == hasSurface(j) && spreading[j] == 0)
+                spreading[j] = t + 1;
+        }
+    }
+
+    /**  moves the creatures of type @param t in cell @param i that act within @param tau to adjacent cells */
+    private void move(int t, int i, double tau) {
+        final int n = counts[t][i];
+        long movers = Utils.randomBinomial(n, 1 - Math.exp(-tau));
+        if (movers == 0)
+            return;
+        final double mean = energy[t][i] / n;
+        counts[t][i] -= (int) movers;
+        energy[t][i] = (counts[t][i] == 0) ? 0 : energy[t][i] - movers * mean;
+
+        // the directions of Grid.randomAdjacentPoint(), equally likely and reflected at the edges
+        final int x = i % cols, y = i / cols;
+        int directions = 0;
+        if (cols > 1) {
+            destinations[directions++] = cellAt(reflect(x + 1, x, cols), y);
+            destinations[directions++] = cellAt(reflect(x - 1, x, cols), y);
+        }
+        if (rows > 1) {
+            destinations[directions++] = cellAt(x, reflect(y + 1, y, rows));
+            destinations[directions++] = cellAt(x, reflect(y - 1, y, rows));
+        }
+        if (directions == 0)
+            destinations[directions++] = i;
+        for (int d = 0; d < directions && movers > 0; d++) {
+            long k = (d == directions - 1) ? movers : Utils.randomBinomial(movers, 1.0 / (directions - d));
+            movedCounts[t][destinations[d]] += (int) k;
+            movedEnergy[t][destinations[d]] += k * mean;
+            movers -= k;
+        }
+    }
+
+    /** @return a cell adjacent to cell @param i as Grid.randomAdjacentPoint() chooses it */
+    private int randomNeighbour(int i, Random rand) {
+        final int x = i % cols, y = i / cols;
+        if (rows == 1 && cols == 1)
+            return i;
+        final boolean isX = (rows == 1) || (cols != 1 && rand.nextBoolean());
+        final int step = rand.nextBoolean() ? 1 : -1;
+        return isX ? cellAt(reflect(x + step, x, cols), y) : cellAt(x, reflect(y + step, y, rows));
+    }
+
+    /** @return @param to if within [0, size), otherwise the coordinate on the other side of @param from */
+    private static int reflect(int to, int from, int size) {
+        return (to >= 0 && to < size) ? to : 2 * from - to;
+    }
+
+    private int cellAt(int x, int y) {
+        return y * cols + x;
+    }
+
+    private boolean hasSurface(int i) {
+        for (int t = 0; t < types.size(); t++) {
+            if (surface[t] && counts[t][i] > 0)
+                return true;
+        }
+        return false;
+    }
+
+    private int typeIndex(Class<? extends LifeAgent> type) {
+        int t = types.indexOf(type);
+        if (t < 0)
+            throw new IllegalArgumentException(type.getSimpleName() + " is not supported by this world");
+        return t;
+    }
+
+    /** @return the simulated time elapsed, in generations */
+    public double getTime() {
+        return time;
+    }
+
+    /** @return the number of leaps made */
+    public long getLeaps() {
+        return leaps;
+    }
+
+    /** @return the length of the last leap, 0 before the first one */
+    public double getLastTau() {
+        return lastTau;
+    }
+
+    public int getGridRows() {
+        return rows;
+    }
+
+    public int getGridCols() {
+        return cols;
+    }
+
+    /** @return read-only list of the agent types, in the order of the options */
+    public List<Class<? extends LifeAgent>> getTypes() {
+        return types;
+    }
+
+    /** @return the number of agents of type @param type in the cell at (x, y) */
+    public int countAt(Class<? extends LifeAgent> type, int x, int y) {
+        if (x < 0 || x >= cols || y < 0 || y >= rows)
+            throw new IllegalArgumentException("(" + x + ", " + y + ") is out of the " + rows + "x" + cols + " grid");
+        return counts[typeIndex(type)][cellAt(x, y)];
+    }
+
+    /** @return the number of agents of type @param type in the world */
+    public long totalOf(Class<? extends LifeAgent> type) {
+        long total = 0;
+        for (int c : counts[typeIndex(type)])
+            total += c;
+        return total;
+    }
+
+    /** @return the total energy of the agents of type @param type in the world */
+    public double totalEnergyOf(Class<? extends LifeAgent> type) {
+        double total = 0;
+        for (double e : energy[typeIndex(type)])
+            total += e;
+        return total;
+    }
+
+    /** @return the number of agents in the world */
+    public long totalAgents() {
+        long total = 0;
+        for (Class<? extends LifeAgent> type : types)
+            total += totalOf(type);
+        return total;
+    }
+}
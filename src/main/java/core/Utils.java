@@ -22,13 +22,16 @@ public final class Utils {
         /**  default constructor */
         LifeRandom() { super(); }
 
+        /**  constructor giving the same sequence of numbers for the same @param seed */
+        LifeRandom(long seed) { super(seed); }
+
         /** @return random string */
         public String randomString() {
             return new BigInteger(130, this).toString(32);
         }
 
         /**  return a random positive integer */
-        public Integer randomPositiveInteger() {
+        public int randomPositiveInteger() {
             return next(Integer.SIZE - 1);
         }
 
@@ -37,22 +40,140 @@ public final class Utils {
         }
     }
 
+    /**  generator shared by the whole simulation, replaced by setSeed() */
+    private static volatile LifeRandom rand = new LifeRandom();
+
     /**  private constructor to prevent instantiation of this class */
     private Utils() {}
 
-    /** @return Random instance */
+    /**
+     *  reseeds the generator shared by the simulation, so that worlds created and stepped afterwards on a single
+     * thread are the same for the same @param seed
+     */
+    public static void setSeed(long seed) {
+        rand = new LifeRandom(seed);
+    }
+
+    /** @return the Random instance shared by the simulation */
     public static Random getRand() {
-        return LifeRandom.getRand();
+        return rand;
+    }
+
+    /** @return a random waiting time, exponentially distributed with @param rate events per unit of time */
+    public static double randomExponential(double rate) {
+        return randomExponential(rand, rate);
+    }
+
+    /**  same as randomExponential(double), drawing from @param r */
+    public static double randomExponential(Random r, double rate) {
+        if (false == (rate > 0))
+            throw new IllegalArgumentException("rate must be positive: " + rate + " given.");
+        return -Math.log(1.0 - r.nextDouble()) / rate;
+    }
+
+    /**
+     * @return a random count of events, Poisson distributed with @param mean. Inversion below a mean of 30, otherwise
+     * the transformed rejection method of Hormann (PTRS), whose cost does not grow with the mean.
+     */
+    public static long randomPoisson(double mean) {
+        if (false == (mean >= 0) || Double.isInfinite(mean))
+            throw new IllegalArgumentException("Poisson mean must be finite and non-negative: " + mean + " given.");
+        final Random r = rand;
+        if (mean < 30) {
+            // inversion by sequential search
+            double p = Math.exp(-mean), sum = p, u = r.nextDouble();
+            long k = 0;
+            while (u > sum && p > 0) {
+                k++;
+                p *= mean / k;
+                sum += p;
+            }
+            return k;
+        }
+        final double slam = Math.sqrt(mean), logLam = Math.log(mean);
+        final double b = 0.931 + 2.53 * slam;
+        final double a = -0.059 + 0.02483 * b;
+        final double invAlpha = 1.1239 + 1.1328 / (b - 3.4);
+        final double vr = 0.9277 - 3.6224 / (b - 2);
+        while (true) {
+            double u = r.nextDouble() - 0.5;
+            double v = r.nextDouble();
+            double us = 0.5 - Math.abs(u);
+            long k = (long) Math.floor((2 * a / us + b) * u + mean + 0.43);
+            if (us >= 0.07 && v <= vr)
+                return k;
+            if (k < 0 || (us < 0.013 && v > us))
+                continue;
+            if (Math.log(v) + Math.log(invAlpha) - Math.log(a / (us * us) + b) <= -mean + k * logLam - logFactorial(k))
+                return k;
+        }
     }
 
+    /**
+     * @return a random number of successes out of @param n trials of probability @param p. Inversion when fewer than
+     * 30 successes or failures are expected, otherwise the normal approximation, rounded and kept within [0, n].
+     */
+    public static long randomBinomial(long n, double p) {
+        if (n < 0)
+            throw new IllegalArgumentException("Binomial trials cannot be negative: " + n + " given.");
+        exceptionIfOutOfRange(p);
+        if (n == 0 || p == 0)
+            return 0;
+        if (p == 1)
+            return n;
+        if (p > 0.5)
+            return n - randomBinomial(n, 1 - p);
+
+        final Random r = rand;
+        final double mean = n * p;
+        if (mean < 30) {
+            // inversion by sequential search, q^n is at least e^-30 or so
+            final double q = 1 - p, s = p / q, a = (n + 1) * s;
+            double prob = Math.pow(q, n), u = r.nextDouble();
+            long k = 0;
+            while (u > prob && k < n) {
+                u -= prob;
+                k++;
+                prob *= a / k - s;
+            }
+            return k;
+        }
+        long k = Math.round(mean + Math.sqrt(mean * (1 - p)) * r.nextGaussian());
+        return Math.max(0, Math.min(n, k));
+    }
+
+    /** @return ln(k!), from a table below 10 and from Stirling's series above */
+    static double logFactorial(long k) {
+        if (k < LOG_FACTORIALS.length)
+            return LOG_FACTORIALS[(int) k];
+        final double x = k + 1.0;
+        return (x - 0.5) * Math.log(x) - x + 0.5 * Math.log(2 * Math.PI) + 1.0 / (12 * x) - 1.0 / (360 * x * x * x)
+                + 1.0 / (1260 * x * x * x * x * x);
+    }
+
+    private static final double[] LOG_FACTORIALS = {
+            0.0, 0.0, Math.log(2), Math.log(6), Math.log(24), Math.log(120), Math.log(720), Math.log(5040),
+            Math.log(40320), Math.log(362880)
+    };
+
     /** @return random positive integer - includes zero */
-    public static Integer randomPositiveInteger() {
+    public static int randomPositiveInteger() {
         return randomPositiveInteger(Integer.MAX_VALUE);
     }
 
-    /** @return random positive integer - includes zero */
-    public static Integer randomPositiveInteger(int bound) {
-        return new LifeRandom().randomPositiveInteger() % bound;
+    /** @return random positive integer below @param bound - includes zero */
+    public static int randomPositiveInteger(int bound) {
+        return rand.randomPositiveInteger() % bound;
+    }
+
+    /**
+     * @return random positive integer below @param bound drawn from @param r, the same as randomPositiveInteger(int)
+     * draws from the shared generator when r is a LifeRandom
+     */
+    public static int randomPositiveInteger(Random r, int bound) {
+        if (r instanceof LifeRandom)
+            return ((LifeRandom) r).randomPositiveInteger() % bound;
+        return r.nextInt(bound);
     }
 
     /**
@@ -62,12 +183,12 @@ public final class Utils {
      * @return
      */
     public static Integer randomIntegerInRange(int min, int max) {
-        return min + new LifeRandom().nextInt(max-min+1);
+        return min + rand.nextInt(max-min+1);
     }
 
     /** @return random string */
     public static String randomString() {
-        return new LifeRandom().randomString();
+        return rand.randomString();
     }
 
     /**
@@ -76,9 +197,13 @@ public final class Utils {
      * @return a Point2D instance with random x,y in bounds [0,n]
      */
     public static Point2D randomPoint(int xBound, int yBound) {
-        Random rand = LifeRandom.getRand();
-        int x = rand.nextInt(xBound);
-        int y = rand.nextInt(yBound);
+        return randomPoint(rand, xBound, yBound);
+    }
+
+    /**  same as randomPoint(int, int), drawing from @param r */
+    public static Point2D randomPoint(Random r, int xBound, int yBound) {
+        int x = r.nextInt(xBound);
+        int y = r.nextInt(yBound);
         return new Point2D(x, y);
     }
 
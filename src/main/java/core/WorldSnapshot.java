@@ -0,0 +1,293 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ *  WorldSnapshot
+ *
+ * Immutable copy of what readers (GUI, exporters, stats) need to know about the grid: the number of living agents of
+ * each supported type per cell and the surface energy per cell. Snapshots are captured by the thread stepping Life and
+ * published by Life through an AtomicReference, so readers never touch live engine structures nor take engine locks.
+ *
+ * Each snapshot records which cells differ from the snapshot captured before it. Captures are double-buffered: a new
+ * snapshot starts from the arrays of the one published two captures before, brings them up to date with the cells
+ * that changed in the previous snapshot, and then only reads from the grid the cells marked dirty since. The cost of a
+ * capture therefore follows the number of cells that changed, not the size of the grid. A snapshot stays unchanged
+ * until the second snapshot after it is published; a reader that may hold it longer pins it (see pin()), its arrays
+ * are then not reused and the next capture allocates new ones.
+ *
+ * Cells are identified by their index y * cols + x, the same row-major order as Grid. Per-cell counts saturate at
+ * Short.MAX_VALUE, the totals per type are exact.
+ */
+public final class WorldSnapshot {
+
+    /**  increases by one with every snapshot captured for the same Life, starting at 0 */
+    private final long version;
+
+    private final int stepCount;
+
+    private final double generations;
+
+    private final int rows;
+
+    private final int cols;
+
+    /**  supported types, in the order of the counts arrays */
+    private final List<Class<? extends LifeAgent>> types;
+
+    /**  counts[t][i] is the number of living agents of types[t] in the cell at index i */
+    private final short[][] counts;
+
+    /**  totals[t] is the number of living agents of types[t] in the grid */
+    private final int[] totals;
+
+    /**  surface energy (Surface agent and surface layers) of each cell */
+    private final int[] surfaceEnergy;
+
+    /**  bit i % 64 of word i / 64 set when the cell at index i differs from the previous snapshot */
+    private final long[] changed;
+
+    /**  number of readers pinning the snapshot, -1 once its arrays were handed over to a later capture */
+    private final AtomicInteger readers = new AtomicInteger();
+
+    private WorldSnapshot(long version, int stepCount, double generations, int rows, int cols,
+                          List<Class<? extends LifeAgent>> types, short[][] counts, int[] totals, int[] surfaceEnergy,
+                          long[] changed) {
+        this.version = version;
+        this.stepCount = stepCount;
+        this.generations = generations;
+        this.rows = rows;
+        this.cols = cols;
+        this.types = types;
+        this.counts = counts;
+        this.totals = totals;
+        this.surfaceEnergy = surfaceEnergy;
+        this.changed = changed;
+    }
+
+    /**
+     *  captures the state of @param grid. Must be called by the thread that mutates the grid.
+     * @param types the agent types to count
+     * @param previous the snapshot captured before this one, null if there is none. Cells are compared against it.
+     * @param spare the snapshot captured before previous, whose arrays are reused unless a reader pinned it. Null to
+     * allocate new arrays.
+     * @param dirty the cells that may have changed since previous was captured, drained. Only these cells are read
+     * from the grid when previous has the same dimensions and types, the others are copied from previous.
+     * @return the new snapshot, with version previous.version + 1 (0 without previous)
+     */
+    static WorldSnapshot capture(Grid<LifeCell> grid, List<Class<? extends LifeAgent>> types, int stepCount,
+                                 double generations, WorldSnapshot previous, WorldSnapshot spare, DirtyCells dirty) {
+        final int rows = grid.getRows();
+        final int cols = grid.getCols();
+        final int n = rows * cols;
+        final int nTypes = types.size();
+
+        int[] typeIds = new int[nTypes];
+        for (int t = 0; t < nTypes; t++)
+            typeIds[t] = AgentTypes.idOf(types.get(t));
+
+        final long version = (previous == null) ? 0 : previous.version + 1;
+        final List<Class<? extends LifeAgent>> typesCopy = Collections.unmodifiableList(new ArrayList<>(types));
+        final boolean comparable = previous != null && previous.rows == rows && previous.cols == cols
+                && previous.types.equals(types);
+        if (false == comparable) {
+            dirty.drain(i -> { });
+            short[][] counts = new short[nTypes][n];
+            int[] totals = new int[nTypes];
+            int[] surfaceEnergy = new int[n];
+            for (int i = 0; i < n; i++)
+                read(grid, i, cols, typeIds, counts, totals, surfaceEnergy);
+            // every cell differs from a snapshot that cannot be compared
+            long[] changed = new long[(n + Long.SIZE - 1) / Long.SIZE];
+            Arrays.fill(changed, -1L);
+            if (n % Long.SIZE != 0)
+                changed[changed.length - 1] = (1L << n) - 1;
+            return new WorldSnapshot(version, stepCount, generations, rows, cols, typesCopy, counts, totals,
+                    surfaceEnergy, changed);
+        }
+
+        // the arrays start as a copy of previous, either the spare brought up to date or new ones
+        final short[][] counts;
+        final int[] surfaceEnergy;
+        final long[] changed;
+        if (spare != null && spare.version == previous.version - 1 && spare.types.equals(types)
+                && spare.rows == rows && spare.cols == cols && spare.retire()) {
+            counts = spare.counts;
+            surfaceEnergy = spare.surfaceEnergy;
+            changed = spare.changed;
+            previous.forEachChanged(i -> {
+                for (int t = 0; t < nTypes; t++)
+                    counts[t][i] = previous.counts[t][i];
+                surfaceEnergy[i] = previous.surfaceEnergy[i];
+            });
+            Arrays.fill(changed, 0L);
+        }
+        else {
+            counts = new short[nTypes][];
+            for (int t = 0; t < nTypes; t++)
+                counts[t] = previous.counts[t].clone();
+            surfaceEnergy = previous.surfaceEnergy.clone();
+            changed = new long[previous.changed.length];
+        }
+
+        // totals are updated by the difference of each dirty cell, unless a count saturated and has to be recounted
+        final int[] totals = previous.totals.clone();
+        final short[] before = new short[nTypes];
+        final boolean[] saturated = new boolean[1];
+        dirty.drain(i -> {
+            final int e = surfaceEnergy[i];
+            for (int t = 0; t < nTypes; t++) {
+                before[t] = counts[t][i];
+                totals[t] -= before[t];
+                saturated[0] |= before[t] == Short.MAX_VALUE;
+            }
+            read(grid, i, cols, typeIds, counts, totals, surfaceEnergy);
+            boolean differs = e != surfaceEnergy[i];
+            for (int t = 0; t < nTypes; t++) {
+                differs |= before[t] != counts[t][i];
+                saturated[0] |= counts[t][i] == Short.MAX_VALUE;
+            }
+            if (differs)
+                changed[i >>> 6] |= 1L << i;
+        });
+        if (saturated[0]) {
+            Arrays.fill(totals, 0);
+            for (int i = 0; i < n; i++) {
+                LifeCell cell = grid.cellAt(i % cols, i / cols);
+                for (int t = 0; t < nTypes; t++)
+                    totals[t] += cell.countOf(typeIds[t]);
+            }
+        }
+        return new WorldSnapshot(version, stepCount, generations, rows, cols, typesCopy, counts, totals, surfaceEnergy,
+                changed);
+    }
+
+    /**  reads the cell at index @param i of @param grid into the arrays, adding its agents to @param totals */
+    private static void read(Grid<LifeCell> grid, int i, int cols, int[] typeIds, short[][] counts, int[] totals,
+                             int[] surfaceEnergy) {
+        LifeCell cell = grid.cellAt(i % cols, i / cols);
+        for (int t = 0; t < typeIds.length; t++) {
+            int c = cell.countOf(typeIds[t]);
+            counts[t][i] = (short) Math.min(c, Short.MAX_VALUE);
+            totals[t] += c;
+        }
+        Surface surface = cell.getSurface();
+        int e = cell.getSurfaceLayerEnergy();
+        if (surface != null && surface.isAlive())
+            e += surface.getEnergy();
+        surfaceEnergy[i] = e;
+    }
+
+    /**
+     *  keeps the arrays of this snapshot from being reused by a later capture until unpin() is called. Pinning is only
+     * needed by readers that may hold the snapshot while two more are published.
+     * @return false if the arrays were reused already, the snapshot must then not be read
+     */
+    public boolean pin() {
+        while (true) {
+            final int r = readers.get();
+            if (r < 0)
+                return false;
+            if (readers.compareAndSet(r, r + 1))
+                return true;
+        }
+    }
+
+    /**  releases a successful pin() */
+    public void unpin() {
+        readers.decrementAndGet();
+    }
+
+    /** @return true if the arrays can be reused, no reader can pin the snapshot from then on */
+    private boolean retire() {
+        return readers.compareAndSet(0, -1);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /** @return the step count of Life when the snapshot was captured */
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    /** @return the generations elapsed in Life when the snapshot was captured */
+    public double getGenerations() {
+        return generations;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    /** @return the agent types counted, unmodifiable */
+    public List<Class<? extends LifeAgent>> getTypes() {
+        return types;
+    }
+
+    /** @return the index of the cell at (x, y) */
+    public int index(int x, int y) {
+        return y * cols + x;
+    }
+
+    /** @return the position of @param type in getTypes(), -1 if it is not counted */
+    public int typeIndex(Class<? extends LifeAgent> type) {
+        return types.indexOf(type);
+    }
+
+    /** @return the number of living agents of type @param type in the cell at index @param i, 0 if not counted */
+    public int countOf(Class<? extends LifeAgent> type, int i) {
+        return countAt(typeIndex(type), i);
+    }
+
+    /**
+     * @return the number of living agents of the type at position @param typeIndex in getTypes() in the cell at index
+     * @param i, 0 if typeIndex is negative
+     */
+    public int countAt(int typeIndex, int i) {
+        return (typeIndex < 0) ? 0 : counts[typeIndex][i];
+    }
+
+    /** @return the number of living agents of type @param type in the grid, 0 if not counted */
+    public int totalOf(Class<? extends LifeAgent> type) {
+        int t = types.indexOf(type);
+        return (t < 0) ? 0 : totals[t];
+    }
+
+    /** @return the surface energy of the cell at index @param i */
+    public int surfaceEnergyAt(int i) {
+        return surfaceEnergy[i];
+    }
+
+    /** @return true if the cell at index @param i differs from the previous snapshot */
+    public boolean isChanged(int i) {
+        return (changed[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /**
+     *  passes the index of every cell that differs from the previous snapshot to @param consumer, in increasing order
+     * @return the number of cells passed
+     */
+    public int forEachChanged(IntConsumer consumer) {
+        int n = 0;
+        for (int w = 0; w < changed.length; w++) {
+            long bits = changed[w];
+            while (bits != 0) {
+                consumer.accept(w * Long.SIZE + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+                n++;
+            }
+        }
+        return n;
+    }
+}
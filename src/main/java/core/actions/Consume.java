@@ -3,7 +3,7 @@ package core.actions;
 import core.interfaces.Consumable;
 import core.LifeAgent;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -21,8 +21,7 @@ public class Consume extends Action<LifeAgent> {
 
     public Consume(LifeAgent lifeAgent, Consumable consumable) {
         super(lifeAgent);
-        consumables = new ArrayList<>();
-        consumables.add(consumable);
+        consumables = Collections.singletonList(consumable);
     }
 
     public Iterator<Consumable> getConsumables() {
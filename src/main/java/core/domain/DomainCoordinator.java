@@ -0,0 +1,187 @@
+package core.domain;
+
+import core.Life;
+import core.LifeAgent;
+import core.LifeOptions;
+import core.exceptions.LifeException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ *  DomainCoordinator
+ *
+ * Runs a world too large for one heap as several local JVM processes, each stepping one band of rows of the world
+ * with a DomainWorker. The coordinator creates the MappedHaloExchange file the domains exchange through, starts one
+ * process per domain with the classpath of its own JVM, and merges the stats the domains publish at each epoch. Nothing
+ * but the file is shared, so that everything runs on a single host without any network service.
+ *
+ * Run it with ./gradlew domains, which sets the system properties below.
+ *
+ *  domains.count       processes, one per domain, default 2
+ *  domains.rows        rows of the world, default 400
+ *  domains.cols        columns of the world, default 400
+ *  domains.density     agents of each type per cell, default 0.2
+ *  domains.epochs      epochs to run, default 20
+ *  domains.epochSteps  steps of the world per epoch, over all domains, default 100000
+ *  domains.seed        seed of the first domain, the others taking the next ones, default 0
+ *  domains.xmx         heap of each process, default that of the JVM
+ */
+public class DomainCoordinator {
+
+    private static final Logger LOGGER = Logger.getLogger(Life.class.getName());
+
+    /**  migrants each domain can send to each neighbour per epoch, the others waiting for the next epoch */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final int domains;
+
+    private final int rows;
+
+    private final int cols;
+
+    private final double density;
+
+    private final long epochs;
+
+    private final long epochSteps;
+
+    private final long seed;
+
+    /**  JVM options of the processes, such as -Xmx */
+    private final List<String> jvmOptions = new ArrayList<>();
+
+    /**
+     *  splits a world of @param rows rows and @param cols columns holding @param density agents of each type per cell
+     * in @param domains domains, stepped for @param epochs epochs of @param epochSteps steps, with random numbers
+     * seeded from @param seed
+     * @throws IllegalArgumentException if a domain would have no row or a value is out of range
+     */
+    public DomainCoordinator(int domains, int rows, int cols, double density, long epochs, long epochSteps, long seed) {
+        if (domains < 1 || rows < domains || cols < 1)
+            throw new IllegalArgumentException("A " + rows + "x" + cols + " world cannot be split in " + domains
+                    + " domains");
+        if (false == (density > 0 && density <= 1))
+            throw new IllegalArgumentException("The density must be in (0, 1]: " + density);
+        if (epochs < 0 || epochSteps < 1)
+            throw new IllegalArgumentException("Invalid epochs " + epochs + " of " + epochSteps + " steps");
+        this.domains = domains;
+        this.rows = rows;
+        this.cols = cols;
+        this.density = density;
+        this.epochs = epochs;
+        this.epochSteps = epochSteps;
+        this.seed = seed;
+    }
+
+    /**  passes @param option to the JVM of every domain */
+    public void addJvmOption(String option) {
+        jvmOptions.add(option);
+    }
+
+    /**
+     *  starts the domains and waits for them to run all the epochs
+     * @return the stats of the whole world at the start of each epoch and at the end of the last one
+     * @throws IOException if the exchange file cannot be created or a process cannot be started
+     * @throws IllegalStateException if a domain failed
+     */
+    public List<DomainStats> run() throws IOException, InterruptedException, LifeException {
+        final int types = LifeOptions.createDefaultLifeOptions().getSupportedAgents().size();
+        final Path file = Files.createTempFile("life-domains", ".map");
+        final List<Process> processes = new ArrayList<>();
+        try (MappedHaloExchange exchange = MappedHaloExchange.create(file, domains, types, DEFAULT_CAPACITY)) {
+            for (int d = 0; d < domains; d++)
+                processes.add(start(file, d));
+
+            List<DomainStats> merged = new ArrayList<>();
+            for (long epoch = 0; epoch <= epochs; epoch++) {
+                exchange.awaitDomains(epoch, () -> failed(processes));
+                merged.add(DomainStats.merge(exchange.getStats(epoch)));
+                exchange.merged(epoch);
+            }
+            for (int d = 0; d < domains; d++) {
+                final int status = processes.get(d).waitFor();
+                if (status != 0)
+                    throw new IllegalStateException("Domain " + d + " exited with status " + status);
+            }
+            return merged;
+        }
+        finally {
+            for (Process p : processes)
+                p.destroy();
+            for (Process p : processes) {
+                if (false == p.waitFor(10, TimeUnit.SECONDS))
+                    p.destroyForcibly();
+            }
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private Process start(Path file, int domain) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        final String logging = System.getProperty("java.util.logging.config.file");
+        if (logging != null)
+            command.add("-Djava.util.logging.config.file=" + logging);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(DomainWorker.class.getName());
+        command.add(file.toString());
+        command.add(Integer.toString(domain));
+        command.add(Integer.toString(rows));
+        command.add(Integer.toString(cols));
+        command.add(Double.toString(density));
+        command.add(Long.toString(epochs));
+        command.add(Long.toString(epochSteps));
+        command.add(Long.toString(seed + domain));
+        LOGGER.log(Level.FINE, "starting domain {0}", domain);
+        return new ProcessBuilder(command).inheritIO().start();
+    }
+
+    /** @return true if one of @param processes exited before the end */
+    private static boolean failed(List<Process> processes) {
+        for (Process p : processes) {
+            if (false == p.isAlive() && p.exitValue() != 0)
+                return true;
+        }
+        return false;
+    }
+
+    public static void main(String[] args) throws Exception {
+        DomainCoordinator coordinator = new DomainCoordinator(
+                Integer.getInteger("domains.count", 2),
+                Integer.getInteger("domains.rows", 400),
+                Integer.getInteger("domains.cols", 400),
+                Double.parseDouble(System.getProperty("domains.density", "0.2")),
+                Long.getLong("domains.epochs", 20),
+                Long.getLong("domains.epochSteps", 100_000),
+                Long.getLong("domains.seed", 0));
+        final String xmx = System.getProperty("domains.xmx", "");
+        if (false == xmx.isEmpty())
+            coordinator.addJvmOption("-Xmx" + xmx);
+
+        List<Class<? extends LifeAgent>> types = LifeOptions.createDefaultLifeOptions().getSupportedAgents();
+        StringBuilder header = new StringBuilder("epoch       steps");
+        for (Class<? extends LifeAgent> type : types)
+            header.append(String.format(" %10s", type.getSimpleName()));
+        System.out.println(header.append("   crossing"));
+
+        final long start = System.nanoTime();
+        for (DomainStats s : coordinator.run()) {
+            StringBuilder line = new StringBuilder(String.format("%5d %11d", s.getEpoch(), s.getSteps()));
+            for (int t = 0; t < s.getTypes(); t++)
+                line.append(String.format(" %10d", s.getCount(t)));
+            System.out.println(line.append(String.format(" %10d", s.getEmigrants())));
+        }
+        System.out.println(String.format("%d domains in %.1f s", coordinator.domains,
+                (System.nanoTime() - start) / 1e9));
+    }
+}
@@ -0,0 +1,102 @@
+package core.domain;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ *  DomainStats
+ *
+ * Statistics of one domain, or of the whole world once merged, at the start of an epoch: the agents of each type it
+ * holds, the steps made during the previous epoch and the agents that crossed its borders at the exchange. Types are
+ * indexes in LifeOptions.getSupportedAgents().
+ *
+ * Agents are counted once they left their domain and before they entered the next one, so that the agents of the
+ * world are the merged counts plus the merged emigrants.
+ */
+public final class DomainStats {
+
+    private final long epoch;
+
+    private final long steps;
+
+    private final int emigrants;
+
+    private final int immigrants;
+
+    private final long[] counts;
+
+    public DomainStats(long epoch, long steps, int emigrants, int immigrants, long[] counts) {
+        this.epoch = epoch;
+        this.steps = steps;
+        this.emigrants = emigrants;
+        this.immigrants = immigrants;
+        this.counts = counts.clone();
+    }
+
+    /**
+     * @return the statistics of the world made of the domains of @param parts, all of the same epoch
+     * @throws IllegalArgumentException if there is no part or they are not of the same epoch and types
+     */
+    public static DomainStats merge(List<DomainStats> parts) {
+        if (parts.isEmpty())
+            throw new IllegalArgumentException("Nothing to merge");
+        final DomainStats first = parts.get(0);
+        long steps = 0;
+        int emigrants = 0, immigrants = 0;
+        long[] counts = new long[first.counts.length];
+        for (DomainStats part : parts) {
+            if (part.epoch != first.epoch || part.counts.length != counts.length)
+                throw new IllegalArgumentException("Cannot merge epoch " + part.epoch + " with " + part.counts.length
+                        + " types into epoch " + first.epoch + " with " + counts.length);
+            steps += part.steps;
+            emigrants += part.emigrants;
+            immigrants += part.immigrants;
+            for (int t = 0; t < counts.length; t++)
+                counts[t] += part.counts[t];
+        }
+        return new DomainStats(first.epoch, steps, emigrants, immigrants, counts);
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /** @return the steps made during the previous epoch */
+    public long getSteps() {
+        return steps;
+    }
+
+    /** @return the agents that left the domain at the start of the epoch */
+    public int getEmigrants() {
+        return emigrants;
+    }
+
+    /** @return the agents that entered the domain at the start of the epoch */
+    public int getImmigrants() {
+        return immigrants;
+    }
+
+    /** @return the number of types counted */
+    public int getTypes() {
+        return counts.length;
+    }
+
+    /** @return the agents of type @param type */
+    public long getCount(int type) {
+        return counts[type];
+    }
+
+    /** @return the agents of every type, emigrants excluded */
+    public long getAgents() {
+        long agents = 0;
+        for (long c : counts)
+            agents += c;
+        return agents;
+    }
+
+    @Override
+    public String toString() {
+        return "epoch " + epoch + ": " + steps + " steps, agents " + Arrays.toString(counts) + ", " + emigrants
+                + " emigrants, " + immigrants + " immigrants";
+    }
+}
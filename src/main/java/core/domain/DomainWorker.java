@@ -0,0 +1,248 @@
+package core.domain;
+
+import core.*;
+import core.exceptions.LifeException;
+import core.exceptions.LifeImplementationException;
+import core.exceptions.SurfaceAlreadyPresent;
+import core.exceptions.TooManySurfacesException;
+
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ *  DomainWorker
+ *
+ * Steps one domain of a world split in bands of rows, each stepped by its own process (see DomainCoordinator). The
+ * domain is a Life over its band plus one halo row on each side shared with a neighbour. Agents move into the halo rows
+ * like into any other row; at the end of each epoch those in a halo row are sent to the neighbour owning that row,
+ * which adds them back, and the halo rows start the next epoch empty. The first epoch too: a domain seeds its own rows
+ * only. Within an epoch agents therefore see nothing of the neighbouring domains, the shorter the epochs the closer the
+ * world is to a single Life.
+ *
+ * Each epoch a domain makes its share of the steps of the world proportional to its agents, so that every agent of the
+ * world is as likely to act as in a single Life. A surface sent to a cell which has one already is dropped.
+ */
+public class DomainWorker {
+
+    private static final Logger LOGGER = Logger.getLogger(Life.class.getName());
+
+    private final HaloExchange exchange;
+
+    private final int domain;
+
+    /**  rows of the world owned by the domain, from first inclusive to last exclusive */
+    private final int first;
+    private final int last;
+
+    /**  1 if the domain has a halo row above its band, 0 at the top of the world */
+    private final int haloTop;
+
+    private final long epochSteps;
+
+    private final Life life;
+
+    /**  the agent types, in the order of their indexes in migrants and stats */
+    private final List<Class<? extends LifeAgent>> types;
+
+    private final Map<Class<? extends LifeAgent>, Integer> typeIndexes = new HashMap<>();
+
+    /**  steps made since the last exchange, and migrants that crossed at it */
+    private long steps;
+    private int emigrants;
+    private int immigrants;
+
+    /**
+     *  creates the domain @param domain of a world of @param rows rows and @param cols columns, holding @param density
+     * agents of each type per cell, exchanging with the other domains through @param exchange. The world makes
+     * @param epochSteps steps per epoch, over all domains.
+     * @throws LifeException if the Life of the domain cannot be created
+     */
+    public DomainWorker(HaloExchange exchange, int domain, int rows, int cols, double density, long epochSteps)
+            throws LifeException {
+        final int domains = exchange.getDomains();
+        if (domain < 0 || domain >= domains || rows < domains || cols < 1)
+            throw new IllegalArgumentException("Domain " + domain + " of " + domains + " cannot be cut in a " + rows
+                    + "x" + cols + " world");
+        if (epochSteps < 1)
+            throw new IllegalArgumentException("An epoch must have at least one step: " + epochSteps + " given.");
+        this.exchange = exchange;
+        this.domain = domain;
+        this.epochSteps = epochSteps;
+        first = (int) ((long) rows * domain / domains);
+        last = (int) ((long) rows * (domain + 1) / domains);
+        haloTop = (domain > 0) ? 1 : 0;
+        final int haloBottom = (domain < domains - 1) ? 1 : 0;
+
+        // Life would seed the halo rows too, their agents crossing at once: the domain seeds its own rows instead
+        LifeOptions options = LifeOptions.createDefaultLifeOptions(last - first + haloTop + haloBottom, cols, 0);
+        types = options.getSupportedAgents();
+        for (int t = 0; t < types.size(); t++)
+            typeIndexes.put(types.get(t), t);
+        life = new Life(options);
+        seed(options, (int) Math.round((last - first) * cols * density));
+    }
+
+    /**
+     *  adds @param count agents of each type, with the initial energy of @param options, on random cells of the rows
+     * owned by the domain
+     * @throws TooManySurfacesException if the surfaces do not fit in the owned rows, one per cell
+     */
+    private void seed(LifeOptions options, int count) throws LifeException {
+        final int cols = life.getGridCols();
+        int surfaces = 0;
+        for (Class<? extends LifeAgent> type : types) {
+            if (Surface.class.isAssignableFrom(type))
+                surfaces += count;
+        }
+        if (surfaces > (last - first) * cols)
+            throw new TooManySurfacesException(String.format("%d surface instances requested with only %d cells owned",
+                    surfaces, (last - first) * cols));
+
+        final Random rand = Utils.getRand();
+        for (Class<? extends LifeAgent> type : types) {
+            final int energy = options.getOptionsForAgent(type).getInitialEnergy();
+            for (int i = 0; i < count; i++) {
+                // a surface retries until it finds a cell without one, as when Life seeds them
+                while (true) {
+                    Point2D p = new Point2D(rand.nextInt(cols), haloTop + rand.nextInt(last - first));
+                    try {
+                        life.addAgent(createAgent(type, p, energy));
+                        break;
+                    }
+                    catch (SurfaceAlreadyPresent e) {
+                        // try another cell
+                    }
+                }
+            }
+        }
+    }
+
+    private static LifeAgent createAgent(Class<? extends LifeAgent> type, Point2D pos, int energy)
+            throws LifeImplementationException {
+        try {
+            return type.getConstructor(Point2D.class, Integer.class).newInstance(pos, energy);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new LifeImplementationException("Implementation error: could not create instance of Agent "
+                    + type.getName() + "\n" + e.getMessage());
+        }
+    }
+
+    /**
+     *  steps the domain for @param epochs epochs, exchanging migrants and stats before each of them and after the last
+     * @throws LifeException if an agent failed to act or to cross into this domain
+     * @throws InterruptedException if interrupted while waiting for the other domains
+     */
+    public void run(long epochs) throws LifeException, InterruptedException {
+        for (long epoch = 0; epoch < epochs; epoch++) {
+            List<DomainStats> world = exchange(epoch);
+            long agents = 0, emigrating = 0;
+            for (DomainStats s : world) {
+                agents += s.getAgents();
+                emigrating += s.getEmigrants();
+            }
+            // the agents of the world include those that were crossing, now all arrived
+            final long total = agents + emigrating;
+            final long quota = (total == 0) ? 0 : Math.round((double) epochSteps * life.getAgents().size() / total);
+            for (long i = 0; i < quota && false == life.getAgents().isEmpty(); i++) {
+                life.step();
+                steps++;
+            }
+        }
+        exchange(epochs);
+    }
+
+    /**
+     *  sends the agents of the halo rows to the neighbours and adds those they sent
+     * @return the stats of every domain at the start of @param epoch, before the migrants arrived
+     */
+    private List<DomainStats> exchange(long epoch) throws LifeException, InterruptedException {
+        life.reapDeadAgents();
+        final List<Migrant> up = (haloTop == 1) ? emigrants(0) : Collections.emptyList();
+        final List<Migrant> down = (domain < exchange.getDomains() - 1)
+                ? emigrants(life.getGridRows() - 1) : Collections.emptyList();
+        emigrants = up.size() + down.size();
+
+        List<Migrant> arrived = exchange.exchange(epoch, up, down, stats(epoch));
+        steps = 0;
+        immigrants = 0;
+        for (Migrant m : arrived) {
+            LifeAgent a = m.toAgent(types, new Point2D(m.getX(), m.getY() - first + haloTop));
+            try {
+                if (life.addAgent(a))
+                    immigrants++;
+            }
+            catch (SurfaceAlreadyPresent e) {
+                LOGGER.log(Level.FINE, "dropped a surface crossing into an occupied cell of domain {0}", domain);
+            }
+        }
+        return exchange.getStats(epoch);
+    }
+
+    /**
+     *  removes the agents of the local row @param y from life, at most the capacity of the exchange, the others waiting
+     * for the next exchange
+     * @return them as migrants
+     */
+    private List<Migrant> emigrants(int y) throws LifeException {
+        List<LifeAgent> leaving = new ArrayList<>();
+        for (int x = 0; x < life.getGridCols() && leaving.size() < exchange.getCapacity(); x++) {
+            Iterator<LifeAgent> it = ((LifeCell) life.getGrid().get(x, y)).getAgents();
+            while (it.hasNext() && leaving.size() < exchange.getCapacity())
+                leaving.add(it.next());
+        }
+        List<Migrant> migrants = new ArrayList<>(leaving.size());
+        for (LifeAgent a : leaving) {
+            migrants.add(Migrant.of(a, typeIndexes.get(a.getClass()), y - haloTop + first));
+            life.removeAgent(a);
+        }
+        return migrants;
+    }
+
+    /** @return the stats of the domain for @param epoch */
+    private DomainStats stats(long epoch) {
+        long[] counts = new long[types.size()];
+        for (Agent a : life.getAgents())
+            counts[typeIndexes.get(a.getClass())]++;
+        return new DomainStats(epoch, steps, emigrants, immigrants, counts);
+    }
+
+    /** @return the Life of the domain, its halo rows included */
+    public Life getLife() {
+        return life;
+    }
+
+    /** @return the first row of the world owned by the domain */
+    public int getFirstRow() {
+        return first;
+    }
+
+    /** @return the row of the world after the last one owned by the domain */
+    public int getLastRow() {
+        return last;
+    }
+
+    /**
+     *  steps a domain in its own process, given: the exchange file, the domain, the rows, columns and density of the
+     * world, the number of epochs, the steps per epoch and the seed of the domain's random numbers
+     */
+    public static void main(String[] args) {
+        if (args.length != 8) {
+            System.err.println("usage: DomainWorker file domain rows cols density epochs epochSteps seed");
+            System.exit(2);
+        }
+        final int domain = Integer.parseInt(args[1]);
+        Utils.setSeed(Long.parseLong(args[7]));
+        try (MappedHaloExchange exchange = MappedHaloExchange.open(Paths.get(args[0]), domain)) {
+            DomainWorker worker = new DomainWorker(exchange, domain, Integer.parseInt(args[2]),
+                    Integer.parseInt(args[3]), Double.parseDouble(args[4]), Long.parseLong(args[6]));
+            worker.run(Long.parseLong(args[5]));
+        }
+        catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "domain " + domain + " failed", e);
+            System.exit(1);
+        }
+    }
+}
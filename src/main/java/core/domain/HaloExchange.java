@@ -0,0 +1,36 @@
+package core.domain;
+
+import java.io.Closeable;
+import java.util.List;
+
+/**
+ *  HaloExchange
+ *
+ * How the domains of a world split in bands of rows talk to each other: at the end of each epoch every domain hands
+ * over the agents that entered its halo rows, which belong to the neighbouring domains, publishes its statistics and
+ * waits for all the domains to have done so, which makes the exchange a barrier between epochs.
+ *
+ * MappedHaloExchange exchanges through a memory-mapped file between processes of a single host. Domains only depend on
+ * this interface, so that another implementation can exchange over a network without changing them.
+ */
+public interface HaloExchange extends Closeable {
+
+    /** @return the number of domains of the world */
+    int getDomains();
+
+    /** @return the largest number of migrants a domain can send to each neighbour per epoch */
+    int getCapacity();
+
+    /**
+     *  sends @param up to the domain above and @param down to the domain below, at most getCapacity() each, publishes
+     * @param stats of the domain for @param epoch and waits for every domain to have done the same
+     * @return the migrants sent to this domain by its neighbours for the epoch
+     * @throws InterruptedException if interrupted while waiting
+     * @throws IllegalStateException if the other domains did not reach the epoch in time
+     */
+    List<Migrant> exchange(long epoch, List<Migrant> up, List<Migrant> down, DomainStats stats)
+            throws InterruptedException;
+
+    /** @return the statistics of every domain for @param epoch, once exchange() for that epoch returned */
+    List<DomainStats> getStats(long epoch);
+}
@@ -0,0 +1,347 @@
+package core.domain;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+/**
+ *  MappedHaloExchange
+ *
+ * HaloExchange between the processes of a single host through a file each of them maps in memory, which the operating
+ * system shares between them without any network service. The coordinator creates the file, each domain opens it. It
+ * holds, from the start:
+ *
+ *  header     magic, domains, types and capacity
+ *  counters   the last epoch each domain reached, then the last epoch the coordinator merged
+ *  stats      the DomainStats of each domain, for even and odd epochs
+ *  mailboxes  the migrants each domain sends up and down, for even and odd epochs
+ *
+ * A domain writes its migrants and stats for an epoch, then its counter, and waits until every domain reached the epoch
+ * and the coordinator merged the previous one. A domain can therefore only be one epoch ahead of the slowest reader of
+ * what it writes, which two buffers per epoch parity make enough. Waiting is done by polling the counters.
+ *
+ * Counters are written after the data they publish and read before it, only while holding a lock of the file on them:
+ * exclusive to write one, shared to read them. Taking and releasing a lock are system calls serialized by the kernel,
+ * so a process locking the counters after a domain released them sees everything that domain wrote before; ends of the
+ * exchange in the same JVM synchronize on its table of file locks as well. The header is published by starting the
+ * domains' processes after the file was created.
+ */
+public class MappedHaloExchange implements HaloExchange {
+
+    /**  first int of the file */
+    static final int MAGIC = 0x4C494645;
+
+    /**  time a domain waits for the others at a barrier before giving up */
+    public static final long TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    /**  time between two polls of the counters */
+    private static final long POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private static final int HEADER = 4 * Integer.BYTES;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    /**  domain of this end of the exchange, -1 for the coordinator */
+    private final int domain;
+
+    private final int domains;
+
+    private final int types;
+
+    private final int capacity;
+
+    private final int statsOffset;
+
+    private final int statsSize;
+
+    private final int mailboxOffset;
+
+    private final int mailboxSize;
+
+    private MappedHaloExchange(FileChannel channel, int domain, int domains, int types, int capacity) throws IOException {
+        this.channel = channel;
+        this.domain = domain;
+        this.domains = domains;
+        this.types = types;
+        this.capacity = capacity;
+        statsOffset = HEADER + Long.BYTES * (domains + 1);
+        statsSize = 2 * Long.BYTES + 2 * Integer.BYTES + types * Long.BYTES;
+        mailboxOffset = statsOffset + 2 * domains * statsSize;
+        // the count, then the migrants, rounded up to keep the next mailbox aligned
+        mailboxSize = (Long.BYTES + capacity * Migrant.BYTES + Long.BYTES - 1) / Long.BYTES * Long.BYTES;
+        final long size = mailboxOffset + 4L * domains * mailboxSize;
+        if (size > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("An exchange of " + domains + " domains with a capacity of " + capacity
+                    + " needs " + size + " bytes, more than can be mapped");
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    /**
+     * @return the coordinator's end of a new exchange in @param file, between @param domains domains counting agents of
+     * @param types types and sending at most @param capacity migrants to each neighbour per epoch
+     * @throws IOException if the file cannot be written or mapped
+     */
+    public static MappedHaloExchange create(Path file, int domains, int types, int capacity) throws IOException {
+        if (domains < 1 || types < 1 || capacity < 1)
+            throw new IllegalArgumentException("Domains, types and capacity must be positive: " + domains + ", " + types
+                    + " and " + capacity + " given.");
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            MappedHaloExchange exchange = new MappedHaloExchange(channel, -1, domains, types, capacity);
+            for (int d = 0; d <= domains; d++)
+                exchange.buffer.putLong(exchange.counter(d), -1);
+            exchange.buffer.putInt(4, domains);
+            exchange.buffer.putInt(8, types);
+            exchange.buffer.putInt(12, capacity);
+            exchange.buffer.putInt(0, MAGIC);
+            return exchange;
+        }
+        catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the end of @param domain of the exchange created in @param file
+     * @throws IOException if the file cannot be mapped or was not created by create()
+     */
+    public static MappedHaloExchange open(Path file, int domain) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+            if (header.getInt(0) != MAGIC)
+                throw new IOException(file + " is not a halo exchange");
+            final int domains = header.getInt(4);
+            if (domain < 0 || domain >= domains)
+                throw new IllegalArgumentException("No domain " + domain + " among " + domains);
+            return new MappedHaloExchange(channel, domain, domains, header.getInt(8), header.getInt(12));
+        }
+        catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int getDomains() {
+        return domains;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** @return the number of types counted in the stats */
+    public int getTypes() {
+        return types;
+    }
+
+    @Override
+    public List<Migrant> exchange(long epoch, List<Migrant> up, List<Migrant> down, DomainStats stats)
+            throws InterruptedException {
+        if (domain < 0)
+            throw new IllegalStateException("The coordinator does not exchange migrants");
+        if (up.size() > capacity || down.size() > capacity)
+            throw new IllegalArgumentException("At most " + capacity + " migrants can be sent, not " + up.size()
+                    + " and " + down.size());
+        if ((domain == 0 && false == up.isEmpty()) || (domain == domains - 1 && false == down.isEmpty()))
+            throw new IllegalArgumentException("Domain " + domain + " has no neighbour to send migrants to");
+        if (stats.getEpoch() != epoch || stats.getTypes() != types)
+            throw new IllegalArgumentException("Stats of epoch " + stats.getEpoch() + " with " + stats.getTypes()
+                    + " types given for epoch " + epoch + " with " + types);
+
+        final int parity = (int) (epoch & 1);
+        writeMigrants(mailbox(domain, 0, parity), up);
+        writeMigrants(mailbox(domain, 1, parity), down);
+        writeStats(stats(domain, parity), stats);
+        writeCounter(domain, epoch);
+
+        await(epoch, counters -> reached(counters, epoch) && counters[domains] >= epoch - 1, () -> false);
+
+        // from the domain above what it sent down, from the one below what it sent up
+        List<Migrant> received = new ArrayList<>();
+        if (domain > 0)
+            readMigrants(mailbox(domain - 1, 1, parity), received);
+        if (domain < domains - 1)
+            readMigrants(mailbox(domain + 1, 0, parity), received);
+        return received;
+    }
+
+    @Override
+    public List<DomainStats> getStats(long epoch) {
+        final int parity = (int) (epoch & 1);
+        List<DomainStats> stats = new ArrayList<>(domains);
+        for (int d = 0; d < domains; d++)
+            stats.add(readStats(stats(d, parity)));
+        return stats;
+    }
+
+    /**
+     *  waits, as the coordinator, until every domain reached @param epoch
+     * @throws IllegalStateException if @param failed turns true meanwhile, or the domains take too long
+     */
+    void awaitDomains(long epoch, BooleanSupplier failed) throws InterruptedException {
+        await(epoch, counters -> reached(counters, epoch), failed);
+    }
+
+    /**  records, as the coordinator, that the stats of @param epoch were merged, letting the domains go past epoch + 1 */
+    void merged(long epoch) throws InterruptedException {
+        writeCounter(domains, epoch);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /** @return true if every domain reached @param epoch according to @param counters */
+    private boolean reached(long[] counters, long epoch) {
+        for (int d = 0; d < domains; d++) {
+            if (counters[d] < epoch)
+                return false;
+        }
+        return true;
+    }
+
+    /**  polls the counters until @param done accepts them */
+    private void await(long epoch, Predicate<long[]> done, BooleanSupplier failed) throws InterruptedException {
+        final long deadline = System.nanoTime() + TIMEOUT_NANOS;
+        while (false == done.test(readCounters())) {
+            if (failed.getAsBoolean())
+                throw new IllegalStateException("A domain failed before epoch " + epoch);
+            if (System.nanoTime() - deadline > 0)
+                throw new IllegalStateException("Domains did not reach epoch " + epoch + " in time");
+            LockSupport.parkNanos(POLL_NANOS);
+            if (Thread.interrupted())
+                throw new InterruptedException();
+        }
+    }
+
+    /**  publishes @param epoch as the counter of @param d, after everything written before it */
+    private void writeCounter(int d, long epoch) throws InterruptedException {
+        FileLock lock = lockCounters(false);
+        try {
+            buffer.putLong(counter(d), epoch);
+        }
+        finally {
+            release(lock);
+        }
+    }
+
+    /** @return the counters of the domains then that of the coordinator, with what they published visible */
+    private long[] readCounters() throws InterruptedException {
+        long[] counters = new long[domains + 1];
+        FileLock lock = lockCounters(true);
+        try {
+            for (int d = 0; d <= domains; d++)
+                counters[d] = buffer.getLong(counter(d));
+        }
+        finally {
+            release(lock);
+        }
+        return counters;
+    }
+
+    /**
+     *  locks the counters, @param shared to read them. Polls rather than blocks, as a thread interrupted while
+     * blocked in FileChannel.lock() closes the channel.
+     */
+    private FileLock lockCounters(boolean shared) throws InterruptedException {
+        final long deadline = System.nanoTime() + TIMEOUT_NANOS;
+        while (true) {
+            try {
+                FileLock lock = channel.tryLock(HEADER, (domains + 1) * Long.BYTES, shared);
+                if (lock != null)
+                    return lock;
+            }
+            catch (OverlappingFileLockException e) {
+                // held by another end of the exchange in this JVM
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (System.nanoTime() - deadline > 0)
+                throw new IllegalStateException("The counters of the exchange stayed locked");
+            LockSupport.parkNanos(POLL_NANOS);
+            if (Thread.interrupted())
+                throw new InterruptedException();
+        }
+    }
+
+    private static void release(FileLock lock) {
+        try {
+            lock.release();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int counter(int d) {
+        return HEADER + d * Long.BYTES;
+    }
+
+    private int stats(int d, int parity) {
+        return statsOffset + (parity * domains + d) * statsSize;
+    }
+
+    /** @return the offset of the mailbox of @param d sending up (@param direction 0) or down (1) */
+    private int mailbox(int d, int direction, int parity) {
+        return mailboxOffset + ((d * 2 + direction) * 2 + parity) * mailboxSize;
+    }
+
+    private void writeMigrants(int offset, List<Migrant> migrants) {
+        buffer.putInt(offset, migrants.size());
+        int at = offset + Long.BYTES;
+        for (Migrant m : migrants) {
+            buffer.putInt(at, m.getType());
+            buffer.putInt(at + 4, m.getX());
+            buffer.putInt(at + 8, m.getY());
+            buffer.putInt(at + 12, m.getInitialEnergy());
+            buffer.putInt(at + 16, m.getEnergy());
+            at += Migrant.BYTES;
+        }
+    }
+
+    private void readMigrants(int offset, List<Migrant> migrants) {
+        final int count = buffer.getInt(offset);
+        int at = offset + Long.BYTES;
+        for (int i = 0; i < count; i++, at += Migrant.BYTES) {
+            migrants.add(new Migrant(buffer.getInt(at), buffer.getInt(at + 4), buffer.getInt(at + 8),
+                    buffer.getInt(at + 12), buffer.getInt(at + 16)));
+        }
+    }
+
+    private void writeStats(int offset, DomainStats stats) {
+        buffer.putLong(offset, stats.getEpoch());
+        buffer.putLong(offset + 8, stats.getSteps());
+        buffer.putInt(offset + 16, stats.getEmigrants());
+        buffer.putInt(offset + 20, stats.getImmigrants());
+        for (int t = 0; t < types; t++)
+            buffer.putLong(offset + 24 + t * Long.BYTES, stats.getCount(t));
+    }
+
+    private DomainStats readStats(int offset) {
+        long[] counts = new long[types];
+        for (int t = 0; t < types; t++)
+            counts[t] = buffer.getLong(offset + 24 + t * Long.BYTES);
+        return new DomainStats(buffer.getLong(offset), buffer.getLong(offset + 8), buffer.getInt(offset + 16),
+                buffer.getInt(offset + 20), counts);
+    }
+}
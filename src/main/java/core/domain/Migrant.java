@@ -0,0 +1,82 @@
+package core.domain;
+
+import core.LifeAgent;
+import core.Point2D;
+import core.exceptions.LifeException;
+import core.exceptions.LifeImplementationException;
+
+import java.util.List;
+
+/**
+ *  Migrant
+ *
+ * A LifeAgent crossing from one domain to another, reduced to what the receiving domain needs to create it again: its
+ * type, its position in the world and its energies. Types are indexes in LifeOptions.getSupportedAgents(), which is
+ * the same in every domain.
+ */
+public final class Migrant {
+
+    /**  bytes of a Migrant once encoded, 5 ints */
+    public static final int BYTES = 5 * Integer.BYTES;
+
+    private final int type;
+
+    private final int x;
+
+    /**  row in the whole world, not in a domain */
+    private final int y;
+
+    private final int initialEnergy;
+
+    private final int energy;
+
+    public Migrant(int type, int x, int y, int initialEnergy, int energy) {
+        this.type = type;
+        this.x = x;
+        this.y = y;
+        this.initialEnergy = initialEnergy;
+        this.energy = energy;
+    }
+
+    /** @return the migrant of @param a, of type @param type, at the row @param y of the world */
+    public static Migrant of(LifeAgent a, int type, int y) {
+        return new Migrant(type, a.getPos().getX(), y, a.getInitialEnergy(), a.getEnergy());
+    }
+
+    /**
+     * @return a new LifeAgent of this migrant's type among @param types, placed at @param pos of the receiving domain
+     * @throws LifeException if the agent cannot be created
+     */
+    public LifeAgent toAgent(List<Class<? extends LifeAgent>> types, Point2D pos) throws LifeException {
+        final Class<? extends LifeAgent> agentType = types.get(type);
+        try {
+            LifeAgent a = agentType.getConstructor(Point2D.class, Integer.class).newInstance(pos, initialEnergy);
+            a.setEnergy(energy);
+            return a;
+        }
+        catch (ReflectiveOperationException e) {
+            throw new LifeImplementationException("Implementation error: could not create instance of Agent "
+                    + agentType.getName() + "\n" + e.getMessage());
+        }
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getInitialEnergy() {
+        return initialEnergy;
+    }
+
+    public int getEnergy() {
+        return energy;
+    }
+}
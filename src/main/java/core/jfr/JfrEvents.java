@@ -0,0 +1,203 @@
+package core.jfr;
+
+import jdk.jfr.*;
+
+/**
+ *  JfrEvents
+ *
+ * The flight recorder event types of the simulation and the code committing them. Only LifeEvents refers to this
+ * class, and only once it checked that jdk.jfr is available, so that the JVM never loads it otherwise.
+ *
+ * Events are found in a recording under the "Life" category. Each one is checked for being enabled before its fields
+ * are set, when it is not the JIT removes the allocation.
+ */
+final class JfrEvents {
+
+    /**  private constructor to prevent instantiation of this class */
+    private JfrEvents() {}
+
+    @Name("life.StepBatch")
+    @Label("Step Batch")
+    @Category("Life")
+    @Description("Steps run by one tick of the RateGovernor")
+    @StackTrace(false)
+    static final class StepBatchEvent extends Event {
+        @Label("Steps")
+        int steps;
+
+        @Label("Target Rate")
+        @Description("Steps per second, Infinity when running as fast as possible")
+        double rate;
+
+        @Label("Batch Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long batchDuration;
+    }
+
+    @Name("life.Generation")
+    @Label("Generation")
+    @Category("Life")
+    @Description("Life entered a new generation")
+    @StackTrace(false)
+    static final class GenerationEvent extends Event {
+        @Label("Generation")
+        long generation;
+
+        @Label("Step Count")
+        int stepCount;
+
+        @Label("Agents")
+        int agents;
+
+        @Label("Deaths")
+        @Description("Agents removed during the generation that ended")
+        int deaths;
+    }
+
+    @Name("life.MassDeath")
+    @Label("Mass Death")
+    @Category("Life")
+    @Description("A large share of the agents died within one generation")
+    @StackTrace(false)
+    static final class MassDeathEvent extends Event {
+        @Label("Generation")
+        long generation;
+
+        @Label("Agents Before")
+        int agentsBefore;
+
+        @Label("Agents After")
+        int agentsAfter;
+
+        @Label("Deaths")
+        int deaths;
+    }
+
+    @Name("life.SnapshotWrite")
+    @Label("Snapshot Write")
+    @Category("Life")
+    @Description("A WorldSnapshot was captured and published")
+    @StackTrace(false)
+    static final class SnapshotWriteEvent extends Event {
+        @Label("Version")
+        long version;
+
+        @Label("Step Count")
+        int stepCount;
+
+        @Label("Agents")
+        int agents;
+
+        @Label("Capture Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long captureDuration;
+    }
+
+    @Name("life.FrameDraw")
+    @Label("Frame Draw")
+    @Category({"Life", "GUI"})
+    @Description("The grid view painted its dirty cells")
+    @StackTrace(false)
+    static final class FrameDrawEvent extends Event {
+        @Label("Cells")
+        int cells;
+
+        @Label("Density")
+        @Description("Painted as a density image rather than cell by cell")
+        boolean density;
+
+        @Label("Paint Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long paintDuration;
+    }
+
+    @Name("life.Rebalance")
+    @Label("Rebalance")
+    @Category("Life")
+    @Description("An AsyncStepper moved regions of the grid between its threads to even their agents")
+    @StackTrace(false)
+    static final class RebalanceEvent extends Event {
+        @Label("Regions")
+        int regions;
+
+        @Label("Migrated Regions")
+        @Description("Regions that changed thread")
+        int migrated;
+
+        @Label("Imbalance Before")
+        @Description("Agents of the most loaded thread over the mean agents per thread")
+        double imbalanceBefore;
+
+        @Label("Imbalance After")
+        double imbalanceAfter;
+
+        @Label("Rebalance Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long rebalanceDuration;
+    }
+
+    static void stepBatch(int steps, double rate, long duration) {
+        StepBatchEvent e = new StepBatchEvent();
+        if (false == e.isEnabled())
+            return;
+        e.steps = steps;
+        e.rate = rate;
+        e.batchDuration = duration;
+        e.commit();
+    }
+
+    static void generation(long generation, int stepCount, int agents, int deaths) {
+        GenerationEvent e = new GenerationEvent();
+        if (false == e.isEnabled())
+            return;
+        e.generation = generation;
+        e.stepCount = stepCount;
+        e.agents = agents;
+        e.deaths = deaths;
+        e.commit();
+    }
+
+    static void massDeath(long generation, int agentsBefore, int agentsAfter, int deaths) {
+        MassDeathEvent e = new MassDeathEvent();
+        if (false == e.isEnabled())
+            return;
+        e.generation = generation;
+        e.agentsBefore = agentsBefore;
+        e.agentsAfter = agentsAfter;
+        e.deaths = deaths;
+        e.commit();
+    }
+
+    static void snapshotWritten(long version, int stepCount, int agents, long duration) {
+        SnapshotWriteEvent e = new SnapshotWriteEvent();
+        if (false == e.isEnabled())
+            return;
+        e.version = version;
+        e.stepCount = stepCount;
+        e.agents = agents;
+        e.captureDuration = duration;
+        e.commit();
+    }
+
+    static void frameDrawn(int cells, boolean density, long duration) {
+        FrameDrawEvent e = new FrameDrawEvent();
+        if (false == e.isEnabled())
+            return;
+        e.cells = cells;
+        e.density = density;
+        e.paintDuration = duration;
+        e.commit();
+    }
+
+    static void rebalance(int regions, int migrated, double imbalanceBefore, double imbalanceAfter, long duration) {
+        RebalanceEvent e = new RebalanceEvent();
+        if (false == e.isEnabled())
+            return;
+        e.regions = regions;
+        e.migrated = migrated;
+        e.imbalanceBefore = imbalanceBefore;
+        e.imbalanceAfter = imbalanceAfter;
+        e.rebalanceDuration = duration;
+        e.commit();
+    }
+}
@@ -0,0 +1,108 @@
+package core.jfr;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ *  LifeEvents class contains only static methods
+ *
+ * Facade emitting the Java Flight Recorder events of the simulation (see JfrEvents), so that a recording of a slow run
+ * shows which phase of the simulation GC pauses and allocations fall in. The jdk.jfr API is only touched when it is
+ * present in the running JVM, on JVMs without it every method returns immediately. Events are only allocated while a
+ * recording has them enabled.
+ *
+ * Durations are given in nanoseconds, as measured with System.nanoTime().
+ */
+public final class LifeEvents {
+
+    private static final Logger LOGGER = Logger.getLogger(core.Life.class.getName());
+
+    /**  true when the running JVM has the jdk.jfr API */
+    public static final boolean AVAILABLE = jfrAvailable();
+
+    /**  private constructor to prevent instantiation of this class */
+    private LifeEvents() {}
+
+    private static boolean jfrAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, LifeEvents.class.getClassLoader());
+            return true;
+        }
+        catch (ClassNotFoundException | LinkageError e) {
+            LOGGER.log(Level.FINE, "jdk.jfr not available, no flight recorder events will be emitted");
+            return false;
+        }
+    }
+
+    /**
+     *  a batch of steps run by a RateGovernor tick
+     * @param steps number of steps run
+     * @param rate target rate in steps per second
+     * @param duration of the batch
+     */
+    public static void stepBatch(int steps, double rate, long duration) {
+        if (AVAILABLE)
+            JfrEvents.stepBatch(steps, rate, duration);
+    }
+
+    /**
+     *  Life entered a new generation
+     * @param generation number of the generation entered
+     * @param stepCount number of steps done
+     * @param agents number of agents alive
+     * @param deaths number of agents removed during the generation that ended
+     */
+    public static void generation(long generation, int stepCount, int agents, int deaths) {
+        if (AVAILABLE)
+            JfrEvents.generation(generation, stepCount, agents, deaths);
+    }
+
+    /**
+     *  a large share of the agents died within a generation
+     * @param generation number of the generation that ended
+     * @param agentsBefore number of agents at the start of the generation
+     * @param agentsAfter number of agents at its end
+     * @param deaths number of agents removed during the generation
+     */
+    public static void massDeath(long generation, int agentsBefore, int agentsAfter, int deaths) {
+        if (AVAILABLE)
+            JfrEvents.massDeath(generation, agentsBefore, agentsAfter, deaths);
+    }
+
+    /**
+     *  a WorldSnapshot was captured and published
+     * @param version of the snapshot
+     * @param stepCount number of steps done when it was captured
+     * @param agents number of agents in Life
+     * @param duration of the capture
+     */
+    public static void snapshotWritten(long version, int stepCount, int agents, long duration) {
+        if (AVAILABLE)
+            JfrEvents.snapshotWritten(version, stepCount, agents, duration);
+    }
+
+    /**
+     *  the grid view painted a frame
+     * @param cells number of dirty cells painted
+     * @param density true if painted as a density image rather than cell by cell
+     * @param duration of the paint
+     */
+    public static void frameDrawn(int cells, boolean density, long duration) {
+        if (AVAILABLE)
+            JfrEvents.frameDrawn(cells, density, duration);
+    }
+
+    /**
+     *  an AsyncStepper rebalanced the partition of the grid among its threads
+     * @param regions number of regions of the partition
+     * @param migrated number of regions that changed thread
+     * @param imbalanceBefore agents of the most loaded thread over the mean agents per thread, before rebalancing
+     * @param imbalanceAfter the same after rebalancing
+     * @param duration of the rebalancing, counting the agents of each region included
+     */
+    public static void rebalance(int regions, int migrated, double imbalanceBefore, double imbalanceAfter,
+                                 long duration) {
+        if (AVAILABLE)
+            JfrEvents.rebalance(regions, migrated, imbalanceBefore, imbalanceAfter, duration);
+    }
+}
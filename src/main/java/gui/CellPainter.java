@@ -0,0 +1,101 @@
+package gui;
+
+import core.*;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+
+/**
+ *  CellPainter
+ *
+ * Paints cells of a WorldSnapshot onto the GraphicsContext of the grid's Canvas. A cell is painted as its surface
+ * color, its border and at most MINICELL_ROWS * MINICELL_COLS creatures, wolves first. Nothing is allocated per paint:
+ * the creature images are loaded once and scaled by drawImage.
+ */
+public class CellPainter {
+
+    public final static int MINICELL_ROWS = 3;
+    public final static int MINICELL_COLS = 3;
+
+    /**  the width of the cell sides' width */
+    public final static double LINE_WIDTH = 1;
+
+    /**  cells with a side under this value in px are painted without border */
+    public final static double MIN_BORDER_SIDE_PX = 4;
+
+    private final static Color BACKGROUND_COLOR = Color.WHITE;
+    private final static Color BORDER_COLOR = Color.BLACK;
+
+    /**  images shared by all painters, loaded on first use */
+    private static Image wolfImage;
+    private static Image deerImage;
+
+    private final GraphicsContext gc;
+
+    /**  the value of a cell's side in px */
+    private final double side;
+
+    /**  position of the top left corner of the cell (0, 0) */
+    private final double originX;
+    private final double originY;
+
+    private final double miniCellSide;
+
+    /**
+     * @param gc graphics context of the canvas to paint on
+     * @param side of a cell in px
+     * @param originX x of the top left corner of the grid in px
+     * @param originY y of the top left corner of the grid in px
+     */
+    public CellPainter(GraphicsContext gc, double side, double originX, double originY) {
+        this.gc = gc;
+        this.side = side;
+        this.originX = originX;
+        this.originY = originY;
+        this.miniCellSide = side / MINICELL_COLS;
+    }
+
+    public double getSide() {
+        return side;
+    }
+
+    /**  paints the cell at index @param i in @param snapshot, which is at (x, y) in the grid */
+    public void paint(WorldSnapshot snapshot, int i, int x, int y) {
+        final double left = originX + x * side;
+        final double top = originY + y * side;
+
+        // surface, the background if there's none
+        Color surfaceColor = GrassView.colorOf(snapshot.surfaceEnergyAt(i));
+        gc.setFill(surfaceColor != null ? surfaceColor : BACKGROUND_COLOR);
+        gc.fillRect(left, top, side, side);
+
+        if (side >= MIN_BORDER_SIDE_PX) {
+            gc.setStroke(BORDER_COLOR);
+            gc.setLineWidth(LINE_WIDTH);
+            gc.strokeRect(left, top, side, side);
+        }
+
+        // at most one creature per mini-cell, wolves first
+        final int maxCreatures = MINICELL_ROWS * MINICELL_COLS;
+        int nWolves = Math.min(snapshot.countOf(Wolf.class, i), maxCreatures);
+        int nDeer = Math.min(snapshot.countOf(Deer.class, i), maxCreatures - nWolves);
+        for (int k = 0; k < nWolves + nDeer; k++) {
+            Image img = (k < nWolves)? wolfImage() : deerImage();
+            double miniX = left + miniCellSide * (k % MINICELL_COLS);
+            double miniY = top + miniCellSide * (k / MINICELL_COLS);
+            gc.drawImage(img, miniX, miniY, miniCellSide, miniCellSide);
+        }
+    }
+
+    private static Image wolfImage() {
+        if (wolfImage == null)
+            wolfImage = new Image(Wolf.class.getResource(WolfView.WOLF_IMG_64).toString());
+        return wolfImage;
+    }
+
+    private static Image deerImage() {
+        if (deerImage == null)
+            deerImage = new Image(Deer.class.getResource(DeerView.DEER_IMG_64).toString());
+        return deerImage;
+    }
+}
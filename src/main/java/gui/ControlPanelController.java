@@ -40,7 +40,10 @@ public class ControlPanelController implements Initializable {
 
     private StackedTitledPanes agentsCtrlPane;
     private RulesPane rulesPane;
+    private PreviewPane previewPane;
+    private StatsPane statsPane;
     private LifeOptions lifeOptions;
+    private boolean followingState; // the slider is being moved to the rate of lifeStarter, not by the user
 
     /**
      *
@@ -55,7 +58,8 @@ public class ControlPanelController implements Initializable {
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         frequencySlider.valueProperty().addListener(event -> {
-            frequencySliderDone();
+            if (false == followingState)
+                frequencySliderDone();
         });
 
         try { lifeOptions = LifeOptions.createDefaultLifeOptions();}
@@ -75,9 +79,18 @@ public class ControlPanelController implements Initializable {
         tabPane.getTabs().get(2).setContent(rulesPane);
 
         // Stats Tab
-        StatsPane statsPane = new StatsPane(LifeAgent.getStatsCopy(), LifeAgent.getStatsObservable());
+        statsPane = new StatsPane(LifeAgent.getStatsCopy(), LifeAgent.getStatsObservable());
         tabPane.getTabs().add(new Tab("Stats", statsPane));
 
+        // Preview Tab, refreshed whenever it is shown as the rules are edited in place
+        previewPane = new PreviewPane();
+        Tab previewTab = new Tab("Preview", previewPane);
+        previewTab.setOnSelectionChanged(event -> {
+            if (previewTab.isSelected())
+                refreshPreview();
+        });
+        tabPane.getTabs().add(previewTab);
+
         updateSpeedLabelText();
     }
 
@@ -126,9 +139,30 @@ public class ControlPanelController implements Initializable {
         else {
             // not handled..
         }
+        refreshPreview();
 
     }
 
+    /**
+     *  previews a copy of the options with the grid typed in, the grid of the options is used if the fields don't hold
+     *  valid dimensions yet. The options themselves are left as they are: a running Life reads them.
+     */
+    private void refreshPreview() {
+        LifeOptions previewed = new LifeOptions(lifeOptions);
+        try {
+            int gridRows = Integer.parseInt(rowsTextField.getText());
+            int gridCols = Integer.parseInt(colsTextField.getText());
+            if (gridRows > 0 && gridCols > 0) {
+                previewed.setGridRows(gridRows);
+                previewed.setGridCols(gridCols);
+            }
+        }
+        catch (NumberFormatException e) {
+            // keep the grid of the options
+        }
+        previewPane.preview(previewed);
+    }
+
     /**
      * @param actionEvent
      */
@@ -150,18 +184,16 @@ public class ControlPanelController implements Initializable {
             if (State.STOPPED == lifeStarter.getState()) {
                 Life life = new Life(lifeOptions);
 
-                if (lifeStarter.start(life))
-                    setStartedState();
+                // the buttons and the stats follow through the state listener, see stateChanged()
+                lifeStarter.start(life);
             }
             // user wants to continue the paused simulation
             else if (State.PAUSED == lifeStarter.getState()) {
                 lifeStarter.unpause();
-                setStartedState();
             }
             // user wants to pause the current simulation
             else if (State.STARTED == lifeStarter.getState()) {
-                if (lifeStarter.pause())
-                    setPausedState();
+                lifeStarter.pause();
             }
         }
         catch(IllegalArgumentException exc) {
@@ -185,18 +217,23 @@ public class ControlPanelController implements Initializable {
      * @param actionEvent
      */
     public void stopButtonPressed(ActionEvent actionEvent) {
-        if (lifeStarter.stop())
-            setStoppedState();
+        lifeStarter.stop();
     }
 
     public void setLifeStarter(LifeStarter lifeStarter) {
         this.lifeStarter = lifeStarter;
 
+        // the control panel and the LifeMonitor change the state and the rate the same way, both shown from here
+        lifeStarter.setStateListener(this::stateChanged);
+
         // listen to changes on iterations in lifeStarter and adjust the Label
         lifeStarter.getIterationsObservable().addListener((observable, oldVal, newVal) -> {
             int maxIter = lifeStarter.lifeGetter().getMaxIterations();
             String maxStr = (maxIter < 1)? "∞" : String.format("%d", maxIter);
             Platform.runLater(() -> iterationsLabel.setText(String.format("Iterations: %d / %s", newVal, maxStr)));
+            // stepping stops by itself once max iterations are reached
+            if (maxIter > 0 && newVal.intValue() >= maxIter)
+                Platform.runLater(statsPane::stopRefreshing);
         });
 
     }
@@ -206,8 +243,31 @@ public class ControlPanelController implements Initializable {
         double val = getSpeedVal();
 
         lifeStarter.setFrequency(val);
+    }
 
-        updateSpeedLabelText();
+    /**  shows the state and the rate of lifeStarter in the buttons, the speed slider and the stats, on the FX thread */
+    private void stateChanged() {
+        switch (lifeStarter.getState()) {
+            case STARTED:
+                setStartedState();
+                break;
+            case PAUSED:
+                setPausedState();
+                break;
+            default:
+                setStoppedState();
+                break;
+        }
+
+        final double rate = lifeStarter.getRate();
+        followingState = true;
+        try {
+            frequencySlider.setValue(RootController.calculateSpeedFromRate(rate) * 100.0);
+        }
+        finally {
+            followingState = false;
+        }
+        updateSpeedLabelText(rate);
     }
 
     /**  change the name (and other properties?) appearing on the start button */
@@ -227,11 +287,15 @@ public class ControlPanelController implements Initializable {
     }
 
     /**
-     *  get the speed for the slider (0-1) and adjust the speed label in percent terms
+     *  get the speed for the slider (0-1) and adjust the speed label in steps per second
      */
     private void updateSpeedLabelText() {
-        double val = getSpeedVal();
-        speedLabel.setText(String.format("%.1f%%", val*100));
+        updateSpeedLabelText(RootController.calculateRateFromSpeed(getSpeedVal()));
+    }
+
+    /**  shows @param rate in steps per second in the speed label */
+    private void updateSpeedLabelText(double rate) {
+        speedLabel.setText((rate == RateGovernor.MAX_RATE)? "max" : String.format("%,.0f/s", rate));
     }
 
     private Integer validateInteger(TextField t) throws IllegalArgumentException {
@@ -361,10 +425,17 @@ public class ControlPanelController implements Initializable {
     private double getSpeedVal() {
         return frequencySlider.getValue() / 100.0f;
     }
-    private void setPausedState() { changeButtonsState(lifeStarter.getState()); }
+    private void setPausedState() {
+        changeButtonsState(lifeStarter.getState());
+        statsPane.stopRefreshing();
+    }
     private void setStartedState() {
         changeButtonsState(lifeStarter.getState());
+        statsPane.startRefreshing();
+    }
+    private void setStoppedState() {
+        changeButtonsState(lifeStarter.getState());
+        statsPane.stopRefreshing();
     }
-    private void setStoppedState() { changeButtonsState(lifeStarter.getState()); }
 
 }
@@ -1,7 +1,6 @@
 package gui;
 
 import core.Deer;
-import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.Pane;
@@ -15,10 +14,14 @@ public class DeerView extends Pane {
     private Deer deer;
 
     public DeerView(Deer deer, double width, double height) {
-        super();
+        this(width, height);
         this.deer = deer;
+    }
+
+    /**  constructor drawing a deer without a Deer instance, e.g. from cell counts */
+    public DeerView(double width, double height) {
+        super();
         ImageView imgView = new ImageView(new Image(Deer.class.getResource(DEER_IMG_64).toString(), width, height, true, true));
-        Label energyLabel = new Label(deer.getEnergy().toString());
-        getChildren().addAll(imgView/*, energyLabel */);
+        getChildren().addAll(imgView);
     }
 }
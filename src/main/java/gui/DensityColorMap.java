@@ -0,0 +1,51 @@
+package gui;
+
+/**
+ *  DensityColorMap class contains only static methods
+ *
+ * Maps the population densities of a cell or block of cells to a single ARGB color, used when cells are too small to
+ * show individual agents. The surface density tints the background green, deer and wolves are then blended on top, wolves
+ * last so that they remain visible on crowded areas.
+ *
+ * Densities are clamped to [0, 1]: 1 means at least one agent per cell for creatures, and ENERGY_VALUE_UPPER (the
+ * darkest grass shade) for surfaces.
+ */
+public final class DensityColorMap {
+
+    public static final int BACKGROUND_RGB = 0xFFFFFF;
+    public static final int SURFACE_RGB = 0x228B22;   // forest green
+    public static final int DEER_RGB = 0xA0522D;      // sienna
+    public static final int WOLF_RGB = 0x303030;      // dark gray
+
+    /**  private constructor to prevent instantiation of this class */
+    private DensityColorMap() {}
+
+    /**
+     * @param surface density of surface energy
+     * @param deer density of deer
+     * @param wolves density of wolves
+     * @return the opaque ARGB color for the densities given
+     */
+    public static int argb(double surface, double deer, double wolves) {
+        int rgb = blend(BACKGROUND_RGB, SURFACE_RGB, surface);
+        rgb = blend(rgb, DEER_RGB, deer);
+        rgb = blend(rgb, WOLF_RGB, wolves);
+        return 0xFF000000 | rgb;
+    }
+
+    /** @return the RGB color @param t of the way from @param from to @param to, t is clamped to [0, 1] */
+    static int blend(int from, int to, double t) {
+        if (t <= 0 || Double.isNaN(t))
+            return from;
+        if (t >= 1)
+            return to;
+        int r = mix((from >> 16) & 0xFF, (to >> 16) & 0xFF, t);
+        int g = mix((from >> 8) & 0xFF, (to >> 8) & 0xFF, t);
+        int b = mix(from & 0xFF, to & 0xFF, t);
+        return (r << 16) | (g << 8) | b;
+    }
+
+    private static int mix(int a, int b, double t) {
+        return (int) Math.round(a + (b - a) * t);
+    }
+}
@@ -0,0 +1,180 @@
+package gui;
+
+import core.*;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.util.BitSet;
+
+/**
+ *  DensityRenderer
+ *
+ * Level of detail used when cells are too small to show individual agents. A region of the grid, the whole grid by
+ * default, is divided in square blocks of blockSide x blockSide cells, each block is one pixel of an image whose color
+ * shows the densities of the block (see DensityColorMap). Cells outside of the region are ignored. Only the blocks
+ * containing dirty cells are recomputed, only the rows of pixels they cover are written to the image, and the image is
+ * then scaled onto the canvas.
+ *
+ * Everything but render() is plain Java and can run off the FX thread.
+ */
+public class DensityRenderer {
+
+    private final int cols;
+
+    /**  first column and row of the region covered, and the column and row after its end */
+    private final int firstCol;
+    private final int firstRow;
+    private final int endCol;
+    private final int endRow;
+
+    /**  number of cells on the side of a block */
+    private final int blockSide;
+
+    /**  number of blocks per row and per column, i.e. the dimensions of the image */
+    private final int blockCols;
+    private final int blockRows;
+
+    /**  ARGB color of each block, row-major */
+    private final int[] pixels;
+
+    /**  blocks to recompute */
+    private final BitSet dirtyBlocks;
+
+    private WritableImage image;
+
+    /**  range of rows of pixels recomputed since the image was last written, minDirtyRow > maxDirtyRow if none */
+    private int minDirtyRow = Integer.MAX_VALUE;
+    private int maxDirtyRow = -1;
+
+    /**
+     * @param rows number of rows in the grid
+     * @param cols number of columns in the grid
+     * @param blockSide number of cells on the side of a block, at least 1
+     */
+    public DensityRenderer(int rows, int cols, int blockSide) {
+        this(rows, cols, blockSide, 0, 0, cols, rows);
+    }
+
+    /**
+     *  renderer for the cells from column @param firstCol to @param endCol and row @param firstRow to @param endRow,
+     * ends excluded
+     * @param rows number of rows in the grid
+     * @param cols number of columns in the grid
+     * @param blockSide number of cells on the side of a block, at least 1
+     */
+    public DensityRenderer(int rows, int cols, int blockSide, int firstCol, int firstRow, int endCol, int endRow) {
+        if (blockSide < 1)
+            throw new IllegalArgumentException("DensityRenderer block side must be at least 1: " + blockSide);
+        if (firstCol < 0 || firstRow < 0 || endCol > cols || endRow > rows || firstCol >= endCol || firstRow >= endRow)
+            throw new IllegalArgumentException("DensityRenderer region out of the " + rows + "x" + cols + " grid: ["
+                    + firstCol + ", " + endCol + ") x [" + firstRow + ", " + endRow + ")");
+        this.cols = cols;
+        this.blockSide = blockSide;
+        this.firstCol = firstCol;
+        this.firstRow = firstRow;
+        this.endCol = endCol;
+        this.endRow = endRow;
+        this.blockCols = (endCol - firstCol + blockSide - 1) / blockSide;
+        this.blockRows = (endRow - firstRow + blockSide - 1) / blockSide;
+        this.pixels = new int[blockCols * blockRows];
+        this.dirtyBlocks = new BitSet(pixels.length);
+        markAll();
+    }
+
+    /** @return the smallest block side such that a block covers at least a pixel when a cell is @param cellSide px */
+    public static int blockSideFor(double cellSide) {
+        return (cellSide >= 1.0) ? 1 : (int) Math.ceil(1.0 / cellSide);
+    }
+
+    public int getBlockSide() {
+        return blockSide;
+    }
+
+    public int getBlockCols() {
+        return blockCols;
+    }
+
+    public int getBlockRows() {
+        return blockRows;
+    }
+
+    /**  marks the block holding the cell at index @param i (y * cols + x), if it is in the region */
+    public void markCell(int i) {
+        int x = i % cols;
+        int y = i / cols;
+        if (x < firstCol || x >= endCol || y < firstRow || y >= endRow)
+            return;
+        dirtyBlocks.set(((y - firstRow) / blockSide) * blockCols + (x - firstCol) / blockSide);
+    }
+
+    public void markAll() {
+        dirtyBlocks.set(0, pixels.length);
+    }
+
+    /**
+     *  recomputes the color of every dirty block from @param snapshot
+     * @return the number of blocks recomputed
+     */
+    public int update(WorldSnapshot snapshot) {
+        final int wolfIndex = snapshot.typeIndex(Wolf.class);
+        final int deerIndex = snapshot.typeIndex(Deer.class);
+        final double maxEnergy = GrassView.ENERGY_VALUE_UPPER;
+
+        int n = 0;
+        for (int b = dirtyBlocks.nextSetBit(0); b >= 0; b = dirtyBlocks.nextSetBit(b + 1)) {
+            final int bx = b % blockCols;
+            final int by = b / blockCols;
+            final int x0 = firstCol + bx * blockSide, x1 = Math.min(x0 + blockSide, endCol);
+            final int y0 = firstRow + by * blockSide, y1 = Math.min(y0 + blockSide, endRow);
+
+            long wolves = 0, deer = 0, energy = 0;
+            for (int y = y0; y < y1; y++) {
+                for (int x = x0; x < x1; x++) {
+                    int i = y * cols + x;
+                    wolves += snapshot.countAt(wolfIndex, i);
+                    deer += snapshot.countAt(deerIndex, i);
+                    energy += snapshot.surfaceEnergyAt(i);
+                }
+            }
+            final double cells = (x1 - x0) * (y1 - y0);
+            pixels[b] = DensityColorMap.argb(energy / (cells * maxEnergy), deer / cells, wolves / cells);
+
+            minDirtyRow = Math.min(minDirtyRow, by);
+            maxDirtyRow = Math.max(maxDirtyRow, by);
+            n++;
+        }
+        dirtyBlocks.clear();
+        return n;
+    }
+
+    /** @return the ARGB color of the block at (bx, by) as of the last update */
+    public int getPixel(int bx, int by) {
+        return pixels[by * blockCols + bx];
+    }
+
+    /**
+     *  updates the image from @param snapshot and, if any block changed, draws it onto @param gc with the top left
+     * corner of the region at (x, y) and cells of @param cellSide px. Must be called from the FX thread.
+     * @return true if the image was drawn
+     */
+    public boolean render(WorldSnapshot snapshot, GraphicsContext gc, double x, double y, double cellSide) {
+        if (image == null) {
+            image = new WritableImage(blockCols, blockRows);
+            markAll();
+        }
+        update(snapshot);
+        if (minDirtyRow > maxDirtyRow)
+            return false;
+
+        int nRows = maxDirtyRow - minDirtyRow + 1;
+        image.getPixelWriter().setPixels(0, minDirtyRow, blockCols, nRows, PixelFormat.getIntArgbInstance(),
+                pixels, minDirtyRow * blockCols, blockCols);
+        minDirtyRow = Integer.MAX_VALUE;
+        maxDirtyRow = -1;
+
+        final double blockPx = blockSide * cellSide;
+        gc.drawImage(image, x, y, blockCols * blockPx, blockRows * blockPx);
+        return true;
+    }
+}
@@ -63,20 +63,35 @@ public class GrassView extends Pane {
      * @param grass
      */
     public GrassView(Grass grass) {
-        super();
+        this(grass.getEnergy());
         this.grass = grass;
+    }
 
-        if (grass.getEnergy() < ENERGY_VALUE_LOWER) {
-            // if Grass' energy is zero we don't draw anything. Generally we hope not to get passed Grass with zero energy
-            color =  null;
-        }
-        else {
-            // conceptually not the actual energy of the grass but the energy value it will be painted with
-            int paintedEnergy = Math.min(Math.min(grass.getEnergy(), ENERGY_VALUE_UPPER), Math.max(grass.getEnergy(), ENERGY_VALUE_LOWER)) ;
-            int shadeIndex = (COLOR_SHADE_COUNT * paintedEnergy / ENERGY_VALUE_UPPER) - 1;
-            color = colorShades.get(shadeIndex);
+    /**
+     *  constructor for surfaces that are not backed by a Grass instance (e.g. held by a SurfaceLayer)
+     * @param energy the energy level to paint
+     */
+    public GrassView(int energy) {
+        super();
+
+        color = colorOf(energy);
+        if (color != null)
             setStyle("-fx-background-color: " + Utils.toRGBCode(color));
+    }
+
+    /**
+     * @return the shade of color surfaces with energy @param energy are painted with, null when the energy is under
+     * ENERGY_VALUE_LOWER (nothing is painted)
+     */
+    public static Color colorOf(int energy) {
+        if (energy < ENERGY_VALUE_LOWER) {
+            // if Grass' energy is zero we don't draw anything. Generally we hope not to get passed Grass with zero energy
+            return null;
         }
+        // conceptually not the actual energy of the grass but the energy value it will be painted with
+        int paintedEnergy = Math.min(Math.min(energy, ENERGY_VALUE_UPPER), Math.max(energy, ENERGY_VALUE_LOWER)) ;
+        int shadeIndex = (COLOR_SHADE_COUNT * paintedEnergy / ENERGY_VALUE_UPPER) - 1;
+        return colorShades.get(shadeIndex);
     }
 
     /**
@@ -2,128 +2,220 @@ package gui;
 
 import core.*;
 import core.actions.*;
-import core.exceptions.InvalidPositionException;
-import javafx.application.Platform;
-import javafx.collections.ObservableList;
+import core.jfr.LifeEvents;
 import javafx.geometry.NodeOrientation;
-import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.layout.Pane;
 
 import java.util.*;
-
+import java.util.logging.Logger;
+
+/**
+ *  GridView
+ *
+ * Paints the grid onto a single Canvas. Cells are only marked dirty, either from the cells that changed between
+ * two WorldSnapshots or from actions, and the dirty cells are then repainted together by paintDirty() so that a
+ * frame costs one pass over the cells that changed, whatever the size of the grid.
+ *
+ * Only the cells in the Viewport are painted: the view zooms with the mouse wheel and pans by dragging, changes
+ * outside of the viewport are skipped. Painting reads the last snapshot published by Life, never the live grid. Cells
+ * of at least DETAIL_MIN_CELL_SIDE px are painted one by one with their agents (CellPainter), smaller cells are shown as
+ * a density image (DensityRenderer). The level of detail is chosen again each time the zoom changes.
+ */
 public class GridView extends Pane {
 
-    private Map<Point2D, CellView> cells = new HashMap<>();
+    private static final Logger LOGGER = Logger.getLogger(Life.class.getName());
+
+    /**  smallest cell side in px for which agents are drawn individually */
+    public static final double DETAIL_MIN_CELL_SIDE = 6;
+
+    /**  factor by which the cell side changes for each notch of the mouse wheel */
+    public static final double ZOOM_STEP = 1.25;
+
+    private final LifeGetter life;
+
+    private final int rows;
+
+    private final int cols;
+
+    private final Canvas canvas;
+
+    private final DirtyCells dirtyCells;
+
+    /**  read by the thread calling markChanges(), only replaced on the FX thread */
+    private volatile Viewport viewport;
+
+    /**  painters for the current viewport, only used on the FX thread */
+    private CellPainter painter;
+
+    /**  not null when cells are too small to be painted one by one */
+    private DensityRenderer densityRenderer;
 
-    private Grid grid;
+    /**  version of the last snapshot whose changes were marked, only used by the thread calling markChanges() */
+    private long markedVersion = -1;
+
+    /**  last mouse position while dragging */
+    private double dragX;
+    private double dragY;
 
     /**
-     *  e.g. we are given 800x800px
+     *  the view starts showing the whole grid, e.g. we are given 800x800px
      *  for (row, col) = 100, 80
-     *  cellSide =  min(8, 10) = 8
+     *  cellSide =  min(800/80, 800/100) = 8
      *
-     * @param grid
+     * @param life
      * @param totalWidth
      * @param totalHeight
-     * @throws InvalidPositionException
      */
-    public GridView(Grid grid, double totalWidth, double totalHeight) throws InvalidPositionException {
-        this.grid = grid;
-
-
-        // a single cell's side
-        double cellSide = Math.min(totalWidth/grid.getRows(), totalHeight/grid.getCols());
-
-        // calculate the top, bottom, right and left margins
-        double marginTopBottom = (totalHeight - cellSide * grid.getRows()) / 2;
-        double marginRightLeft = (totalWidth  - cellSide * grid.getCols()) / 2;
+    public GridView(LifeGetter life, double totalWidth, double totalHeight) {
+        this.life = life;
+        this.rows = life.getGridRows();
+        this.cols = life.getGridCols();
 
         setNodeOrientation(NodeOrientation.LEFT_TO_RIGHT);
 
-        for (int j = 0; j < grid.getRows(); j++) {
-            for (int i = 0; i < grid.getCols(); i++) {
+        canvas = new Canvas(totalWidth, totalHeight);
+        dirtyCells = new DirtyCells(rows, cols);
+        getChildren().add(canvas);
 
+        setOnScroll(e -> {
+            if (e.getDeltaY() != 0)
+                zoom((e.getDeltaY() > 0) ? ZOOM_STEP : 1 / ZOOM_STEP, e.getX(), e.getY());
+        });
+        setOnMousePressed(e -> {
+            dragX = e.getX();
+            dragY = e.getY();
+        });
+        setOnMouseDragged(e -> {
+            pan(e.getX() - dragX, e.getY() - dragY);
+            dragX = e.getX();
+            dragY = e.getY();
+        });
 
-                Point2D p = new Point2D(i, j);
+        WorldSnapshot snapshot = life.getSnapshot();
+        if (snapshot != null)
+            markedVersion = snapshot.getVersion();
+        setViewport(new Viewport(rows, cols, totalWidth, totalHeight));
+    }
 
-                CellView cellView = new CellView(grid.get(p), cellSide);
+    public Viewport getViewport() {
+        return viewport;
+    }
 
-                double x = marginRightLeft + i * cellSide;
-                double y = marginTopBottom + j * cellSide;
+    /**
+     *  shows @param viewport, repainting every cell it makes visible. Must be called from the FX thread.
+     * @return true if the view changed
+     */
+    public boolean setViewport(Viewport viewport) {
+        if (viewport.sameView(this.viewport))
+            return false;
+        final boolean lodChanged = (this.viewport == null) || viewport.getCellSide() != this.viewport.getCellSide();
+        this.viewport = viewport;
+
+        final double side = viewport.getCellSide();
+        final GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        painter = new CellPainter(gc, side, viewport.getOriginX(), viewport.getOriginY());
+        densityRenderer = (side < DETAIL_MIN_CELL_SIDE)?
+                new DensityRenderer(rows, cols, DensityRenderer.blockSideFor(side), viewport.getFirstCol(),
+                        viewport.getFirstRow(), viewport.getEndCol(), viewport.getEndRow()) : null;
+        if (lodChanged)
+            LOGGER.fine("grid view cell side " + side + "px, " + ((densityRenderer != null)? "density" : "detail"));
+
+        markVisible();
+        paintDirty();
+        return true;
+    }
 
-                cellView.setLayoutX(x);
-                cellView.setLayoutY(y);
+    /**  zooms by @param factor keeping the point at (x, y) in the view in place, must be called from the FX thread */
+    public boolean zoom(double factor, double x, double y) {
+        return setViewport(viewport.zoom(factor, x, y));
+    }
 
-                getChildren().add(cellView);
-                cells.put(p, cellView);
-            }
-        }
+    /**  moves the view by (dx, dy) px, must be called from the FX thread */
+    public boolean pan(double dx, double dy) {
+        return setViewport(viewport.pan(dx, dy));
+    }
+
+    private void markVisible() {
+        final Viewport v = viewport;
+        dirtyCells.markRect(v.getFirstCol(), v.getFirstRow(), v.getEndCol(), v.getEndRow());
     }
 
-    /**  draw all cells */
+    /**  draw all visible cells */
     public void drawAll() {
-        getChildren().stream().forEach(cellView -> {
-            if(cellView instanceof CellView)
-                ((CellView)cellView).draw();
-        });
+        markVisible();
+        paintDirty();
     }
 
     /**  redraw all cells affected by any one of the actions in the @param actions list */
     public void draw(List<Action> actions)  {
         for (Action action : actions)
-            draw(action);
+            dirtyCells.mark(action);
+        paintDirty();
     }
 
-    /**  redraw the cells affected by @param action. This depends on what the action is exactly. */
+    /**  redraw the cells affected by @param action */
     public void draw(Action action)  {
-        if (action instanceof EnergyChange) {
-            EnergyChange age = (EnergyChange) action;
-            Point2D srcPt = age.getAgent().getPos();
-            CellView srcCell = cells.get(srcPt);
-            srcCell.draw();
-        }
-        else if (action instanceof Move) {
-            Move move = (Move) action;
-            Point2D srcPt = move.getFrom();
-            Point2D dstPt = move.getTo();
-
-            CellView srcCell = cells.get(srcPt);
-            CellView dstCell = cells.get(dstPt);
+        dirtyCells.mark(action);
+        paintDirty();
+    }
 
-            srcCell.draw();
-            dstCell.draw();
-        }
-        else if (action instanceof Consume) {
-            Point2D pt = ((Consume) action).getAgent().getPos();
-            CellView cellView = cells.get(pt);
-            cellView.draw();
-        }
-        else if (action instanceof Reproduce) {
-            Reproduce reproduce = (Reproduce) action;
-            Point2D pt = reproduce.getAgent().getPos();
-
-            // draw the agent's cell
-            CellView agentCell = cells.get(pt);
-            agentCell.draw();
-
-            // draw all cells where babies are located (except the agent's cell)
-            Iterator<LifeAgent> it = reproduce.getBabies();
-            while(it.hasNext()) {
-                Point2D p = it.next().getPos();
-                cells.get(p).draw();
-            }
+    /**
+     *  marks the visible cells that changed in @param snapshot as dirty. When snapshots were published in between
+     * without being passed here, their changes are unknown and every visible cell is marked. Meant to be called by a
+     * single thread, typically as the snapshot listener of Life.
+     */
+    public void markChanges(WorldSnapshot snapshot) {
+        final Viewport v = viewport;
+        if (snapshot.getVersion() == markedVersion + 1) {
+            snapshot.forEachChanged(i -> {
+                if (v.isVisible(i))
+                    dirtyCells.markIndex(i);
+            });
         }
+        else if (snapshot.getVersion() != markedVersion)
+            markVisible();
+        markedVersion = snapshot.getVersion();
     }
 
-    /**  counts the number of agents added to GridView - useful for debugging */
-    private int countAgents() throws InvalidPositionException {
-        int total = 0;
-        for (Node node: getChildren()) {
-            if (node instanceof CellView) {
-                CellView cell = (CellView) node;
-                total +=(cell.getChildren().size() - 4);
+    /**
+     *  repaint every visible cell marked dirty since the last paint, from the last snapshot published. Dirty cells
+     * outside of the viewport are dropped.
+     * @return the number of dirty cells drained
+     */
+    public int paintDirty() {
+        // pinned, the stepping thread may publish several snapshots while the cells are painted
+        final WorldSnapshot snapshot = life.pinSnapshot();
+        if (snapshot == null)
+            return 0;
+        try {
+            final long start = System.nanoTime();
+            final Viewport v = viewport;
+            int n;
+            if (densityRenderer != null) {
+                n = dirtyCells.drain(densityRenderer::markCell);
+                if (n > 0)
+                    densityRenderer.render(snapshot, canvas.getGraphicsContext2D(), v.screenX(v.getFirstCol()),
+                            v.screenY(v.getFirstRow()), v.getCellSide());
+            }
+            else {
+                n = dirtyCells.drain(i -> {
+                    if (v.isVisible(i))
+                        painter.paint(snapshot, i, i % cols, i / cols);
+                });
             }
+            if (n > 0)
+                LifeEvents.frameDrawn(n, densityRenderer != null, System.nanoTime() - start);
+            return n;
+        }
+        finally {
+            snapshot.unpin();
         }
-        return total;
+    }
+
+    public DirtyCells getDirtyCells() {
+        return dirtyCells;
     }
 }
@@ -1,7 +1,6 @@
 package gui;
 
 import core.LifeAgentStats;
-import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Label;
@@ -11,12 +10,15 @@ import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
 
-import java.util.Observable;
-import java.util.Observer;
-
 import static java.lang.Float.MAX_VALUE;
 
-public class LifeAgentStatsPane extends VBox implements Observer {
+/**
+ *  LifeAgentStatsPane
+ *
+ * Shows the counters of one LifeAgentStats. The pane doesn't listen to the counters: refresh() reads them and is
+ * called at a fixed rate by StatsPane, so the UI work doesn't depend on how fast agents are created or die.
+ */
+public class LifeAgentStatsPane extends VBox {
 
     private final Label agentTypeLabel;
     private final Label aliveDeadLabel;
@@ -29,7 +31,6 @@ public class LifeAgentStatsPane extends VBox implements Observer {
         super(2.0); // spacing
         this.agentStats = s;
         this.setPadding(new Insets(5.0, 5.0, 5.0, 5.0));
-        s.addObserver(this);
 
         // fixed labels - those don't change
         final Label fAliveDead = new Label("Alive / Dead ");
@@ -65,28 +66,22 @@ public class LifeAgentStatsPane extends VBox implements Observer {
         return String.format("%d", x);
     }
 
-    @Override
-    public void update(Observable o, Object arg) {
-        if (arg instanceof String) {
+    public LifeAgentStats getAgentStats() {
+        return agentStats;
+    }
 
-            // because we can't make the UI changes in update() which is called by a non JavaFX thread
-            Platform.runLater(new Runnable() {
-                @Override
-                public void run() {
-                    updateUI(o, arg);
-                }
-            });
-        }
+    /**  reads the counters and updates the labels whose value changed, must be called from the FX thread */
+    public void refresh() {
+        long created = agentStats.getNbCreated();
+        long died = agentStats.getNbDied();
+        setTextIfChanged(aliveDeadLabel, String.format("%d / %d", (created - died), died));
+        setTextIfChanged(createdLabel, stringFromLong(created));
+        setTextIfChanged(reproducedLabel, stringFromLong(agentStats.getNbReproduced()));
     }
 
-    private void updateUI(Observable o, Object arg) {
-        String str = (String) arg;
-        if (str.equals(LifeAgentStats.NOTIFY_CREATED) || str.equals(LifeAgentStats.NOTIFY_DIED)) {
-            aliveDeadLabel.setText(String.format("%d / %d", (agentStats.getNbCreated() - agentStats.getNbDied()), agentStats.getNbDied()));
-            createdLabel.setText(stringFromLong(agentStats.getNbCreated()));
-        }
-        else if (str.equals(LifeAgentStats.NOTIFY_REPRODUCED)) {
-            reproducedLabel.setText(stringFromLong(agentStats.getNbReproduced()));
-        }
+    /**  setting the same text again would still trigger a layout pass */
+    private static void setTextIfChanged(Label label, String text) {
+        if (false == text.equals(label.getText()))
+            label.setText(text);
     }
 }
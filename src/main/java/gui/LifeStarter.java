@@ -26,6 +26,15 @@ public interface LifeStarter {
 
     void setFrequency(double hz);
 
+    /** @return the number of steps per second */
+    double getRate();
+
+    /**
+     * @param listener called on the FX thread after every change of the state or the rate, whether it came from the
+     * control panel or from elsewhere, e.g. the LifeMonitor
+     */
+    void setStateListener(Runnable listener);
+
     LifeGetter lifeGetter();
 
     SimpleIntegerProperty getIterationsObservable();
@@ -25,7 +25,7 @@ public class LifeViewController {
 
         // only update the Pane if the passed life is non-null and different from the previous s
         if (life != null && life != this.life) {
-            this.gridView = new GridView(life.getGrid(), rootPane.getPrefWidth(), rootPane.getPrefHeight());
+            this.gridView = new GridView(life, rootPane.getPrefWidth(), rootPane.getPrefHeight());
 
             // clear the pane then add the gridview
             rootPane.getChildren().clear();
@@ -50,4 +50,15 @@ public class LifeViewController {
     public void draw(List<Action> actions) throws InvalidPositionException {
         gridView.draw(actions);
     }
+
+    /** @return the grid view of the current life, null if no life was set yet */
+    public GridView getGridView() {
+        return gridView;
+    }
+
+    /**  repaint the cells marked dirty since the last call, must be called from the FX thread */
+    public void paintDirty() {
+        if (gridView != null)
+            gridView.paintDirty();
+    }
 }
@@ -0,0 +1,79 @@
+package gui;
+
+import core.LifeAgent;
+import core.LifeOptions;
+import core.MeanFieldModel;
+import core.MeanFieldPrediction;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *  PreviewPane
+ *
+ * Shows the population curves a MeanFieldModel predicts for the options being edited, before starting Life, and the
+ * types it predicts to go extinct. Computing them takes well under a millisecond, so preview() can be called on every
+ * change of the options.
+ */
+public class PreviewPane extends VBox {
+
+    /**  generations shown */
+    public static final double HORIZON = 200.0;
+
+    private final LineChart<Number, Number> chart;
+
+    private final Label extinctionLabel;
+
+    public PreviewPane() {
+        super(5.0); // spacing
+        this.setPadding(new Insets(5.0, 5.0, 5.0, 5.0));
+
+        NumberAxis generations = new NumberAxis();
+        generations.setLabel("Generations");
+        NumberAxis agents = new NumberAxis();
+        agents.setLabel("Agents");
+        chart = new LineChart<>(generations, agents);
+        chart.setAnimated(false);
+        chart.setCreateSymbols(false);
+        extinctionLabel = new Label();
+        extinctionLabel.setWrapText(true);
+
+        getChildren().add(chart);
+        getChildren().add(extinctionLabel);
+    }
+
+    /**  predicts and shows the curves of a world described by @param options, must be called from the FX thread */
+    public void preview(LifeOptions options) {
+        MeanFieldPrediction prediction;
+        try {
+            prediction = new MeanFieldModel(options).predict(HORIZON);
+        }
+        catch (IllegalArgumentException e) {
+            chart.getData().clear();
+            extinctionLabel.setText("No preview: " + e.getMessage());
+            return;
+        }
+
+        List<XYChart.Series<Number, Number>> series = new ArrayList<>();
+        List<String> extinct = new ArrayList<>();
+        for (Class<? extends LifeAgent> type : prediction.getTypes()) {
+            ObservableList<XYChart.Data<Number, Number>> data = FXCollections.observableArrayList();
+            for (int i = 0; i < prediction.size(); i++)
+                data.add(new XYChart.Data<>(prediction.getTime(i), prediction.getCount(type, i)));
+            series.add(new XYChart.Series<>(type.getSimpleName(), data));
+            if (prediction.isExtinct(type))
+                extinct.add(String.format("%s at %.0f", type.getSimpleName(), prediction.extinctionTime(type)));
+        }
+        chart.getData().setAll(series);
+        extinctionLabel.setText(extinct.isEmpty() ? "No extinction predicted"
+                : "Extinct: " + String.join(", ", extinct));
+    }
+}
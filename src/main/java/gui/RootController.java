@@ -1,20 +1,16 @@
 package gui;
 
 import core.*;
-import core.actions.Action;
-import core.exceptions.AgentAlreadyDeadException;
 import core.exceptions.InvalidPositionException;
-import core.exceptions.SurfaceAlreadyPresent;
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleIntegerProperty;
-import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.layout.Pane;
 
 import java.net.URL;
 import java.util.*;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -34,25 +30,34 @@ public class RootController implements Initializable, LifeStarter {
     // CONSTANTS
     // ===========================================================================================
 
-    /**  period between calls to step() in milli-seconds */
+    /**  default period between calls to step() in milli-seconds */
     private final static int DEFAULT_PERIOD = 100;  // 100 milliseconds
-    private final static int MIN_PERIOD = 10;       // 10 milliseconds
-    private final static int MAX_PERIOD = 200;      // 200 milliseconds
 
-    // calculate the frequency ranges fom the (min, max) period
-    private static final double MIN_FREQUENCY = calculateFrequencyFromPeriod(MAX_PERIOD);
-    private static final double MAX_FREQUENCY = calculateFrequencyFromPeriod(MIN_PERIOD);
+    /**  rates in steps per second, the speed slider maps onto [MIN_RATE, MAX_RATE] on a log scale, its top means max */
+    private static final double DEFAULT_RATE = calculateFrequencyFromPeriod(DEFAULT_PERIOD);
+    private static final double MIN_RATE = 1;
+    private static final double MAX_RATE = 1000000;
+
+    /**  snapshots published per second when Life leaves their cadence to the GUI, at most one per step */
+    private static final double SNAPSHOTS_PER_SECOND = 60;
+
+    /**  steps between two snapshots when stepping as fast as possible */
+    private static final int MAX_SNAPSHOT_INTERVAL = 10000;
 
     // ===========================================================================================
     // MEMBER VARIABLES
     // ===========================================================================================
 
-    private int period = DEFAULT_PERIOD; // milliseconds
-    private Timer timer;
-    private State currentState = State.STOPPED;
+    private volatile double rate = DEFAULT_RATE; // steps per second
+    private RateGovernor governor;
+    private LifeMonitor monitor;
+    private volatile State currentState = State.STOPPED;
     private Life life;
-    private ConcurrentLinkedQueue<Action> queue = new ConcurrentLinkedQueue<>();
+    private boolean snapshotsFollowRate; // the options of life publish snapshots on demand, the GUI sets the cadence
+    private GridView gridView;
+    private AnimationTimer renderTimer;
     private SimpleIntegerProperty iterations = new SimpleIntegerProperty();
+    private Runnable stateListener; // told of every change of state or rate, from the control panel or the monitor
 
     // ===========================================================================================
     // FXML
@@ -80,6 +85,38 @@ public class RootController implements Initializable, LifeStarter {
         return (int) (1000.0f / freq);
     }
 
+    /**
+     * @param speed in [0,1], e.g. the position of the speed slider
+     * @return the rate in steps per second for @param speed, RateGovernor.MAX_RATE for 1, DEFAULT_RATE if the speed
+     * is out of range
+     */
+    public static double calculateRateFromSpeed(double speed) {
+        if (false == core.Utils.doubleIsInRange(speed))
+            return DEFAULT_RATE;
+        if (speed >= 1.0)
+            return RateGovernor.MAX_RATE;
+        return MIN_RATE * Math.pow(MAX_RATE / MIN_RATE, speed);
+    }
+
+    /**
+     * @return the speed in [0,1] for @param rate in steps per second, the inverse of calculateRateFromSpeed(). Rates
+     * beyond the range of the speeds give its ends.
+     */
+    public static double calculateSpeedFromRate(double rate) {
+        if (rate == RateGovernor.MAX_RATE)
+            return 1.0;
+        final double speed = Math.log(rate / MIN_RATE) / Math.log(MAX_RATE / MIN_RATE);
+        return Math.max(0.0, Math.min(1.0, speed));
+    }
+
+    /**
+     * @return the number of steps between two snapshots for Life to publish about SNAPSHOTS_PER_SECOND of them when
+     * stepping at @param rate steps per second, at least 1 and at most MAX_SNAPSHOT_INTERVAL
+     */
+    public static int calculateSnapshotInterval(double rate) {
+        return (int) Math.max(1, Math.min(MAX_SNAPSHOT_INTERVAL, Math.round(rate / SNAPSHOTS_PER_SECOND)));
+    }
+
     // ===========================================================================================
     // METHODS
     // ===========================================================================================
@@ -99,6 +136,8 @@ public class RootController implements Initializable, LifeStarter {
         }
 
         this.life = life;
+        snapshotsFollowRate = life.getSnapshotInterval() == 0;
+        followRate();
 
         // set life in the controller
         try { lifeViewController.setLife(life); }
@@ -108,6 +147,10 @@ public class RootController implements Initializable, LifeStarter {
         runTimers();
         currentState = State.STARTED;
 
+        monitor = new LifeMonitor(life, new MonitorControl());
+        monitor.register();
+
+        stateChanged();
         return true;
     }
 
@@ -121,11 +164,17 @@ public class RootController implements Initializable, LifeStarter {
             return false;
         }
 
-        this.life = null;
-
         // cancel timers and change state
         cancelTimers();
         currentState = State.STOPPED;
+        this.life = null;
+
+        if (monitor != null) {
+            monitor.unregister();
+            monitor = null;
+        }
+
+        stateChanged();
 
         // unset life in the controller
         try { lifeViewController.setLife(null); } // let's unset life}
@@ -141,6 +190,7 @@ public class RootController implements Initializable, LifeStarter {
     public boolean pause() {
         cancelTimers();
         currentState = State.PAUSED;
+        stateChanged();
         return true;
     }
 
@@ -148,30 +198,51 @@ public class RootController implements Initializable, LifeStarter {
     public boolean unpause() {
         boolean x = runTimers();
         currentState = State.STARTED;
+        stateChanged();
         return x;
     }
 
     /**
-     *  sets the wait period between calls to life.step().
-     * If an invalid value is passed (hz &lt;= 0), the period will be set to default.
+     *  sets the number of calls to life.step() per second, see calculateRateFromSpeed().
+     * If an invalid value is passed, the rate will be set to default. A running life picks the new rate up on its
+     * next tick, nothing is rescheduled.
      *
      * @param freqPercent must be in [0,1]
      */
     @Override
     public void setFrequency(double freqPercent) {
-        if (false == core.Utils.doubleIsInRange(freqPercent))
-            period = DEFAULT_PERIOD;
-        else {
-            double freq = MIN_FREQUENCY + freqPercent * (MAX_FREQUENCY - MIN_FREQUENCY);
-            period = calculatePeriodFromFrequency(freq);
-
-            // after setting the frequency we need to adjust re-adjust the timers,
-            // the easiest way is to pause then start
-            if (getState() == State.STARTED) {
-                pause();
-                unpause();
-            }
-        }
+        setRate(calculateRateFromSpeed(freqPercent));
+    }
+
+    @Override
+    public double getRate() {
+        return rate;
+    }
+
+    /**  sets the number of calls to life.step() per second to @param r, must run on the FX thread */
+    private void setRate(double r) {
+        rate = r;
+        if (governor != null)
+            governor.setRate(r);
+        followRate();
+        stateChanged();
+    }
+
+    @Override
+    public void setStateListener(Runnable listener) {
+        this.stateListener = listener;
+    }
+
+    /**  tells the state listener that the state or the rate changed, must run on the FX thread */
+    private void stateChanged() {
+        if (stateListener != null)
+            stateListener.run();
+    }
+
+    /**  when the GUI sets the cadence of the snapshots, adapts it to the rate */
+    private void followRate() {
+        if (life != null && snapshotsFollowRate)
+            life.setSnapshotInterval(calculateSnapshotInterval(rate));
     }
 
     @Override
@@ -188,69 +259,39 @@ public class RootController implements Initializable, LifeStarter {
         if (this.life == null || getState() == State.STARTED)
             return false;
 
-        // Consumer
-        Thread t = new Thread(new Task<Void>() {
+        // life publishes snapshots at its own cadence and the cells that changed in each are marked as it does,
+        // the FX thread repaints them from the last snapshot once per pulse
+        gridView = lifeViewController.getGridView();
+        renderTimer = new AnimationTimer() {
             @Override
-            protected Void call() throws Exception {
-                while(RootController.this.getState() == gui.State.STARTED) {
-                    Action action = queue.poll();
-
-                    // if we find an action, then there are likely more actions coming
-                    // we wait for 1msec (TODO(sami): should be configurable) and then try to get more actions
-                    // to send in batch to the draw function
-                    if (action != null) {
-                        Thread.sleep(1);
-                        List<Action> actions = new ArrayList<>();
-                        actions.add(action);
-                        while(queue.peek()!=null) {
-                            actions.add(queue.poll());
-                        }
-                        try {
-                            Platform.runLater(() -> {
-                                try { lifeViewController.draw(actions);}
-                                catch (InvalidPositionException e) {e.printStackTrace();}
-                            });
-                        }
-                        catch(Exception exc) {
-                            exc.printStackTrace();
-                            return null;
-                        }
-                    }
-                }
-                return null;
+            public void handle(long now) {
+                lifeViewController.paintDirty();
             }
+        };
+
+        LOGGER.log(Level.FINEST, "runTimers with rate: {0}", rate);
+        final Life stepped = life;
+        stepped.setSnapshotListener(gridView::markChanges);
+        governor = new RateGovernor(() -> {
+            stepped.step();
+
+            // stop stepping once max iterations are reached
+            return stepped.getMaxIterations() < 1 || stepped.getStepCount() < stepped.getMaxIterations();
+        }, rate);
+        // once per batch rather than per step, listeners of iterations post to the FX thread
+        governor.setBatchListener(() -> iterations.setValue(stepped.getStepCount()));
+        // the last steps are published and painted, and rendering stops once max iterations are reached
+        final AnimationTimer rendering = renderTimer;
+        governor.setFinishListener(() -> {
+            stepped.publishSnapshot();
+            Platform.runLater(() -> {
+                rendering.stop();
+                lifeViewController.paintDirty();
+            });
         });
+        governor.start();
 
-        LOGGER.log(Level.FINEST, "runTimers with period: {0}", period);
-        timer = new Timer();
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                try {
-                    List<Action> actions = life.step();
-                    iterations.setValue(life.getStepCount());
-
-                    for (Action action : actions) {
-                        queue.offer(action);
-                    }
-
-                    // cancel timer if max iterations exceeded
-                    if (life.getMaxIterations() > 0 &&  life.getStepCount() >= life.getMaxIterations()) {
-                        cancelTimers();
-                    }
-
-                } catch (InvalidPositionException e) {
-                    e.printStackTrace();
-                } catch (SurfaceAlreadyPresent surfaceAlreadyPresent) {
-                    surfaceAlreadyPresent.printStackTrace();
-                } catch (AgentAlreadyDeadException e) {
-                    e.printStackTrace();
-                }
-            }
-        }, 0, period);
-
-        t.start();
-
+        renderTimer.start();
 
         return true;
     }
@@ -270,11 +311,63 @@ public class RootController implements Initializable, LifeStarter {
         return life;
     }
 
-    /**  cancel all timers effectively stopping the drawing and logic in life */
+    /**
+     *  the operations of the LifeMonitor, called from JMX threads. They are run on the FX thread through the same
+     * methods as those of the control panel, which the state listener keeps in step.
+     */
+    private class MonitorControl implements LifeMonitor.Control {
+        @Override
+        public boolean pause() {
+            if (getState() != State.STARTED)
+                return false;
+            Platform.runLater(RootController.this::pause);
+            return true;
+        }
+
+        @Override
+        public boolean resume() {
+            if (getState() != State.PAUSED)
+                return false;
+            Platform.runLater(RootController.this::unpause);
+            return true;
+        }
+
+        @Override
+        public boolean isPaused() {
+            return getState() == State.PAUSED;
+        }
+
+        @Override
+        public double getRate() {
+            return rate;
+        }
+
+        @Override
+        public void setRate(double r) {
+            if (Double.isNaN(r) || r <= 0)
+                throw new IllegalArgumentException("rate must be positive: " + r + " given.");
+            Platform.runLater(() -> setRate(r));
+        }
+    }
+
+    /**  cancel all timers effectively stopping the drawing and logic in life, must run on the FX thread */
     private void cancelTimers()  {
         if (getState() != State.STOPPED) {
-            timer.cancel();
+            final boolean stopped = governor.stop();
+            if (StepProfiler.ENABLED && life != null)
+                LOGGER.log(Level.INFO, "step phases in ns:\n{0}", life.getProfiler().report());
+            // no step runs anymore, the steps made since the last snapshot are published from here. A governor that
+            // was not running anymore published them when it finished.
+            if (stopped && life != null)
+                life.publishSnapshot();
+            stopRendering();
         }
     }
 
+    /**  stop the render timer after painting what the last steps left behind, must run on the FX thread */
+    private void stopRendering() {
+        renderTimer.stop();
+        lifeViewController.paintDirty();
+    }
+
 }
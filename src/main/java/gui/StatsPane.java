@@ -2,15 +2,31 @@ package gui;
 
 import core.LifeAgent;
 import core.LifeAgentStats;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.scene.layout.VBox;
+import javafx.util.Duration;
 
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ *  StatsPane
+ *
+ * Holds one LifeAgentStatsPane per agent type and refreshes them all REFRESH_RATE times per second, whatever the rate
+ * at which the counters change. Refreshing only runs between startRefreshing() and stopRefreshing(), while life steps.
+ */
 public class StatsPane extends VBox implements LifeStatsObserver {
 
+    /**  number of refreshes per second */
+    public static final double REFRESH_RATE = 10.0;
+
     private Map<LifeAgentStats, LifeAgentStatsPane> statsToPaneMap = new HashMap<>();
 
+    private final Timeline refreshTimeline;
+
     public StatsPane(Map<Class<?extends LifeAgent>, LifeAgentStats> statsMap, LifeStatsObservable statsObservable) {
         super(10.0); // spacing
 
@@ -18,6 +34,26 @@ public class StatsPane extends VBox implements LifeStatsObserver {
         for (Map.Entry<Class<?extends LifeAgent>, LifeAgentStats> e : statsMap.entrySet()) {
             addPane(e.getValue());
         }
+
+        refreshTimeline = new Timeline(new KeyFrame(Duration.millis(1000.0 / REFRESH_RATE), event -> refresh()));
+        refreshTimeline.setCycleCount(Animation.INDEFINITE);
+    }
+
+    /**  refreshes all the children panes, called by the timeline on the FX thread */
+    public void refresh() {
+        for (LifeAgentStatsPane pane : statsToPaneMap.values())
+            pane.refresh();
+    }
+
+    /**  starts refreshing the panes, must be called from the FX thread */
+    public void startRefreshing() {
+        refreshTimeline.play();
+    }
+
+    /**  stops refreshing the panes once they show the last values of the counters, must be called from the FX thread */
+    public void stopRefreshing() {
+        refreshTimeline.stop();
+        refresh();
     }
 
     public void addPane(LifeAgentStats stats) {
@@ -31,13 +67,20 @@ public class StatsPane extends VBox implements LifeStatsObserver {
         getChildren().remove(childPane);
     }
 
+    /**  may be called from the thread stepping life when a new agent type shows up */
     @Override
     public void valueAdded(LifeAgentStats s) {
-        addPane(s);
+        if (Platform.isFxApplicationThread())
+            addPane(s);
+        else
+            Platform.runLater(() -> addPane(s));
     }
 
     @Override
     public void valueRemoved(LifeAgentStats s) {
-        removePane(s);
+        if (Platform.isFxApplicationThread())
+            removePane(s);
+        else
+            Platform.runLater(() -> removePane(s));
     }
 }
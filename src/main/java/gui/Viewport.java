@@ -0,0 +1,186 @@
+package gui;
+
+/**
+ *  Viewport
+ *
+ * The part of the grid shown in a view of width x height px, at a given zoom. A Viewport is immutable: zooming and
+ * panning return a new Viewport, so that one can be read by the simulation thread while the FX thread replaces it.
+ *
+ * The view is described by the side of a cell in px and by the position in the view of the top left corner of the
+ * cell (0, 0). Cells can never be smaller than the fitting size, at which the whole grid is visible and centered, and
+ * the grid is never panned further than its borders.
+ */
+public final class Viewport {
+
+    /**  largest cell side in px that can be zoomed to */
+    public static final double MAX_CELL_SIDE = 64;
+
+    private final int rows;
+
+    private final int cols;
+
+    /**  dimensions of the view in px */
+    private final double width;
+    private final double height;
+
+    /**  side of a cell in px */
+    private final double cellSide;
+
+    /**  position in the view of the top left corner of the cell (0, 0), negative once panned */
+    private final double originX;
+    private final double originY;
+
+    /**  range of the visible cells, first inclusive and end exclusive */
+    private final int firstCol;
+    private final int endCol;
+    private final int firstRow;
+    private final int endRow;
+
+    /**
+     *  creates the viewport showing the whole grid
+     * @param rows number of rows in the grid
+     * @param cols number of columns in the grid
+     * @param width of the view in px
+     * @param height of the view in px
+     */
+    public Viewport(int rows, int cols, double width, double height) {
+        this(rows, cols, width, height, fitCellSide(rows, cols, width, height), 0, 0);
+    }
+
+    private Viewport(int rows, int cols, double width, double height, double cellSide, double originX, double originY) {
+        if (rows < 1 || cols < 1)
+            throw new IllegalArgumentException("Viewport grid dimensions must be positive: " + rows + "x" + cols);
+        if (false == (width > 0 && height > 0))
+            throw new IllegalArgumentException("Viewport dimensions must be positive: " + width + "x" + height);
+        this.rows = rows;
+        this.cols = cols;
+        this.width = width;
+        this.height = height;
+        this.cellSide = cellSide;
+        this.originX = clampOrigin(originX, cols * cellSide, width);
+        this.originY = clampOrigin(originY, rows * cellSide, height);
+
+        this.firstCol = Math.max(0, (int) Math.floor(-this.originX / cellSide));
+        this.endCol = Math.min(cols, (int) Math.ceil((width - this.originX) / cellSide));
+        this.firstRow = Math.max(0, (int) Math.floor(-this.originY / cellSide));
+        this.endRow = Math.min(rows, (int) Math.ceil((height - this.originY) / cellSide));
+    }
+
+    /** @return the side in px of a cell when the whole grid fits in width x height px */
+    public static double fitCellSide(int rows, int cols, double width, double height) {
+        return Math.min(width / cols, height / rows);
+    }
+
+    /**  centers the grid when it is smaller than the view, otherwise keeps the view within the grid */
+    private static double clampOrigin(double origin, double gridSize, double viewSize) {
+        if (gridSize <= viewSize)
+            return (viewSize - gridSize) / 2;
+        return Math.min(0, Math.max(viewSize - gridSize, origin));
+    }
+
+    /**
+     * @param factor by which the cell side is multiplied, greater than 1 to zoom in
+     * @param x position in the view, in px, that stays over the same point of the grid
+     * @param y position in the view, in px, that stays over the same point of the grid
+     * @return the zoomed viewport, this one if the zoom is already at its limit
+     */
+    public Viewport zoom(double factor, double x, double y) {
+        if (false == (factor > 0))
+            throw new IllegalArgumentException("Viewport zoom factor must be positive: " + factor);
+        double fit = fitCellSide(rows, cols, width, height);
+        double side = Math.max(fit, Math.min(Math.max(fit, MAX_CELL_SIDE), cellSide * factor));
+        if (side == cellSide)
+            return this;
+
+        // the grid coordinates under (x, y) do not move
+        double gridX = (x - originX) / cellSide;
+        double gridY = (y - originY) / cellSide;
+        return new Viewport(rows, cols, width, height, side, x - gridX * side, y - gridY * side);
+    }
+
+    /** @return the viewport moved by (dx, dy) px, the grid follows the mouse: positive values show cells to the left */
+    public Viewport pan(double dx, double dy) {
+        Viewport panned = new Viewport(rows, cols, width, height, cellSide, originX + dx, originY + dy);
+        return panned.sameView(this) ? this : panned;
+    }
+
+    /** @return true if @param other shows the same cells at the same place */
+    public boolean sameView(Viewport other) {
+        return other != null && rows == other.rows && cols == other.cols && width == other.width
+                && height == other.height && cellSide == other.cellSide && originX == other.originX
+                && originY == other.originY;
+    }
+
+    /** @return true if the cell at (x, y) is at least partly visible */
+    public boolean isVisible(int x, int y) {
+        return x >= firstCol && x < endCol && y >= firstRow && y < endRow;
+    }
+
+    /** @return true if the cell at index @param i (y * cols + x) is at least partly visible */
+    public boolean isVisible(int i) {
+        return isVisible(i % cols, i / cols);
+    }
+
+    /** @return the number of cells at least partly visible */
+    public int visibleCells() {
+        return (endCol - firstCol) * (endRow - firstRow);
+    }
+
+    /** @return x in the view of the left side of column @param col */
+    public double screenX(int col) {
+        return originX + col * cellSide;
+    }
+
+    /** @return y in the view of the top side of row @param row */
+    public double screenY(int row) {
+        return originY + row * cellSide;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public double getWidth() {
+        return width;
+    }
+
+    public double getHeight() {
+        return height;
+    }
+
+    public double getCellSide() {
+        return cellSide;
+    }
+
+    public double getOriginX() {
+        return originX;
+    }
+
+    public double getOriginY() {
+        return originY;
+    }
+
+    /** @return the first visible column */
+    public int getFirstCol() {
+        return firstCol;
+    }
+
+    /** @return the column after the last visible one */
+    public int getEndCol() {
+        return endCol;
+    }
+
+    /** @return the first visible row */
+    public int getFirstRow() {
+        return firstRow;
+    }
+
+    /** @return the row after the last visible one */
+    public int getEndRow() {
+        return endRow;
+    }
+}
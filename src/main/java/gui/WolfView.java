@@ -1,9 +1,7 @@
 package gui;
 
 import core.Deer;
-import core.LifeAgent;
 import core.Wolf;
-import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.Pane;
@@ -21,10 +19,14 @@ public class WolfView extends Pane {
     private Wolf wolf;
 
     public WolfView(Wolf wolf, double width, double height) {
-        super();
+        this(width, height);
         this.wolf = wolf;
+    }
+
+    /**  constructor drawing a wolf without a Wolf instance, e.g. from cell counts */
+    public WolfView(double width, double height) {
+        super();
         ImageView imgView = new ImageView(new Image(Wolf.class.getResource(WOLF_IMG_64).toString(), width, height, true, true));
-        Label energyLabel = new Label(((LifeAgent)wolf).getEnergy().toString());
-        getChildren().addAll(imgView/*, energyLabel */);
+        getChildren().addAll(imgView);
     }
 }
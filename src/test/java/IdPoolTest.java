@@ -1,5 +1,9 @@
 import core.IdPool;
 import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
 import static org.junit.Assert.*;
 
 /**
@@ -21,4 +25,30 @@ public class IdPoolTest {
         assertTrue(pool.idExists(id));
     }
 
+    @Test
+    public void testIdPoolIdsAreUniqueAcrossThreads() throws Exception {
+        final IdPool pool = IdPool.getInstance();
+        final int threads = 4, idsPerThread = 20000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    List<String> ids = new ArrayList<>();
+                    for (int i = 0; i < idsPerThread; i++)
+                        ids.add(pool.newId());
+                    return ids;
+                }));
+            }
+            Set<String> all = new HashSet<>();
+            for (Future<List<String>> f : futures)
+                all.addAll(f.get());
+            assertEquals(threads * idsPerThread, all.size());
+            for (String id : all)
+                assertTrue(pool.idExists(id));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
 }
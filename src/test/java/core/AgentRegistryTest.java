@@ -0,0 +1,128 @@
+package core;
+
+import core.exceptions.LifeException;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class AgentRegistryTest {
+
+    private static List<LifeAgent> wolves(int n) throws LifeException {
+        List<LifeAgent> list = new ArrayList<>();
+        for (int i = 0; i < n; i++)
+            list.add(new Wolf());
+        return list;
+    }
+
+    @Test
+    public void testAddAndRemove() throws LifeException {
+        AgentRegistry registry = new AgentRegistry(3);
+        List<LifeAgent> agents = wolves(10);
+        for (LifeAgent a : agents)
+            registry.add(a);
+        assertEquals(10, registry.size());
+        assertTrue(registry.remove(agents.get(4)));
+        assertFalse(registry.remove(agents.get(4)));
+        assertEquals(-1, agents.get(4).lifeIndex);
+        assertEquals(9, registry.size());
+
+        List<Agent> drained = new ArrayList<>();
+        registry.drainTo(drained);
+        assertEquals(0, registry.size());
+        assertEquals(9, drained.size());
+        assertFalse(drained.contains(agents.get(4)));
+        for (int i = 0; i < drained.size(); i++)
+            assertEquals(i, ((LifeAgent) drained.get(i)).lifeIndex);
+    }
+
+    @Test
+    public void testRandomAgentIsUniform() throws LifeException {
+        AgentRegistry registry = new AgentRegistry(4);
+        List<LifeAgent> agents = wolves(10);
+        for (LifeAgent a : agents)
+            registry.add(a);
+        // unbalance the stripes
+        registry.remove(agents.get(0));
+        registry.remove(agents.get(4));
+        registry.remove(agents.get(8));
+
+        Random rand = new Random(48);
+        Map<LifeAgent, Integer> counts = new IdentityHashMap<>();
+        final int draws = 70000;
+        for (int i = 0; i < draws; i++)
+            counts.merge(registry.randomAgent(rand), 1, Integer::sum);
+        assertEquals(7, counts.size());
+        for (int c : counts.values())
+            assertEquals(draws / 7.0, c, draws / 7.0 * 0.05);
+        assertNull(new AgentRegistry(2).randomAgent(rand));
+    }
+
+    @Test
+    public void testConcurrentAddsAndRemoves() throws Exception {
+        final AgentRegistry registry = new AgentRegistry(8);
+        final int threads = 4, perThread = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<LifeAgent>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    // adds its agents and removes every other one as it goes, keeping the rest
+                    List<LifeAgent> kept = new ArrayList<>();
+                    List<LifeAgent> added = wolves(perThread);
+                    for (int i = 0; i < added.size(); i++) {
+                        registry.add(added.get(i));
+                        if (i % 2 == 1) {
+                            assertTrue(registry.remove(added.get(i - 1)));
+                            kept.add(added.get(i));
+                        }
+                    }
+                    return kept;
+                }));
+            }
+            Set<LifeAgent> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Future<List<LifeAgent>> f : futures)
+                expected.addAll(f.get());
+            assertEquals(threads * perThread / 2, expected.size());
+            assertEquals(expected.size(), registry.size());
+            List<Agent> drained = new ArrayList<>();
+            registry.drainTo(drained);
+            assertEquals(expected.size(), drained.size());
+            assertTrue(expected.containsAll(drained));
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPlacementChoosesTheStripe() throws LifeException {
+        AgentRegistry registry = new AgentRegistry(2, a -> a.getPos().getX() % 2);
+        List<LifeAgent> agents = wolves(6);
+        for (int i = 0; i < agents.size(); i++) {
+            agents.get(i).setPos(new Point2D(i, 0));
+            registry.add(agents.get(i));
+        }
+        assertEquals(3, registry.getStripeSize(0));
+        assertEquals(3, registry.getStripeSize(1));
+        for (int i = 0; i < 100; i++)
+            assertEquals(1, registry.randomAgent(new Random(i), 1, 2).getPos().getX() % 2);
+
+        LifeAgent moved = agents.get(0);
+        assertFalse(registry.relocate(moved));
+        moved.setPos(new Point2D(1, 0));
+        assertTrue(registry.relocate(moved));
+        assertEquals(2, registry.getStripeSize(0));
+        assertEquals(4, registry.size(1, 2));
+        assertTrue(registry.remove(moved));
+        assertFalse(registry.relocate(moved));
+        assertEquals(5, registry.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoStripeThrows() {
+        new AgentRegistry(0);
+    }
+}
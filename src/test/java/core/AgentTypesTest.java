@@ -0,0 +1,36 @@
+package core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AgentTypesTest {
+
+    @Test
+    public void testIdIsStablePerClass() {
+        int wolf = AgentTypes.idOf(Wolf.class);
+        int deer = AgentTypes.idOf(Deer.class);
+        assertNotEquals(wolf, deer);
+        assertEquals(wolf, AgentTypes.idOf(Wolf.class));
+        assertTrue(AgentTypes.count() > Math.max(wolf, deer));
+    }
+
+    @Test
+    public void testBitOf() {
+        assertEquals(1L, AgentTypes.bitOf(0));
+        assertEquals(1L << 5, AgentTypes.bitOf(5));
+        assertEquals(Long.MIN_VALUE, AgentTypes.bitOf(AgentTypes.OVERFLOW_BIT_INDEX));
+        assertEquals(Long.MIN_VALUE, AgentTypes.bitOf(AgentTypes.OVERFLOW_BIT_INDEX + 10));
+    }
+
+    @Test
+    public void testMaskOf() {
+        List<Class<? extends LifeAgent>> types = Arrays.asList(Wolf.class, Grass.class);
+        long mask = AgentTypes.maskOf(types);
+        assertEquals(AgentTypes.bitOf(Wolf.class) | AgentTypes.bitOf(Grass.class), mask);
+        assertEquals(0L, AgentTypes.maskOf(Arrays.<Class<? extends LifeAgent>>asList()));
+    }
+}
@@ -0,0 +1,113 @@
+package core;
+
+import core.exceptions.LifeException;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static core.LifeOptions.createDefaultLifeOptions;
+import static org.junit.Assert.*;
+
+/**
+ *  fails when Life.step() allocates more than its budget in steady state, allocation being what drives GC pauses.
+ * Budgets are in bytes allocated by the stepping thread, per step and per generation per agent, and leave some room
+ * above what the scenarios currently allocate.
+ */
+public class AllocationBudgetTest {
+
+    /**  steps run before measuring, so that the step loop is compiled */
+    private static final int WARMUP_STEPS = 200_000;
+
+    private static final int MEASURED_STEPS = 100_000;
+
+    /**  steps after which a generation that has not ended fails the test rather than hanging it */
+    private static final int MAX_GENERATION_STEPS = 10_000_000;
+
+    private static com.sun.management.ThreadMXBean threads;
+
+    @BeforeClass
+    public static void setUpClass() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported())
+            threads = (com.sun.management.ThreadMXBean) bean;
+    }
+
+    private static long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static Life warmLife(LifeOptions options) throws LifeException {
+        Utils.setSeed(42);
+        Life life = new Life(options);
+        for (int i = 0; i < WARMUP_STEPS && life.getAgents().size() > 0; i++)
+            life.step();
+        assertTrue("the scenario died out during the warm-up", life.getAgents().size() > 0);
+        return life;
+    }
+
+    /** @return bytes allocated per step over MEASURED_STEPS steps of @param life */
+    private static double bytesPerStep(Life life) throws LifeException {
+        final long before = allocatedBytes();
+        for (int i = 0; i < MEASURED_STEPS; i++)
+            life.step();
+        return (double) (allocatedBytes() - before) / MEASURED_STEPS;
+    }
+
+    /** @return bytes allocated over the next whole generation of @param life, per agent alive when it started */
+    private static double bytesPerGenerationPerAgent(Life life) throws LifeException {
+        // start on a generation boundary
+        stepToNextGeneration(life);
+
+        final int agents = life.getAgents().size();
+        final long before = allocatedBytes();
+        stepToNextGeneration(life);
+        return (double) (allocatedBytes() - before) / agents;
+    }
+
+    /**  steps @param life until its generation ends, failing if it dies out first: step() then no longer advances it */
+    private static void stepToNextGeneration(Life life) throws LifeException {
+        final long generation = (long) life.getGenerations();
+        for (int i = 0; (long) life.getGenerations() == generation; i++) {
+            // messages are only built on failure, they would be counted as allocations of the steps otherwise
+            if (life.getAgents().isEmpty())
+                fail("the scenario died out before the end of generation " + generation);
+            if (i >= MAX_GENERATION_STEPS)
+                fail("generation " + generation + " lasted more than " + MAX_GENERATION_STEPS + " steps");
+            life.step();
+        }
+    }
+
+    private static void assertWithinBudget(String scenario, LifeOptions options, double perStep, double perGeneration)
+            throws LifeException {
+        if (threads == null)
+            return; // the JVM cannot measure allocations
+        Life life = warmLife(options);
+        double measuredPerStep = bytesPerStep(life);
+        double measuredPerGeneration = bytesPerGenerationPerAgent(life);
+        assertTrue(String.format("%s allocates %.1f bytes per step, budget %.1f", scenario, measuredPerStep, perStep),
+                measuredPerStep <= perStep);
+        assertTrue(String.format("%s allocates %.1f bytes per generation per agent, budget %.1f", scenario,
+                measuredPerGeneration, perGeneration), measuredPerGeneration <= perGeneration);
+    }
+
+    @Test
+    public void testDefaultLife() throws LifeException {
+        assertWithinBudget("default", createDefaultLifeOptions(), 200, 200);
+    }
+
+    @Test
+    public void testCrowdedLife() throws LifeException {
+        assertWithinBudget("crowded 50x50", createDefaultLifeOptions(50, 50, 300), 400, 400);
+    }
+
+    @Test
+    public void testSurfaceLayer() throws LifeException {
+        LifeOptions options = createDefaultLifeOptions(100, 100, 300);
+        options.setSurfaceLayerEnabled(true);
+        options.getOptionsForAgent(Grass.class).setInitialCount(10000);
+        assertWithinBudget("surface layer 100x100", options, 800, 800);
+    }
+}
@@ -0,0 +1,137 @@
+package core;
+
+import core.exceptions.LifeException;
+import org.junit.Test;
+
+import java.util.*;
+
+import static core.LifeOptions.createDefaultLifeOptions;
+import static org.junit.Assert.*;
+
+public class AsyncStepperTest {
+
+    /**  asserts that the agents list of @param life and its cells hold exactly the same living agents */
+    private static void assertConsistent(Life life) throws LifeException {
+        List<Agent> agents = life.getAgents();
+        Set<Agent> listed = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < agents.size(); i++) {
+            LifeAgent a = (LifeAgent) agents.get(i);
+            assertTrue(a.isAlive());
+            assertEquals(i, a.lifeIndex);
+            assertTrue(listed.add(a));
+        }
+        int inCells = 0;
+        for (int y = 0; y < life.getGridRows(); y++) {
+            for (int x = 0; x < life.getGridCols(); x++) {
+                LifeCell cell = (LifeCell) life.getGrid().get(x, y);
+                int surfaces = 0;
+                Iterator<LifeAgent> it = cell.getAgents();
+                while (it.hasNext()) {
+                    LifeAgent a = it.next();
+                    assertTrue(listed.contains(a));
+                    assertEquals(new Point2D(x, y), a.getPos());
+                    surfaces += (a instanceof Surface) ? 1 : 0;
+                    inCells++;
+                }
+                assertTrue(surfaces <= 1);
+            }
+        }
+        assertEquals(agents.size(), inCells);
+        assertEquals(0, life.getDeadAgentsCount());
+    }
+
+    @Test
+    public void testStepsOnSeveralThreadsKeepLifeConsistent() throws Exception {
+        Utils.setSeed(48);
+        Life life = new Life(createDefaultLifeOptions(40, 40, 300));
+        AsyncStepper stepper = new AsyncStepper(life, 4);
+        long done = stepper.run(20000);
+        assertEquals(20000, done);
+        assertEquals(20000, life.getStepCount());
+        assertTrue(life.getGenerations() > 0);
+        assertConsistent(life);
+
+        // the same Life can be stepped again, on one thread or several
+        for (int i = 0; i < 1000 && false == life.getAgents().isEmpty(); i++)
+            life.step();
+        assertConsistent(life);
+        stepper.run(5000);
+        assertConsistent(life);
+    }
+
+    @Test
+    public void testStopsWhenLifeDiesOut() throws Exception {
+        LifeOptions options = createDefaultLifeOptions(10, 10, 0);
+        options.getOptionsForAgent(Wolf.class).setInitialCount(50);
+        options.getOptionsForAgent(Wolf.class).setReproductionRate(0.0);
+        Life life = new Life(options);
+        // wolves without prey starve within 10 acts each
+        long done = new AsyncStepper(life, 3).run(1_000_000);
+        assertTrue(done <= 50 * Wolf.DEFAULT_E0);
+        assertTrue(life.getAgents().isEmpty());
+        assertConsistent(life);
+    }
+
+    @Test
+    public void testPartitionedStepsKeepLifeConsistent() throws Exception {
+        Utils.setSeed(49);
+        Life life = new Life(createDefaultLifeOptions(40, 40, 300));
+        AsyncStepper stepper = new AsyncStepper(life, RegionPartition.of(40, 40, 4, true), 5000);
+        assertEquals(4, stepper.getThreads());
+        long done = stepper.run(20000);
+        assertEquals(20000, done);
+        assertEquals(20000, life.getStepCount());
+        assertConsistent(life);
+
+        assertEquals(4, stepper.getRebalances());
+        assertTrue(stepper.getRebalanceNanos() > 0);
+        assertTrue(stepper.getRelocations() > 0);
+        // agents spread evenly over the grid are split evenly
+        assertEquals(1.0, stepper.getImbalance(), 0.2);
+    }
+
+    @Test
+    public void testStaticPartitionIsNotRebalanced() throws Exception {
+        Utils.setSeed(49);
+        Life life = new Life(createDefaultLifeOptions(20, 20, 50));
+        AsyncStepper stepper = new AsyncStepper(life, RegionPartition.of(20, 20, 2, false), 1000);
+        assertEquals(5000, stepper.run(5000));
+        assertConsistent(life);
+        assertEquals(0, stepper.getRebalances());
+        assertEquals(0, stepper.getMigratedRegions());
+        assertTrue(stepper.getImbalance() >= 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPartitionOfAnotherGridThrows() throws LifeException {
+        new AsyncStepper(new Life(createDefaultLifeOptions(10, 10, 1)), RegionPartition.of(20, 20, 2, true), 1000);
+    }
+
+    @Test
+    public void testStripesArePowersOfTwo() throws LifeException {
+        AsyncStepper small = new AsyncStepper(new Life(createDefaultLifeOptions(3, 3, 1)), 2);
+        AsyncStepper large = new AsyncStepper(new Life(createDefaultLifeOptions(100, 100, 1)), 2);
+        assertEquals(16, small.getStripes());
+        assertEquals(2 * AsyncStepper.STRIPES_PER_THREAD, large.getStripes());
+        assertEquals(2, large.getThreads());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNextReactionIsNotSupported() throws LifeException {
+        LifeOptions options = createDefaultLifeOptions(5, 5, 1);
+        options.setScheduling(Scheduling.NEXT_REACTION);
+        new AsyncStepper(new Life(options), 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSurfaceLayerIsNotSupported() throws LifeException {
+        LifeOptions options = createDefaultLifeOptions(5, 5, 1);
+        options.setSurfaceLayerEnabled(true);
+        new AsyncStepper(new Life(options), 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoThreadThrows() throws LifeException {
+        new AsyncStepper(new Life(createDefaultLifeOptions(5, 5, 1)), 0);
+    }
+}
@@ -4,8 +4,10 @@ import core.exceptions.LifeException;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 
@@ -273,4 +275,29 @@ public class ConsumeRulesTest {
         assertTrue(list.contains(Grass.class));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testConsumablesAskedForOnSeveralThreadsAtOnce() throws Exception {
+        ConsumeRules crs = new ConsumeRules();
+        crs.add(new ConsumeRule(Wolf.class, Deer.class));
+        crs.add(new ConsumeRule(Deer.class, Grass.class));
+        final long deerMask = AgentTypes.maskOf(Collections.singletonList(Deer.class));
+        final long grassMask = AgentTypes.maskOf(Collections.singletonList(Grass.class));
+        final AtomicInteger wrong = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    if (deerMask != crs.consumableMaskForAgent(Wolf.class)
+                            || grassMask != crs.consumableMaskForAgent(Deer.class)
+                            || 1 != crs.consumableClassesForAgent(Wolf.class).size())
+                        wrong.incrementAndGet();
+                }
+            }));
+        }
+        for (Thread thread : threads)
+            thread.start();
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(0, wrong.get());
+    }
+}
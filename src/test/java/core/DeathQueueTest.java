@@ -0,0 +1,102 @@
+package core;
+
+import core.exceptions.LifeException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DeathQueueTest {
+
+    @Test
+    public void testQueueIsFirstInFirstOut() throws LifeException {
+        DeathQueue queue = new DeathQueue();
+        Wolf w = new Wolf();
+        Deer d = new Deer();
+        queue.enqueue(w);
+        queue.enqueue(d);
+        assertEquals(2, queue.size());
+        assertSame(w, queue.poll());
+        assertSame(d, queue.poll());
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testDeadAgentIsQueuedAndReaped() throws LifeException {
+        Life life = new Life(LifeOptions.createDefaultLifeOptions());
+        final int nAgents = life.getAgents().size();
+        LifeAgent victim = (LifeAgent) life.getAgents().get(0);
+
+        victim.die();
+        assertEquals(1, life.getDeadAgentsCount());
+
+        assertEquals(1, life.reapDeadAgents());
+        assertEquals(0, life.getDeadAgentsCount());
+        assertEquals(nAgents - 1, life.getAgents().size());
+        assertFalse(life.getAgents().contains(victim));
+    }
+
+    @Test
+    public void testAgentRemovedByHandIsNotReapedTwice() throws LifeException {
+        Life life = new Life(LifeOptions.createDefaultLifeOptions());
+        final int nAgents = life.getAgents().size();
+        LifeAgent victim = (LifeAgent) life.getAgents().get(nAgents - 1);
+
+        victim.die();
+        assertTrue(life.removeAgent(victim));
+        assertEquals(0, life.reapDeadAgents());
+        assertEquals(nAgents - 1, life.getAgents().size());
+    }
+
+    @Test
+    public void testAgentOutsideLifeIsNotQueued() throws LifeException {
+        Life life = new Life(LifeOptions.createDefaultLifeOptions());
+        new Deer().die();
+        assertEquals(0, life.getDeadAgentsCount());
+    }
+
+    @Test
+    public void testDeferredReapingKeepsDeadAgentsUntilInterval() throws LifeException {
+        LifeOptions options = LifeOptions.createDefaultLifeOptions();
+        options.setReapInterval(1000);
+        Life life = new Life(options);
+
+        for (int i = 0; i < 200; i++)
+            life.step();
+
+        // all agents still in the list are either alive or waiting in the death queue
+        int dead = 0;
+        for (Agent a : life.getAgents()) {
+            if (!((LifeAgent) a).isAlive())
+                dead++;
+        }
+        assertEquals(dead, life.getDeadAgentsCount());
+
+        life.reapDeadAgents();
+        for (Agent a : life.getAgents())
+            assertTrue(((LifeAgent) a).isAlive());
+    }
+
+    @Test
+    public void testAgentsDyingOnSeveralThreadsAreAllQueued() throws Exception {
+        final DeathQueue queue = new DeathQueue();
+        final int threads = 4, perThread = 5000;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final Wolf w = new Wolf();
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++)
+                    queue.enqueue(w);
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers)
+            worker.join();
+        assertEquals(threads * perThread, queue.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReapIntervalMustBePositive() {
+        new LifeOptions().setReapInterval(0);
+    }
+}
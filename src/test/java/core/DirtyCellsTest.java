@@ -0,0 +1,103 @@
+package core;
+
+import core.actions.Move;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DirtyCellsTest {
+
+    @Test
+    public void testMarkingTwiceKeepsOneCell() {
+        DirtyCells dirty = new DirtyCells(4, 5);
+        dirty.mark(2, 3);
+        dirty.mark(new Point2D(2, 3));
+        assertEquals(1, dirty.size());
+        assertTrue(dirty.isDirty(2, 3));
+    }
+
+    @Test
+    public void testPositionsOutsideTheGridAreIgnored() {
+        DirtyCells dirty = new DirtyCells(4, 5);
+        dirty.mark(-1, 0);
+        dirty.mark(5, 0);
+        dirty.mark(0, 4);
+        assertTrue(dirty.isEmpty());
+    }
+
+    @Test
+    public void testDrainGivesRowMajorIndicesAndClears() {
+        DirtyCells dirty = new DirtyCells(4, 5);
+        dirty.mark(1, 2);
+        dirty.mark(4, 0);
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(2, dirty.drain(drained::add));
+        assertEquals(4, drained.get(0).intValue());
+        assertEquals(2 * 5 + 1, drained.get(1).intValue());
+        assertTrue(dirty.isEmpty());
+    }
+
+    @Test
+    public void testMarkRectIsClippedToTheGrid() {
+        DirtyCells dirty = new DirtyCells(4, 5);
+        dirty.markRect(3, -2, 7, 2);
+        assertEquals(4, dirty.size());
+        assertTrue(dirty.isDirty(3, 0));
+        assertTrue(dirty.isDirty(4, 1));
+        assertFalse(dirty.isDirty(2, 0));
+        assertFalse(dirty.isDirty(3, 2));
+    }
+
+    @Test
+    public void testMarkAll() {
+        DirtyCells dirty = new DirtyCells(4, 5);
+        dirty.markAll();
+        assertEquals(20, dirty.size());
+    }
+
+    @Test
+    public void testMoveMarksSourceAndDestination() throws Exception {
+        DirtyCells dirty = new DirtyCells(4, 5);
+        Point2D from = new Point2D(0, 0);
+        Point2D to = new Point2D(1, 0);
+        dirty.mark(new Move(new Wolf(from), from, to));
+        assertEquals(2, dirty.size());
+        assertTrue(dirty.isDirty(0, 0));
+        assertTrue(dirty.isDirty(1, 0));
+    }
+
+    @Test
+    public void testMarkAllOnPartialLastWord() {
+        DirtyCells dirty = new DirtyCells(7, 11);
+        dirty.markAll();
+        assertEquals(77, dirty.size());
+        List<Integer> drained = new ArrayList<>();
+        dirty.drain(drained::add);
+        assertEquals(76, drained.get(drained.size() - 1).intValue());
+    }
+
+    @Test
+    public void testNoMarkIsLostWhileDraining() throws InterruptedException {
+        final int rows = 100, cols = 100;
+        DirtyCells dirty = new DirtyCells(rows, cols);
+        BitSet seen = new BitSet(rows * cols);
+
+        Thread marker = new Thread(() -> {
+            for (int y = 0; y < rows; y++)
+                for (int x = 0; x < cols; x++)
+                    dirty.mark(x, y);
+        });
+        marker.start();
+        while (marker.isAlive())
+            dirty.drain(seen::set);
+        marker.join();
+        dirty.drain(seen::set);
+
+        assertEquals(rows * cols, seen.cardinality());
+        assertTrue(dirty.isEmpty());
+    }
+}
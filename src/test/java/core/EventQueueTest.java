@@ -0,0 +1,107 @@
+package core;
+
+import core.exceptions.AgentAlreadyDeadException;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class EventQueueTest {
+
+    private static List<LifeAgent> grass(int n) throws AgentAlreadyDeadException {
+        List<LifeAgent> list = new ArrayList<>();
+        for (int i = 0; i < n; i++)
+            list.add(new Grass(5));
+        return list;
+    }
+
+    @Test
+    public void testEmptyQueue() {
+        EventQueue queue = new EventQueue();
+        assertTrue(queue.isEmpty());
+        assertNull(queue.peek());
+        assertEquals(Double.POSITIVE_INFINITY, queue.peekTime(), 0);
+    }
+
+    @Test
+    public void testPeekReturnsEarliestEvent() throws AgentAlreadyDeadException {
+        EventQueue queue = new EventQueue();
+        List<LifeAgent> agents = grass(3);
+        queue.schedule(agents.get(0), 3.0);
+        queue.schedule(agents.get(1), 1.0);
+        queue.schedule(agents.get(2), 2.0);
+        assertEquals(3, queue.size());
+        assertSame(agents.get(1), queue.peek());
+        assertEquals(1.0, queue.peekTime(), 0);
+        assertEquals(2.0, queue.timeOf(agents.get(2)), 0);
+    }
+
+    @Test
+    public void testRescheduleMovesAgent() throws AgentAlreadyDeadException {
+        EventQueue queue = new EventQueue();
+        List<LifeAgent> agents = grass(3);
+        for (int i = 0; i < 3; i++)
+            queue.schedule(agents.get(i), i);
+        queue.schedule(agents.get(0), 10.0);
+        assertEquals(3, queue.size());
+        assertSame(agents.get(1), queue.peek());
+        queue.schedule(agents.get(2), -1.0);
+        assertSame(agents.get(2), queue.peek());
+    }
+
+    @Test
+    public void testRemove() throws AgentAlreadyDeadException {
+        EventQueue queue = new EventQueue();
+        List<LifeAgent> agents = grass(3);
+        for (int i = 0; i < 3; i++)
+            queue.schedule(agents.get(i), i);
+        assertTrue(queue.remove(agents.get(0)));
+        assertFalse(queue.remove(agents.get(0)));
+        assertFalse(queue.contains(agents.get(0)));
+        assertTrue(Double.isNaN(queue.timeOf(agents.get(0))));
+        assertSame(agents.get(1), queue.peek());
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    public void testAgentsComeOutInTimeOrder() throws AgentAlreadyDeadException {
+        Random random = new Random(7);
+        EventQueue queue = new EventQueue();
+        List<LifeAgent> agents = grass(500);
+        Map<LifeAgent, Double> times = new HashMap<>();
+        for (LifeAgent a : agents) {
+            double t = random.nextDouble();
+            queue.schedule(a, t);
+            times.put(a, t);
+        }
+        // reschedule and remove some, as Life does
+        for (int i = 0; i < 200; i++) {
+            LifeAgent a = agents.get(random.nextInt(agents.size()));
+            if (random.nextBoolean()) {
+                double t = random.nextDouble();
+                queue.schedule(a, t);
+                times.put(a, t);
+            }
+            else {
+                queue.remove(a);
+                times.remove(a);
+            }
+        }
+
+        assertEquals(times.size(), queue.size());
+        double previous = Double.NEGATIVE_INFINITY;
+        while (false == queue.isEmpty()) {
+            LifeAgent a = queue.peek();
+            assertEquals(times.get(a), queue.peekTime(), 0);
+            assertTrue(queue.peekTime() >= previous);
+            previous = queue.peekTime();
+            assertTrue(queue.remove(a));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testScheduleAtNaNThrows() throws AgentAlreadyDeadException {
+        new EventQueue().schedule(new Grass(5), Double.NaN);
+    }
+}
@@ -0,0 +1,96 @@
+package core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketsAreContiguous() {
+        assertEquals(0, LatencyHistogram.bucketOf(0));
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+        for (int b = 0; b < LatencyHistogram.BUCKETS - 1; b++) {
+            long lo = LatencyHistogram.lowestValueOf(b);
+            long hi = LatencyHistogram.highestValueOf(b);
+            assertEquals(b, LatencyHistogram.bucketOf(lo));
+            assertEquals(b, LatencyHistogram.bucketOf(hi));
+            assertEquals(hi + 1, LatencyHistogram.lowestValueOf(b + 1));
+        }
+    }
+
+    @Test
+    public void testRelativeErrorIsBounded() {
+        for (long v = 1; v < 1_000_000_000L; v = v * 3 + 7) {
+            int b = LatencyHistogram.bucketOf(v);
+            double width = LatencyHistogram.highestValueOf(b) - LatencyHistogram.lowestValueOf(b);
+            assertTrue(width / v <= 1.0 / LatencyHistogram.SUB_BUCKETS);
+        }
+    }
+
+    @Test
+    public void testEmptyHistogram() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.getMax());
+        assertEquals(0, h.getMean(), 0);
+        assertEquals(0, h.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int v = 1; v <= 1000; v++)
+            h.record(v);
+        assertEquals(1000, h.getCount());
+        assertEquals(1000, h.getMax());
+        assertEquals(500.5, h.getMean(), 1e-9);
+        assertEquals(1, h.getValueAtPercentile(0));
+        assertEquals(500, h.getValueAtPercentile(50), 500.0 / LatencyHistogram.SUB_BUCKETS);
+        assertEquals(990, h.getValueAtPercentile(99), 990.0 / LatencyHistogram.SUB_BUCKETS);
+        assertEquals(1000, h.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testNegativeValuesAreRecordedAsZero() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(-5);
+        assertEquals(1, h.getCount());
+        assertEquals(0, h.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testReset() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(42);
+        h.reset();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.getSum());
+        assertEquals(0, h.getValueAtPercentile(50));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPercentile() {
+        new LatencyHistogram().getValueAtPercentile(101);
+    }
+
+    @Test
+    public void testConcurrentRecordsAreNotLost() throws InterruptedException {
+        final LatencyHistogram h = new LatencyHistogram();
+        final int perThread = 100_000;
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            final long value = 10 * (i + 1);
+            threads[i] = new Thread(() -> {
+                for (int k = 0; k < perThread; k++)
+                    h.record(value);
+            });
+            threads[i].start();
+        }
+        for (Thread t : threads)
+            t.join();
+        assertEquals(threads.length * perThread, h.getCount());
+        assertEquals(40, h.getMax());
+        assertEquals(25.0, h.getMean(), 1e-9);
+    }
+}
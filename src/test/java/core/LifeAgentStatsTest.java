@@ -2,6 +2,9 @@ package core;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.Assert.*;
 
 public class LifeAgentStatsTest {
@@ -42,9 +45,42 @@ public class LifeAgentStatsTest {
         assertEquals(rand, s.getNbReproduced());
     }
 
+    @Test
+    public void testCountersAreExactAcrossThreads() throws Exception {
+        final LifeAgentStats s = new LifeAgentStats(Wolf.class);
+        final int threads = 4, increments = 10000;
+        List<Thread> started = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < increments; i++) {
+                    s.incNbCreated();
+                    s.incNbDied();
+                }
+            });
+            thread.start();
+            started.add(thread);
+        }
+        for (Thread thread : started)
+            thread.join();
+        assertEquals(threads * increments, s.getNbCreated());
+        assertEquals(threads * increments, s.getNbDied());
+    }
+
     @Test
     public void getAgentType() throws Exception {
         LifeAgentStats s = new LifeAgentStats(Wolf.class);
         assertEquals(Wolf.class, s.getAgentType());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testObserversAreStillNotified() throws Exception {
+        LifeAgentStats s = new LifeAgentStats(Wolf.class);
+        final int[] notified = {0};
+        s.addObserver((o, arg) -> notified[0]++);
+
+        s.incNbCreated();
+        s.incNbDied();
+        s.incNbReproduced();
+        assertEquals(3, notified[0]);
+    }
+}
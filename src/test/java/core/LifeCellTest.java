@@ -67,6 +67,48 @@ public class LifeCellTest {
     }
 
 
+    @Test
+    public void testTypeCountsFollowAgents() throws Exception {
+        LifeCell cell = new LifeCell(new Point2D(0, 0));
+        Wolf w1 = new Wolf(10);
+        Wolf w2 = new Wolf(10);
+        Deer d = new Deer(10);
+        cell.addAgent(w1);
+        cell.addAgent(w2);
+        cell.addAgent(d);
+
+        assertEquals(2, cell.countOf(Wolf.class));
+        assertEquals(1, cell.countOf(Deer.class));
+        assertEquals(0, cell.countOf(Grass.class));
+        assertTrue(cell.containsAny(AgentTypes.bitOf(Wolf.class)));
+        assertFalse(cell.containsAny(AgentTypes.bitOf(Grass.class)));
+
+        w1.die();
+        assertEquals(1, cell.countOf(Wolf.class));
+        cell.removeAgent(w1);
+        assertEquals(1, cell.countOf(Wolf.class));
+
+        cell.removeAgent(w2);
+        assertEquals(0, cell.countOf(Wolf.class));
+        assertFalse(cell.containsAny(AgentTypes.bitOf(Wolf.class)));
+        assertEquals(AgentTypes.bitOf(Deer.class), cell.getTypeMask());
+    }
+
+    @Test
+    public void testRemovingSurfaceClearsIt() throws Exception {
+        LifeCell cell = new LifeCell(new Point2D(0, 0));
+        Grass g = new Grass(10);
+        cell.addAgent(g);
+        assertSame(g, cell.getSurface());
+        assertEquals(1, cell.countOf(Grass.class));
+
+        assertTrue(cell.removeAgent((LifeAgent) g));
+        assertNull(cell.getSurface());
+        assertEquals(0, cell.countOf(Grass.class));
+        assertFalse(cell.containsSurface());
+    }
+
+
     @Test
     public void addAgent() throws Exception {
 
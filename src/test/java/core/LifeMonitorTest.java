@@ -0,0 +1,110 @@
+package core;
+
+import core.exceptions.LifeException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class LifeMonitorTest {
+
+    private Life life;
+    private RateGovernor governor;
+    private LifeMonitor monitor;
+
+    @Before
+    public void setUp() throws LifeException {
+        life = Life.createDefaultLife();
+        governor = new RateGovernor(() -> {
+            life.step();
+            return true;
+        }, 1000);
+        monitor = new LifeMonitor(life, LifeMonitor.governorControl(governor));
+    }
+
+    @After
+    public void tearDown() {
+        governor.stop();
+        monitor.unregister();
+    }
+
+    @Test
+    public void testRegisteredUnderItsOwnName() throws Exception {
+        ObjectName name = monitor.register();
+        assertNotNull(name);
+        assertSame(name, monitor.register());
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertTrue(server.isRegistered(name));
+        assertEquals(0, server.getAttribute(name, "StepCount"));
+        assertTrue(server.getAttribute(name, "Population") instanceof TabularData);
+
+        LifeMonitor other = new LifeMonitor(life, LifeMonitor.governorControl(governor));
+        try {
+            assertNotEquals(name, other.register());
+        }
+        finally {
+            other.unregister();
+        }
+
+        monitor.unregister();
+        assertFalse(server.isRegistered(name));
+        assertNull(monitor.getObjectName());
+    }
+
+    @Test
+    public void testOperationsControlTheGovernor() throws Exception {
+        ObjectName name = monitor.register();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertEquals(true, server.getAttribute(name, "Paused"));
+
+        server.invoke(name, "resume", null, null);
+        assertTrue(governor.isRunning());
+        assertFalse(monitor.isPaused());
+
+        // getRate() and setRate() make Rate a writable attribute
+        server.setAttribute(name, new Attribute("Rate", 25.0));
+        assertEquals(25.0, governor.getRate(), 0);
+        assertEquals(25.0, monitor.getRate(), 0);
+
+        server.invoke(name, "pause", null, null);
+        assertFalse(governor.isRunning());
+        assertTrue(monitor.isPaused());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRate() {
+        monitor.setRate(-1);
+    }
+
+    @Test
+    public void testStepsPerSecondSinceLastRead() throws LifeException {
+        AtomicLong now = new AtomicLong();
+        LifeMonitor m = new LifeMonitor(life, LifeMonitor.governorControl(governor), now::get);
+        for (int i = 0; i < 50; i++)
+            life.step();
+        now.set(500_000_000L);
+        assertEquals(100.0, m.getStepsPerSecond(), 1e-9);
+        // no time elapsed, the last measure is kept
+        assertEquals(100.0, m.getStepsPerSecond(), 1e-9);
+        now.set(1_500_000_000L);
+        assertEquals(0.0, m.getStepsPerSecond(), 1e-9);
+    }
+
+    @Test
+    public void testPopulationAndHeap() {
+        assertTrue(monitor.getPopulation().containsKey("Wolf"));
+        assertEquals(life.getAgents().size(), monitor.getAgentCount());
+        assertTrue(monitor.getHeapUsed() > 0);
+        assertTrue(monitor.getHeapUsedPerAgent() > 0);
+        assertEquals(StepProfiler.ENABLED, false == monitor.getPhaseLatencyP99().isEmpty());
+    }
+}
@@ -93,4 +93,23 @@ public class LifeOptionsTest {
         options.setGridRows(rows);
         assertEquals(options.getGridRows(), rows);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCopyIsIndependentOfTheOriginal() throws LifeException {
+        LifeOptions options = LifeOptions.createDefaultLifeOptions();
+        options.setGridRows(7);
+        options.setGridCols(9);
+        LifeOptions copy = new LifeOptions(options);
+        assertEquals(options.getSupportedAgents(), copy.getSupportedAgents());
+        assertEquals(options.getConsumeRules().size(), copy.getConsumeRules().size());
+        assertEquals(7, copy.getGridRows());
+        assertEquals(9, copy.getGridCols());
+
+        copy.setGridRows(20);
+        copy.getOptionsForAgent(Deer.class).setInitialCount(123);
+        copy.removeConsumeRule(new ConsumeRule(Wolf.class, Deer.class));
+        assertEquals(7, options.getGridRows());
+        assertNotEquals(123, (int) options.getOptionsForAgent(Deer.class).getInitialCount());
+        assertTrue(options.containsConsumeRule(new ConsumeRule(Wolf.class, Deer.class)));
+    }
+}
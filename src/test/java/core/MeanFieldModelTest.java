@@ -0,0 +1,103 @@
+package core;
+
+import core.exceptions.LifeException;
+import org.junit.Test;
+
+import static core.LifeOptions.createDefaultLifeOptions;
+import static org.junit.Assert.*;
+
+public class MeanFieldModelTest {
+
+    @Test
+    public void testCurvesStartAtTheInitialCounts() throws LifeException {
+        MeanFieldPrediction p = new MeanFieldModel(createDefaultLifeOptions(10, 10, 3, 40, 200)).predict(10);
+        assertEquals(11, p.size());
+        assertEquals(0, p.getTime(0), 0);
+        assertEquals(10, p.getHorizon(), 0);
+        assertEquals(3, p.getCount(Wolf.class, 0), 0);
+        assertEquals(40, p.getCount(Deer.class, 0), 0);
+        // no more surfaces than cells
+        assertEquals(100, p.getCount(Grass.class, 0), 0);
+        assertEquals(40.0 * createDefaultLifeOptions().getOptionsForAgent(Deer.class).getInitialEnergy(),
+                p.getEnergy(Deer.class, 0), 0);
+    }
+
+    @Test
+    public void testBirthsGrowExponentially() throws LifeException {
+        LifeOptions options = createDefaultLifeOptions(10, 10, 0, 100, 0);
+        options.getOptionsForAgent(Deer.class).setAgeBy(0);
+        options.getOptionsForAgent(Deer.class).setReproductionRate(0.1);
+        MeanFieldPrediction p = new MeanFieldModel(options).predict(20, 5);
+        for (int i = 0; i < p.size(); i++)
+            assertEquals(100 * Math.exp(0.1 * p.getTime(i)), p.getCount(Deer.class, i), 1e-4);
+    }
+
+    @Test
+    public void testStarvingCreaturesDieOut() throws LifeException {
+        LifeOptions options = createDefaultLifeOptions(10, 10, 1000, 0, 0);
+        options.getOptionsForAgent(Wolf.class).setReproductionRate(0.0);
+        options.getOptionsForAgent(Wolf.class).setInitialEnergy(5);
+        options.getOptionsForAgent(Wolf.class).setAgeBy(1);
+        MeanFieldPrediction p = new MeanFieldModel(options).predict(100);
+        // a mean lifetime of 5 units of time
+        assertEquals(1000 * Math.exp(-1), p.getCount(Wolf.class, 5), 1e-3);
+        assertTrue(p.isExtinct(Wolf.class));
+        // 1000 e^(-t/5) falls below half an agent at t = 5 ln(2000)
+        assertEquals(Math.ceil(5 * Math.log(2000)), p.extinctionTime(Wolf.class), 0);
+        assertTrue(p.isDead());
+        assertTrue(p.getSurvivors().isEmpty());
+    }
+
+    @Test
+    public void testSurfacesSpreadToEveryCell() throws LifeException {
+        LifeOptions options = createDefaultLifeOptions(20, 20, 0, 0, 4);
+        options.getOptionsForAgent(Grass.class).setAgeBy(0);
+        MeanFieldPrediction p = new MeanFieldModel(options).predict(50);
+        assertEquals(400, p.finalCount(Grass.class), 1);
+        for (int i = 0; i < p.size(); i++)
+            assertTrue(p.getCount(Grass.class, i) <= 400 + 1e-9);
+        assertTrue(Double.isNaN(p.extinctionTime(Grass.class)));
+    }
+
+    @Test
+    public void testPredatorsSurviveOnPreyOnly() throws LifeException {
+        LifeOptions starving = createDefaultLifeOptions(20, 20, 200, 0, 0);
+        LifeOptions hunting = createDefaultLifeOptions(20, 20, 200, 2000, 400);
+        // with the default rates wolves are born as fast as they starve
+        starving.getOptionsForAgent(Wolf.class).setReproductionRate(0.05);
+        hunting.getOptionsForAgent(Wolf.class).setReproductionRate(0.05);
+        MeanFieldPrediction alone = new MeanFieldModel(starving).predict(200);
+        MeanFieldPrediction fed = new MeanFieldModel(hunting).predict(5);
+        assertTrue(alone.isExtinct(Wolf.class));
+        assertTrue(fed.getCount(Deer.class, 5) < fed.getCount(Deer.class, 0));
+        assertTrue(fed.getCount(Wolf.class, 5) > alone.getCount(Wolf.class, 5));
+    }
+
+    @Test
+    public void testAgreesWithTauLeaping() throws LifeException {
+        Utils.setSeed(47);
+        LifeOptions options = createDefaultLifeOptions(30, 30, 900, 9000, 600);
+        TauLeapEngine engine = new TauLeapEngine(options);
+        engine.advanceTo(4);
+        MeanFieldPrediction p = new MeanFieldModel(options).predict(4);
+        for (Class<? extends LifeAgent> type : p.getTypes())
+            assertEquals(engine.totalOf(type), p.finalCount(type), Math.max(30, 0.15 * engine.totalOf(type)));
+    }
+
+    @Test
+    public void testCurveIsACopy() throws LifeException {
+        MeanFieldPrediction p = new MeanFieldModel(createDefaultLifeOptions(5, 5, 5, 5, 5)).predict(3);
+        p.getCurve(Wolf.class)[0] = -1;
+        assertEquals(5, p.getCount(Wolf.class, 0), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeHorizonThrows() throws LifeException {
+        new MeanFieldModel(createDefaultLifeOptions(5, 5, 5, 5, 5)).predict(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidStepThrows() throws LifeException {
+        new MeanFieldModel(createDefaultLifeOptions(5, 5, 5, 5, 5), 0);
+    }
+}
@@ -0,0 +1,103 @@
+package core;
+
+import core.actions.Action;
+import core.actions.Move;
+import core.exceptions.LifeException;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class NextReactionTest {
+
+    /**
+     * @return options of a 10x10 grid saturated with lazily aged grass that neither withers nor spreads at @param
+     * rGrass, and @param wolves wolves that never age nor reproduce, scheduled by NEXT_REACTION
+     */
+    private static LifeOptions options(double rGrass, int wolves) throws LifeException {
+        LifeOptions options = LifeOptions.createDefaultLifeOptions();
+        options.setGridRows(10);
+        options.setGridCols(10);
+        options.setLazySurfaceAging(true);
+        options.setScheduling(Scheduling.NEXT_REACTION);
+        LifeAgentOptions grass = options.getOptionsForAgent(Grass.class);
+        grass.setInitialCount(100);
+        grass.setAgeBy(0);
+        grass.setReproductionRate(rGrass);
+        LifeAgentOptions wolf = options.getOptionsForAgent(Wolf.class);
+        wolf.setInitialCount(wolves);
+        wolf.setAgeBy(0);
+        wolf.setReproductionRate(0.0);
+        options.getOptionsForAgent(Deer.class).setInitialCount(0);
+        return options;
+    }
+
+    @Test
+    public void testEventRates() throws LifeException {
+        Life life = new Life(options(0.1, 10));
+        for (Agent a : life.getAgents())
+            assertEquals((a instanceof Grass) ? 0.1 : 1.0, life.eventRate((LifeAgent) a), 0);
+    }
+
+    @Test
+    public void testTimeAdvancesAsTheTotalRate() throws LifeException {
+        Utils.setSeed(45);
+        // total rate: 10 wolves at 1 and 100 grass at 0.1
+        Life life = new Life(options(0.1, 10));
+        final int steps = 20000;
+        int wolfEvents = 0;
+        double previous = 0;
+        for (int i = 0; i < steps; i++) {
+            List<Action> actions = life.step();
+            if (false == actions.isEmpty() && actions.get(0) instanceof Move)
+                wolfEvents++;
+            assertTrue(life.getGenerations() >= previous);
+            previous = life.getGenerations();
+        }
+        assertEquals(steps / 20.0, life.getGenerations(), steps / 20.0 * 0.05);
+        // wolves act as often as all the grass together, 10 times as often as under uniform scheduling
+        assertEquals(0.5, (double) wolfEvents / steps, 0.03);
+    }
+
+    @Test
+    public void testSurfacesWithoutEventsAreNotScheduled() throws LifeException {
+        Life life = new Life(options(0.0, 0));
+        assertEquals(100, life.getAgents().size());
+        assertTrue(life.step().isEmpty());
+        assertEquals(0, life.getStepCount());
+    }
+
+    @Test
+    public void testGrassWithersOnTime() throws LifeException {
+        LifeOptions options = options(0.0, 0);
+        LifeAgentOptions grass = options.getOptionsForAgent(Grass.class);
+        grass.setAgeBy(1);
+        grass.setInitialEnergy(5);
+        Life life = new Life(options);
+        for (int i = 0; i < 100; i++)
+            life.step();
+        assertTrue(life.getAgents().isEmpty());
+        assertEquals(5.0, life.getGenerations(), 0);
+    }
+
+    @Test
+    public void testDefaultLifeRuns() throws LifeException {
+        LifeOptions options = LifeOptions.createDefaultLifeOptions();
+        options.setScheduling(Scheduling.NEXT_REACTION);
+        options.setLazySurfaceAging(true);
+        options.setGridRows(20);
+        options.setGridCols(20);
+        for (Class<? extends LifeAgent> type : options.getSupportedAgents())
+            options.getOptionsForAgent(type).setInitialCount(50);
+        Life life = new Life(options);
+        for (int i = 0; i < 5000 && false == life.getAgents().isEmpty(); i++)
+            life.step();
+        assertTrue(life.getGenerations() > 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullSchedulingThrows() {
+        new LifeOptions().setScheduling(null);
+    }
+}
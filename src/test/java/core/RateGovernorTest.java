@@ -0,0 +1,154 @@
+package core;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class RateGovernorTest {
+
+    private static final long TICK = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    public void testRunsTheStepsDuePerTick() {
+        final long[] now = {0};
+        AtomicInteger steps = new AtomicInteger();
+        RateGovernor governor = new RateGovernor(() -> { steps.incrementAndGet(); return true; }, 1000, TICK, () -> now[0]);
+
+        governor.tick(); // first tick only sets the starting time
+        for (int i = 0; i < 100; i++) {
+            now[0] += TICK;
+            governor.tick();
+        }
+        assertEquals(1000, steps.get());
+        assertEquals(1000, governor.getStepsDone());
+    }
+
+    @Test
+    public void testSlowRatesAccumulateAcrossTicks() {
+        final long[] now = {0};
+        AtomicInteger steps = new AtomicInteger();
+        RateGovernor governor = new RateGovernor(() -> { steps.incrementAndGet(); return true; }, 1, TICK, () -> now[0]);
+
+        governor.tick();
+        for (int i = 0; i < 250; i++) {
+            now[0] += TICK;
+            governor.tick();
+        }
+        assertEquals(2, steps.get());
+    }
+
+    @Test
+    public void testLateTicksCatchUp() {
+        final long[] now = {0};
+        AtomicInteger steps = new AtomicInteger();
+        RateGovernor governor = new RateGovernor(() -> { steps.incrementAndGet(); return true; }, 1000, TICK, () -> now[0]);
+
+        governor.tick();
+        now[0] += 3 * TICK; // two ticks were missed
+        assertEquals(30, governor.tick());
+    }
+
+    @Test
+    public void testBacklogIsBounded() {
+        final long[] now = {0};
+        RateGovernor governor = new RateGovernor(() -> true, 1000, TICK, () -> now[0]);
+
+        governor.tick();
+        now[0] += TimeUnit.SECONDS.toNanos(60);
+        assertEquals(10 * RateGovernor.MAX_CATCH_UP_TICKS, governor.tick());
+    }
+
+    @Test
+    public void testFinishListenerIsCalledOnceStepperIsDone() {
+        final long[] now = {0};
+        AtomicInteger steps = new AtomicInteger();
+        AtomicInteger finished = new AtomicInteger();
+        RateGovernor governor = new RateGovernor(() -> steps.incrementAndGet() < 5, 1000, TICK, () -> now[0]);
+        governor.setFinishListener(finished::incrementAndGet);
+
+        governor.tick();
+        now[0] += TICK;
+        governor.tick();
+        assertEquals(5, steps.get());
+        assertEquals(1, finished.get());
+    }
+
+    @Test
+    public void testBatchStopsAtTheTickBudget() {
+        final long[] now = {0};
+        // every step takes a millisecond
+        RateGovernor governor = new RateGovernor(() -> { now[0] += TimeUnit.MILLISECONDS.toNanos(1); return true; },
+                RateGovernor.MAX_RATE, TICK, () -> now[0]);
+
+        assertEquals(8, governor.tick());
+    }
+
+    @Test
+    public void testStepperCanEndTheRun() {
+        final long[] now = {0};
+        AtomicInteger steps = new AtomicInteger();
+        RateGovernor governor = new RateGovernor(() -> steps.incrementAndGet() < 5, 1000, TICK, () -> now[0]);
+
+        governor.tick();
+        now[0] += TICK;
+        assertEquals(5, governor.tick());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRateMustBePositive() {
+        new RateGovernor(() -> true, 0);
+    }
+
+    @Test
+    public void testStartAndStopOnExecutor() throws InterruptedException {
+        AtomicInteger steps = new AtomicInteger();
+        RateGovernor governor = new RateGovernor(() -> { steps.incrementAndGet(); return true; }, 10000);
+
+        assertTrue(governor.start());
+        assertFalse(governor.start());
+        Thread.sleep(100);
+        assertTrue(governor.stop());
+        int stepsAtStop = steps.get();
+        assertTrue(stepsAtStop > 0);
+        Thread.sleep(50);
+        assertEquals(stepsAtStop, steps.get());
+        assertFalse(governor.isRunning());
+    }
+
+    @Test
+    public void testStepThrowingStopsTheGovernorAndCallsTheFinishListener() throws InterruptedException {
+        AtomicInteger steps = new AtomicInteger();
+        CountDownLatch finished = new CountDownLatch(1);
+        RateGovernor governor = new RateGovernor(() -> {
+            if (steps.incrementAndGet() == 10)
+                throw new IllegalStateException("failing step");
+            return true;
+        }, 10000);
+        governor.setFinishListener(finished::countDown);
+
+        assertTrue(governor.start());
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertEquals(10, steps.get());
+        assertEquals(9, governor.getStepsDone());
+        assertFalse(governor.isRunning());
+    }
+
+    @Test
+    public void testBatchListenerThrowingStopsTheGovernor() {
+        final long[] now = {0};
+        AtomicInteger finished = new AtomicInteger();
+        RateGovernor governor = new RateGovernor(() -> true, 1000, TICK, () -> now[0]);
+        governor.setBatchListener(() -> { throw new IllegalStateException("failing listener"); });
+        governor.setFinishListener(finished::incrementAndGet);
+
+        governor.tick();
+        now[0] += TICK;
+        assertEquals(10, governor.tick());
+        assertEquals(1, finished.get());
+    }
+}
@@ -0,0 +1,100 @@
+package core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RegionPartitionTest {
+
+    @Test
+    public void testCurveVisitsNeighbouringRegions() {
+        final int side = 3, n = 8;
+        RegionPartition partition = new RegionPartition(n * side, n * side, side, 1, false);
+        assertEquals(n * n, partition.getRegions());
+
+        // region number -> its corner
+        Point2D[] corners = new Point2D[n * n];
+        for (int y = 0; y < n; y++) {
+            for (int x = 0; x < n; x++) {
+                final int r = partition.regionOf(new Point2D(x * side + 2, y * side + 1));
+                assertNull(corners[r]);
+                corners[r] = new Point2D(x, y);
+            }
+        }
+        for (int r = 1; r < corners.length; r++) {
+            final int dx = Math.abs(corners[r].getX() - corners[r - 1].getX());
+            final int dy = Math.abs(corners[r].getY() - corners[r - 1].getY());
+            assertEquals(1, dx + dy);
+        }
+    }
+
+    @Test
+    public void testRegionsCoverGridsOfAnySize() {
+        RegionPartition partition = new RegionPartition(7, 23, 4, 3, true);
+        assertEquals(2 * 6, partition.getRegions());
+        boolean[] seen = new boolean[partition.getRegions()];
+        for (int y = 0; y < 7; y++) {
+            for (int x = 0; x < 23; x++)
+                seen[partition.regionOf(new Point2D(x, y))] = true;
+        }
+        for (boolean s : seen)
+            assertTrue(s);
+    }
+
+    @Test
+    public void testStaticPartitionKeepsEqualRanges() {
+        RegionPartition partition = new RegionPartition(100, 100, 10, 4, false);
+        int[] counts = new int[100];
+        counts[0] = 1000;
+        assertEquals(0, partition.rebalance(counts));
+        for (int w = 0; w < 4; w++) {
+            assertEquals(25 * w, partition.from(w));
+            assertEquals(25 * (w + 1), partition.to(w));
+        }
+        assertEquals(0, partition.ownerOf(24));
+        assertEquals(1, partition.ownerOf(25));
+        assertEquals(3, partition.ownerOf(99));
+        assertEquals(4.0, partition.imbalance(counts), 1e-9);
+    }
+
+    @Test
+    public void testRebalanceEvensClusteredAgents() {
+        RegionPartition partition = new RegionPartition(100, 100, 10, 4, true);
+        // a herd in the first 20 regions along the curve and a few stragglers
+        int[] counts = new int[100];
+        for (int r = 0; r < 20; r++)
+            counts[r] = 100;
+        for (int r = 20; r < 100; r += 10)
+            counts[r] = 5;
+        assertEquals(4 * 2005.0 / 2040, partition.imbalance(counts), 1e-9);
+
+        final int migrated = partition.rebalance(counts);
+        assertTrue(migrated > 0);
+        assertEquals(1.0, partition.imbalance(counts), 0.1);
+        assertEquals(0, partition.from(0));
+        assertEquals(100, partition.to(3));
+
+        // balanced already, nothing moves
+        assertEquals(0, partition.rebalance(counts));
+        assertEquals(0, partition.rebalance(new int[100]));
+    }
+
+    @Test
+    public void testOfSplitsInAboutRegionsPerWorker() {
+        RegionPartition partition = RegionPartition.of(400, 400, 4, true);
+        final int regions = partition.getRegions();
+        assertTrue(regions >= 4 * RegionPartition.REGIONS_PER_WORKER);
+        assertTrue(regions <= 2 * 4 * RegionPartition.REGIONS_PER_WORKER);
+        assertEquals(1, RegionPartition.of(2, 2, 8, true).getSide());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCountsOfEachRegionAreNeeded() {
+        new RegionPartition(10, 10, 5, 2, true).rebalance(new int[3]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoWorkerThrows() {
+        new RegionPartition(10, 10, 5, 0, true);
+    }
+}
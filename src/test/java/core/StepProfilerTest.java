@@ -0,0 +1,47 @@
+package core;
+
+import core.exceptions.LifeException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StepProfilerTest {
+
+    @Test
+    public void testRecordChainsPhases() throws InterruptedException {
+        StepProfiler profiler = new StepProfiler();
+        long start = System.nanoTime();
+        Thread.sleep(2);
+        long next = profiler.record(StepPhase.MOVE, start);
+        assertTrue(next - start >= 2_000_000);
+        assertEquals(1, profiler.getCount(StepPhase.MOVE));
+        assertEquals(0, profiler.getCount(StepPhase.CONSUME));
+        assertEquals(next - start, profiler.getHistogram(StepPhase.MOVE).getMax());
+    }
+
+    @Test
+    public void testReportHasOneLinePerPhase() {
+        StepProfiler profiler = new StepProfiler();
+        profiler.record(StepPhase.AGE, System.nanoTime());
+        String[] lines = profiler.report().split("\\R");
+        assertEquals(StepPhase.values().length + 1, lines.length);
+        assertTrue(lines[StepPhase.AGE.ordinal() + 1].startsWith("AGE"));
+    }
+
+    @Test
+    public void testReset() {
+        StepProfiler profiler = new StepProfiler();
+        profiler.record(StepPhase.CLEANUP, System.nanoTime());
+        profiler.reset();
+        assertEquals(0, profiler.getCount(StepPhase.CLEANUP));
+    }
+
+    @Test
+    public void testLifeOnlyProfilesWhenEnabled() throws LifeException {
+        Life life = Life.createDefaultLife();
+        assertEquals(StepProfiler.ENABLED, life.getProfiler() != null);
+        life.step();
+        if (StepProfiler.ENABLED)
+            assertEquals(1, life.getProfiler().getCount(StepPhase.SELECTION));
+    }
+}
@@ -0,0 +1,63 @@
+package core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SurfaceKernelsTest {
+
+    @Test
+    public void testAgeAndMarkRegrowsPresentCellsOnly() {
+        int[] energy = {0, 5, 0, 9};
+        byte[] spreadable = new byte[energy.length];
+
+        int alive = SurfaceKernels.ageAndMark(energy, spreadable, -5, 12);
+
+        assertEquals(2, alive);
+        assertArrayEquals(new int[] {0, 10, 0, 12}, energy);
+        assertEquals(0, spreadable[0]);
+        assertEquals(1, spreadable[1]);
+        assertEquals(0, spreadable[2]);
+        assertEquals(1, spreadable[3]);
+    }
+
+    @Test
+    public void testAgeAndMarkEmptiesWitheredCells() {
+        int[] energy = {1, 2, 3, 0};
+        byte[] spreadable = new byte[energy.length];
+
+        int alive = SurfaceKernels.ageAndMark(energy, spreadable, 2, 100);
+
+        assertEquals(1, alive);
+        assertArrayEquals(new int[] {0, 0, 1, 0}, energy);
+        assertEquals(1, spreadable[2]);
+    }
+
+    @Test
+    public void testAgeAndMarkDoesNotOverflow() {
+        int[] energy = {1, SurfaceKernels.MAX_CAP};
+        byte[] spreadable = new byte[energy.length];
+
+        // caps above MAX_CAP are lowered to MAX_CAP
+        SurfaceKernels.ageAndMark(energy, spreadable, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        assertEquals(SurfaceKernels.MAX_CAP, energy[0]);
+        assertEquals(SurfaceKernels.MAX_CAP, energy[1]);
+
+        SurfaceKernels.ageAndMark(energy, spreadable, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        assertArrayEquals(new int[] {0, 0}, energy);
+    }
+
+    @Test
+    public void testMarkCountsPresentCells() {
+        int[] energy = {0, 7, 1, 0, 3};
+        byte[] spreadable = new byte[energy.length];
+        assertEquals(3, SurfaceKernels.mark(energy, spreadable));
+        assertEquals(0, spreadable[3]);
+        assertEquals(1, spreadable[4]);
+    }
+
+    @Test
+    public void testSum() {
+        assertEquals(3L * Integer.MAX_VALUE, SurfaceKernels.sum(new int[] {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE}));
+    }
+}
@@ -0,0 +1,135 @@
+package core;
+
+import core.exceptions.LifeException;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SurfaceLayerTest {
+
+    @Test
+    public void testNewLayerIsEmpty() {
+        SurfaceLayer layer = new SurfaceLayer(Grass.class, 4, 6);
+        assertEquals(0, layer.count());
+        assertFalse(layer.contains(5, 3));
+        assertEquals(Grass.class, layer.getSurfaceType());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLayerWithInvalidDimensionsThrowsException() {
+        new SurfaceLayer(Grass.class, 0, 6);
+    }
+
+    @Test
+    public void testSeedOnlyOncePerCell() {
+        SurfaceLayer layer = new SurfaceLayer(Grass.class, 3, 3);
+        assertTrue(layer.seed(1, 2, 5));
+        assertFalse(layer.seed(1, 2, 7));
+        assertEquals(5, layer.getEnergy(1, 2));
+        assertEquals(1, layer.count());
+    }
+
+    @Test
+    public void testConsumeEmptiesCellWhenEnergyReachesZero() {
+        SurfaceLayer layer = new SurfaceLayer(Grass.class, 3, 3);
+        layer.seed(0, 0, 5);
+        assertEquals(3, layer.consume(0, 0, 3));
+        assertEquals(2, layer.getEnergy(0, 0));
+        assertEquals(2, layer.consume(0, 0, 10));
+        assertFalse(layer.contains(0, 0));
+        assertEquals(0, layer.count());
+    }
+
+    @Test
+    public void testNegativeAgeRegrowsUpToCap() {
+        SurfaceLayer layer = new SurfaceLayer(Grass.class, 2, 2);
+        layer.setEnergyCap(12);
+        layer.seed(1, 1, 5);
+        layer.age(-5);
+        assertEquals(10, layer.getEnergy(1, 1));
+        layer.age(-5);
+        assertEquals(12, layer.getEnergy(1, 1));
+        assertEquals(0, layer.getEnergy(0, 0)); // empty cells do not grow
+    }
+
+    @Test
+    public void testPositiveAgeWithersSurfaces() {
+        SurfaceLayer layer = new SurfaceLayer(Grass.class, 2, 2);
+        layer.seed(0, 0, 1);
+        layer.seed(1, 0, 5);
+        layer.age(2);
+        assertFalse(layer.contains(0, 0));
+        assertEquals(3, layer.getEnergy(1, 0));
+        assertEquals(1, layer.count());
+    }
+
+    @Test
+    public void testSpreadOnlyToAdjacentEmptyCells() {
+        SurfaceLayer layer = new SurfaceLayer(Grass.class, 1, 3);
+        layer.seed(0, 0, 9);
+        int created = layer.spread(1.0, 4, new Random(42));
+
+        // from (0, 0) on a single row the only adjacent cell is (1, 0)
+        assertEquals(1, created);
+        assertEquals(4, layer.getEnergy(1, 0));
+        assertFalse(layer.contains(2, 0));
+        assertEquals(2, layer.count());
+    }
+
+    @Test
+    public void testSpreadWithZeroRateDoesNothing() {
+        SurfaceLayer layer = new SurfaceLayer(Grass.class, 5, 5);
+        layer.seed(2, 2, 9);
+        assertEquals(0, layer.spread(0.0, 4, new Random(42)));
+        assertEquals(1, layer.count());
+    }
+
+    @Test
+    public void testLifeWithSurfaceLayerHasNoSurfaceAgents() throws LifeException {
+        LifeOptions options = LifeOptions.createDefaultLifeOptions();
+        options.setSurfaceLayerEnabled(true);
+        Life life = new Life(options);
+
+        int nGrass = options.getOptionsForAgent(Grass.class).getInitialCount();
+        SurfaceLayer layer = life.getSurfaceLayer(Grass.class);
+        assertNotNull(layer);
+        assertEquals(nGrass, layer.count());
+        for (Agent a : life.getAgents())
+            assertFalse(a instanceof Surface);
+
+        // every cell with grass in the layer reports it
+        int cellsWithSurface = 0;
+        for (int y = 0; y < life.getGridRows(); y++)
+            for (int x = 0; x < life.getGridCols(); x++)
+                if (((LifeCell) life.getGrid().get(x, y)).containsSurface())
+                    cellsWithSurface++;
+        assertEquals(nGrass, cellsWithSurface);
+
+        for (int i = 0; i < 100; i++)
+            life.step();
+    }
+
+    @Test
+    public void testLayerOnlyWorldKeepsGrowing() throws LifeException {
+        LifeOptions options = LifeOptions.createDefaultLifeOptions();
+        options.setSurfaceLayerEnabled(true);
+        for (Class<? extends LifeAgent> type : options.getSupportedAgents()) {
+            if (false == Surface.class.isAssignableFrom(type))
+                options.getOptionsForAgent(type).setInitialCount(0);
+        }
+        Life life = new Life(options);
+        assertTrue(life.getAgents().isEmpty());
+
+        SurfaceLayer layer = life.getSurfaceLayer(Grass.class);
+        final int before = layer.count();
+        final long energyBefore = layer.totalEnergy();
+        for (int i = 0; i < 10; i++)
+            life.step();
+        assertEquals(10, life.getStepCount());
+        assertEquals(10, (long) life.getGenerations());
+        assertTrue(layer.count() > before);
+        assertTrue(layer.totalEnergy() > energyBefore);
+    }
+}
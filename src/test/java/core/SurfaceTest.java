@@ -1,6 +1,7 @@
 package core;
 
 import core.exceptions.AgentAlreadyDeadException;
+import core.exceptions.LifeException;
 import org.junit.Test;
 
 import static org.junit.Assert.*;
@@ -55,4 +56,81 @@ public class SurfaceTest {
         assertEquals(e, s.getEnergy().intValue());
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testLazyAgingGrowsEnergyWithWholePeriods() throws AgentAlreadyDeadException {
+        final double[] clock = {0.0};
+        LifeAgentOptions opts = new LifeAgentOptions(Grass.class);
+        opts.setAgeBy(-5);
+        Grass grass = new Grass(10);
+        grass.setAging(new SurfaceAging(opts, () -> clock[0]));
+
+        clock[0] = 0.9;
+        assertEquals(10, grass.getEnergy().intValue());
+        clock[0] = 2.5;
+        assertEquals(20, grass.getEnergy().intValue());
+    }
+
+    @Test
+    public void testLazyAgingKeepsFractionOfPeriodOnWrite() throws AgentAlreadyDeadException {
+        final double[] clock = {0.0};
+        LifeAgentOptions opts = new LifeAgentOptions(Grass.class);
+        opts.setAgeBy(-5);
+        Grass grass = new Grass(10);
+        grass.setAging(new SurfaceAging(opts, () -> clock[0]));
+
+        clock[0] = 1.6;
+        grass.changeEnergyBy(-3); // 10 + 5 - 3
+        assertEquals(12, grass.getEnergy().intValue());
+
+        // 0.6 of a period was left over from the write, so the next period completes at 2.0
+        clock[0] = 2.0;
+        assertEquals(17, grass.getEnergy().intValue());
+    }
+
+    @Test
+    public void testLazyAgingWitheredSurfaceDiesWhenWritten() throws AgentAlreadyDeadException {
+        final double[] clock = {0.0};
+        LifeAgentOptions opts = new LifeAgentOptions(Grass.class);
+        opts.setAgeBy(2);
+        Grass grass = new Grass(3);
+        grass.setAging(new SurfaceAging(opts, () -> clock[0]));
+
+        clock[0] = 2.0;
+        assertEquals(0, grass.getEnergy().intValue());
+        assertTrue(grass.isAlive());
+        grass.changeEnergyBy(0);
+        assertFalse(grass.isAlive());
+    }
+
+    @Test
+    public void testWitheringTime() throws AgentAlreadyDeadException {
+        final double[] clock = {0.0};
+        LifeAgentOptions opts = new LifeAgentOptions(Grass.class);
+        opts.setAgeBy(2);
+        Grass grass = new Grass(3);
+        assertEquals(Double.POSITIVE_INFINITY, grass.witheringTime(), 0);
+        grass.setAging(new SurfaceAging(opts, () -> clock[0]));
+        assertEquals(2.0, grass.witheringTime(), 0);
+
+        clock[0] = 1.5;
+        assertEquals(2.0, grass.witheringTime(), 0);
+
+        opts.setAgeBy(-1);
+        assertEquals(Double.POSITIVE_INFINITY, grass.witheringTime(), 0);
+    }
+
+    @Test
+    public void testLifeWithLazySurfaceAgingRuns() throws LifeException {
+        LifeOptions options = LifeOptions.createDefaultLifeOptions();
+        options.setLazySurfaceAging(true);
+        Life life = new Life(options);
+        for (Agent a : life.getAgents()) {
+            if (a instanceof Surface)
+                assertNotNull(((Surface) a).getAging());
+        }
+        for (int i = 0; i < 200; i++)
+            life.step();
+        assertTrue(life.getGenerations() > 0);
+    }
+}
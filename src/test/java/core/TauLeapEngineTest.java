@@ -0,0 +1,139 @@
+package core;
+
+import core.exceptions.LifeException;
+import core.exceptions.TooManySurfacesException;
+import org.junit.Before;
+import org.junit.Test;
+
+import static core.LifeOptions.createDefaultLifeOptions;
+import static org.junit.Assert.*;
+
+public class TauLeapEngineTest {
+
+    @Before
+    public void setUp() {
+        Utils.setSeed(46);
+    }
+
+    @Test
+    public void testInitialCounts() throws LifeException {
+        TauLeapEngine engine = new TauLeapEngine(createDefaultLifeOptions(50, 50, 1000, 20000, 2500));
+        assertEquals(1000, engine.totalOf(Wolf.class));
+        assertEquals(20000, engine.totalOf(Deer.class));
+        assertEquals(2500, engine.totalOf(Grass.class));
+        assertEquals(23500, engine.totalAgents());
+        assertEquals(20000.0 * createDefaultLifeOptions().getOptionsForAgent(Deer.class).getInitialEnergy(),
+                engine.totalEnergyOf(Deer.class), 1e-6);
+        for (int x = 0; x < 50; x++) {
+            for (int y = 0; y < 50; y++)
+                assertEquals(1, engine.countAt(Grass.class, x, y));
+        }
+    }
+
+    @Test(expected = TooManySurfacesException.class)
+    public void testTooManySurfacesThrows() throws LifeException {
+        new TauLeapEngine(createDefaultLifeOptions(5, 5, 0, 0, 26));
+    }
+
+    @Test
+    public void testMovesKeepTheCount() throws LifeException {
+        LifeOptions options = createDefaultLifeOptions(20, 20, 5000, 0, 0);
+        options.getOptionsForAgent(Wolf.class).setAgeBy(0);
+        options.getOptionsForAgent(Wolf.class).setReproductionRate(0.0);
+        options.getOptionsForAgent(Wolf.class).setInitialEnergy(5);
+        TauLeapEngine engine = new TauLeapEngine(options);
+        int before = engine.countAt(Wolf.class, 0, 0);
+        engine.advanceTo(10);
+        assertEquals(10.0, engine.getTime(), 1e-9);
+        assertEquals(5000, engine.totalOf(Wolf.class));
+        assertEquals(5000.0 * 5, engine.totalEnergyOf(Wolf.class), 1e-6);
+        assertNotEquals(before, engine.countAt(Wolf.class, 0, 0));
+    }
+
+    @Test
+    public void testBirthsGrowExponentially() throws LifeException {
+        LifeOptions options = createDefaultLifeOptions(20, 20, 0, 20000, 0);
+        options.getOptionsForAgent(Deer.class).setAgeBy(0);
+        options.getOptionsForAgent(Deer.class).setReproductionRate(0.1);
+        TauLeapEngine engine = new TauLeapEngine(options);
+        engine.advanceTo(5);
+        assertEquals(20000 * Math.exp(0.5), engine.totalOf(Deer.class), 20000 * Math.exp(0.5) * 0.03);
+    }
+
+    @Test
+    public void testStarvingCreaturesLiveTheirEnergyOnAverage() throws LifeException {
+        // without food a wolf of energy 5 ageing by 1 lives 5 units of time on average
+        LifeOptions options = createDefaultLifeOptions(20, 20, 20000, 0, 0);
+        options.getOptionsForAgent(Wolf.class).setReproductionRate(0.0);
+        options.getOptionsForAgent(Wolf.class).setInitialEnergy(5);
+        options.getOptionsForAgent(Wolf.class).setAgeBy(1);
+        TauLeapEngine engine = new TauLeapEngine(options);
+        engine.advanceTo(5);
+        assertEquals(20000 * Math.exp(-1), engine.totalOf(Wolf.class), 20000 * Math.exp(-1) * 0.05);
+    }
+
+    @Test
+    public void testPredatorsEatPrey() throws LifeException {
+        LifeOptions alone = createDefaultLifeOptions(10, 10, 0, 5000, 0);
+        LifeOptions hunted = createDefaultLifeOptions(10, 10, 2000, 5000, 0);
+        for (LifeOptions options : new LifeOptions[] { alone, hunted }) {
+            options.getOptionsForAgent(Deer.class).setAgeBy(0);
+            options.getOptionsForAgent(Deer.class).setReproductionRate(0.0);
+        }
+        TauLeapEngine a = new TauLeapEngine(alone);
+        TauLeapEngine h = new TauLeapEngine(hunted);
+        a.advanceTo(1);
+        h.advanceTo(1);
+        assertEquals(5000, a.totalOf(Deer.class));
+        assertTrue(h.totalOf(Deer.class) < 4000);
+        // the wolves that ate do not starve as fast
+        final int e0 = hunted.getOptionsForAgent(Wolf.class).getInitialEnergy();
+        final int ageBy = hunted.getOptionsForAgent(Wolf.class).getAgeBy();
+        assertTrue(h.totalEnergyOf(Wolf.class) > 2000 * (e0 - ageBy));
+    }
+
+    @Test
+    public void testGrassWithers() throws LifeException {
+        LifeOptions options = createDefaultLifeOptions(10, 10, 0, 0, 100);
+        options.getOptionsForAgent(Grass.class).setReproductionRate(0.0);
+        options.getOptionsForAgent(Grass.class).setAgeBy(1);
+        options.getOptionsForAgent(Grass.class).setInitialEnergy(5);
+        TauLeapEngine engine = new TauLeapEngine(options);
+        engine.advanceTo(4.5);
+        assertEquals(100, engine.totalOf(Grass.class));
+        engine.advanceTo(5.5);
+        assertEquals(0, engine.totalOf(Grass.class));
+    }
+
+    @Test
+    public void testGrassSpreadsToFreeCells() throws LifeException {
+        LifeOptions options = createDefaultLifeOptions(30, 30, 0, 0, 10);
+        options.getOptionsForAgent(Grass.class).setAgeBy(0);
+        TauLeapEngine engine = new TauLeapEngine(options);
+        engine.advanceTo(20);
+        long grass = engine.totalOf(Grass.class);
+        assertTrue(grass > 10 && grass <= 900);
+        for (int x = 0; x < 30; x++) {
+            for (int y = 0; y < 30; y++)
+                assertTrue(engine.countAt(Grass.class, x, y) <= 1);
+        }
+    }
+
+    @Test
+    public void testTauFollowsTheErrorBound() throws LifeException {
+        TauLeapEngine coarse = new TauLeapEngine(createDefaultLifeOptions(20, 20, 2000, 20000, 400), 0.3, 1.0);
+        TauLeapEngine fine = new TauLeapEngine(createDefaultLifeOptions(20, 20, 2000, 20000, 400), 0.01, 1.0);
+        coarse.leap();
+        fine.leap();
+        assertTrue(fine.getLastTau() < coarse.getLastTau());
+        assertTrue(coarse.getLastTau() <= 1.0);
+
+        TauLeapEngine empty = new TauLeapEngine(createDefaultLifeOptions(5, 5, 0, 0, 0), 0.03, 0.5);
+        assertEquals(0.5, empty.leap(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidEpsilonThrows() throws LifeException {
+        new TauLeapEngine(createDefaultLifeOptions(5, 5, 1, 1, 1), 0, 1);
+    }
+}
@@ -0,0 +1,109 @@
+package core;
+
+import core.exceptions.LifeException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class UtilsTest {
+
+    private static int[] run(long seed) throws LifeException {
+        Utils.setSeed(seed);
+        LifeOptions options = LifeOptions.createDefaultLifeOptions();
+        options.setGridRows(20);
+        options.setGridCols(20);
+        Life life = new Life(options);
+        for (int i = 0; i < 2000 && life.getAgents().size() > 0; i++)
+            life.step();
+        WorldSnapshot s = life.publishSnapshot();
+        return new int[]{ life.getStepCount(), life.getAgents().size(),
+                s.totalOf(Wolf.class), s.totalOf(Deer.class), s.totalOf(Grass.class) };
+    }
+
+    @Test
+    public void testSameSeedGivesTheSameWorld() throws LifeException {
+        assertArrayEquals(run(42), run(42));
+    }
+
+    @Test
+    public void testSeedSetsTheSharedGenerator() {
+        Utils.setSeed(7);
+        int a = Utils.getRand().nextInt();
+        Utils.setSeed(7);
+        assertEquals(a, Utils.getRand().nextInt());
+        assertSame(Utils.getRand(), Utils.getRand());
+    }
+
+    @Test
+    public void testWorldsStepWithoutTheSharedGenerator() throws LifeException {
+        // the shared generator only seeds the world when it is created
+        Utils.setSeed(3);
+        new Life(LifeOptions.createDefaultLifeOptions());
+        final int next = Utils.getRand().nextInt();
+        Utils.setSeed(3);
+        Life life = new Life(LifeOptions.createDefaultLifeOptions());
+        for (int i = 0; i < 1000 && life.getAgents().size() > 0; i++)
+            life.step();
+        assertEquals(next, Utils.getRand().nextInt());
+    }
+
+    /** @return the mean and the variance of @param draws */
+    private static double[] moments(long[] draws) {
+        double mean = 0, variance = 0;
+        for (long d : draws)
+            mean += (double) d / draws.length;
+        for (long d : draws)
+            variance += (d - mean) * (d - mean) / (draws.length - 1);
+        return new double[] { mean, variance };
+    }
+
+    @Test
+    public void testRandomPoissonMoments() {
+        Utils.setSeed(11);
+        for (double mean : new double[] { 0.5, 7, 45, 5000 }) {
+            long[] draws = new long[20000];
+            for (int i = 0; i < draws.length; i++) {
+                draws[i] = Utils.randomPoisson(mean);
+                assertTrue(draws[i] >= 0);
+            }
+            double[] m = moments(draws);
+            assertEquals(mean, m[0], mean * 0.03);
+            assertEquals(mean, m[1], mean * 0.1);
+        }
+        assertEquals(0, Utils.randomPoisson(0));
+    }
+
+    @Test
+    public void testRandomBinomialMoments() {
+        Utils.setSeed(12);
+        long[][] cases = { { 10, 30 }, { 1000, 1 }, { 100000, 40 }, { 500, 95 } }; // n and p in %
+        for (long[] c : cases) {
+            long n = c[0];
+            double p = c[1] / 100.0;
+            long[] draws = new long[20000];
+            for (int i = 0; i < draws.length; i++) {
+                draws[i] = Utils.randomBinomial(n, p);
+                assertTrue(draws[i] >= 0 && draws[i] <= n);
+            }
+            double[] m = moments(draws);
+            assertEquals(n * p, m[0], n * p * 0.03);
+            assertEquals(n * p * (1 - p), m[1], n * p * (1 - p) * 0.1);
+        }
+        assertEquals(0, Utils.randomBinomial(10, 0));
+        assertEquals(10, Utils.randomBinomial(10, 1));
+    }
+
+    @Test
+    public void testLogFactorial() {
+        double exact = 0;
+        for (int k = 1; k <= 40; k++) {
+            exact += Math.log(k);
+            assertEquals(exact, Utils.logFactorial(k), 1e-9);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRandomPoissonNegativeMeanThrows() {
+        Utils.randomPoisson(-1);
+    }
+}
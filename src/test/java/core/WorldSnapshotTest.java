@@ -0,0 +1,174 @@
+package core;
+
+import core.exceptions.LifeException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class WorldSnapshotTest {
+
+    private static Life createLife(int wolves, int deer, int grass) throws LifeException {
+        LifeAgentOptions wolfOpts = new LifeAgentOptions(Wolf.class);
+        wolfOpts.setInitialCount(wolves);
+        LifeAgentOptions deerOpts = new LifeAgentOptions(Deer.class);
+        deerOpts.setInitialCount(deer);
+        LifeAgentOptions grassOpts = new LifeAgentOptions(Grass.class);
+        grassOpts.setInitialCount(grass);
+        LifeOptions options = new LifeOptions(wolfOpts, deerOpts, grassOpts);
+        options.setGridRows(10);
+        options.setGridCols(10);
+        return new Life(options);
+    }
+
+    @Test
+    public void testLifePublishesASnapshotOnCreation() throws LifeException {
+        Life life = createLife(3, 4, 5);
+        WorldSnapshot s = life.getSnapshot();
+        assertNotNull(s);
+        assertEquals(0, s.getVersion());
+        assertEquals(10, s.getRows());
+        assertEquals(10, s.getCols());
+        assertEquals(3, s.totalOf(Wolf.class));
+        assertEquals(4, s.totalOf(Deer.class));
+        assertEquals(5, s.totalOf(Grass.class));
+    }
+
+    @Test
+    public void testCountsMatchTheCells() throws Exception {
+        Life life = createLife(20, 20, 0);
+        WorldSnapshot s = life.getSnapshot();
+        for (int y = 0; y < s.getRows(); y++) {
+            for (int x = 0; x < s.getCols(); x++) {
+                LifeCell cell = (LifeCell) life.getGrid().get(x, y);
+                assertEquals(cell.countOf(Wolf.class), s.countOf(Wolf.class, s.index(x, y)));
+                assertEquals(cell.countOf(Deer.class), s.countOf(Deer.class, s.index(x, y)));
+            }
+        }
+    }
+
+    @Test
+    public void testPublishedSnapshotDoesNotChangeWhileLifeSteps() throws Exception {
+        Life life = createLife(10, 10, 10);
+        WorldSnapshot before = life.getSnapshot();
+        int wolves = before.totalOf(Wolf.class);
+        int grassEnergy = 0;
+        for (int i = 0; i < before.getRows() * before.getCols(); i++)
+            grassEnergy += before.surfaceEnergyAt(i);
+
+        for (int i = 0; i < 200; i++)
+            life.step();
+
+        assertSame(before, life.getSnapshot());
+        assertEquals(wolves, before.totalOf(Wolf.class));
+        int grassEnergyAfter = 0;
+        for (int i = 0; i < before.getRows() * before.getCols(); i++)
+            grassEnergyAfter += before.surfaceEnergyAt(i);
+        assertEquals(grassEnergy, grassEnergyAfter);
+    }
+
+    @Test
+    public void testChangedCellsAreTheOnesThatDiffer() throws Exception {
+        Life life = createLife(10, 10, 10);
+        WorldSnapshot first = life.getSnapshot();
+        for (int i = 0; i < 50; i++)
+            life.step();
+        WorldSnapshot second = life.publishSnapshot();
+
+        assertEquals(first.getVersion() + 1, second.getVersion());
+        for (int i = 0; i < second.getRows() * second.getCols(); i++) {
+            boolean differs = first.surfaceEnergyAt(i) != second.surfaceEnergyAt(i);
+            for (Class<? extends LifeAgent> type : second.getTypes())
+                differs |= first.countOf(type, i) != second.countOf(type, i);
+            assertEquals(differs, second.isChanged(i));
+        }
+    }
+
+    @Test
+    public void testSnapshotInterval() throws Exception {
+        LifeOptions options = new LifeOptions(Wolf.class, Deer.class, Grass.class);
+        options.setSnapshotInterval(10);
+        Life life = new Life(options);
+
+        for (int i = 0; i < 25; i++)
+            life.step();
+        assertEquals(2, life.getSnapshot().getVersion());
+        assertEquals(20, life.getSnapshot().getStepCount());
+    }
+
+    @Test
+    public void testSnapshotsCapturedFromDirtyCellsMatchTheGrid() throws Exception {
+        Life life = createLife(20, 20, 20);
+        life.setSnapshotInterval(1);
+        for (int i = 0; i < 500; i++)
+            life.step();
+
+        WorldSnapshot s = life.getSnapshot();
+        assertEquals(life.getStepCount(), s.getStepCount());
+        int[] totals = new int[s.getTypes().size()];
+        for (int y = 0; y < s.getRows(); y++) {
+            for (int x = 0; x < s.getCols(); x++) {
+                LifeCell cell = (LifeCell) life.getGrid().get(x, y);
+                for (int t = 0; t < totals.length; t++) {
+                    assertEquals(cell.countOf(s.getTypes().get(t)), s.countAt(t, s.index(x, y)));
+                    totals[t] += cell.countOf(s.getTypes().get(t));
+                }
+                Surface surface = cell.getSurface();
+                int energy = (surface != null && surface.isAlive()) ? surface.getEnergy() : 0;
+                assertEquals(energy, s.surfaceEnergyAt(s.index(x, y)));
+            }
+        }
+        for (int t = 0; t < totals.length; t++)
+            assertEquals(totals[t], s.totalOf(s.getTypes().get(t)));
+    }
+
+    @Test
+    public void testArraysAreReusedTwoSnapshotsLater() throws Exception {
+        Life life = createLife(10, 10, 10);
+        WorldSnapshot first = life.getSnapshot();
+        life.step();
+        life.publishSnapshot();
+        assertTrue(first.pin());
+        first.unpin();
+        life.step();
+        life.publishSnapshot();
+        assertFalse(first.pin());
+    }
+
+    @Test
+    public void testPinnedSnapshotDoesNotChange() throws Exception {
+        Life life = createLife(10, 10, 10);
+        WorldSnapshot pinned = life.pinSnapshot();
+        int[] energy = new int[pinned.getRows() * pinned.getCols()];
+        for (int i = 0; i < energy.length; i++)
+            energy[i] = pinned.surfaceEnergyAt(i);
+
+        for (int i = 0; i < 20; i++) {
+            for (int j = 0; j < 20; j++)
+                life.step();
+            assertNotSame(pinned, life.publishSnapshot());
+        }
+        for (int i = 0; i < energy.length; i++)
+            assertEquals(energy[i], pinned.surfaceEnergyAt(i));
+        pinned.unpin();
+    }
+
+    @Test
+    public void testSnapshotListenerGetsEverySnapshot() throws Exception {
+        Life life = createLife(10, 10, 10);
+        life.setSnapshotInterval(5);
+        List<WorldSnapshot> published = new ArrayList<>();
+        life.setSnapshotListener(published::add);
+        for (int i = 0; i < 20; i++)
+            life.step();
+        assertEquals(4, published.size());
+        assertSame(life.getSnapshot(), published.get(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeSnapshotIntervalIsRejected() {
+        new LifeOptions().setSnapshotInterval(-1);
+    }
+}
@@ -0,0 +1,64 @@
+package core.domain;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DomainCoordinatorTest {
+
+    @Test
+    public void testDomainsRunInTheirOwnProcesses() throws Exception {
+        final int epochs = 5, epochSteps = 2000;
+        DomainCoordinator coordinator = new DomainCoordinator(2, 20, 20, 0.1, epochs, epochSteps, 50);
+        coordinator.addJvmOption("-Xmx64m");
+        List<DomainStats> merged = coordinator.run();
+
+        assertEquals(epochs + 1, merged.size());
+        assertEquals(0, merged.get(0).getSteps());
+        // both halves of the world were populated with 20 agents of each type in their own rows, none crossing
+        final DomainStats start = merged.get(0);
+        for (int t = 0; t < start.getTypes(); t++)
+            assertEquals(2 * 20, start.getCount(t));
+        assertEquals(0, start.getEmigrants());
+
+        long steps = 0;
+        int crossed = 0;
+        for (int e = 0; e <= epochs; e++) {
+            DomainStats s = merged.get(e);
+            assertEquals(e, s.getEpoch());
+            // each domain rounds its share of the steps
+            assertTrue(s.getSteps() <= epochSteps + 1);
+            steps += s.getSteps();
+            crossed += s.getEmigrants();
+        }
+        assertTrue(steps > 0);
+        assertTrue(crossed > 0);
+    }
+
+    @Test
+    public void testMergeAddsUpDomains() {
+        DomainStats a = new DomainStats(3, 100, 2, 1, new long[] { 5, 7 });
+        DomainStats b = new DomainStats(3, 50, 1, 2, new long[] { 1, 0 });
+        DomainStats merged = DomainStats.merge(Arrays.asList(a, b));
+        assertEquals(3, merged.getEpoch());
+        assertEquals(150, merged.getSteps());
+        assertEquals(3, merged.getEmigrants());
+        assertEquals(3, merged.getImmigrants());
+        assertEquals(6, merged.getCount(0));
+        assertEquals(13, merged.getAgents());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEpochsAreNotMixed() {
+        DomainStats.merge(Arrays.asList(new DomainStats(1, 0, 0, 0, new long[1]), new DomainStats(2, 0, 0, 0,
+                new long[1])));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEachDomainNeedsARow() {
+        new DomainCoordinator(4, 3, 10, 0.1, 1, 100, 0);
+    }
+}
@@ -0,0 +1,153 @@
+package core.domain;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class MappedHaloExchangeTest {
+
+    private static DomainStats stats(long epoch, int domain) {
+        return new DomainStats(epoch, 10 * domain, domain, 0, new long[] { domain, 2 * domain });
+    }
+
+    @Test
+    public void testDomainsExchangeMigrantsAndStatsEveryEpoch() throws Exception {
+        final int domains = 3, epochs = 6;
+        Path file = Files.createTempFile("halo", ".map");
+        ExecutorService executor = Executors.newFixedThreadPool(domains);
+        try (MappedHaloExchange coordinator = MappedHaloExchange.create(file, domains, 2, 4)) {
+            List<Future<List<List<Migrant>>>> futures = new ArrayList<>();
+            for (int d = 0; d < domains; d++) {
+                final int domain = d;
+                futures.add(executor.submit(() -> {
+                    List<List<Migrant>> received = new ArrayList<>();
+                    try (MappedHaloExchange exchange = MappedHaloExchange.open(file, domain)) {
+                        for (long epoch = 0; epoch < epochs; epoch++) {
+                            // one migrant up and epoch % 3 down, its energy telling where and when it left
+                            List<Migrant> up = new ArrayList<>(), down = new ArrayList<>();
+                            if (domain > 0)
+                                up.add(new Migrant(0, domain, (int) epoch, 1, 100 * domain + (int) epoch));
+                            if (domain < domains - 1) {
+                                for (int i = 0; i < epoch % 3; i++)
+                                    down.add(new Migrant(1, domain, (int) epoch, 2, 100 * domain + (int) epoch));
+                            }
+                            received.add(exchange.exchange(epoch, up, down, stats(epoch, domain)));
+                            assertEquals(domains, exchange.getStats(epoch).size());
+                        }
+                    }
+                    return received;
+                }));
+            }
+            for (long epoch = 0; epoch < epochs; epoch++) {
+                coordinator.awaitDomains(epoch, () -> false);
+                DomainStats merged = DomainStats.merge(coordinator.getStats(epoch));
+                assertEquals(epoch, merged.getEpoch());
+                assertEquals(30, merged.getSteps());
+                assertEquals(3, merged.getCount(0));
+                assertEquals(9, merged.getAgents());
+                coordinator.merged(epoch);
+            }
+
+            for (int d = 0; d < domains; d++) {
+                List<List<Migrant>> received = futures.get(d).get();
+                for (int epoch = 0; epoch < epochs; epoch++) {
+                    int fromAbove = 0, fromBelow = 0;
+                    for (Migrant m : received.get(epoch)) {
+                        assertEquals(epoch, m.getY());
+                        if (m.getX() == d - 1) {
+                            assertEquals(1, m.getType());
+                            assertEquals(100 * (d - 1) + epoch, m.getEnergy());
+                            fromAbove++;
+                        }
+                        else {
+                            assertEquals(d + 1, m.getX());
+                            assertEquals(0, m.getType());
+                            fromBelow++;
+                        }
+                    }
+                    assertEquals((d > 0) ? epoch % 3 : 0, fromAbove);
+                    assertEquals((d < domains - 1) ? 1 : 0, fromBelow);
+                }
+            }
+        }
+        finally {
+            executor.shutdownNow();
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testDomainsWaitForTheCoordinator() throws Exception {
+        Path file = Files.createTempFile("halo", ".map");
+        try (MappedHaloExchange coordinator = MappedHaloExchange.create(file, 1, 2, 1);
+             MappedHaloExchange exchange = MappedHaloExchange.open(file, 0)) {
+            final List<Migrant> none = Collections.emptyList();
+            exchange.exchange(0, none, none, stats(0, 0));
+            // epoch 1 needs epoch 0 merged
+            Thread domain = new Thread(() -> {
+                try {
+                    exchange.exchange(1, none, none, stats(1, 0));
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            domain.start();
+            domain.join(200);
+            assertTrue(domain.isAlive());
+            coordinator.awaitDomains(1, () -> false);
+            coordinator.merged(0);
+            domain.join(10_000);
+            assertFalse(domain.isAlive());
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testCoordinatorStopsWhenADomainFailed() throws Exception {
+        Path file = Files.createTempFile("halo", ".map");
+        try (MappedHaloExchange coordinator = MappedHaloExchange.create(file, 2, 2, 1)) {
+            coordinator.awaitDomains(0, () -> true);
+            fail("a failed domain is never waited for");
+        }
+        catch (IllegalStateException e) {
+            // expected
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyMigrantsThrows() throws Exception {
+        Path file = Files.createTempFile("halo", ".map");
+        try (MappedHaloExchange coordinator = MappedHaloExchange.create(file, 2, 2, 1);
+             MappedHaloExchange exchange = MappedHaloExchange.open(file, 0)) {
+            List<Migrant> two = Arrays.asList(new Migrant(0, 0, 0, 1, 1), new Migrant(0, 1, 0, 1, 1));
+            exchange.exchange(0, Collections.emptyList(), two, stats(0, 0));
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testOtherFilesAreNotOpened() throws Exception {
+        Path file = Files.createTempFile("halo", ".map");
+        try {
+            Files.write(file, new byte[64]);
+            MappedHaloExchange.open(file, 0);
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package core.jfr;
+
+import core.Life;
+import core.exceptions.LifeException;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LifeEventsTest {
+
+    private static final String[] EVENTS = {
+            "life.StepBatch", "life.Generation", "life.MassDeath", "life.SnapshotWrite", "life.FrameDraw",
+            "life.Rebalance" };
+
+    private static long count(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(name)).count();
+    }
+
+    private static List<RecordedEvent> dump(Recording recording) throws IOException {
+        Path file = Files.createTempFile("life", ".jfr");
+        try {
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testEventsAreRecorded() throws IOException {
+        if (false == LifeEvents.AVAILABLE)
+            return;
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            for (String name : EVENTS)
+                recording.enable(name);
+            recording.start();
+            LifeEvents.stepBatch(12, 100.0, 5000);
+            LifeEvents.massDeath(3, 100, 40, 60);
+            LifeEvents.frameDrawn(25, true, 7000);
+            LifeEvents.rebalance(64, 5, 2.5, 1.1, 3000);
+            recording.stop();
+            events = dump(recording);
+        }
+        assertEquals(1, count(events, "life.StepBatch"));
+        assertEquals(1, count(events, "life.MassDeath"));
+        assertEquals(1, count(events, "life.FrameDraw"));
+        assertEquals(1, count(events, "life.Rebalance"));
+
+        RecordedEvent batch = events.stream()
+                .filter(e -> e.getEventType().getName().equals("life.StepBatch")).findFirst().get();
+        assertEquals(12, batch.getInt("steps"));
+        assertEquals(5000, batch.getDuration("batchDuration").toNanos());
+    }
+
+    @Test
+    public void testLifeEmitsGenerationsAndSnapshots() throws IOException, LifeException {
+        if (false == LifeEvents.AVAILABLE)
+            return;
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("life.Generation");
+            recording.enable("life.SnapshotWrite");
+            recording.start();
+            Life life = Life.createDefaultLife();
+            while (life.getGenerations() < 2 && life.getAgents().size() > 0)
+                life.step();
+            life.publishSnapshot();
+            recording.stop();
+            events = dump(recording);
+        }
+        assertTrue(count(events, "life.Generation") >= 1);
+        // one at construction, one on demand
+        assertEquals(2, count(events, "life.SnapshotWrite"));
+    }
+
+    @Test
+    public void testNothingIsRecordedWhenDisabled() throws IOException {
+        if (false == LifeEvents.AVAILABLE)
+            return;
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.disable("life.FrameDraw");
+            recording.start();
+            LifeEvents.frameDrawn(25, false, 7000);
+            recording.stop();
+            events = dump(recording);
+        }
+        assertEquals(0, count(events, "life.FrameDraw"));
+    }
+}
@@ -0,0 +1,33 @@
+package gui;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DensityColorMapTest {
+
+    @Test
+    public void testEmptyIsBackground() {
+        assertEquals(0xFF000000 | DensityColorMap.BACKGROUND_RGB, DensityColorMap.argb(0, 0, 0));
+    }
+
+    @Test
+    public void testFullDensitiesGiveTheTypeColor() {
+        assertEquals(0xFF000000 | DensityColorMap.SURFACE_RGB, DensityColorMap.argb(1, 0, 0));
+        assertEquals(0xFF000000 | DensityColorMap.DEER_RGB, DensityColorMap.argb(1, 1, 0));
+        assertEquals(0xFF000000 | DensityColorMap.WOLF_RGB, DensityColorMap.argb(0.5, 1, 1));
+    }
+
+    @Test
+    public void testDensitiesAreClamped() {
+        assertEquals(DensityColorMap.argb(1, 0, 0), DensityColorMap.argb(7.5, 0, 0));
+        assertEquals(DensityColorMap.argb(0, 0, 0), DensityColorMap.argb(-1, Double.NaN, 0));
+    }
+
+    @Test
+    public void testBlendIsHalfway() {
+        int mid = DensityColorMap.blend(0x000000, 0xFF0000, 0.5);
+        assertEquals(128, (mid >> 16) & 0xFF);
+        assertEquals(0, mid & 0xFFFF);
+    }
+}
@@ -0,0 +1,90 @@
+package gui;
+
+import core.*;
+import core.exceptions.LifeException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DensityRendererTest {
+
+    private static WorldSnapshot snapshotOf(int rows, int cols, int wolves, int deer, int grass) throws LifeException {
+        LifeAgentOptions wolfOpts = new LifeAgentOptions(Wolf.class);
+        wolfOpts.setInitialCount(wolves);
+        LifeAgentOptions deerOpts = new LifeAgentOptions(Deer.class);
+        deerOpts.setInitialCount(deer);
+        LifeAgentOptions grassOpts = new LifeAgentOptions(Grass.class);
+        grassOpts.setInitialCount(grass);
+        LifeOptions options = new LifeOptions(wolfOpts, deerOpts, grassOpts);
+        options.setGridRows(rows);
+        options.setGridCols(cols);
+        return new Life(options).getSnapshot();
+    }
+
+    @Test
+    public void testBlockSideFor() {
+        assertEquals(1, DensityRenderer.blockSideFor(3.0));
+        assertEquals(1, DensityRenderer.blockSideFor(1.0));
+        assertEquals(2, DensityRenderer.blockSideFor(0.5));
+        assertEquals(4, DensityRenderer.blockSideFor(0.3));
+    }
+
+    @Test
+    public void testBlocksCoverTheWholeGrid() {
+        DensityRenderer r = new DensityRenderer(10, 7, 3);
+        assertEquals(3, r.getBlockCols());
+        assertEquals(4, r.getBlockRows());
+    }
+
+    @Test
+    public void testEmptyGridIsBackground() throws LifeException {
+        WorldSnapshot s = snapshotOf(6, 6, 0, 0, 0);
+        DensityRenderer r = new DensityRenderer(6, 6, 2);
+        assertEquals(9, r.update(s));
+        for (int by = 0; by < r.getBlockRows(); by++)
+            for (int bx = 0; bx < r.getBlockCols(); bx++)
+                assertEquals(DensityColorMap.argb(0, 0, 0), r.getPixel(bx, by));
+    }
+
+    @Test
+    public void testOnlyDirtyBlocksAreRecomputed() throws LifeException {
+        WorldSnapshot s = snapshotOf(6, 6, 2, 2, 2);
+        DensityRenderer r = new DensityRenderer(6, 6, 2);
+        r.update(s);
+        assertEquals(0, r.update(s));
+
+        r.markCell(s.index(5, 5));
+        r.markCell(s.index(4, 4)); // same block
+        r.markCell(s.index(0, 0));
+        assertEquals(2, r.update(s));
+    }
+
+    @Test
+    public void testFullGridOfWolvesIsWolfColored() throws LifeException {
+        WorldSnapshot s = snapshotOf(2, 2, 20, 0, 0);
+        DensityRenderer r = new DensityRenderer(2, 2, 2);
+        r.update(s);
+        assertEquals(DensityColorMap.argb(0, 0, 1), r.getPixel(0, 0));
+    }
+
+    @Test
+    public void testCellsOutsideOfTheRegionAreIgnored() throws LifeException {
+        WorldSnapshot s = snapshotOf(10, 10, 0, 0, 0);
+        DensityRenderer r = new DensityRenderer(10, 10, 2, 4, 2, 9, 6);
+        assertEquals(3, r.getBlockCols());
+        assertEquals(2, r.getBlockRows());
+        assertEquals(6, r.update(s));
+
+        r.markCell(s.index(0, 0));
+        r.markCell(s.index(9, 3));
+        assertEquals(0, r.update(s));
+        r.markCell(s.index(8, 5));
+        r.markCell(s.index(4, 2));
+        assertEquals(2, r.update(s));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegionMustBeInTheGrid() {
+        new DensityRenderer(10, 10, 2, 0, 0, 11, 10);
+    }
+}
@@ -1,7 +1,12 @@
 package gui;
 
+import core.RateGovernor;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.Assert.*;
 
 /**
@@ -45,6 +50,14 @@ public class RootControllerTest {
     }
 
 
+    @Test
+    public void testSnapshotIntervalFollowsTheRate() {
+        assertEquals(1, RootController.calculateSnapshotInterval(1));
+        assertEquals(1, RootController.calculateSnapshotInterval(60));
+        assertEquals(100, RootController.calculateSnapshotInterval(6000));
+        assertEquals(10000, RootController.calculateSnapshotInterval(RateGovernor.MAX_RATE));
+    }
+
     @Test
     public void testSetFrequency() {
         RootController controller = new RootController();
@@ -52,5 +65,27 @@ public class RootControllerTest {
         controller.setFrequency(0.5);
     }
 
+    @Test
+    public void testSpeedIsTheInverseOfTheRate() {
+        for (double speed : new double[] {0.0, 0.25, 0.5, 0.99, 1.0})
+            assertEquals(speed, RootController.calculateSpeedFromRate(RootController.calculateRateFromSpeed(speed)), 1e-9);
+        assertEquals(0.0, RootController.calculateSpeedFromRate(0.01), 0);
+        assertEquals(1.0, RootController.calculateSpeedFromRate(1e12), 0);
+    }
 
-}
\ No newline at end of file
+    @Test
+    public void testStateListenerIsToldOfEveryChange() {
+        RootController controller = new RootController();
+        List<State> states = new ArrayList<>();
+        List<Double> rates = new ArrayList<>();
+        controller.setStateListener(() -> {
+            states.add(controller.getState());
+            rates.add(controller.getRate());
+        });
+
+        controller.setFrequency(0.5);
+        controller.pause();
+        assertEquals(Arrays.asList(State.STOPPED, State.PAUSED), states);
+        assertEquals(RootController.calculateRateFromSpeed(0.5), rates.get(1), 0);
+    }
+}
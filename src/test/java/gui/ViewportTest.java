@@ -0,0 +1,89 @@
+package gui;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ViewportTest {
+
+    private static final double EPS = 1e-9;
+
+    @Test
+    public void testStartsShowingTheWholeGrid() {
+        Viewport v = new Viewport(100, 80, 800, 800);
+        assertEquals(8, v.getCellSide(), EPS);
+        assertEquals(80, v.getOriginX(), EPS);   // centered horizontally
+        assertEquals(0, v.getOriginY(), EPS);
+        assertEquals(0, v.getFirstCol());
+        assertEquals(80, v.getEndCol());
+        assertEquals(0, v.getFirstRow());
+        assertEquals(100, v.getEndRow());
+        assertEquals(8000, v.visibleCells());
+    }
+
+    @Test
+    public void testCannotZoomOutPastTheWholeGrid() {
+        Viewport v = new Viewport(10, 10, 100, 100);
+        assertSame(v, v.zoom(0.5, 50, 50));
+        assertSame(v, v.pan(30, -30));
+    }
+
+    @Test
+    public void testZoomKeepsThePointUnderTheMouse() {
+        Viewport v = new Viewport(100, 100, 100, 100);
+        Viewport z = v.zoom(4, 25, 75);
+        assertEquals(4, z.getCellSide(), EPS);
+        // grid point (25, 75) stays at (25, 75) in the view
+        assertEquals(25, z.getOriginX() + 25 * z.getCellSide(), EPS);
+        assertEquals(75, z.getOriginY() + 75 * z.getCellSide(), EPS);
+        assertEquals(18, z.getFirstCol());      // 25 - 25 / 4 rounded down
+        assertEquals(44, z.getEndCol());
+        assertEquals(56, z.getFirstRow());      // 75 - 75 / 4 rounded down
+        assertEquals(82, z.getEndRow());
+    }
+
+    @Test
+    public void testZoomIsBounded() {
+        Viewport v = new Viewport(5000, 5000, 500, 500).zoom(1e9, 0, 0);
+        assertEquals(Viewport.MAX_CELL_SIDE, v.getCellSide(), EPS);
+        assertTrue(v.visibleCells() <= 9 * 9);
+    }
+
+    @Test
+    public void testPanStaysWithinTheGrid() {
+        Viewport v = new Viewport(100, 100, 100, 100).zoom(10, 0, 0);
+        assertEquals(0, v.getFirstCol());
+
+        Viewport p = v.pan(-55, -1e6);
+        assertEquals(-55, p.getOriginX(), EPS);
+        assertEquals(5, p.getFirstCol());
+        assertEquals(16, p.getEndCol());    // cells 5 and 15 are partly visible
+        assertEquals(90, p.getFirstRow());
+        assertEquals(100, p.getEndRow());
+
+        assertEquals(0, p.pan(1e6, 0).getOriginX(), EPS);
+    }
+
+    @Test
+    public void testIsVisible() {
+        Viewport v = new Viewport(100, 100, 100, 100).zoom(10, 0, 0).pan(-100, -200);
+        assertTrue(v.isVisible(10, 20));
+        assertTrue(v.isVisible(19, 29));
+        assertFalse(v.isVisible(9, 20));
+        assertFalse(v.isVisible(20, 20));
+        assertTrue(v.isVisible(20 * 100 + 10));
+        assertFalse(v.isVisible(30 * 100 + 10));
+        assertEquals(0, v.screenX(10), EPS);
+        assertEquals(0, v.screenY(20), EPS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidZoomFactor() {
+        new Viewport(10, 10, 100, 100).zoom(0, 0, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidDimensions() {
+        new Viewport(10, 10, 0, 100);
+    }
+}